@@ -0,0 +1,74 @@
+package com.banquito.originacion.analisis.analitica;
+
+// Histograma logarítmico de duraciones en segundos: cuatro cubetas por potencia de 2, por lo que un percentil
+// estimado queda dentro del ~19 % del valor real y los resúmenes de distintos días se combinan sumando cubetas
+public class HistogramaDuraciones {
+
+    public static final int CUBETAS_POR_OCTAVA = 4;
+    // 2^40 segundos cubre cualquier duración realista
+    public static final int CUBETAS = 40 * CUBETAS_POR_OCTAVA;
+
+    private final long[] cantidades = new long[CUBETAS];
+    private long total;
+    private long duracionTotalSegundos;
+
+    public static int cubeta(long segundos) {
+        if (segundos <= 0) {
+            return 0;
+        }
+        int cubeta = (int) Math.floor(CUBETAS_POR_OCTAVA * Math.log1p(segundos) / Math.log(2));
+        return Math.min(cubeta, CUBETAS - 1);
+    }
+
+    // Límite inferior (inclusivo) en segundos de la cubeta
+    public static double limiteInferior(int cubeta) {
+        return Math.pow(2, (double) cubeta / CUBETAS_POR_OCTAVA) - 1;
+    }
+
+    public void agregar(int cubeta, long cantidad, long duracionTotalSegundos) {
+        cantidades[cubeta] += cantidad;
+        this.total += cantidad;
+        this.duracionTotalSegundos += duracionTotalSegundos;
+    }
+
+    public void agregar(HistogramaDuraciones otro) {
+        for (int i = 0; i < CUBETAS; i++) {
+            cantidades[i] += otro.cantidades[i];
+        }
+        this.total += otro.total;
+        this.duracionTotalSegundos += otro.duracionTotalSegundos;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public double getPromedioSegundos() {
+        return total == 0 ? 0 : (double) duracionTotalSegundos / total;
+    }
+
+    // Interpola linealmente dentro de la cubeta que contiene el rango buscado
+    public double percentil(double cuantil) {
+        if (cuantil < 0 || cuantil > 1) {
+            throw new IllegalArgumentException("El cuantil debe estar entre 0 y 1");
+        }
+        if (total == 0) {
+            return 0;
+        }
+        double rango = cuantil * total;
+        long acumulado = 0;
+        for (int i = 0; i < CUBETAS; i++) {
+            long cantidad = cantidades[i];
+            if (cantidad == 0) {
+                continue;
+            }
+            if (acumulado + cantidad >= rango) {
+                double inferior = limiteInferior(i);
+                double superior = i == 0 ? 0 : limiteInferior(i + 1);
+                return inferior + (superior - inferior) * (rango - acumulado) / cantidad;
+            }
+            acumulado += cantidad;
+        }
+        return limiteInferior(CUBETAS);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,15 @@
+package com.banquito.originacion.analisis.analitica;
+
+import java.time.LocalDate;
+
+import com.banquito.originacion.analisis.enums.EstadoHistorialEnum;
+
+// Fila del resumen diario (o su diferencia al reprocesar una solicitud); dia es null en los resúmenes por rango
+public record ResumenTransicion(
+        LocalDate dia,
+        EstadoHistorialEnum estadoDesde,
+        EstadoHistorialEnum estadoHacia,
+        int cubeta,
+        long cantidad,
+        long duracionTotalSegundos) {
+}
\ No newline at end of file
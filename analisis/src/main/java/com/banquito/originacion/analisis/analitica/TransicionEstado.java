@@ -0,0 +1,19 @@
+package com.banquito.originacion.analisis.analitica;
+
+import java.time.LocalDate;
+
+import com.banquito.originacion.analisis.enums.EstadoHistorialEnum;
+
+// Paso de una solicitud de estadoDesde a estadoHacia; la duración es el tiempo que permaneció en estadoDesde
+public record TransicionEstado(
+        Integer idHistorial,
+        Integer idSolicitud,
+        LocalDate dia,
+        EstadoHistorialEnum estadoDesde,
+        EstadoHistorialEnum estadoHacia,
+        long duracionSegundos) {
+
+    public int cubeta() {
+        return HistogramaDuraciones.cubeta(duracionSegundos);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,92 @@
+package com.banquito.originacion.analisis.archivo;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+// Archivos de los meses archivados en disco local. Con varias instancias el directorio debe ser compartido:
+// cualquiera de ellas puede recibir la lectura de una solicitud archivada
+@Component
+public class ArchivoHistorico {
+
+    private static final Logger log = LoggerFactory.getLogger(ArchivoHistorico.class);
+
+    private final Path directorio;
+
+    public ArchivoHistorico(@Value("${analisis.archivo.directorio:archivo}") String directorio) {
+        this.directorio = Path.of(directorio).toAbsolutePath();
+        log.info("ArchivoHistorico initialized. Directory: {}", this.directorio);
+    }
+
+    // Ruta relativa al directorio: es la que se guarda en particion_archivada, así el directorio puede moverse completo
+    public String nombre(TablaParticionada tabla, LocalDate mes) {
+        return tabla.nombre() + "/" + tabla.particion(mes) + ".ndjson.gz";
+    }
+
+    // Se escribe en un temporal; el nombre definitivo aparece recién con publicar
+    public EscritorArchivo crear(String nombre) throws IOException {
+        Path temporal = directorio.resolve(nombre + ".tmp");
+        Files.createDirectories(temporal.getParent());
+        return new EscritorArchivo(temporal);
+    }
+
+    public void publicar(EscritorArchivo escritor, String nombre) throws IOException {
+        Files.move(escritor.ruta(), directorio.resolve(nombre), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    public void descartar(EscritorArchivo escritor) {
+        eliminar(escritor.ruta());
+    }
+
+    public void eliminar(String nombre) {
+        eliminar(directorio.resolve(nombre));
+    }
+
+    // Líneas JSON de una solicitud: solo se leen y descomprimen los bytes de su miembro gzip
+    public List<String> leer(UbicacionArchivo ubicacion) {
+        Path ruta = directorio.resolve(ubicacion.archivo());
+        ByteBuffer buffer = ByteBuffer.allocate(ubicacion.longitud());
+        try {
+            try (FileChannel canal = FileChannel.open(ruta, StandardOpenOption.READ)) {
+                while (buffer.hasRemaining()) {
+                    if (canal.read(buffer, ubicacion.desplazamiento() + buffer.position()) < 0) {
+                        throw new EOFException("El archivo " + ruta + " es más corto que el índice");
+                    }
+                }
+            }
+            try (BufferedReader lector = new BufferedReader(new InputStreamReader(
+                    new GZIPInputStream(new ByteArrayInputStream(buffer.array())), StandardCharsets.UTF_8))) {
+                return lector.lines().toList();
+            }
+        } catch (IOException ex) {
+            log.error("Could not read archived rows from {} at offset {}: {}", ruta, ubicacion.desplazamiento(), ex.getMessage());
+            throw new UncheckedIOException("No se pudo leer el archivo " + ruta, ex);
+        }
+    }
+
+    private void eliminar(Path ruta) {
+        try {
+            Files.deleteIfExists(ruta);
+        } catch (IOException ex) {
+            log.warn("Could not delete archive file {}: {}", ruta, ex.getMessage());
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,100 @@
+package com.banquito.originacion.analisis.archivo;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+// Archivo NDJSON de una partición. Las filas llegan agrupadas por solicitud y cada grupo se comprime como un miembro
+// gzip independiente: el archivo completo sigue siendo un gzip válido y una solicitud se lee descomprimiendo solo
+// sus bytes (desplazamiento y longitud quedan en solicitud_archivada)
+public final class EscritorArchivo implements Closeable {
+
+    private final Path ruta;
+    private final FileOutputStream archivo;
+    private final OutputStream salida;
+    private final ByteArrayOutputStream miembro = new ByteArrayOutputStream(8192);
+    private final List<SolicitudEnArchivo> solicitudes = new ArrayList<>();
+
+    private GZIPOutputStream gzip;
+    private int idSolicitud;
+    private int filasSolicitud;
+    private long bytes;
+    private long filas;
+    private long sumaIds;
+    private long sumaVersiones;
+
+    EscritorArchivo(Path ruta) throws IOException {
+        this.ruta = ruta;
+        this.archivo = new FileOutputStream(ruta.toFile());
+        this.salida = new BufferedOutputStream(archivo, 65536);
+    }
+
+    public void escribir(FilaArchivo fila) {
+        try {
+            if (gzip == null || fila.idSolicitud() != idSolicitud) {
+                cerrarMiembro();
+                idSolicitud = fila.idSolicitud();
+                gzip = new GZIPOutputStream(miembro);
+            }
+            gzip.write(fila.json().getBytes(StandardCharsets.UTF_8));
+            gzip.write('\n');
+            filasSolicitud++;
+            filas++;
+            sumaIds += fila.id();
+            sumaVersiones += fila.version();
+        } catch (IOException ex) {
+            throw new UncheckedIOException("No se pudo escribir el archivo " + ruta, ex);
+        }
+    }
+
+    // Completa el último miembro y fuerza el archivo a disco antes de eliminar la partición
+    public void terminar() throws IOException {
+        cerrarMiembro();
+        salida.flush();
+        archivo.getChannel().force(true);
+    }
+
+    private void cerrarMiembro() throws IOException {
+        if (gzip == null) {
+            return;
+        }
+        // close y no finish: libera el Deflater nativo de cada miembro (cerrar el ByteArrayOutputStream no tiene efecto)
+        gzip.close();
+        gzip = null;
+        miembro.writeTo(salida);
+        solicitudes.add(new SolicitudEnArchivo(idSolicitud, bytes, miembro.size(), filasSolicitud));
+        bytes += miembro.size();
+        miembro.reset();
+        filasSolicitud = 0;
+    }
+
+    Path ruta() {
+        return ruta;
+    }
+
+    public List<SolicitudEnArchivo> solicitudes() {
+        return solicitudes;
+    }
+
+    public long bytes() {
+        return bytes;
+    }
+
+    public HuellaParticion huella() {
+        return new HuellaParticion(filas, sumaIds, sumaVersiones);
+    }
+
+    @Override
+    public void close() throws IOException {
+        salida.close();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,6 @@
+package com.banquito.originacion.analisis.archivo;
+
+// Fila de una partición tal como se escribe en el archivo: la solicitud agrupa las filas y el id y la versión
+// alimentan la huella que se compara antes de eliminar la partición
+public record FilaArchivo(int idSolicitud, int id, long version, String json) {
+}
\ No newline at end of file
@@ -0,0 +1,5 @@
+package com.banquito.originacion.analisis.archivo;
+
+// Cambia con cualquier alta, baja o edición en la partición (toda edición incrementa la versión)
+public record HuellaParticion(long filas, long sumaIds, long sumaVersiones) {
+}
\ No newline at end of file
@@ -0,0 +1,5 @@
+package com.banquito.originacion.analisis.archivo;
+
+// Miembro gzip con las filas de una solicitud dentro del archivo de un mes
+public record SolicitudEnArchivo(int idSolicitud, long desplazamiento, int longitud, int filas) {
+}
\ No newline at end of file
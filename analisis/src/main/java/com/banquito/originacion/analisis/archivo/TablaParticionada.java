@@ -0,0 +1,63 @@
+package com.banquito.originacion.analisis.archivo;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+// Tablas particionadas por mes sobre fecha_hora (V8). Cada fila se archiva como el JSON de su vista, con la fecha
+// en ISO y todos sus decimales para que el orden por (fecha_hora, id) se conserve al leerla desde el archivo
+public enum TablaParticionada {
+
+    HISTORIAL_ESTADOS("historial_estados", "id_historial",
+            "json_build_object('idHistorial', id_historial, 'idSolicitud', id_solicitud, 'estado', estado, "
+                    + "'fechaHora', fecha_hora, 'usuario', usuario, 'motivo', motivo, 'version', version)"),
+    OBSERVACION_ANALISTAS("observacion_analistas", "id_observacion_analista",
+            "json_build_object('idObservacionAnalista', id_observacion_analista, 'idSolicitud', id_solicitud, "
+                    + "'usuario', usuario, 'fechaHora', fecha_hora, 'razonIntervencion', razon_intervencion, 'version', version)");
+
+    private static final DateTimeFormatter SUFIJO_MES = DateTimeFormatter.ofPattern("yyyy_MM");
+
+    private final String nombre;
+    private final String columnaId;
+    private final String json;
+
+    TablaParticionada(String nombre, String columnaId, String json) {
+        this.nombre = nombre;
+        this.columnaId = columnaId;
+        this.json = json;
+    }
+
+    public String nombre() {
+        return nombre;
+    }
+
+    public String columnaId() {
+        return columnaId;
+    }
+
+    public String json() {
+        return json;
+    }
+
+    // Mismo nombre que genera analisis_creditos.crear_particion_mensual
+    public String particion(LocalDate mes) {
+        return nombre + "_" + SUFIJO_MES.format(mes);
+    }
+
+    public String particionPorDefecto() {
+        return nombre + "_default";
+    }
+
+    // Mes de una partición mensual de la tabla; null para la partición por defecto u otro nombre
+    public LocalDate mes(String particion) {
+        String prefijo = nombre + "_";
+        if (!particion.startsWith(prefijo) || particion.length() != prefijo.length() + 7) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(particion.substring(prefijo.length()) + "_01", DateTimeFormatter.ofPattern("yyyy_MM_dd"));
+        } catch (DateTimeParseException ex) {
+            return null;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,6 @@
+package com.banquito.originacion.analisis.archivo;
+
+import java.time.LocalDate;
+
+public record UbicacionArchivo(LocalDate mes, String archivo, long desplazamiento, int longitud) {
+}
\ No newline at end of file
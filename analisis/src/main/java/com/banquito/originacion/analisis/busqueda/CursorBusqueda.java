@@ -0,0 +1,54 @@
+package com.banquito.originacion.analisis.busqueda;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+import com.banquito.originacion.analisis.enums.OrdenBusquedaEnum;
+import com.banquito.originacion.analisis.exception.InvalidCursorException;
+
+// Último resultado entregado: su clave de orden y su id. La relevancia viaja con todos sus dígitos
+// (Float.toString la reproduce exacta), así la comparación de filas retoma justo después de él
+public record CursorBusqueda(OrdenBusquedaEnum orden, float relevancia, LocalDateTime fechaHora, Integer idObservacionAnalista) {
+
+    private static final String VERSION_CURSOR = "b1";
+    private static final String SEPARADOR = "|";
+
+    public static CursorBusqueda of(OrdenBusquedaEnum orden, ObservacionEncontrada resultado) {
+        return new CursorBusqueda(orden, resultado.relevancia(), resultado.observacion().fechaHora(),
+                resultado.observacion().idObservacionAnalista());
+    }
+
+    public static CursorBusqueda decodificar(String cursor, OrdenBusquedaEnum orden) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        String[] partes;
+        try {
+            partes = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\" + SEPARADOR, -1);
+        } catch (IllegalArgumentException ex) {
+            throw new InvalidCursorException("El cursor no es válido");
+        }
+        if (partes.length != 4 || !VERSION_CURSOR.equals(partes[0])) {
+            throw new InvalidCursorException("El cursor no es válido");
+        }
+        if (!orden.name().equals(partes[1])) {
+            throw new InvalidCursorException("El cursor fue generado con otro ordenamiento");
+        }
+        try {
+            Integer id = Integer.valueOf(partes[3]);
+            return orden == OrdenBusquedaEnum.FECHA
+                    ? new CursorBusqueda(orden, 0, LocalDateTime.parse(partes[2]), id)
+                    : new CursorBusqueda(orden, Float.parseFloat(partes[2]), null, id);
+        } catch (DateTimeParseException | NumberFormatException ex) {
+            throw new InvalidCursorException("El cursor no es válido");
+        }
+    }
+
+    public String codificar() {
+        String clave = orden == OrdenBusquedaEnum.FECHA ? fechaHora.toString() : Float.toString(relevancia);
+        String valor = String.join(SEPARADOR, VERSION_CURSOR, orden.name(), clave, String.valueOf(idObservacionAnalista));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(valor.getBytes(StandardCharsets.UTF_8));
+    }
+}
\ No newline at end of file
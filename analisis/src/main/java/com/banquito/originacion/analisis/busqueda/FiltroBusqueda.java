@@ -0,0 +1,8 @@
+package com.banquito.originacion.analisis.busqueda;
+
+import java.time.LocalDateTime;
+
+// Texto en la sintaxis de websearch_to_tsquery ("frase exacta", -excluir, or) y filtros opcionales;
+// desde es inclusiva y hasta exclusiva, como en la exportación
+public record FiltroBusqueda(String texto, Integer idSolicitud, String usuario, LocalDateTime desde, LocalDateTime hasta) {
+}
\ No newline at end of file
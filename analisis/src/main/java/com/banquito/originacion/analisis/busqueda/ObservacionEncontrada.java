@@ -0,0 +1,13 @@
+package com.banquito.originacion.analisis.busqueda;
+
+import com.banquito.originacion.analisis.vista.ObservacionAnalistasVista;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Observación que coincide con la búsqueda")
+public record ObservacionEncontrada(
+        @Schema(description = "Observación encontrada")
+        ObservacionAnalistasVista observacion,
+        @Schema(description = "Relevancia según ts_rank_cd; los resultados se ordenan de mayor a menor", example = "0.2")
+        float relevancia) {
+}
\ No newline at end of file
@@ -0,0 +1,37 @@
+package com.banquito.originacion.analisis.cache;
+
+import java.time.LocalDateTime;
+
+import com.banquito.originacion.analisis.enums.EstadoHistorialEnum;
+import com.banquito.originacion.analisis.model.HistorialEstados;
+import com.banquito.originacion.analisis.model.SolicitudEstadoActual;
+
+public record EstadoActual(
+        Integer idHistorial,
+        EstadoHistorialEnum estado,
+        long version,
+        LocalDateTime fechaHora) {
+
+    public static EstadoActual of(HistorialEstados historial) {
+        return new EstadoActual(
+                historial.getIdHistorial(),
+                historial.getEstado(),
+                historial.getVersion(),
+                historial.getFechaHora());
+    }
+
+    public static EstadoActual of(SolicitudEstadoActual estadoActual) {
+        return new EstadoActual(
+                estadoActual.getIdHistorial(),
+                estadoActual.getEstado(),
+                estadoActual.getVersion(),
+                estadoActual.getFechaHora());
+    }
+
+    public boolean isNotOlderThan(EstadoActual other) {
+        if (other == null || other.fechaHora() == null) {
+            return true;
+        }
+        return this.fechaHora != null && !this.fechaHora.isBefore(other.fechaHora());
+    }
+}
@@ -0,0 +1,183 @@
+package com.banquito.originacion.analisis.cache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+@Component
+public class EstadoActualCache {
+
+    private static final Logger log = LoggerFactory.getLogger(EstadoActualCache.class);
+
+    // Potencia de dos: la franja de una solicitud se obtiene con una máscara
+    private static final int FRANJAS_GENERACION = 4096;
+
+    private final boolean enabled;
+    private final int maxSize;
+    private final Map<Integer, EstadoActual> entries;
+    // Generación por franja de solicitudes, protegida por el mismo monitor que entries. Cada invalidación la
+    // incrementa y put descarta un estado leído con una generación anterior: una lectura que empezó antes de
+    // una edición o un borrado no puede volver a guardar el estado que esa escritura reemplazó
+    private final long[] generaciones = new long[FRANJAS_GENERACION];
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong puts = new AtomicLong();
+
+    public EstadoActualCache(
+            @Value("${analisis.cache.estado-actual.enabled:true}") boolean enabled,
+            @Value("${analisis.cache.estado-actual.max-size:10000}") int maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("El tamaño máximo de la caché debe ser mayor a cero");
+        }
+        this.enabled = enabled;
+        this.maxSize = maxSize;
+        // Orden de acceso: la entrada menos usada recientemente es la primera en ser desalojada
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, EstadoActual> eldest) {
+                if (size() > EstadoActualCache.this.maxSize) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+        log.info("EstadoActualCache initialized. Enabled: {}, MaxSize: {}", enabled, maxSize);
+    }
+
+    public Optional<EstadoActual> get(Integer idSolicitud) {
+        if (!enabled || idSolicitud == null) {
+            return Optional.empty();
+        }
+        EstadoActual estado;
+        synchronized (entries) {
+            estado = entries.get(idSolicitud);
+        }
+        if (estado == null) {
+            misses.incrementAndGet();
+            return Optional.empty();
+        }
+        hits.incrementAndGet();
+        return Optional.of(estado);
+    }
+
+    // Se toma antes de leer el estado de la base y se entrega a put junto con lo leído
+    public long generacion(Integer idSolicitud) {
+        if (idSolicitud == null) {
+            return 0;
+        }
+        synchronized (entries) {
+            return generaciones[franja(idSolicitud)];
+        }
+    }
+
+    public void put(Integer idSolicitud, EstadoActual estado, long generacion) {
+        if (!enabled || idSolicitud == null || estado == null) {
+            return;
+        }
+        synchronized (entries) {
+            // Hubo una invalidación desde que se tomó la generación: lo leído puede ser el estado invalidado
+            if (generaciones[franja(idSolicitud)] != generacion) {
+                return;
+            }
+            // Nunca reemplazar un estado más reciente por uno leído antes de una escritura concurrente
+            EstadoActual actual = entries.get(idSolicitud);
+            if (estado.isNotOlderThan(actual)) {
+                entries.put(idSolicitud, estado);
+                puts.incrementAndGet();
+            }
+        }
+    }
+
+    public void invalidate(Integer idSolicitud) {
+        if (!enabled || idSolicitud == null) {
+            return;
+        }
+        synchronized (entries) {
+            generaciones[franja(idSolicitud)]++;
+            entries.remove(idSolicitud);
+        }
+    }
+
+    // La generación se toma al registrar: si otra escritura invalida la solicitud antes del commit, no se guarda
+    public void putAfterCommit(Integer idSolicitud, EstadoActual estado) {
+        long generacion = generacion(idSolicitud);
+        runAfterCommit(() -> put(idSolicitud, estado, generacion));
+    }
+
+    public void invalidateAfterCommit(Integer idSolicitud) {
+        // Se invalida también de inmediato para que nadie lea el valor previo mientras la transacción está abierta
+        invalidate(idSolicitud);
+        runAfterCommit(() -> invalidate(idSolicitud));
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            for (int i = 0; i < generaciones.length; i++) {
+                generaciones[i]++;
+            }
+            entries.clear();
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    public long getPuts() {
+        return puts.get();
+    }
+
+    private static int franja(Integer idSolicitud) {
+        int hash = idSolicitud.hashCode();
+        return (hash ^ (hash >>> 16)) & (FRANJAS_GENERACION - 1);
+    }
+
+    private void runAfterCommit(Runnable action) {
+        if (!enabled) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.banquito.originacion.analisis.cache;
+
+import java.util.List;
+
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CacheMeterBinder;
+
+// Expone la caché con los nombres estándar de Micrometer (cache.gets, cache.puts, cache.evictions, cache.size)
+@Component
+public class EstadoActualCacheMetrics extends CacheMeterBinder<EstadoActualCache> {
+
+    public EstadoActualCacheMetrics(EstadoActualCache cache) {
+        super(cache, "estado-actual", List.of());
+    }
+
+    @Override
+    protected Long size() {
+        EstadoActualCache cache = getCache();
+        return cache == null ? null : (long) cache.size();
+    }
+
+    @Override
+    protected long hitCount() {
+        EstadoActualCache cache = getCache();
+        return cache == null ? 0 : cache.getHits();
+    }
+
+    @Override
+    protected Long missCount() {
+        EstadoActualCache cache = getCache();
+        return cache == null ? null : cache.getMisses();
+    }
+
+    @Override
+    protected Long evictionCount() {
+        EstadoActualCache cache = getCache();
+        return cache == null ? null : cache.getEvictions();
+    }
+
+    @Override
+    protected long putCount() {
+        EstadoActualCache cache = getCache();
+        return cache == null ? 0 : cache.getPuts();
+    }
+
+    @Override
+    protected void bindImplementationSpecificMetrics(MeterRegistry registry) {
+        Gauge.builder("cache.max.size", getCache(), EstadoActualCache::getMaxSize)
+                .tags(getTagsWithCacheName())
+                .description("Número máximo de entradas de la caché")
+                .register(registry);
+    }
+}
@@ -0,0 +1,21 @@
+package com.banquito.originacion.analisis.cache;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.CharacterEscapes;
+
+// Lo que cambia los bytes de un fragmento: características del generador (p. ej. ESCAPE_NON_ASCII), el mayor
+// carácter sin escapar y los escapes propios configurados en el factory o en el ObjectWriter
+record FormatoJson(int caracteristicas, int maximoSinEscapar, CharacterEscapes escapes) {
+
+    static FormatoJson de(JsonGenerator generador) {
+        return new FormatoJson(generador.getFeatureMask(), generador.getHighestEscapedChar(), generador.getCharacterEscapes());
+    }
+
+    void aplicar(JsonGenerator generador) {
+        generador.overrideStdFeatures(caracteristicas, -1);
+        generador.setHighestNonEscapedChar(maximoSinEscapar);
+        if (escapes != null) {
+            generador.setCharacterEscapes(escapes);
+        }
+    }
+}
\ No newline at end of file
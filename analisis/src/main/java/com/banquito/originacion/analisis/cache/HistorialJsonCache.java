@@ -0,0 +1,155 @@
+package com.banquito.originacion.analisis.cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+// JSON de cada historial por (idHistorial, version). Los historiales casi nunca cambian después de insertarse,
+// así que el mismo fragmento se reutiliza en listados, cursores y línea de tiempo. El límite es en bytes
+@Component
+public class HistorialJsonCache {
+
+    private static final Logger log = LoggerFactory.getLogger(HistorialJsonCache.class);
+
+    // Estimación de lo que ocupa cada entrada además del JSON: nodo del LinkedHashMap, Integer de la clave,
+    // FragmentoJson y cabecera del arreglo
+    private static final int SOBRECARGA_ENTRADA = 96;
+
+    private final boolean enabled;
+    private final long maxBytes;
+    // Orden de acceso: se desaloja primero la entrada usada hace más tiempo
+    private final LinkedHashMap<Integer, FragmentoJson> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long bytes;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong puts = new AtomicLong();
+
+    public HistorialJsonCache(
+            @Value("${analisis.cache.historial-json.enabled:true}") boolean enabled,
+            @Value("${analisis.cache.historial-json.max-bytes:16777216}") long maxBytes) {
+        if (maxBytes <= 0) {
+            throw new IllegalArgumentException("El tamaño máximo de la caché debe ser mayor a cero");
+        }
+        this.enabled = enabled;
+        this.maxBytes = maxBytes;
+        log.info("HistorialJsonCache initialized. Enabled: {}, MaxBytes: {}", enabled, maxBytes);
+    }
+
+    FragmentoJson get(Integer idHistorial, long version, FormatoJson formato) {
+        FragmentoJson fragmento;
+        synchronized (entries) {
+            fragmento = entries.get(idHistorial);
+        }
+        // Una versión o un formato distintos son otro contenido: la entrada se reemplaza al volver a serializar
+        if (fragmento == null || fragmento.version() != version || !fragmento.formato().equals(formato)) {
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        return fragmento;
+    }
+
+    void put(Integer idHistorial, FragmentoJson fragmento) {
+        long tamanio = tamanio(fragmento);
+        if (tamanio > maxBytes) {
+            return;
+        }
+        synchronized (entries) {
+            FragmentoJson anterior = entries.get(idHistorial);
+            // Una lectura anterior a una actualización no reemplaza la versión más reciente
+            if (anterior != null && anterior.version() > fragmento.version()) {
+                return;
+            }
+            entries.put(idHistorial, fragmento);
+            bytes += tamanio - (anterior == null ? 0 : tamanio(anterior));
+            Iterator<FragmentoJson> eldest = entries.values().iterator();
+            while (bytes > maxBytes) {
+                bytes -= tamanio(eldest.next());
+                eldest.remove();
+                evictions.incrementAndGet();
+            }
+        }
+        puts.incrementAndGet();
+    }
+
+    public void invalidate(Integer idHistorial) {
+        if (!enabled || idHistorial == null) {
+            return;
+        }
+        synchronized (entries) {
+            FragmentoJson anterior = entries.remove(idHistorial);
+            if (anterior != null) {
+                bytes -= tamanio(anterior);
+            }
+        }
+    }
+
+    public void invalidateAfterCommit(Integer idHistorial) {
+        // De inmediato y otra vez al confirmar: una lectura concurrente puede haber guardado la versión previa
+        invalidate(idHistorial);
+        if (enabled && TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidate(idHistorial);
+                }
+            });
+        }
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+            bytes = 0;
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public long getBytes() {
+        synchronized (entries) {
+            return bytes;
+        }
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    public long getPuts() {
+        return puts.get();
+    }
+
+    private static long tamanio(FragmentoJson fragmento) {
+        return fragmento.longitud() + SOBRECARGA_ENTRADA;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,62 @@
+package com.banquito.originacion.analisis.cache;
+
+import java.util.List;
+
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CacheMeterBinder;
+
+// Mismos nombres estándar que la caché del estado actual, más la memoria ocupada y su límite
+@Component
+public class HistorialJsonCacheMetrics extends CacheMeterBinder<HistorialJsonCache> {
+
+    public HistorialJsonCacheMetrics(HistorialJsonCache cache) {
+        super(cache, "historial-json", List.of());
+    }
+
+    @Override
+    protected Long size() {
+        HistorialJsonCache cache = getCache();
+        return cache == null ? null : (long) cache.size();
+    }
+
+    @Override
+    protected long hitCount() {
+        HistorialJsonCache cache = getCache();
+        return cache == null ? 0 : cache.getHits();
+    }
+
+    @Override
+    protected Long missCount() {
+        HistorialJsonCache cache = getCache();
+        return cache == null ? null : cache.getMisses();
+    }
+
+    @Override
+    protected Long evictionCount() {
+        HistorialJsonCache cache = getCache();
+        return cache == null ? null : cache.getEvictions();
+    }
+
+    @Override
+    protected long putCount() {
+        HistorialJsonCache cache = getCache();
+        return cache == null ? 0 : cache.getPuts();
+    }
+
+    @Override
+    protected void bindImplementationSpecificMetrics(MeterRegistry registry) {
+        Gauge.builder("cache.memory", getCache(), HistorialJsonCache::getBytes)
+                .tags(getTagsWithCacheName())
+                .description("Memoria estimada de las entradas: JSON más la sobrecarga de cada entrada")
+                .baseUnit("bytes")
+                .register(registry);
+        Gauge.builder("cache.max.memory", getCache(), HistorialJsonCache::getMaxBytes)
+                .tags(getTagsWithCacheName())
+                .description("Memoria máxima de la caché")
+                .baseUnit("bytes")
+                .register(registry);
+    }
+}
\ No newline at end of file
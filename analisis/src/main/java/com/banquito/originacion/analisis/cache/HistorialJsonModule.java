@@ -0,0 +1,98 @@
+package com.banquito.originacion.analisis.cache;
+
+import java.io.IOException;
+
+import org.springframework.stereotype.Component;
+
+import com.banquito.originacion.analisis.vista.HistorialEstadosVista;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.ObjectCodec;
+import com.fasterxml.jackson.core.util.ByteArrayBuilder;
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.BeanProperty;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializationConfig;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.BeanSerializerModifier;
+import com.fasterxml.jackson.databind.ser.ContextualSerializer;
+import com.fasterxml.jackson.databind.ser.ResolvableSerializer;
+
+// Spring Boot registra este módulo en el ObjectMapper de la aplicación: cada HistorialEstadosVista se escribe
+// desde HistorialJsonCache y solo se serializa con Jackson la primera vez que se ve su versión
+@Component
+public class HistorialJsonModule extends SimpleModule {
+
+    public HistorialJsonModule(HistorialJsonCache cache) {
+        super("HistorialJsonModule");
+        if (cache.isEnabled()) {
+            setSerializerModifier(new BeanSerializerModifier() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public JsonSerializer<?> modifySerializer(SerializationConfig config, BeanDescription beanDesc,
+                        JsonSerializer<?> serializer) {
+                    if (beanDesc.getBeanClass() == HistorialEstadosVista.class) {
+                        return new Serializer((JsonSerializer<Object>) serializer, cache);
+                    }
+                    return serializer;
+                }
+            });
+        }
+    }
+
+    private static final class Serializer extends JsonSerializer<HistorialEstadosVista>
+            implements ContextualSerializer, ResolvableSerializer {
+
+        private final JsonSerializer<Object> delegate;
+        private final HistorialJsonCache cache;
+
+        Serializer(JsonSerializer<Object> delegate, HistorialJsonCache cache) {
+            this.delegate = delegate;
+            this.cache = cache;
+        }
+
+        @Override
+        public void serialize(HistorialEstadosVista historial, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            ObjectCodec codec = gen.getCodec();
+            // Con sangría el fragmento dependería de la profundidad; sin codec no hay factory del cual crear el generador
+            if (codec == null || gen.getPrettyPrinter() != null) {
+                delegate.serialize(historial, gen, provider);
+                return;
+            }
+            FormatoJson formato = FormatoJson.de(gen);
+            FragmentoJson fragmento = cache.get(historial.idHistorial(), historial.version(), formato);
+            if (fragmento == null) {
+                ByteArrayBuilder buffer = new ByteArrayBuilder();
+                // El factory del ObjectMapper con el formato del generador de la respuesta: los bytes son los mismos
+                // que escribiría gen
+                try (JsonGenerator generador = codec.getFactory().createGenerator(buffer)) {
+                    formato.aplicar(generador);
+                    delegate.serialize(historial, generador, provider);
+                }
+                fragmento = new FragmentoJson(historial.version(), formato, buffer.toByteArray());
+                cache.put(historial.idHistorial(), fragmento);
+            }
+            gen.writeRawValue(fragmento);
+        }
+
+        @Override
+        public void resolve(SerializerProvider provider) throws JsonMappingException {
+            if (delegate instanceof ResolvableSerializer resolvable) {
+                resolvable.resolve(provider);
+            }
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public JsonSerializer<?> createContextual(SerializerProvider provider, BeanProperty property) throws JsonMappingException {
+            if (delegate instanceof ContextualSerializer contextual) {
+                JsonSerializer<?> contextualizado = contextual.createContextual(provider, property);
+                if (contextualizado != delegate) {
+                    return new Serializer((JsonSerializer<Object>) contextualizado, cache);
+                }
+            }
+            return this;
+        }
+    }
+}
\ No newline at end of file
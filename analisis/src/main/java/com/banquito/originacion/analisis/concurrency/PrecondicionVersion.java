@@ -0,0 +1,23 @@
+package com.banquito.originacion.analisis.concurrency;
+
+import java.util.List;
+
+import com.banquito.originacion.analisis.exception.PreconditionFailedException;
+
+// Versiones aceptadas por el cliente (If-Match). La actualización las usa en el WHERE del UPDATE; verificar solo se
+// consulta cuando no actualizó ninguna fila, para responder 412 en lugar de 409
+public record PrecondicionVersion(boolean exigida, List<Long> versiones) {
+
+    public static final PrecondicionVersion NINGUNA = new PrecondicionVersion(false, List.of());
+
+    public void verificar(long versionActual) {
+        if (!exigida) {
+            return;
+        }
+        if (versiones.contains(versionActual)) {
+            return;
+        }
+        throw new PreconditionFailedException("El registro fue modificado: la versión actual es "
+                + versionActual + " y no coincide con If-Match");
+    }
+}
\ No newline at end of file
@@ -0,0 +1,85 @@
+package com.banquito.originacion.analisis.concurrency;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.banquito.originacion.analisis.exception.ConcurrentTransitionException;
+
+@Component
+public class SolicitudLockManager {
+
+    private static final Logger log = LoggerFactory.getLogger(SolicitudLockManager.class);
+
+    // Espacio de nombres de los advisory locks de historial_estados (primer argumento de pg_advisory_xact_lock)
+    private static final int ADVISORY_LOCK_NAMESPACE = 0x48495354;
+
+    private final boolean enabled;
+    private final boolean advisory;
+    private final long timeoutMs;
+    private final StripedLock stripedLock;
+    private final JdbcTemplate jdbcTemplate;
+
+    public SolicitudLockManager(DataSource dataSource,
+            @Value("${analisis.historial.lock.enabled:true}") boolean enabled,
+            @Value("${analisis.historial.lock.stripes:256}") int stripes,
+            @Value("${analisis.historial.lock.timeout-ms:5000}") long timeoutMs,
+            @Value("${analisis.historial.lock.advisory:true}") boolean advisory) {
+        this.enabled = enabled;
+        this.advisory = advisory;
+        this.timeoutMs = timeoutMs;
+        this.stripedLock = new StripedLock(stripes);
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        log.info("SolicitudLockManager initialized. Enabled: {}, Stripes: {}, Advisory: {}", enabled, stripedLock.size(), advisory);
+    }
+
+    // Serializa las transiciones de las solicitudes hasta que termine la transacción actual:
+    // lock por franja dentro del nodo y advisory lock de PostgreSQL por solicitud entre nodos
+    public void lockForTransaction(Collection<Integer> idsSolicitud) {
+        if (!enabled || idsSolicitud.isEmpty()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("El bloqueo por solicitud requiere una transacción activa");
+        }
+        List<ReentrantLock> locks;
+        try {
+            locks = stripedLock.lockAll(idsSolicitud, timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new ConcurrentTransitionException("Se interrumpió la espera del bloqueo para las solicitudes " + idsSolicitud);
+        }
+        if (locks == null) {
+            log.warn("Timed out after {} ms waiting for lock on solicitudes {}", timeoutMs, idsSolicitud);
+            throw new ConcurrentTransitionException("Otra transición de la solicitud está en curso, intente nuevamente");
+        }
+        // Se libera al terminar la transacción (commit o rollback), en el mismo hilo que lo adquirió
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                stripedLock.unlockAll(locks);
+            }
+        });
+        if (advisory) {
+            for (Integer idSolicitud : new TreeSet<>(idsSolicitud)) {
+                jdbcTemplate.query("SELECT pg_advisory_xact_lock(?, ?)", rs -> { }, ADVISORY_LOCK_NAMESPACE, idSolicitud);
+            }
+        }
+    }
+
+    public void lockForTransaction(Integer idSolicitud) {
+        lockForTransaction(List.of(idSolicitud));
+    }
+}
@@ -0,0 +1,66 @@
+package com.banquito.originacion.analisis.concurrency;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+public class StripedLock {
+
+    private final ReentrantLock[] stripes;
+    private final int mask;
+
+    public StripedLock(int stripes) {
+        if (stripes <= 0) {
+            throw new IllegalArgumentException("La cantidad de franjas debe ser mayor a cero");
+        }
+        // Potencia de dos para calcular la franja con una máscara en lugar de un módulo
+        int size = stripes == 1 ? 1 : Integer.highestOneBit(stripes - 1) << 1;
+        this.stripes = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            this.stripes[i] = new ReentrantLock();
+        }
+        this.mask = size - 1;
+    }
+
+    public int size() {
+        return stripes.length;
+    }
+
+    public int stripeIndex(Integer key) {
+        int h = key.hashCode();
+        // Dispersión de bits para que ids consecutivos no caigan en franjas vecinas
+        h ^= (h >>> 16);
+        h *= 0x45d9f3b;
+        h ^= (h >>> 16);
+        return h & mask;
+    }
+
+    public List<ReentrantLock> lockAll(Collection<Integer> keys, long timeout, TimeUnit unit) throws InterruptedException {
+        // Orden global por índice de franja: dos lotes con solicitudes cruzadas no pueden bloquearse mutuamente
+        TreeSet<Integer> indices = new TreeSet<>();
+        for (Integer key : keys) {
+            indices.add(stripeIndex(key));
+        }
+        List<ReentrantLock> acquired = new ArrayList<>(indices.size());
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        for (Integer index : indices) {
+            ReentrantLock lock = stripes[index];
+            long remaining = deadline - System.nanoTime();
+            if (!lock.tryLock(Math.max(remaining, 0), TimeUnit.NANOSECONDS)) {
+                unlockAll(acquired);
+                return null;
+            }
+            acquired.add(lock);
+        }
+        return acquired;
+    }
+
+    public void unlockAll(List<ReentrantLock> locks) {
+        for (int i = locks.size() - 1; i >= 0; i--) {
+            locks.get(i).unlock();
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.banquito.originacion.analisis.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import com.banquito.originacion.analisis.service.AnaliticaEstadosService;
+
+// Aplica al resumen de analítica las solicitudes pendientes; con varias instancias basta habilitarlo en una
+@Configuration
+@EnableScheduling
+@ConditionalOnProperty(name = "analisis.analitica.programada", havingValue = "true", matchIfMissing = true)
+public class AnaliticaScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(AnaliticaScheduler.class);
+
+    private final AnaliticaEstadosService analiticaEstadosService;
+
+    public AnaliticaScheduler(AnaliticaEstadosService analiticaEstadosService) {
+        this.analiticaEstadosService = analiticaEstadosService;
+    }
+
+    @Scheduled(initialDelayString = "${analisis.analitica.intervalo-ms:30000}", fixedDelayString = "${analisis.analitica.intervalo-ms:30000}")
+    public void procesarPendientes() {
+        try {
+            analiticaEstadosService.procesarPendientes();
+        } catch (DataAccessException ex) {
+            // Las solicitudes del lote fallido siguen pendientes y se reintentan en la siguiente ejecución
+            log.warn("State analytics update failed, will retry: {}", ex.getMessage());
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,36 @@
+package com.banquito.originacion.analisis.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import com.banquito.originacion.analisis.service.OutboxService;
+
+// Relay del outbox de transiciones; entre instancias publica solo la que obtiene el advisory lock del relay
+@Configuration
+@EnableScheduling
+@ConditionalOnProperty(name = "analisis.outbox.relay.programado", havingValue = "true", matchIfMissing = true)
+public class OutboxScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxScheduler.class);
+
+    private final OutboxService outboxService;
+
+    public OutboxScheduler(OutboxService outboxService) {
+        this.outboxService = outboxService;
+    }
+
+    @Scheduled(initialDelayString = "${analisis.outbox.relay.intervalo-ms:1000}", fixedDelayString = "${analisis.outbox.relay.intervalo-ms:1000}")
+    public void publicarPendientes() {
+        try {
+            outboxService.publicarPendientes();
+        } catch (DataAccessException ex) {
+            // Lo ya publicado y no eliminado se vuelve a publicar en la siguiente ejecución
+            log.warn("Outbox relay failed, will retry: {}", ex.getMessage());
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,39 @@
+package com.banquito.originacion.analisis.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import com.banquito.originacion.analisis.service.ParticionesService;
+import com.banquito.originacion.analisis.service.ParticionesService.ResultadoMantenimiento;
+
+// Particiones de los próximos meses y archivo de los meses cerrados; como el DDL, en una sola instancia
+@Configuration
+@EnableScheduling
+@ConditionalOnProperty(name = "analisis.particiones.programada", havingValue = "true", matchIfMissing = true)
+public class ParticionesScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(ParticionesScheduler.class);
+
+    private final ParticionesService particionesService;
+
+    public ParticionesScheduler(ParticionesService particionesService) {
+        this.particionesService = particionesService;
+    }
+
+    @Scheduled(cron = "${analisis.particiones.cron:0 30 3 * * *}")
+    public void mantener() {
+        try {
+            ResultadoMantenimiento resultado = particionesService.mantener();
+            log.info("Partition maintenance finished. Created: {}, Archived: {}, Failed: {}", resultado.particionesCreadas(),
+                    resultado.particionesArchivadas(), resultado.particionesFallidas());
+        } catch (DataAccessException ex) {
+            // Las particiones faltantes y los meses pendientes de archivo se retoman en la siguiente ejecución
+            log.warn("Partition maintenance failed, will retry: {}", ex.getMessage());
+        }
+    }
+}
\ No newline at end of file
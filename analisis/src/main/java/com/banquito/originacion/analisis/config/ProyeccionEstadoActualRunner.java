@@ -0,0 +1,30 @@
+package com.banquito.originacion.analisis.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.banquito.originacion.analisis.service.SolicitudEstadoActualService;
+
+// Reconstrucción desde línea de comandos: --analisis.proyeccion.estado-actual.reconstruir=true
+@Component
+@ConditionalOnProperty(name = "analisis.proyeccion.estado-actual.reconstruir", havingValue = "true")
+public class ProyeccionEstadoActualRunner implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(ProyeccionEstadoActualRunner.class);
+
+    private final SolicitudEstadoActualService solicitudEstadoActualService;
+
+    public ProyeccionEstadoActualRunner(SolicitudEstadoActualService solicitudEstadoActualService) {
+        this.solicitudEstadoActualService = solicitudEstadoActualService;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        log.info("Rebuilding solicitud_estado_actual projection on startup.");
+        solicitudEstadoActualService.reconstruir();
+    }
+}
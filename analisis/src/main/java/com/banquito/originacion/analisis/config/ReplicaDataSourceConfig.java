@@ -0,0 +1,80 @@
+package com.banquito.originacion.analisis.config;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+import com.banquito.originacion.analisis.replica.MonitorRetrasoReplica;
+import com.banquito.originacion.analisis.replica.ReplicaRoutingDataSource;
+import com.banquito.originacion.analisis.replica.RuteoReplica;
+import com.zaxxer.hikari.HikariDataSource;
+
+// Primaria (spring.datasource.*) para escrituras y réplica (analisis.datasource.replica.*) para las transacciones
+// readOnly. Sin esta configuración Spring Boot crea el único pool de siempre
+@Configuration
+@EnableScheduling
+@ConditionalOnProperty(name = "analisis.datasource.replica.enabled", havingValue = "true")
+public class ReplicaDataSourceConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaDataSourceConfig.class);
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primariaDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primaria");
+        return dataSource;
+    }
+
+    // defaultCandidate = false: las inyecciones sin calificador siguen recibiendo las propiedades de spring.datasource
+    @Bean(defaultCandidate = false)
+    @ConfigurationProperties("analisis.datasource.replica")
+    public DataSourceProperties replicaDataSourceProperties() {
+        return new DataSourceProperties();
+    }
+
+    @Bean
+    @ConfigurationProperties("analisis.datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(@Qualifier("replicaDataSourceProperties") DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("replica");
+        return dataSource;
+    }
+
+    // La conexión real se pide en la primera sentencia, cuando la transacción ya marcó la conexión como readOnly:
+    // así se elige la base por transacción y no por request
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primariaDataSource") DataSource primaria,
+            @Qualifier("replicaDataSource") DataSource replica, RuteoReplica ruteoReplica) {
+        LazyConnectionDataSourceProxy proxy = new LazyConnectionDataSourceProxy(primaria);
+        proxy.setReadOnlyDataSource(new ReplicaRoutingDataSource(primaria, replica, ruteoReplica));
+        return proxy;
+    }
+
+    @Bean
+    public MonitorRetrasoReplica monitorRetrasoReplica(@Qualifier("replicaDataSource") DataSource replica,
+            RuteoReplica ruteoReplica,
+            @Value("${analisis.datasource.replica.consulta-retraso}") String consultaRetraso,
+            @Value("${analisis.datasource.replica.ventana-escritura-ms:5000}") long ventanaEscrituraMs,
+            @Value("${analisis.datasource.replica.retraso-maximo-ms:1000}") long retrasoMaximoMs,
+            @Value("${analisis.datasource.replica.verificacion-ms:1000}") long verificacionMs) {
+        if (ventanaEscrituraMs < retrasoMaximoMs + verificacionMs) {
+            // Una escritura podría dejar de leerse en la primaria antes de que la réplica la haya aplicado
+            log.warn("Replica write window {} ms is shorter than max lag {} ms plus check interval {} ms",
+                    ventanaEscrituraMs, retrasoMaximoMs, verificacionMs);
+        }
+        return new MonitorRetrasoReplica(replica, consultaRetraso, ruteoReplica);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,44 @@
+package com.banquito.originacion.analisis.config;
+
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import com.banquito.originacion.analisis.enums.EstadoHistorialEnum;
+
+@ConfigurationProperties(prefix = "analisis.transiciones")
+public class TransicionesProperties {
+
+    private EstadoHistorialEnum estadoInicial = EstadoHistorialEnum.Borrador;
+
+    // Estados sin entrada se consideran finales; si no se configura nada se usan las reglas por defecto
+    private Map<EstadoHistorialEnum, Set<EstadoHistorialEnum>> permitidas = new EnumMap<>(EstadoHistorialEnum.class);
+
+    public EstadoHistorialEnum getEstadoInicial() {
+        return estadoInicial;
+    }
+
+    public void setEstadoInicial(EstadoHistorialEnum estadoInicial) {
+        this.estadoInicial = estadoInicial;
+    }
+
+    public Map<EstadoHistorialEnum, Set<EstadoHistorialEnum>> getPermitidas() {
+        return permitidas;
+    }
+
+    public void setPermitidas(Map<EstadoHistorialEnum, Set<EstadoHistorialEnum>> permitidas) {
+        this.permitidas = permitidas;
+    }
+
+    public static Map<EstadoHistorialEnum, Set<EstadoHistorialEnum>> reglasPorDefecto() {
+        Map<EstadoHistorialEnum, Set<EstadoHistorialEnum>> reglas = new EnumMap<>(EstadoHistorialEnum.class);
+        reglas.put(EstadoHistorialEnum.Borrador,
+                EnumSet.of(EstadoHistorialEnum.EnRevision, EstadoHistorialEnum.Cancelada));
+        reglas.put(EstadoHistorialEnum.EnRevision,
+                EnumSet.of(EstadoHistorialEnum.Aprobada, EstadoHistorialEnum.Rechazada, EstadoHistorialEnum.Borrador));
+        return reglas;
+    }
+}
@@ -0,0 +1,126 @@
+package com.banquito.originacion.analisis.controller;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.banquito.originacion.analisis.controller.dto.ConteoTransicionDTO;
+import com.banquito.originacion.analisis.controller.dto.DuracionEstadoDTO;
+import com.banquito.originacion.analisis.controller.dto.EmbudoDiarioDTO;
+import com.banquito.originacion.analisis.controller.dto.ProcesamientoAnaliticaDTO;
+import com.banquito.originacion.analisis.controller.mapper.AnaliticaMapper;
+import com.banquito.originacion.analisis.service.AnaliticaEstadosService;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+@RestController
+@RequestMapping("/api/analitica")
+@Tag(name = "Analítica de Estados", description = "API de tiempos en estado, transiciones y conversión de las solicitudes")
+public class AnaliticaController {
+
+    private static final Logger log = LoggerFactory.getLogger(AnaliticaController.class);
+    private static final int DIAS_POR_DEFECTO = 30;
+
+    private final AnaliticaEstadosService service;
+    private final AnaliticaMapper mapper;
+
+    public AnaliticaController(AnaliticaEstadosService service, AnaliticaMapper mapper) {
+        this.service = service;
+        this.mapper = mapper;
+    }
+
+    @GetMapping("/duraciones")
+    @Operation(summary = "Tiempo en cada estado", 
+               description = "Retorna el promedio y los percentiles del tiempo que las solicitudes permanecieron en cada estado, "
+                       + "según las salidas del estado ocurridas en el rango")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Duraciones calculadas exitosamente"),
+        @ApiResponse(responseCode = "400", description = "Rango de fechas inválido")
+    })
+    public ResponseEntity<List<DuracionEstadoDTO>> getDuraciones(
+            @Parameter(description = "Día inicial inclusivo (ISO-8601, por defecto hace 30 días)") 
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @Parameter(description = "Día final inclusivo (ISO-8601, por defecto hoy)") 
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta) {
+        
+        LocalDate fin = hasta != null ? hasta : LocalDate.now();
+        LocalDate inicio = desde != null ? desde : fin.minusDays(DIAS_POR_DEFECTO - 1);
+        log.info("Received request to get state durations. Desde: {}, Hasta: {}", inicio, fin);
+        return ResponseEntity.ok(mapper.toDuracionDTOList(service.duracionesPorEstado(inicio, fin)));
+    }
+
+    @GetMapping("/transiciones")
+    @Operation(summary = "Transiciones entre estados", 
+               description = "Retorna el número de transiciones por par de estados (origen, destino) en el rango "
+                       + "y el tiempo previo en el estado de origen")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Transiciones calculadas exitosamente"),
+        @ApiResponse(responseCode = "400", description = "Rango de fechas inválido")
+    })
+    public ResponseEntity<List<ConteoTransicionDTO>> getTransiciones(
+            @Parameter(description = "Día inicial inclusivo (ISO-8601, por defecto hace 30 días)") 
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @Parameter(description = "Día final inclusivo (ISO-8601, por defecto hoy)") 
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta) {
+        
+        LocalDate fin = hasta != null ? hasta : LocalDate.now();
+        LocalDate inicio = desde != null ? desde : fin.minusDays(DIAS_POR_DEFECTO - 1);
+        log.info("Received request to get state transitions. Desde: {}, Hasta: {}", inicio, fin);
+        return ResponseEntity.ok(mapper.toTransicionDTOList(service.transiciones(inicio, fin)));
+    }
+
+    @GetMapping("/embudo")
+    @Operation(summary = "Embudo diario de conversión", 
+               description = "Retorna por día las entradas a cada estado y la proporción de solicitudes resueltas "
+                       + "que llegó a cada estado final")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Embudo calculado exitosamente"),
+        @ApiResponse(responseCode = "400", description = "Rango de fechas inválido")
+    })
+    public ResponseEntity<List<EmbudoDiarioDTO>> getEmbudo(
+            @Parameter(description = "Día inicial inclusivo (ISO-8601, por defecto hace 30 días)") 
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @Parameter(description = "Día final inclusivo (ISO-8601, por defecto hoy)") 
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta) {
+        
+        LocalDate fin = hasta != null ? hasta : LocalDate.now();
+        LocalDate inicio = desde != null ? desde : fin.minusDays(DIAS_POR_DEFECTO - 1);
+        log.info("Received request to get daily funnel. Desde: {}, Hasta: {}", inicio, fin);
+        return ResponseEntity.ok(mapper.toEmbudoDTOList(service.embudoDiario(inicio, fin)));
+    }
+
+    @PostMapping("/procesar")
+    @Operation(summary = "Procesar solicitudes pendientes", 
+               description = "Aplica al resumen de analítica los cambios de historial pendientes sin esperar al proceso programado")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Pendientes procesados exitosamente")
+    })
+    public ResponseEntity<ProcesamientoAnaliticaDTO> procesarPendientes() {
+        log.info("Received request to process pending state analytics.");
+        return ResponseEntity.ok(mapper.toProcesamientoDTO(service.procesarPendientes()));
+    }
+
+    @PostMapping("/reconstruir")
+    @Operation(summary = "Reconstruir el resumen de analítica", 
+               description = "Descarta el resumen y lo recalcula desde el historial de estados, por lotes de solicitudes")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Resumen reconstruido exitosamente")
+    })
+    public ResponseEntity<ProcesamientoAnaliticaDTO> reconstruir() {
+        log.info("Received request to rebuild state analytics.");
+        return ResponseEntity.ok(mapper.toProcesamientoDTO(service.reconstruir()));
+    }
+}
\ No newline at end of file
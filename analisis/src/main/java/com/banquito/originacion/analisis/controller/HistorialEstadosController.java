@@ -1,11 +1,20 @@
 package com.banquito.originacion.analisis.controller;
 
+import java.io.IOException;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.springframework.data.domain.KeysetScrollPosition;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -16,15 +25,32 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import com.banquito.originacion.analisis.controller.dto.CursorPageDTO;
 import com.banquito.originacion.analisis.controller.dto.HistorialEstadosDTO;
+import com.banquito.originacion.analisis.controller.dto.HistorialEstadosLoteDTO;
+import com.banquito.originacion.analisis.controller.dto.HistorialEstadosLoteResultadoDTO;
+import com.banquito.originacion.analisis.controller.dto.TransicionEstadoDTO;
 import com.banquito.originacion.analisis.controller.mapper.HistorialEstadosMapper;
 import com.banquito.originacion.analisis.exception.HistorialEstadosNotFoundException;
+import com.banquito.originacion.analisis.http.ConditionalRequests;
+import com.banquito.originacion.analisis.http.EntityTags;
 import com.banquito.originacion.analisis.enums.EstadoHistorialEnum;
+import com.banquito.originacion.analisis.enums.FormatoExportacionEnum;
 import com.banquito.originacion.analisis.model.HistorialEstados;
+import com.banquito.originacion.analisis.pagination.KeysetPagination;
+import com.banquito.originacion.analisis.repository.HuellaRegistros;
+import com.banquito.originacion.analisis.service.ExportacionService;
 import com.banquito.originacion.analisis.service.HistorialEstadosService;
+import com.banquito.originacion.analisis.service.HistorialEstadosService.ResultadoLote;
+import com.banquito.originacion.analisis.service.SolicitudEstadoActualService;
+import com.banquito.originacion.analisis.sse.DifusionTransiciones;
+import com.banquito.originacion.analisis.vista.HistorialEstadosVista;
 import com.banquito.originacion.analisis.exception.InvalidTransitionException;
 
 import io.swagger.v3.oas.annotations.Operation;
@@ -32,6 +58,7 @@ import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -42,13 +69,26 @@ import org.slf4j.LoggerFactory;
 public class HistorialEstadosController {
 
     private static final Logger log = LoggerFactory.getLogger(HistorialEstadosController.class);
+    private static final String ID_SOLICITUD = "idSolicitud";
 
     private final HistorialEstadosService service;
     private final HistorialEstadosMapper mapper;
+    private final ExportacionService exportacionService;
+    private final SolicitudEstadoActualService solicitudEstadoActualService;
+    private final ConditionalRequests conditionalRequests;
+    private final DifusionTransiciones difusionTransiciones;
+    private final KeysetPagination keysetPagination = new KeysetPagination("idHistorial");
+    private final KeysetPagination estadoActualPagination = new KeysetPagination(ID_SOLICITUD);
 
-    public HistorialEstadosController(HistorialEstadosService service, HistorialEstadosMapper mapper) {
+    public HistorialEstadosController(HistorialEstadosService service, HistorialEstadosMapper mapper, ExportacionService exportacionService,
+            SolicitudEstadoActualService solicitudEstadoActualService, ConditionalRequests conditionalRequests,
+            DifusionTransiciones difusionTransiciones) {
         this.service = service;
         this.mapper = mapper;
+        this.exportacionService = exportacionService;
+        this.solicitudEstadoActualService = solicitudEstadoActualService;
+        this.conditionalRequests = conditionalRequests;
+        this.difusionTransiciones = difusionTransiciones;
     }
 
     @GetMapping
@@ -58,7 +98,7 @@ public class HistorialEstadosController {
         @ApiResponse(responseCode = "200", description = "Historiales encontrados exitosamente"),
         @ApiResponse(responseCode = "400", description = "Parámetros de paginación inválidos")
     })
-    public ResponseEntity<Page<HistorialEstadosDTO>> getAllHistorialEstados(
+    public ResponseEntity<Page<HistorialEstadosVista>> getAllHistorialEstados(
             @Parameter(description = "Número de página (0-based)") 
             @RequestParam(defaultValue = "0") int page,
             @Parameter(description = "Tamaño de la página") 
@@ -66,17 +106,81 @@ public class HistorialEstadosController {
             @Parameter(description = "Campo para ordenar") 
             @RequestParam(defaultValue = "fechaHora") String sortBy,
             @Parameter(description = "Dirección del ordenamiento (asc/desc)") 
-            @RequestParam(defaultValue = "desc") String sortDir) {
+            @RequestParam(defaultValue = "desc") String sortDir,
+            ServletWebRequest request) {
         
         log.info("Received request to get all HistorialEstados. Page: {}, Size: {}, SortBy: {}, SortDir: {}", page, size, sortBy, sortDir);
         Sort sort = sortDir.equalsIgnoreCase("desc") ? 
             Sort.by(sortBy).descending() : Sort.by(sortBy).ascending();
         Pageable pageable = PageRequest.of(page, size, sort);
         
-        Page<HistorialEstados> historiales = service.findAllPaginated(pageable);
-        Page<HistorialEstadosDTO> dtoPage = historiales.map(mapper::toDTO);
+        Page<HistorialEstadosVista> historiales = service.findAllPaginated(pageable);
+        String etag = EntityTags.deContenido(historiales.getContent(), HistorialEstadosVista::idHistorial,
+                HistorialEstadosVista::version, historiales.getTotalElements());
+        if (conditionalRequests.noModificado(request, etag)) {
+            return null;
+        }
         
-        return ResponseEntity.ok(dtoPage);
+        return conditionalRequests.ok(etag, historiales);
+    }
+
+    @GetMapping("/cursor")
+    @Operation(summary = "Obtener historiales de estados por cursor", 
+               description = "Retorna una página de historiales de estados usando paginación por cursor (keyset), sin conteo total")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Historiales encontrados exitosamente"),
+        @ApiResponse(responseCode = "400", description = "Cursor, tamaño u ordenamiento inválidos")
+    })
+    public ResponseEntity<CursorPageDTO<HistorialEstadosVista>> getHistorialEstadosByCursor(
+            @Parameter(description = "Tamaño de la página (máximo " + KeysetPagination.MAX_SIZE + ")") 
+            @RequestParam(defaultValue = "20") int size,
+            @Parameter(description = "Campo para ordenar (fechaHora o idHistorial)") 
+            @RequestParam(defaultValue = "fechaHora") String sortBy,
+            @Parameter(description = "Dirección del ordenamiento (asc/desc)") 
+            @RequestParam(defaultValue = "desc") String sortDir,
+            @Parameter(description = "Cursor devuelto en la página anterior") 
+            @RequestParam(required = false) String cursor,
+            ServletWebRequest request) {
+        
+        log.info("Received request to get HistorialEstados by cursor. Size: {}, SortBy: {}, SortDir: {}", size, sortBy, sortDir);
+        keysetPagination.validarSize(size);
+        Sort sort = keysetPagination.sort(sortBy, sortDir);
+        KeysetScrollPosition position = keysetPagination.position(cursor, sortBy, sortDir);
+        
+        Window<HistorialEstadosVista> historiales = service.findAllByCursor(position, sort, size);
+        String nextCursor = keysetPagination.nextCursor(historiales, sortBy, sortDir);
+        String etag = EntityTags.deContenido(historiales.getContent(), HistorialEstadosVista::idHistorial,
+                HistorialEstadosVista::version, nextCursor);
+        if (conditionalRequests.noModificado(request, etag)) {
+            return null;
+        }
+        
+        return conditionalRequests.ok(etag, new CursorPageDTO<>(historiales.getContent(), nextCursor));
+    }
+
+    @GetMapping("/export")
+    @Operation(summary = "Exportar los historiales de estados", 
+               description = "Transmite los historiales de estados en formato NDJSON o CSV sin cargarlos en memoria")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Exportación generada exitosamente"),
+        @ApiResponse(responseCode = "400", description = "Parámetros inválidos")
+    })
+    public void exportHistorialEstados(
+            @Parameter(description = "Formato de salida (NDJSON/CSV)") 
+            @RequestParam(defaultValue = "NDJSON") FormatoExportacionEnum formato,
+            @Parameter(description = "Fecha inicial inclusiva (ISO-8601)") 
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime desde,
+            @Parameter(description = "Fecha final exclusiva (ISO-8601)") 
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime hasta,
+            @Parameter(description = "Estado a exportar") 
+            @RequestParam(required = false) EstadoHistorialEnum estado,
+            HttpServletResponse response) throws IOException {
+        
+        log.info("Received request to export HistorialEstados. Formato: {}, Desde: {}, Hasta: {}, Estado: {}", formato, desde, hasta, estado);
+        exportacionService.validarRango(desde, hasta);
+        response.setContentType(formato.getContentType() + ";charset=UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"historial-estados." + formato.getExtension() + "\"");
+        exportacionService.exportarHistorialEstados(desde, hasta, estado, formato, response.getOutputStream());
     }
 
     @GetMapping("/{id}")
@@ -86,13 +190,18 @@ public class HistorialEstadosController {
         @ApiResponse(responseCode = "200", description = "Historial encontrado exitosamente"),
         @ApiResponse(responseCode = "404", description = "Historial no encontrado")
     })
-    public ResponseEntity<HistorialEstadosDTO> getHistorialEstadosById(
+    public ResponseEntity<HistorialEstadosVista> getHistorialEstadosById(
             @Parameter(description = "ID del historial") 
-            @PathVariable Integer id) {
+            @PathVariable Integer id,
+            ServletWebRequest request) {
         
         log.info("Received request to get HistorialEstados by id: {}", id);
-        HistorialEstados historial = service.findById(id);
-        return ResponseEntity.ok(mapper.toDTO(historial));
+        HistorialEstadosVista historial = service.findVistaById(id);
+        String etag = EntityTags.deVersion(historial.version());
+        if (conditionalRequests.noModificado(request, etag)) {
+            return null;
+        }
+        return conditionalRequests.ok(etag, historial);
     }
 
     @GetMapping("/solicitud/{idSolicitud}")
@@ -101,52 +210,176 @@ public class HistorialEstadosController {
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Historiales encontrados exitosamente")
     })
-    public ResponseEntity<List<HistorialEstadosDTO>> getHistorialEstadosByIdSolicitud(
+    public ResponseEntity<List<HistorialEstadosVista>> getHistorialEstadosByIdSolicitud(
             @Parameter(description = "ID de la solicitud") 
-            @PathVariable Integer idSolicitud) {
+            @PathVariable Integer idSolicitud,
+            ServletWebRequest request) {
         
         log.info("Received request to get HistorialEstados by idSolicitud: {}", idSolicitud);
-        List<HistorialEstados> historiales = service.findByIdSolicitudOrderByFechaHoraDesc(idSolicitud);
+        // La huella se obtiene con una agregación sobre el índice; el historial solo se lee si el cliente no lo tiene
+        HuellaRegistros huella = service.findHuellaByIdSolicitud(idSolicitud);
+        String etag = EntityTags.deHuella(huella.getCantidad(), huella.getUltimoId(), huella.getSumaVersiones());
+        if (huella.getCantidad() > 0 && conditionalRequests.noModificado(request, etag)) {
+            return null;
+        }
+        List<HistorialEstadosVista> historiales = service.findByIdSolicitudOrderByFechaHoraDesc(idSolicitud);
         if (historiales.isEmpty()) {
             throw new HistorialEstadosNotFoundException(idSolicitud.toString(), "ID de solicitud");
         }
-        List<HistorialEstadosDTO> dtos = mapper.toDTOList(historiales);
-        return ResponseEntity.ok(dtos);
+        return conditionalRequests.ok(etag, historiales);
+    }
+
+    @GetMapping(value = "/solicitud/{idSolicitud}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Suscribirse a las transiciones de una solicitud", 
+               description = "Stream SSE con un evento 'transicion' por cada nuevo estado confirmado de la solicitud. Con Last-Event-ID se reponen los eventos perdidos; si ya no están disponibles se envía 'reinicio'")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Stream de eventos abierto")
+    })
+    public SseEmitter streamHistorialEstadosByIdSolicitud(
+            @Parameter(description = "ID de la solicitud") 
+            @PathVariable Integer idSolicitud,
+            @Parameter(description = "Id del último evento recibido, para reanudar el stream") 
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        
+        log.info("Received request to stream HistorialEstados for solicitud: {}. Last-Event-ID: {}", idSolicitud, lastEventId);
+        return difusionTransiciones.suscribirSolicitud(idSolicitud, lastEventId);
     }
 
     @GetMapping("/estado/{estado}")
     @Operation(summary = "Obtener historiales por estado", 
-               description = "Retorna todos los historiales de estados con un estado específico")
+               description = "Retorna por cursor (keyset) los historiales de estados con un estado específico, ordenados por fecha, o solo el registro vigente de las solicitudes que están actualmente en ese estado, ordenadas por ID de solicitud")
     @ApiResponses(value = {
-        @ApiResponse(responseCode = "200", description = "Historiales encontrados exitosamente")
+        @ApiResponse(responseCode = "200", description = "Historiales encontrados exitosamente"),
+        @ApiResponse(responseCode = "400", description = "Cursor o tamaño inválidos")
     })
-    public ResponseEntity<List<HistorialEstadosDTO>> getHistorialEstadosByEstado(
+    public ResponseEntity<CursorPageDTO<HistorialEstadosVista>> getHistorialEstadosByEstado(
             @Parameter(description = "Estado del historial") 
-            @PathVariable EstadoHistorialEnum estado) {
+            @PathVariable EstadoHistorialEnum estado,
+            @Parameter(description = "Solo solicitudes que se encuentran actualmente en el estado") 
+            @RequestParam(defaultValue = "false") boolean actual,
+            @Parameter(description = "Tamaño de la página (máximo " + KeysetPagination.MAX_SIZE + ")") 
+            @RequestParam(defaultValue = "20") int size,
+            @Parameter(description = "Dirección del ordenamiento (asc/desc)") 
+            @RequestParam(defaultValue = "desc") String sortDir,
+            @Parameter(description = "Cursor devuelto en la página anterior") 
+            @RequestParam(required = false) String cursor,
+            ServletWebRequest request) {
         
-        log.info("Received request to get HistorialEstados by estado: {}", estado);
-        List<HistorialEstados> historiales = service.findByEstado(estado);
-        List<HistorialEstadosDTO> dtos = mapper.toDTOList(historiales);
-        return ResponseEntity.ok(dtos);
+        log.info("Received request to get HistorialEstados by estado: {}. Actual: {}, Size: {}, SortDir: {}", estado, actual, size, sortDir);
+        keysetPagination.validarSize(size);
+        if (actual) {
+            // Se responde desde la proyección solicitud_estado_actual, sin recorrer todo el historial
+            Sort sort = estadoActualPagination.sort(ID_SOLICITUD, sortDir);
+            KeysetScrollPosition position = estadoActualPagination.position(cursor, ID_SOLICITUD, sortDir);
+            Window<HistorialEstadosVista> estadosActuales = solicitudEstadoActualService.findByEstado(estado, position, sort, size);
+            String nextCursor = estadoActualPagination.nextCursor(estadosActuales, ID_SOLICITUD, sortDir);
+            String etag = EntityTags.deContenido(estadosActuales.getContent(), HistorialEstadosVista::idHistorial,
+                    HistorialEstadosVista::version, nextCursor);
+            if (conditionalRequests.noModificado(request, etag)) {
+                return null;
+            }
+            return conditionalRequests.ok(etag, new CursorPageDTO<>(estadosActuales.getContent(), nextCursor));
+        }
+        Sort sort = keysetPagination.sort(KeysetPagination.FECHA_HORA, sortDir);
+        KeysetScrollPosition position = keysetPagination.position(cursor, KeysetPagination.FECHA_HORA, sortDir);
+        Window<HistorialEstadosVista> historiales = service.findByEstado(estado, position, sort, size);
+        String nextCursor = keysetPagination.nextCursor(historiales, KeysetPagination.FECHA_HORA, sortDir);
+        String etag = EntityTags.deContenido(historiales.getContent(), HistorialEstadosVista::idHistorial,
+                HistorialEstadosVista::version, nextCursor);
+        if (conditionalRequests.noModificado(request, etag)) {
+            return null;
+        }
+        return conditionalRequests.ok(etag, new CursorPageDTO<>(historiales.getContent(), nextCursor));
+    }
+
+    @GetMapping(value = "/estado/{estado}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Suscribirse a las transiciones de un estado", 
+               description = "Stream SSE con un evento 'transicion' por cada solicitud que entra o sale del estado. Con Last-Event-ID se reponen los eventos perdidos; si ya no están disponibles se envía 'reinicio'")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Stream de eventos abierto")
+    })
+    public SseEmitter streamHistorialEstadosByEstado(
+            @Parameter(description = "Estado a observar") 
+            @PathVariable EstadoHistorialEnum estado,
+            @Parameter(description = "Id del último evento recibido, para reanudar el stream") 
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        
+        log.info("Received request to stream HistorialEstados for estado: {}. Last-Event-ID: {}", estado, lastEventId);
+        return difusionTransiciones.suscribirEstado(estado, lastEventId);
+    }
+
+    @GetMapping("/transiciones")
+    @Operation(summary = "Obtener las transiciones de estado permitidas", 
+               description = "Retorna, para cada estado, los estados a los que puede pasar una solicitud")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Transiciones obtenidas exitosamente")
+    })
+    public ResponseEntity<List<TransicionEstadoDTO>> getTransiciones(ServletWebRequest request) {
+        log.info("Received request to get all state transitions.");
+        // Las transiciones solo cambian con la configuración, por lo que se permite almacenarlas en caché
+        Map<EstadoHistorialEnum, Set<EstadoHistorialEnum>> transiciones = service.getTransiciones();
+        String etag = EntityTags.deHuella(transiciones);
+        if (conditionalRequests.catalogoNoModificado(request, etag)) {
+            return null;
+        }
+        return conditionalRequests.catalogo(etag, mapper.toTransicionDTOList(transiciones));
+    }
+
+    @GetMapping("/transiciones/{estado}")
+    @Operation(summary = "Obtener los siguientes estados permitidos", 
+               description = "Retorna los estados a los que puede pasar una solicitud desde el estado indicado")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Transiciones obtenidas exitosamente"),
+        @ApiResponse(responseCode = "400", description = "Estado inválido")
+    })
+    public ResponseEntity<TransicionEstadoDTO> getSiguientesEstados(
+            @Parameter(description = "Estado de origen") 
+            @PathVariable EstadoHistorialEnum estado,
+            ServletWebRequest request) {
+        
+        log.info("Received request to get next states for estado: {}", estado);
+        Set<EstadoHistorialEnum> siguientes = service.getSiguientesEstados(estado);
+        String etag = EntityTags.deHuella(estado, siguientes);
+        if (conditionalRequests.catalogoNoModificado(request, etag)) {
+            return null;
+        }
+        return conditionalRequests.catalogo(etag, mapper.toTransicionDTO(estado, siguientes));
     }
 
     @GetMapping("/usuario/{usuario}")
     @Operation(summary = "Obtener historiales por usuario", 
-               description = "Retorna todos los historiales de estados realizados por un usuario específico")
+               description = "Retorna por cursor (keyset) los historiales de estados realizados por un usuario específico, ordenados por fecha")
     @ApiResponses(value = {
-        @ApiResponse(responseCode = "200", description = "Historiales encontrados exitosamente")
+        @ApiResponse(responseCode = "200", description = "Historiales encontrados exitosamente"),
+        @ApiResponse(responseCode = "400", description = "Cursor o tamaño inválidos")
     })
-    public ResponseEntity<List<HistorialEstadosDTO>> getHistorialEstadosByUsuario(
+    public ResponseEntity<CursorPageDTO<HistorialEstadosVista>> getHistorialEstadosByUsuario(
             @Parameter(description = "Usuario que realizó el cambio") 
-            @PathVariable String usuario) {
+            @PathVariable String usuario,
+            @Parameter(description = "Tamaño de la página (máximo " + KeysetPagination.MAX_SIZE + ")") 
+            @RequestParam(defaultValue = "20") int size,
+            @Parameter(description = "Dirección del ordenamiento (asc/desc)") 
+            @RequestParam(defaultValue = "desc") String sortDir,
+            @Parameter(description = "Cursor devuelto en la página anterior") 
+            @RequestParam(required = false) String cursor,
+            ServletWebRequest request) {
         
-        log.info("Received request to get HistorialEstados by usuario: {}", usuario);
-        List<HistorialEstados> historiales = service.findByUsuario(usuario);
-        if (historiales.isEmpty()) {
+        log.info("Received request to get HistorialEstados by usuario: {}. Size: {}, SortDir: {}", usuario, size, sortDir);
+        keysetPagination.validarSize(size);
+        Sort sort = keysetPagination.sort(KeysetPagination.FECHA_HORA, sortDir);
+        KeysetScrollPosition position = keysetPagination.position(cursor, KeysetPagination.FECHA_HORA, sortDir);
+        Window<HistorialEstadosVista> historiales = service.findByUsuario(usuario, position, sort, size);
+        // Solo la primera página vacía indica que el usuario no tiene registros
+        if (historiales.isEmpty() && cursor == null) {
             throw new HistorialEstadosNotFoundException(usuario, "usuario");
         }
-        List<HistorialEstadosDTO> dtos = mapper.toDTOList(historiales);
-        return ResponseEntity.ok(dtos);
+        String nextCursor = keysetPagination.nextCursor(historiales, KeysetPagination.FECHA_HORA, sortDir);
+        String etag = EntityTags.deContenido(historiales.getContent(), HistorialEstadosVista::idHistorial,
+                HistorialEstadosVista::version, nextCursor);
+        if (conditionalRequests.noModificado(request, etag)) {
+            return null;
+        }
+        return conditionalRequests.ok(etag, new CursorPageDTO<>(historiales.getContent(), nextCursor));
     }
 
     @PostMapping
@@ -164,7 +397,29 @@ public class HistorialEstadosController {
         log.debug("Request body: {}", historialEstadosDTO);
         HistorialEstados historial = mapper.toEntity(historialEstadosDTO);
         HistorialEstados savedHistorial = service.save(historial);
-        return ResponseEntity.status(HttpStatus.CREATED).body(mapper.toDTO(savedHistorial));
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .eTag(EntityTags.deVersion(savedHistorial.getVersion()))
+                .body(mapper.toDTO(savedHistorial));
+    }
+
+    @PostMapping("/batch")
+    @Operation(summary = "Registrar transiciones de estado en lote", 
+               description = "Valida y registra una lista de transiciones en una sola transacción, incluyendo cadenas de transiciones para una misma solicitud")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "201", description = "Todas las transiciones fueron registradas"),
+        @ApiResponse(responseCode = "207", description = "Algunas transiciones fueron rechazadas, ver el resultado de cada elemento"),
+        @ApiResponse(responseCode = "400", description = "Datos inválidos")
+    })
+    public ResponseEntity<List<HistorialEstadosLoteResultadoDTO>> createHistorialEstadosBatch(
+            @Parameter(description = "Lote de historiales a crear") 
+            @Valid @RequestBody HistorialEstadosLoteDTO loteDTO) {
+        
+        log.info("Received request to create a batch of {} HistorialEstados.", loteDTO.getHistoriales().size());
+        List<HistorialEstados> historiales = mapper.toEntityList(loteDTO.getHistoriales());
+        List<ResultadoLote> resultados = service.saveAll(historiales);
+        boolean todosAceptados = resultados.stream().allMatch(ResultadoLote::isAceptado);
+        HttpStatus status = todosAceptados ? HttpStatus.CREATED : HttpStatus.MULTI_STATUS;
+        return ResponseEntity.status(status).body(mapper.toLoteResultadoDTOList(resultados));
     }
 
     @PutMapping("/{id}")
@@ -173,19 +428,22 @@ public class HistorialEstadosController {
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Historial actualizado exitosamente"),
         @ApiResponse(responseCode = "404", description = "Historial no encontrado"),
-        @ApiResponse(responseCode = "400", description = "Datos inválidos")
+        @ApiResponse(responseCode = "400", description = "Datos inválidos"),
+        @ApiResponse(responseCode = "412", description = "La versión no coincide con If-Match")
     })
     public ResponseEntity<HistorialEstadosDTO> updateHistorialEstados(
             @Parameter(description = "ID del historial") 
             @PathVariable Integer id,
             @Parameter(description = "Datos actualizados del historial") 
-            @Valid @RequestBody HistorialEstadosDTO historialEstadosDTO) {
+            @Valid @RequestBody HistorialEstadosDTO historialEstadosDTO,
+            @Parameter(description = "ETag del historial leído; si la versión cambió se responde 412") 
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         
         log.info("Received request to update HistorialEstados with id: {}", id);
         log.debug("Request body: {}", historialEstadosDTO);
         HistorialEstados historial = mapper.toEntity(historialEstadosDTO);
-        HistorialEstados updatedHistorial = service.update(id, historial);
-        return ResponseEntity.ok(mapper.toDTO(updatedHistorial));
+        HistorialEstados updatedHistorial = service.update(id, historial, EntityTags.precondicion(ifMatch));
+        return conditionalRequests.ok(EntityTags.deVersion(updatedHistorial.getVersion()), mapper.toDTO(updatedHistorial));
     }
 
     @PatchMapping("/{id}")
@@ -194,19 +452,22 @@ public class HistorialEstadosController {
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Historial actualizado exitosamente"),
         @ApiResponse(responseCode = "404", description = "Historial no encontrado"),
-        @ApiResponse(responseCode = "400", description = "Datos inválidos")
+        @ApiResponse(responseCode = "400", description = "Datos inválidos"),
+        @ApiResponse(responseCode = "412", description = "La versión no coincide con If-Match")
     })
     public ResponseEntity<HistorialEstadosDTO> partialUpdateHistorialEstados(
             @Parameter(description = "ID del historial") 
             @PathVariable Integer id,
             @Parameter(description = "Datos parciales del historial") 
-            @RequestBody HistorialEstadosDTO historialEstadosDTO) {
+            @RequestBody HistorialEstadosDTO historialEstadosDTO,
+            @Parameter(description = "ETag del historial leído; si la versión cambió se responde 412") 
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         
         log.info("Received request to partially update HistorialEstados with id: {}", id);
         log.debug("Request body: {}", historialEstadosDTO);
         HistorialEstados historial = mapper.toEntity(historialEstadosDTO);
-        HistorialEstados updatedHistorial = service.partialUpdate(id, historial);
-        return ResponseEntity.ok(mapper.toDTO(updatedHistorial));
+        HistorialEstados updatedHistorial = service.partialUpdate(id, historial, EntityTags.precondicion(ifMatch));
+        return conditionalRequests.ok(EntityTags.deVersion(updatedHistorial.getVersion()), mapper.toDTO(updatedHistorial));
     }
 
     @DeleteMapping("/{id}")
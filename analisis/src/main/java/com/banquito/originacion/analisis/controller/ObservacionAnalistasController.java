@@ -1,11 +1,17 @@
 package com.banquito.originacion.analisis.controller;
 
+import java.io.IOException;
+import java.time.LocalDateTime;
 import java.util.List;
 
+import org.springframework.data.domain.KeysetScrollPosition;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -17,15 +23,30 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 
+import com.banquito.originacion.analisis.busqueda.CursorBusqueda;
+import com.banquito.originacion.analisis.busqueda.FiltroBusqueda;
+import com.banquito.originacion.analisis.busqueda.ObservacionEncontrada;
+import com.banquito.originacion.analisis.controller.dto.CursorPageDTO;
 import com.banquito.originacion.analisis.controller.dto.ObservacionAnalistasDTO;
 import com.banquito.originacion.analisis.controller.mapper.ObservacionAnalistasMapper;
 import com.banquito.originacion.analisis.exception.ObservacionAnalistasNotFoundException;
+import com.banquito.originacion.analisis.http.ConditionalRequests;
+import com.banquito.originacion.analisis.http.EntityTags;
+import com.banquito.originacion.analisis.enums.FormatoExportacionEnum;
+import com.banquito.originacion.analisis.enums.OrdenBusquedaEnum;
 import com.banquito.originacion.analisis.model.ObservacionAnalistas;
+import com.banquito.originacion.analisis.pagination.KeysetPagination;
+import com.banquito.originacion.analisis.repository.HuellaRegistros;
+import com.banquito.originacion.analisis.service.ExportacionService;
 import com.banquito.originacion.analisis.service.ObservacionAnalistasService;
+import com.banquito.originacion.analisis.service.ObservacionAnalistasService.PaginaBusqueda;
+import com.banquito.originacion.analisis.vista.ObservacionAnalistasVista;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -35,6 +56,7 @@ import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 
 @RestController
@@ -46,10 +68,16 @@ public class ObservacionAnalistasController {
 
     private final ObservacionAnalistasService service;
     private final ObservacionAnalistasMapper mapper;
+    private final ExportacionService exportacionService;
+    private final ConditionalRequests conditionalRequests;
+    private final KeysetPagination keysetPagination = new KeysetPagination("idObservacionAnalista");
 
-    public ObservacionAnalistasController(ObservacionAnalistasService service, ObservacionAnalistasMapper mapper) {
+    public ObservacionAnalistasController(ObservacionAnalistasService service, ObservacionAnalistasMapper mapper, ExportacionService exportacionService,
+            ConditionalRequests conditionalRequests) {
         this.service = service;
         this.mapper = mapper;
+        this.exportacionService = exportacionService;
+        this.conditionalRequests = conditionalRequests;
     }
 
     @GetMapping
@@ -59,7 +87,7 @@ public class ObservacionAnalistasController {
         @ApiResponse(responseCode = "200", description = "Observaciones encontradas exitosamente"),
         @ApiResponse(responseCode = "400", description = "Parámetros de paginación inválidos")
     })
-    public ResponseEntity<Page<ObservacionAnalistasDTO>> getAllObservacionesAnalistas(
+    public ResponseEntity<Page<ObservacionAnalistasVista>> getAllObservacionesAnalistas(
             @Parameter(description = "Número de página (0-based)") 
             @RequestParam(defaultValue = "0") int page,
             @Parameter(description = "Tamaño de la página") 
@@ -67,17 +95,81 @@ public class ObservacionAnalistasController {
             @Parameter(description = "Campo para ordenar") 
             @RequestParam(defaultValue = "fechaHora") String sortBy,
             @Parameter(description = "Dirección del ordenamiento (asc/desc)") 
-            @RequestParam(defaultValue = "desc") String sortDir) {
+            @RequestParam(defaultValue = "desc") String sortDir,
+            ServletWebRequest request) {
         
         log.info("Received request to get all ObservacionAnalistas. Page: {}, Size: {}, SortBy: {}, SortDir: {}", page, size, sortBy, sortDir);
         Sort sort = sortDir.equalsIgnoreCase("desc") ? 
             Sort.by(sortBy).descending() : Sort.by(sortBy).ascending();
         Pageable pageable = PageRequest.of(page, size, sort);
         
-        Page<ObservacionAnalistas> observaciones = service.findAllPaginated(pageable);
-        Page<ObservacionAnalistasDTO> dtoPage = observaciones.map(mapper::toDTO);
+        Page<ObservacionAnalistasVista> observaciones = service.findAllPaginated(pageable);
+        String etag = EntityTags.deContenido(observaciones.getContent(), ObservacionAnalistasVista::idObservacionAnalista,
+                ObservacionAnalistasVista::version, observaciones.getTotalElements());
+        if (conditionalRequests.noModificado(request, etag)) {
+            return null;
+        }
         
-        return ResponseEntity.ok(dtoPage);
+        return conditionalRequests.ok(etag, observaciones);
+    }
+
+    @GetMapping("/cursor")
+    @Operation(summary = "Obtener observaciones de analistas por cursor", 
+               description = "Retorna una página de observaciones de analistas usando paginación por cursor (keyset), sin conteo total")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Observaciones encontradas exitosamente"),
+        @ApiResponse(responseCode = "400", description = "Cursor, tamaño u ordenamiento inválidos")
+    })
+    public ResponseEntity<CursorPageDTO<ObservacionAnalistasVista>> getObservacionesAnalistasByCursor(
+            @Parameter(description = "Tamaño de la página (máximo " + KeysetPagination.MAX_SIZE + ")") 
+            @RequestParam(defaultValue = "20") int size,
+            @Parameter(description = "Campo para ordenar (fechaHora o idObservacionAnalista)") 
+            @RequestParam(defaultValue = "fechaHora") String sortBy,
+            @Parameter(description = "Dirección del ordenamiento (asc/desc)") 
+            @RequestParam(defaultValue = "desc") String sortDir,
+            @Parameter(description = "Cursor devuelto en la página anterior") 
+            @RequestParam(required = false) String cursor,
+            ServletWebRequest request) {
+        
+        log.info("Received request to get ObservacionAnalistas by cursor. Size: {}, SortBy: {}, SortDir: {}", size, sortBy, sortDir);
+        keysetPagination.validarSize(size);
+        Sort sort = keysetPagination.sort(sortBy, sortDir);
+        KeysetScrollPosition position = keysetPagination.position(cursor, sortBy, sortDir);
+        
+        Window<ObservacionAnalistasVista> observaciones = service.findAllByCursor(position, sort, size);
+        String nextCursor = keysetPagination.nextCursor(observaciones, sortBy, sortDir);
+        String etag = EntityTags.deContenido(observaciones.getContent(), ObservacionAnalistasVista::idObservacionAnalista,
+                ObservacionAnalistasVista::version, nextCursor);
+        if (conditionalRequests.noModificado(request, etag)) {
+            return null;
+        }
+        
+        return conditionalRequests.ok(etag, new CursorPageDTO<>(observaciones.getContent(), nextCursor));
+    }
+
+    @GetMapping("/export")
+    @Operation(summary = "Exportar las observaciones de analistas", 
+               description = "Transmite las observaciones de analistas en formato NDJSON o CSV sin cargarlas en memoria")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Exportación generada exitosamente"),
+        @ApiResponse(responseCode = "400", description = "Parámetros inválidos")
+    })
+    public void exportObservacionesAnalistas(
+            @Parameter(description = "Formato de salida (NDJSON/CSV)") 
+            @RequestParam(defaultValue = "NDJSON") FormatoExportacionEnum formato,
+            @Parameter(description = "Fecha inicial inclusiva (ISO-8601)") 
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime desde,
+            @Parameter(description = "Fecha final exclusiva (ISO-8601)") 
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime hasta,
+            @Parameter(description = "Usuario que realizó la observación") 
+            @RequestParam(required = false) String usuario,
+            HttpServletResponse response) throws IOException {
+        
+        log.info("Received request to export ObservacionAnalistas. Formato: {}, Desde: {}, Hasta: {}, Usuario: {}", formato, desde, hasta, usuario);
+        exportacionService.validarRango(desde, hasta);
+        response.setContentType(formato.getContentType() + ";charset=UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"observaciones-analistas." + formato.getExtension() + "\"");
+        exportacionService.exportarObservacionesAnalistas(desde, hasta, usuario, formato, response.getOutputStream());
     }
 
     @GetMapping("/{id}")
@@ -87,13 +179,18 @@ public class ObservacionAnalistasController {
         @ApiResponse(responseCode = "200", description = "Observación encontrada exitosamente"),
         @ApiResponse(responseCode = "404", description = "Observación no encontrada")
     })
-    public ResponseEntity<ObservacionAnalistasDTO> getObservacionAnalistasById(
+    public ResponseEntity<ObservacionAnalistasVista> getObservacionAnalistasById(
             @Parameter(description = "ID de la observación") 
-            @PathVariable Integer id) {
+            @PathVariable Integer id,
+            ServletWebRequest request) {
         
         log.info("Received request to get ObservacionAnalistas by id: {}", id);
-        ObservacionAnalistas observacion = service.findById(id);
-        return ResponseEntity.ok(mapper.toDTO(observacion));
+        ObservacionAnalistasVista observacion = service.findVistaById(id);
+        String etag = EntityTags.deVersion(observacion.version());
+        if (conditionalRequests.noModificado(request, etag)) {
+            return null;
+        }
+        return conditionalRequests.ok(etag, observacion);
     }
 
     @GetMapping("/solicitud/{idSolicitud}")
@@ -102,36 +199,99 @@ public class ObservacionAnalistasController {
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Observaciones encontradas exitosamente")
     })
-    public ResponseEntity<List<ObservacionAnalistasDTO>> getObservacionesByIdSolicitud(
+    public ResponseEntity<List<ObservacionAnalistasVista>> getObservacionesByIdSolicitud(
             @Parameter(description = "ID de la solicitud") 
-            @PathVariable Integer idSolicitud) {
+            @PathVariable Integer idSolicitud,
+            ServletWebRequest request) {
         
         log.info("Received request to get ObservacionAnalistas by idSolicitud: {}", idSolicitud);
-        List<ObservacionAnalistas> observaciones = service.findByIdSolicitudOrderByFechaHoraDesc(idSolicitud);
+        // La huella se obtiene con una agregación sobre el índice; las observaciones solo se leen si el cliente no las tiene
+        HuellaRegistros huella = service.findHuellaByIdSolicitud(idSolicitud);
+        String etag = EntityTags.deHuella(huella.getCantidad(), huella.getUltimoId(), huella.getSumaVersiones());
+        if (huella.getCantidad() > 0 && conditionalRequests.noModificado(request, etag)) {
+            return null;
+        }
+        List<ObservacionAnalistasVista> observaciones = service.findByIdSolicitudOrderByFechaHoraDesc(idSolicitud);
         if (observaciones.isEmpty()) {
             throw new ObservacionAnalistasNotFoundException(idSolicitud.toString(), "ID de solicitud");
         }
-        List<ObservacionAnalistasDTO> dtos = mapper.toDTOList(observaciones);
-        return ResponseEntity.ok(dtos);
+        return conditionalRequests.ok(etag, observaciones);
     }
 
     @GetMapping("/usuario/{usuario}")
     @Operation(summary = "Obtener observaciones por usuario", 
-               description = "Retorna todas las observaciones realizadas por un usuario específico")
+               description = "Retorna por cursor (keyset) las observaciones realizadas por un usuario específico, ordenadas por fecha")
     @ApiResponses(value = {
-        @ApiResponse(responseCode = "200", description = "Observaciones encontradas exitosamente")
+        @ApiResponse(responseCode = "200", description = "Observaciones encontradas exitosamente"),
+        @ApiResponse(responseCode = "400", description = "Cursor o tamaño inválidos")
     })
-    public ResponseEntity<List<ObservacionAnalistasDTO>> getObservacionesByUsuario(
+    public ResponseEntity<CursorPageDTO<ObservacionAnalistasVista>> getObservacionesByUsuario(
             @Parameter(description = "Usuario que realizó la observación") 
-            @PathVariable String usuario) {
+            @PathVariable String usuario,
+            @Parameter(description = "Tamaño de la página (máximo " + KeysetPagination.MAX_SIZE + ")") 
+            @RequestParam(defaultValue = "20") int size,
+            @Parameter(description = "Dirección del ordenamiento (asc/desc)") 
+            @RequestParam(defaultValue = "desc") String sortDir,
+            @Parameter(description = "Cursor devuelto en la página anterior") 
+            @RequestParam(required = false) String cursor,
+            ServletWebRequest request) {
         
-        log.info("Received request to get ObservacionAnalistas by usuario: {}", usuario);
-        List<ObservacionAnalistas> observaciones = service.findByUsuarioOrderByFechaHoraDesc(usuario);
-        if (observaciones.isEmpty()) {
+        log.info("Received request to get ObservacionAnalistas by usuario: {}. Size: {}, SortDir: {}", usuario, size, sortDir);
+        keysetPagination.validarSize(size);
+        Sort sort = keysetPagination.sort(KeysetPagination.FECHA_HORA, sortDir);
+        KeysetScrollPosition position = keysetPagination.position(cursor, KeysetPagination.FECHA_HORA, sortDir);
+        Window<ObservacionAnalistasVista> observaciones = service.findByUsuario(usuario, position, sort, size);
+        if (observaciones.isEmpty() && cursor == null) {
             throw new ObservacionAnalistasNotFoundException(usuario, "usuario");
         }
-        List<ObservacionAnalistasDTO> dtos = mapper.toDTOList(observaciones);
-        return ResponseEntity.ok(dtos);
+        String nextCursor = keysetPagination.nextCursor(observaciones, KeysetPagination.FECHA_HORA, sortDir);
+        String etag = EntityTags.deContenido(observaciones.getContent(), ObservacionAnalistasVista::idObservacionAnalista,
+                ObservacionAnalistasVista::version, nextCursor);
+        if (conditionalRequests.noModificado(request, etag)) {
+            return null;
+        }
+        return conditionalRequests.ok(etag, new CursorPageDTO<>(observaciones.getContent(), nextCursor));
+    }
+
+    @GetMapping("/buscar")
+    @Operation(summary = "Buscar observaciones por texto", 
+               description = "Busca en la razón de intervención con el índice de texto completo y retorna las observaciones "
+                       + "de mayor a menor relevancia o de la más reciente a la más antigua, con paginación por cursor. "
+                       + "Admite \"frase exacta\", -excluir y or")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Búsqueda realizada exitosamente"),
+        @ApiResponse(responseCode = "400", description = "Texto, rango de fechas, cursor o tamaño inválidos")
+    })
+    public ResponseEntity<CursorPageDTO<ObservacionEncontrada>> buscarObservaciones(
+            @Parameter(description = "Texto a buscar", required = true) 
+            @RequestParam(required = false) String texto,
+            @Parameter(description = "ID de la solicitud") 
+            @RequestParam(required = false) Integer idSolicitud,
+            @Parameter(description = "Usuario que realizó la observación") 
+            @RequestParam(required = false) String usuario,
+            @Parameter(description = "Fecha inicial inclusiva (ISO-8601)") 
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime desde,
+            @Parameter(description = "Fecha final exclusiva (ISO-8601)") 
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime hasta,
+            @Parameter(description = "Orden de los resultados (RELEVANCIA/FECHA); FECHA responde más rápido con términos muy frecuentes") 
+            @RequestParam(defaultValue = "RELEVANCIA") OrdenBusquedaEnum orden,
+            @Parameter(description = "Tamaño de la página (máximo " + KeysetPagination.MAX_SIZE + ")") 
+            @RequestParam(defaultValue = "20") int size,
+            @Parameter(description = "Cursor devuelto en la página anterior") 
+            @RequestParam(required = false) String cursor,
+            ServletWebRequest request) {
+        
+        log.info("Received request to search ObservacionAnalistas. Texto: {}, IdSolicitud: {}, Usuario: {}, Orden: {}, Size: {}",
+                texto, idSolicitud, usuario, orden, size);
+        keysetPagination.validarSize(size);
+        CursorBusqueda posicion = CursorBusqueda.decodificar(cursor, orden);
+        PaginaBusqueda pagina = service.buscar(new FiltroBusqueda(texto, idSolicitud, usuario, desde, hasta), orden, posicion, size);
+        String etag = EntityTags.deContenido(pagina.resultados(), resultado -> resultado.observacion().idObservacionAnalista(),
+                resultado -> resultado.observacion().version(), pagina.nextCursor());
+        if (conditionalRequests.noModificado(request, etag)) {
+            return null;
+        }
+        return conditionalRequests.ok(etag, new CursorPageDTO<>(pagina.resultados(), pagina.nextCursor()));
     }
 
     @PostMapping
@@ -149,7 +309,9 @@ public class ObservacionAnalistasController {
         log.debug("Request body: {}", observacionAnalistasDTO);
         ObservacionAnalistas observacion = mapper.toEntity(observacionAnalistasDTO);
         ObservacionAnalistas savedObservacion = service.save(observacion);
-        return ResponseEntity.status(HttpStatus.CREATED).body(mapper.toDTO(savedObservacion));
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .eTag(EntityTags.deVersion(savedObservacion.getVersion()))
+                .body(mapper.toDTO(savedObservacion));
     }
 
     @PutMapping("/{id}")
@@ -158,19 +320,22 @@ public class ObservacionAnalistasController {
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Observación actualizada exitosamente"),
         @ApiResponse(responseCode = "404", description = "Observación no encontrada"),
-        @ApiResponse(responseCode = "400", description = "Datos inválidos")
+        @ApiResponse(responseCode = "400", description = "Datos inválidos"),
+        @ApiResponse(responseCode = "412", description = "La versión no coincide con If-Match")
     })
     public ResponseEntity<ObservacionAnalistasDTO> updateObservacionAnalistas(
             @Parameter(description = "ID de la observación") 
             @PathVariable Integer id,
             @Parameter(description = "Datos actualizados de la observación") 
-            @Valid @RequestBody ObservacionAnalistasDTO observacionAnalistasDTO) {
+            @Valid @RequestBody ObservacionAnalistasDTO observacionAnalistasDTO,
+            @Parameter(description = "ETag de la observación leída; si la versión cambió se responde 412") 
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         
         log.info("Received request to update ObservacionAnalistas with id: {}", id);
         log.debug("Request body: {}", observacionAnalistasDTO);
         ObservacionAnalistas observacion = mapper.toEntity(observacionAnalistasDTO);
-        ObservacionAnalistas updatedObservacion = service.update(id, observacion);
-        return ResponseEntity.ok(mapper.toDTO(updatedObservacion));
+        ObservacionAnalistas updatedObservacion = service.update(id, observacion, EntityTags.precondicion(ifMatch));
+        return conditionalRequests.ok(EntityTags.deVersion(updatedObservacion.getVersion()), mapper.toDTO(updatedObservacion));
     }
 
     @PatchMapping("/{id}")
@@ -179,19 +344,22 @@ public class ObservacionAnalistasController {
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Observación actualizada exitosamente"),
         @ApiResponse(responseCode = "404", description = "Observación no encontrada"),
-        @ApiResponse(responseCode = "400", description = "Datos inválidos")
+        @ApiResponse(responseCode = "400", description = "Datos inválidos"),
+        @ApiResponse(responseCode = "412", description = "La versión no coincide con If-Match")
     })
     public ResponseEntity<ObservacionAnalistasDTO> partialUpdateObservacionAnalistas(
             @Parameter(description = "ID de la observación") 
             @PathVariable Integer id,
             @Parameter(description = "Datos parciales de la observación") 
-            @RequestBody ObservacionAnalistasDTO observacionAnalistasDTO) {
+            @RequestBody ObservacionAnalistasDTO observacionAnalistasDTO,
+            @Parameter(description = "ETag de la observación leída; si la versión cambió se responde 412") 
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         
         log.info("Received request to partially update ObservacionAnalistas with id: {}", id);
         log.debug("Request body: {}", observacionAnalistasDTO);
         ObservacionAnalistas observacion = mapper.toEntity(observacionAnalistasDTO);
-        ObservacionAnalistas updatedObservacion = service.partialUpdate(id, observacion);
-        return ResponseEntity.ok(mapper.toDTO(updatedObservacion));
+        ObservacionAnalistas updatedObservacion = service.partialUpdate(id, observacion, EntityTags.precondicion(ifMatch));
+        return conditionalRequests.ok(EntityTags.deVersion(updatedObservacion.getVersion()), mapper.toDTO(updatedObservacion));
     }
 
     @DeleteMapping("/{id}")
@@ -0,0 +1,137 @@
+package com.banquito.originacion.analisis.controller;
+
+import java.util.Map;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import com.banquito.originacion.analisis.controller.dto.ReconstruccionProyeccionDTO;
+import com.banquito.originacion.analisis.controller.dto.SolicitudEstadoActualDTO;
+import com.banquito.originacion.analisis.controller.mapper.SolicitudEstadoActualMapper;
+import com.banquito.originacion.analisis.enums.EstadoHistorialEnum;
+import com.banquito.originacion.analisis.model.SolicitudEstadoActual;
+import com.banquito.originacion.analisis.http.ConditionalRequests;
+import com.banquito.originacion.analisis.http.EntityTags;
+import com.banquito.originacion.analisis.pagination.KeysetPagination;
+import com.banquito.originacion.analisis.service.SolicitudEstadoActualService;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+@RestController
+@RequestMapping("/api/solicitudes-estado-actual")
+@Tag(name = "Estado Actual de Solicitudes", description = "API para consultar el estado actual de cada solicitud")
+public class SolicitudEstadoActualController {
+
+    private static final Logger log = LoggerFactory.getLogger(SolicitudEstadoActualController.class);
+
+    private final SolicitudEstadoActualService service;
+    private final SolicitudEstadoActualMapper mapper;
+    private final ConditionalRequests conditionalRequests;
+    private final KeysetPagination keysetPagination = new KeysetPagination("idSolicitud");
+
+    public SolicitudEstadoActualController(SolicitudEstadoActualService service, SolicitudEstadoActualMapper mapper,
+            ConditionalRequests conditionalRequests) {
+        this.service = service;
+        this.mapper = mapper;
+        this.conditionalRequests = conditionalRequests;
+    }
+
+    @GetMapping("/{idSolicitud}")
+    @Operation(summary = "Obtener el estado actual de una solicitud", 
+               description = "Retorna el último estado registrado para la solicitud")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Estado actual encontrado exitosamente"),
+        @ApiResponse(responseCode = "404", description = "La solicitud no tiene historial")
+    })
+    public ResponseEntity<SolicitudEstadoActualDTO> getEstadoActual(
+            @Parameter(description = "ID de la solicitud") 
+            @PathVariable Integer idSolicitud,
+            ServletWebRequest request) {
+        
+        log.info("Received request to get current state for solicitud: {}", idSolicitud);
+        // El estado actual es el último registro del historial: su id y versión identifican la respuesta
+        SolicitudEstadoActual estadoActual = service.findByIdSolicitud(idSolicitud);
+        String etag = EntityTags.deHuella(estadoActual.getIdHistorial(), estadoActual.getVersion());
+        if (conditionalRequests.noModificado(request, etag)) {
+            return null;
+        }
+        return conditionalRequests.ok(etag, mapper.toDTO(estadoActual));
+    }
+
+    @GetMapping("/estado/{estado}")
+    @Operation(summary = "Obtener solicitudes por estado actual", 
+               description = "Retorna una lista paginada de las solicitudes que se encuentran actualmente en el estado indicado")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Solicitudes encontradas exitosamente"),
+        @ApiResponse(responseCode = "400", description = "Parámetros inválidos")
+    })
+    public ResponseEntity<Page<SolicitudEstadoActualDTO>> getSolicitudesByEstadoActual(
+            @Parameter(description = "Estado actual de la solicitud") 
+            @PathVariable EstadoHistorialEnum estado,
+            @Parameter(description = "Número de página (0-based)") 
+            @RequestParam(defaultValue = "0") int page,
+            @Parameter(description = "Tamaño de la página (máximo " + KeysetPagination.MAX_SIZE + ")") 
+            @RequestParam(defaultValue = "20") int size,
+            @Parameter(description = "Dirección del ordenamiento por ID de solicitud (asc/desc)") 
+            @RequestParam(defaultValue = "asc") String sortDir,
+            ServletWebRequest request) {
+        
+        log.info("Received request to get solicitudes by current estado: {}. Page: {}, Size: {}", estado, page, size);
+        keysetPagination.validarSize(size);
+        // El índice (estado, id_solicitud) resuelve filtro y orden sin ordenar en memoria
+        Sort sort = sortDir.equalsIgnoreCase("desc") ? 
+            Sort.by("idSolicitud").descending() : Sort.by("idSolicitud").ascending();
+        Pageable pageable = PageRequest.of(page, size, sort);
+        
+        Page<SolicitudEstadoActual> estadosActuales = service.findByEstadoPaginated(estado, pageable);
+        String etag = EntityTags.deContenido(estadosActuales.getContent(), SolicitudEstadoActual::getIdHistorial,
+                SolicitudEstadoActual::getVersion, estadosActuales.getTotalElements());
+        if (conditionalRequests.noModificado(request, etag)) {
+            return null;
+        }
+        return conditionalRequests.ok(etag, estadosActuales.map(mapper::toDTO));
+    }
+
+    @GetMapping("/conteo")
+    @Operation(summary = "Contar solicitudes por estado actual", 
+               description = "Retorna cuántas solicitudes se encuentran actualmente en cada estado")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Conteo obtenido exitosamente")
+    })
+    public ResponseEntity<Map<EstadoHistorialEnum, Long>> getConteoPorEstado(ServletWebRequest request) {
+        log.info("Received request to count solicitudes by current estado.");
+        Map<EstadoHistorialEnum, Long> conteo = service.contarPorEstado();
+        String etag = EntityTags.deHuella(conteo);
+        if (conditionalRequests.noModificado(request, etag)) {
+            return null;
+        }
+        return conditionalRequests.ok(etag, conteo);
+    }
+
+    @PostMapping("/reconstruir")
+    @Operation(summary = "Reconstruir la proyección de estado actual", 
+               description = "Recalcula el estado actual de todas las solicitudes a partir del historial de estados, por lotes")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Proyección reconstruida exitosamente")
+    })
+    public ResponseEntity<ReconstruccionProyeccionDTO> reconstruir() {
+        log.info("Received request to rebuild the current state projection.");
+        return ResponseEntity.ok(mapper.toReconstruccionDTO(service.reconstruir()));
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,79 @@
+package com.banquito.originacion.analisis.controller;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import com.banquito.originacion.analisis.controller.dto.CursorPageDTO;
+import com.banquito.originacion.analisis.controller.dto.EventoTimelineDTO;
+import com.banquito.originacion.analisis.controller.mapper.TimelineMapper;
+import com.banquito.originacion.analisis.http.ConditionalRequests;
+import com.banquito.originacion.analisis.http.EntityTags;
+import com.banquito.originacion.analisis.pagination.KeysetPagination;
+import com.banquito.originacion.analisis.service.TimelineService;
+import com.banquito.originacion.analisis.service.TimelineService.PaginaTimeline;
+import com.banquito.originacion.analisis.timeline.CursorTimeline;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+@RestController
+@RequestMapping("/api/solicitudes")
+@Tag(name = "Línea de Tiempo", description = "API para consultar los cambios de estado y observaciones de una solicitud en orden cronológico")
+public class SolicitudTimelineController {
+
+    private static final Logger log = LoggerFactory.getLogger(SolicitudTimelineController.class);
+
+    private final TimelineService service;
+    private final TimelineMapper mapper;
+    private final ConditionalRequests conditionalRequests;
+    private final KeysetPagination keysetPagination = new KeysetPagination("id");
+
+    public SolicitudTimelineController(TimelineService service, TimelineMapper mapper, ConditionalRequests conditionalRequests) {
+        this.service = service;
+        this.mapper = mapper;
+        this.conditionalRequests = conditionalRequests;
+    }
+
+    @GetMapping("/{idSolicitud}/timeline")
+    @Operation(summary = "Obtener la línea de tiempo de una solicitud", 
+               description = "Retorna los cambios de estado y las observaciones de la solicitud mezclados por fecha, "
+                       + "del más reciente al más antiguo, con paginación por cursor. Responde 304 si el If-None-Match coincide")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Línea de tiempo obtenida exitosamente"),
+        @ApiResponse(responseCode = "304", description = "La página no cambió desde el ETag enviado"),
+        @ApiResponse(responseCode = "400", description = "Cursor o tamaño inválidos")
+    })
+    public ResponseEntity<CursorPageDTO<EventoTimelineDTO>> getTimeline(
+            @Parameter(description = "ID de la solicitud", required = true) 
+            @PathVariable Integer idSolicitud,
+            @Parameter(description = "Tamaño de la página (máximo " + KeysetPagination.MAX_SIZE + ")") 
+            @RequestParam(defaultValue = "20") int size,
+            @Parameter(description = "Cursor devuelto en la página anterior") 
+            @RequestParam(required = false) String cursor,
+            ServletWebRequest request) {
+        
+        log.info("Received request to get timeline for idSolicitud: {}. Size: {}", idSolicitud, size);
+        keysetPagination.validarSize(size);
+        CursorTimeline posicion = CursorTimeline.decodificar(cursor);
+        
+        // La página queda determinada por la huella de la solicitud y los parámetros: se compara antes de leer los eventos
+        String etag = EntityTags.deHuella(service.huella(idSolicitud), size, cursor);
+        if (conditionalRequests.noModificado(request, etag)) {
+            log.debug("Timeline for idSolicitud: {} not modified", idSolicitud);
+            return null;
+        }
+        
+        PaginaTimeline pagina = service.findTimeline(idSolicitud, posicion, size);
+        return conditionalRequests.ok(etag, new CursorPageDTO<>(mapper.toDTOList(pagina.eventos()), pagina.nextCursor()));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,35 @@
+package com.banquito.originacion.analisis.controller.dto;
+
+import com.banquito.originacion.analisis.enums.EstadoHistorialEnum;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@ToString
+@Schema(description = "DTO con el número de transiciones entre dos estados y el tiempo previo en el estado de origen")
+public class ConteoTransicionDTO {
+    
+    @Schema(description = "Estado de origen", example = "EnRevision")
+    private EstadoHistorialEnum estadoDesde;
+    
+    @Schema(description = "Estado de destino", example = "Aprobada")
+    private EstadoHistorialEnum estadoHacia;
+    
+    @Schema(description = "Transiciones en el rango", example = "830")
+    private Long cantidad;
+    
+    @Schema(description = "Tiempo promedio en el estado de origen, en segundos", example = "172800")
+    private Long promedioSegundos;
+    
+    @Schema(description = "Percentil 50 del tiempo en el estado de origen, en segundos", example = "86400")
+    private Long p50Segundos;
+    
+    @Schema(description = "Percentil 90 del tiempo en el estado de origen, en segundos", example = "432000")
+    private Long p90Segundos;
+}
\ No newline at end of file
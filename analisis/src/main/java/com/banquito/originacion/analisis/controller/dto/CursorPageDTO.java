@@ -0,0 +1,36 @@
+package com.banquito.originacion.analisis.controller.dto;
+
+import java.util.List;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@ToString
+@Schema(description = "Página obtenida por cursor, sin conteo total de registros")
+public class CursorPageDTO<T> {
+
+    @Schema(description = "Registros de la página")
+    private List<T> content;
+
+    @Schema(description = "Cantidad de registros en la página", example = "20")
+    private Integer size;
+
+    @Schema(description = "Indica si existen más registros")
+    private Boolean hasNext;
+
+    @Schema(description = "Cursor opaco para solicitar la siguiente página", example = "djF8ZmVjaGFIb3JhfERFU0N8MjAyNC0wMS0xNVQxMDozMHw0Mg")
+    private String nextCursor;
+
+    public CursorPageDTO(List<T> content, String nextCursor) {
+        this.content = content;
+        this.size = content.size();
+        this.hasNext = nextCursor != null;
+        this.nextCursor = nextCursor;
+    }
+}
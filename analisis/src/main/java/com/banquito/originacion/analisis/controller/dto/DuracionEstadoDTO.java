@@ -0,0 +1,38 @@
+package com.banquito.originacion.analisis.controller.dto;
+
+import com.banquito.originacion.analisis.enums.EstadoHistorialEnum;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@ToString
+@Schema(description = "DTO con el tiempo que las solicitudes permanecieron en un estado antes de salir de él")
+public class DuracionEstadoDTO {
+    
+    @Schema(description = "Estado analizado", example = "EnRevision")
+    private EstadoHistorialEnum estado;
+    
+    @Schema(description = "Salidas del estado en el rango", example = "1250")
+    private Long transiciones;
+    
+    @Schema(description = "Tiempo promedio en el estado, en segundos", example = "172800")
+    private Long promedioSegundos;
+    
+    @Schema(description = "Percentil 50 del tiempo en el estado, en segundos", example = "86400")
+    private Long p50Segundos;
+    
+    @Schema(description = "Percentil 90 del tiempo en el estado, en segundos", example = "432000")
+    private Long p90Segundos;
+    
+    @Schema(description = "Percentil 95 del tiempo en el estado, en segundos", example = "604800")
+    private Long p95Segundos;
+    
+    @Schema(description = "Percentil 99 del tiempo en el estado, en segundos", example = "1209600")
+    private Long p99Segundos;
+}
\ No newline at end of file
@@ -0,0 +1,32 @@
+package com.banquito.originacion.analisis.controller.dto;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+import com.banquito.originacion.analisis.enums.EstadoHistorialEnum;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@ToString
+@Schema(description = "DTO con las entradas a cada estado en un día y la conversión hacia los estados finales")
+public class EmbudoDiarioDTO {
+    
+    @Schema(description = "Día de las transiciones", example = "2024-01-15")
+    private LocalDate dia;
+    
+    @Schema(description = "Transiciones que llegaron a cada estado ese día")
+    private Map<EstadoHistorialEnum, Long> entradas;
+    
+    @Schema(description = "Transiciones que llegaron a un estado final ese día", example = "120")
+    private Long resueltas;
+    
+    @Schema(description = "Proporción de las resueltas que llegó a cada estado final (0 a 1)")
+    private Map<EstadoHistorialEnum, Double> conversion;
+}
\ No newline at end of file
@@ -0,0 +1,36 @@
+package com.banquito.originacion.analisis.controller.dto;
+
+import java.time.LocalDateTime;
+
+import com.banquito.originacion.analisis.enums.TipoEventoTimelineEnum;
+import com.banquito.originacion.analisis.vista.HistorialEstadosVista;
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@ToString
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Schema(description = "Evento de la línea de tiempo de una solicitud: un cambio de estado o una observación de analista")
+public class EventoTimelineDTO {
+
+    @Schema(description = "Tipo de evento", example = "ESTADO")
+    private TipoEventoTimelineEnum tipo;
+
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    @Schema(description = "Fecha y hora del evento", example = "2024-01-15 10:30:00")
+    private LocalDateTime fechaHora;
+
+    @Schema(description = "Cambio de estado, presente cuando el tipo es ESTADO")
+    private HistorialEstadosVista historial;
+
+    @Schema(description = "Observación del analista, presente cuando el tipo es OBSERVACION")
+    private ObservacionAnalistasDTO observacion;
+}
\ No newline at end of file
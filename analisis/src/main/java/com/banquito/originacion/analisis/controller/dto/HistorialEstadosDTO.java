@@ -1,6 +1,5 @@
 package com.banquito.originacion.analisis.controller.dto;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 import com.banquito.originacion.analisis.enums.EstadoHistorialEnum;
@@ -48,5 +47,5 @@ public class HistorialEstadosDTO {
     private String motivo;
     
     @Schema(description = "Versión del registro", example = "1")
-    private BigDecimal version;
+    private Long version;
 } 
\ No newline at end of file
@@ -0,0 +1,27 @@
+package com.banquito.originacion.analisis.controller.dto;
+
+import java.util.List;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@ToString
+@Schema(description = "DTO para el registro en lote de transiciones de estado")
+public class HistorialEstadosLoteDTO {
+
+    public static final int MAX_TAMANIO_LOTE = 1000;
+
+    @NotEmpty(message = "El lote debe contener al menos un historial")
+    @Size(max = MAX_TAMANIO_LOTE, message = "El lote no puede tener más de " + MAX_TAMANIO_LOTE + " historiales")
+    @Schema(description = "Transiciones a registrar, en el orden en que deben aplicarse")
+    private List<@Valid HistorialEstadosDTO> historiales;
+}
@@ -0,0 +1,27 @@
+package com.banquito.originacion.analisis.controller.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@ToString
+@Schema(description = "Resultado del registro de un elemento del lote")
+public class HistorialEstadosLoteResultadoDTO {
+
+    @Schema(description = "Posición del elemento dentro del lote (0-based)", example = "0")
+    private Integer indice;
+
+    @Schema(description = "Indica si la transición fue registrada", example = "true")
+    private Boolean aceptado;
+
+    @Schema(description = "Historial registrado, o los datos enviados si fue rechazado")
+    private HistorialEstadosDTO historial;
+
+    @Schema(description = "Motivo del rechazo", example = "La solicitud 5 ya se encuentra en el estado Aprobada.")
+    private String error;
+}
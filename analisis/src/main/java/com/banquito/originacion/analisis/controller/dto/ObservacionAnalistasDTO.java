@@ -1,6 +1,5 @@
 package com.banquito.originacion.analisis.controller.dto;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
@@ -43,5 +42,5 @@ public class ObservacionAnalistasDTO {
     private String razonIntervencion;
     
     @Schema(description = "Versión del registro", example = "1")
-    private BigDecimal version;
+    private Long version;
 } 
\ No newline at end of file
@@ -0,0 +1,24 @@
+package com.banquito.originacion.analisis.controller.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@ToString
+@Schema(description = "DTO con el resultado del procesamiento del resumen de analítica")
+public class ProcesamientoAnaliticaDTO {
+    
+    @Schema(description = "Solicitudes procesadas", example = "15000")
+    private Integer solicitudes;
+    
+    @Schema(description = "Lotes procesados", example = "30")
+    private Integer lotes;
+    
+    @Schema(description = "Duración del procesamiento en milisegundos", example = "1250")
+    private Long duracionMs;
+}
\ No newline at end of file
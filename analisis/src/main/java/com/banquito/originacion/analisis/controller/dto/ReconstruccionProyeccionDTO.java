@@ -0,0 +1,27 @@
+package com.banquito.originacion.analisis.controller.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@ToString
+@Schema(description = "DTO con el resultado de la reconstrucción de la proyección de estado actual")
+public class ReconstruccionProyeccionDTO {
+    
+    @Schema(description = "Solicitudes recalculadas desde el historial", example = "15000")
+    private Integer solicitudes;
+    
+    @Schema(description = "Lotes procesados", example = "30")
+    private Integer lotes;
+    
+    @Schema(description = "Filas eliminadas por no tener historial", example = "0")
+    private Integer eliminadas;
+    
+    @Schema(description = "Duración de la reconstrucción en milisegundos", example = "1250")
+    private Long duracionMs;
+}
\ No newline at end of file
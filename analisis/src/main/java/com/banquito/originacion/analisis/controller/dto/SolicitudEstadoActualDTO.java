@@ -0,0 +1,42 @@
+package com.banquito.originacion.analisis.controller.dto;
+
+import java.time.LocalDateTime;
+
+import com.banquito.originacion.analisis.enums.EstadoHistorialEnum;
+import com.fasterxml.jackson.annotation.JsonFormat;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@ToString
+@Schema(description = "DTO con el estado actual de una solicitud")
+public class SolicitudEstadoActualDTO {
+    
+    @Schema(description = "ID de la solicitud", example = "12345")
+    private Integer idSolicitud;
+    
+    @Schema(description = "ID del último registro de historial", example = "1")
+    private Integer idHistorial;
+    
+    @Schema(description = "Estado actual de la solicitud", example = "EnRevision")
+    private EstadoHistorialEnum estado;
+    
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    @Schema(description = "Fecha y hora del último cambio de estado", example = "2024-01-15 10:30:00")
+    private LocalDateTime fechaHora;
+    
+    @Schema(description = "Usuario que realizó el último cambio", example = "analista01")
+    private String usuario;
+    
+    @Schema(description = "Motivo del último cambio de estado", example = "Solicitud en revisión inicial")
+    private String motivo;
+    
+    @Schema(description = "Versión del último registro", example = "2")
+    private Long version;
+}
\ No newline at end of file
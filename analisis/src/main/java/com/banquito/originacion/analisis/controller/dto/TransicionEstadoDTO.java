@@ -0,0 +1,28 @@
+package com.banquito.originacion.analisis.controller.dto;
+
+import java.util.List;
+
+import com.banquito.originacion.analisis.enums.EstadoHistorialEnum;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@ToString
+@Schema(description = "DTO con los estados a los que se puede pasar desde un estado")
+public class TransicionEstadoDTO {
+
+    @Schema(description = "Estado de origen", example = "EnRevision")
+    private EstadoHistorialEnum estado;
+
+    @Schema(description = "Indica si el estado es final (sin transiciones posibles)", example = "false")
+    private Boolean estadoFinal;
+
+    @Schema(description = "Estados permitidos a partir del estado de origen", example = "[\"Aprobada\", \"Rechazada\", \"Borrador\"]")
+    private List<EstadoHistorialEnum> siguientesEstados;
+}
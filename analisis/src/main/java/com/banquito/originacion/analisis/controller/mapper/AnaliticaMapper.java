@@ -0,0 +1,86 @@
+package com.banquito.originacion.analisis.controller.mapper;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.stereotype.Component;
+
+import com.banquito.originacion.analisis.analitica.HistogramaDuraciones;
+import com.banquito.originacion.analisis.controller.dto.ConteoTransicionDTO;
+import com.banquito.originacion.analisis.controller.dto.DuracionEstadoDTO;
+import com.banquito.originacion.analisis.controller.dto.EmbudoDiarioDTO;
+import com.banquito.originacion.analisis.controller.dto.ProcesamientoAnaliticaDTO;
+import com.banquito.originacion.analisis.service.AnaliticaEstadosService.ConteoTransicion;
+import com.banquito.originacion.analisis.service.AnaliticaEstadosService.DuracionEstado;
+import com.banquito.originacion.analisis.service.AnaliticaEstadosService.EmbudoDiario;
+import com.banquito.originacion.analisis.service.AnaliticaEstadosService.ResultadoProcesamiento;
+
+@Component
+public class AnaliticaMapper {
+    
+    public DuracionEstadoDTO toDTO(DuracionEstado duracion) {
+        HistogramaDuraciones histograma = duracion.histograma();
+        DuracionEstadoDTO dto = new DuracionEstadoDTO();
+        dto.setEstado(duracion.estado());
+        dto.setTransiciones(histograma.getTotal());
+        dto.setPromedioSegundos(Math.round(histograma.getPromedioSegundos()));
+        dto.setP50Segundos(Math.round(histograma.percentil(0.50)));
+        dto.setP90Segundos(Math.round(histograma.percentil(0.90)));
+        dto.setP95Segundos(Math.round(histograma.percentil(0.95)));
+        dto.setP99Segundos(Math.round(histograma.percentil(0.99)));
+        return dto;
+    }
+    
+    public ConteoTransicionDTO toDTO(ConteoTransicion transicion) {
+        HistogramaDuraciones histograma = transicion.histograma();
+        ConteoTransicionDTO dto = new ConteoTransicionDTO();
+        dto.setEstadoDesde(transicion.estadoDesde());
+        dto.setEstadoHacia(transicion.estadoHacia());
+        dto.setCantidad(histograma.getTotal());
+        dto.setPromedioSegundos(Math.round(histograma.getPromedioSegundos()));
+        dto.setP50Segundos(Math.round(histograma.percentil(0.50)));
+        dto.setP90Segundos(Math.round(histograma.percentil(0.90)));
+        return dto;
+    }
+    
+    public EmbudoDiarioDTO toDTO(EmbudoDiario embudo) {
+        EmbudoDiarioDTO dto = new EmbudoDiarioDTO();
+        dto.setDia(embudo.dia());
+        dto.setEntradas(embudo.entradas());
+        dto.setResueltas(embudo.resueltas());
+        dto.setConversion(embudo.conversion());
+        return dto;
+    }
+    
+    public List<DuracionEstadoDTO> toDuracionDTOList(List<DuracionEstado> duraciones) {
+        List<DuracionEstadoDTO> dtoList = new ArrayList<>(duraciones.size());
+        for (DuracionEstado duracion : duraciones) {
+            dtoList.add(toDTO(duracion));
+        }
+        return dtoList;
+    }
+    
+    public List<ConteoTransicionDTO> toTransicionDTOList(List<ConteoTransicion> transiciones) {
+        List<ConteoTransicionDTO> dtoList = new ArrayList<>(transiciones.size());
+        for (ConteoTransicion transicion : transiciones) {
+            dtoList.add(toDTO(transicion));
+        }
+        return dtoList;
+    }
+    
+    public List<EmbudoDiarioDTO> toEmbudoDTOList(List<EmbudoDiario> embudo) {
+        List<EmbudoDiarioDTO> dtoList = new ArrayList<>(embudo.size());
+        for (EmbudoDiario dia : embudo) {
+            dtoList.add(toDTO(dia));
+        }
+        return dtoList;
+    }
+    
+    public ProcesamientoAnaliticaDTO toProcesamientoDTO(ResultadoProcesamiento resultado) {
+        ProcesamientoAnaliticaDTO dto = new ProcesamientoAnaliticaDTO();
+        dto.setSolicitudes(resultado.solicitudes());
+        dto.setLotes(resultado.lotes());
+        dto.setDuracionMs(resultado.duracionMs());
+        return dto;
+    }
+}
\ No newline at end of file
@@ -2,11 +2,18 @@ package com.banquito.originacion.analisis.controller.mapper;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import org.springframework.stereotype.Component;
 
 import com.banquito.originacion.analisis.controller.dto.HistorialEstadosDTO;
+import com.banquito.originacion.analisis.controller.dto.HistorialEstadosLoteResultadoDTO;
+import com.banquito.originacion.analisis.controller.dto.TransicionEstadoDTO;
+import com.banquito.originacion.analisis.enums.EstadoHistorialEnum;
 import com.banquito.originacion.analisis.model.HistorialEstados;
+import com.banquito.originacion.analisis.service.HistorialEstadosService.ResultadoLote;
+import com.banquito.originacion.analisis.vista.HistorialEstadosVista;
 
 @Component
 public class HistorialEstadosMapper {
@@ -28,6 +35,22 @@ public class HistorialEstadosMapper {
         return dto;
     }
     
+    // Misma forma que las lecturas de VistaRepository, para que la línea de tiempo use la caché de JSON
+    public HistorialEstadosVista toVista(HistorialEstados historialEstados) {
+        if (historialEstados == null) {
+            return null;
+        }
+        
+        return new HistorialEstadosVista(
+                historialEstados.getIdHistorial(),
+                historialEstados.getIdSolicitud(),
+                historialEstados.getEstado(),
+                historialEstados.getFechaHora(),
+                historialEstados.getUsuario(),
+                historialEstados.getMotivo(),
+                historialEstados.getVersion());
+    }
+    
     public HistorialEstados toEntity(HistorialEstadosDTO dto) {
         if (dto == null) {
             return null;
@@ -40,7 +63,9 @@ public class HistorialEstadosMapper {
         entity.setFechaHora(dto.getFechaHora());
         entity.setUsuario(dto.getUsuario());
         entity.setMotivo(dto.getMotivo());
-        entity.setVersion(dto.getVersion());
+        if (dto.getVersion() != null) {
+            entity.setVersion(dto.getVersion());
+        }
         
         return entity;
     }
@@ -70,4 +95,38 @@ public class HistorialEstadosMapper {
         
         return entityList;
     }
+    
+    public List<HistorialEstadosLoteResultadoDTO> toLoteResultadoDTOList(List<ResultadoLote> resultados) {
+        if (resultados == null) {
+            return new ArrayList<>();
+        }
+        
+        List<HistorialEstadosLoteResultadoDTO> dtoList = new ArrayList<>(resultados.size());
+        for (ResultadoLote resultado : resultados) {
+            HistorialEstadosLoteResultadoDTO dto = new HistorialEstadosLoteResultadoDTO();
+            dto.setIndice(resultado.indice());
+            dto.setAceptado(resultado.isAceptado());
+            dto.setHistorial(toDTO(resultado.historial()));
+            dto.setError(resultado.error());
+            dtoList.add(dto);
+        }
+        
+        return dtoList;
+    }
+    
+    public TransicionEstadoDTO toTransicionDTO(EstadoHistorialEnum estado, Set<EstadoHistorialEnum> siguientesEstados) {
+        TransicionEstadoDTO dto = new TransicionEstadoDTO();
+        dto.setEstado(estado);
+        dto.setEstadoFinal(siguientesEstados.isEmpty());
+        dto.setSiguientesEstados(new ArrayList<>(siguientesEstados));
+        return dto;
+    }
+    
+    public List<TransicionEstadoDTO> toTransicionDTOList(Map<EstadoHistorialEnum, Set<EstadoHistorialEnum>> transiciones) {
+        List<TransicionEstadoDTO> dtoList = new ArrayList<>(transiciones.size());
+        for (Map.Entry<EstadoHistorialEnum, Set<EstadoHistorialEnum>> entry : transiciones.entrySet()) {
+            dtoList.add(toTransicionDTO(entry.getKey(), entry.getValue()));
+        }
+        return dtoList;
+    }
 } 
\ No newline at end of file
@@ -38,7 +38,9 @@ public class ObservacionAnalistasMapper {
         entity.setUsuario(dto.getUsuario());
         entity.setFechaHora(dto.getFechaHora());
         entity.setRazonIntervencion(dto.getRazonIntervencion());
-        entity.setVersion(dto.getVersion());
+        if (dto.getVersion() != null) {
+            entity.setVersion(dto.getVersion());
+        }
         
         return entity;
     }
@@ -0,0 +1,39 @@
+package com.banquito.originacion.analisis.controller.mapper;
+
+
+import org.springframework.stereotype.Component;
+
+import com.banquito.originacion.analisis.controller.dto.ReconstruccionProyeccionDTO;
+import com.banquito.originacion.analisis.controller.dto.SolicitudEstadoActualDTO;
+import com.banquito.originacion.analisis.model.SolicitudEstadoActual;
+import com.banquito.originacion.analisis.service.SolicitudEstadoActualService.ResultadoReconstruccion;
+
+@Component
+public class SolicitudEstadoActualMapper {
+    
+    public SolicitudEstadoActualDTO toDTO(SolicitudEstadoActual estadoActual) {
+        if (estadoActual == null) {
+            return null;
+        }
+        
+        SolicitudEstadoActualDTO dto = new SolicitudEstadoActualDTO();
+        dto.setIdSolicitud(estadoActual.getIdSolicitud());
+        dto.setIdHistorial(estadoActual.getIdHistorial());
+        dto.setEstado(estadoActual.getEstado());
+        dto.setFechaHora(estadoActual.getFechaHora());
+        dto.setUsuario(estadoActual.getUsuario());
+        dto.setMotivo(estadoActual.getMotivo());
+        dto.setVersion(estadoActual.getVersion());
+        
+        return dto;
+    }
+    
+    public ReconstruccionProyeccionDTO toReconstruccionDTO(ResultadoReconstruccion resultado) {
+        ReconstruccionProyeccionDTO dto = new ReconstruccionProyeccionDTO();
+        dto.setSolicitudes(resultado.solicitudes());
+        dto.setLotes(resultado.lotes());
+        dto.setEliminadas(resultado.eliminadas());
+        dto.setDuracionMs(resultado.duracionMs());
+        return dto;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,48 @@
+package com.banquito.originacion.analisis.controller.mapper;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.stereotype.Component;
+
+import com.banquito.originacion.analisis.controller.dto.EventoTimelineDTO;
+import com.banquito.originacion.analisis.timeline.EventoTimeline;
+
+@Component
+public class TimelineMapper {
+
+    private final HistorialEstadosMapper historialEstadosMapper;
+    private final ObservacionAnalistasMapper observacionAnalistasMapper;
+
+    public TimelineMapper(HistorialEstadosMapper historialEstadosMapper, ObservacionAnalistasMapper observacionAnalistasMapper) {
+        this.historialEstadosMapper = historialEstadosMapper;
+        this.observacionAnalistasMapper = observacionAnalistasMapper;
+    }
+
+    public EventoTimelineDTO toDTO(EventoTimeline evento) {
+        if (evento == null) {
+            return null;
+        }
+
+        EventoTimelineDTO dto = new EventoTimelineDTO();
+        dto.setTipo(evento.tipo());
+        dto.setFechaHora(evento.fechaHora());
+        dto.setHistorial(historialEstadosMapper.toVista(evento.historial()));
+        dto.setObservacion(observacionAnalistasMapper.toDTO(evento.observacion()));
+
+        return dto;
+    }
+
+    public List<EventoTimelineDTO> toDTOList(List<EventoTimeline> eventos) {
+        if (eventos == null) {
+            return new ArrayList<>();
+        }
+
+        List<EventoTimelineDTO> dtoList = new ArrayList<>(eventos.size());
+        for (EventoTimeline evento : eventos) {
+            dtoList.add(toDTO(evento));
+        }
+
+        return dtoList;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,8 @@
+package com.banquito.originacion.analisis.enums;
+
+// RELEVANCIA calcula ts_rank_cd de todas las coincidencias antes de ordenar; FECHA recorre el índice
+// (fecha_hora, id) hacia atrás y se detiene al completar la página, lo que conviene con términos muy frecuentes
+public enum OrdenBusquedaEnum {
+    RELEVANCIA,
+    FECHA
+}
\ No newline at end of file
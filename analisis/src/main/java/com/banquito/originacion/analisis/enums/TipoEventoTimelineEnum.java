@@ -0,0 +1,7 @@
+package com.banquito.originacion.analisis.enums;
+
+// El orden de declaración desempata eventos con la misma fecha en la línea de tiempo
+public enum TipoEventoTimelineEnum {
+    ESTADO,
+    OBSERVACION
+}
\ No newline at end of file
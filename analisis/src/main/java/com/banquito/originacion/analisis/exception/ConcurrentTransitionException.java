@@ -0,0 +1,8 @@
+package com.banquito.originacion.analisis.exception;
+
+public class ConcurrentTransitionException extends RuntimeException {
+
+    public ConcurrentTransitionException(String message) {
+        super(message);
+    }
+}
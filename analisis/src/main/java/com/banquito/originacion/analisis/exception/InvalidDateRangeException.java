@@ -0,0 +1,8 @@
+package com.banquito.originacion.analisis.exception;
+
+public class InvalidDateRangeException extends RuntimeException {
+
+    public InvalidDateRangeException(String message) {
+        super(message);
+    }
+}
\ No newline at end of file
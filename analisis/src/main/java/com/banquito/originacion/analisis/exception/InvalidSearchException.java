@@ -0,0 +1,8 @@
+package com.banquito.originacion.analisis.exception;
+
+public class InvalidSearchException extends RuntimeException {
+
+    public InvalidSearchException(String message) {
+        super(message);
+    }
+}
\ No newline at end of file
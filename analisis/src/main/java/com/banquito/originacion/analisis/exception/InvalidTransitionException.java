@@ -4,12 +4,30 @@ import com.banquito.originacion.analisis.enums.EstadoHistorialEnum;
 
 public class InvalidTransitionException extends RuntimeException {
 
+    // Nulo cuando la solicitud aún no tiene historial (estado inicial inválido)
+    private final EstadoHistorialEnum estadoActual;
+    private final EstadoHistorialEnum nuevoEstado;
+
     public InvalidTransitionException(String message) {
+        this(message, null, null);
+    }
+
+    public InvalidTransitionException(String message, EstadoHistorialEnum estadoActual, EstadoHistorialEnum nuevoEstado) {
         super(message);
+        this.estadoActual = estadoActual;
+        this.nuevoEstado = nuevoEstado;
     }
 
     public InvalidTransitionException(Integer idSolicitud, EstadoHistorialEnum estadoActual, EstadoHistorialEnum nuevoEstado) {
-        super("Transición de estado inválida para la solicitud " + idSolicitud + 
-              ": no se puede cambiar de " + estadoActual + " a " + nuevoEstado + ".");
+        this("Transición de estado inválida para la solicitud " + idSolicitud + 
+              ": no se puede cambiar de " + estadoActual + " a " + nuevoEstado + ".", estadoActual, nuevoEstado);
+    }
+
+    public EstadoHistorialEnum getEstadoActual() {
+        return estadoActual;
+    }
+
+    public EstadoHistorialEnum getNuevoEstado() {
+        return nuevoEstado;
     }
 } 
\ No newline at end of file
@@ -0,0 +1,60 @@
+package com.banquito.originacion.analisis.http;
+
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.ServletWebRequest;
+
+@Component
+public class ConditionalRequests {
+
+    private static final Logger log = LoggerFactory.getLogger(ConditionalRequests.class);
+
+    private final CacheControl registros;
+    private final CacheControl catalogos;
+
+    public ConditionalRequests(
+            @Value("${analisis.http.cache.max-age-segundos:0}") long maxAgeSegundos,
+            @Value("${analisis.http.cache.catalogos-max-age-segundos:3600}") long catalogosMaxAgeSegundos) {
+        // Sin max-age el cliente revalida siempre, y con el ETag la revalidación es un 304 barato
+        this.registros = maxAgeSegundos > 0
+                ? CacheControl.maxAge(maxAgeSegundos, TimeUnit.SECONDS).cachePrivate().mustRevalidate()
+                : CacheControl.noCache().cachePrivate();
+        this.catalogos = CacheControl.maxAge(catalogosMaxAgeSegundos, TimeUnit.SECONDS).cachePublic();
+        log.info("ConditionalRequests initialized. Registros: {}, Catalogos: {}", registros.getHeaderValue(), catalogos.getHeaderValue());
+    }
+
+    // true si el If-None-Match coincide: el método debe retornar null y Spring responde 304 sin cuerpo
+    public boolean noModificado(ServletWebRequest request, String etag) {
+        return noModificado(request, etag, registros);
+    }
+
+    public boolean catalogoNoModificado(ServletWebRequest request, String etag) {
+        return noModificado(request, etag, catalogos);
+    }
+
+    public <T> ResponseEntity<T> ok(String etag, T body) {
+        return ResponseEntity.ok().eTag(etag).cacheControl(registros).body(body);
+    }
+
+    public <T> ResponseEntity<T> catalogo(String etag, T body) {
+        return ResponseEntity.ok().eTag(etag).cacheControl(catalogos).body(body);
+    }
+
+    private boolean noModificado(ServletWebRequest request, String etag, CacheControl cacheControl) {
+        if (!request.checkNotModified(etag)) {
+            return false;
+        }
+        // El 304 repite la política de caché; en el 200 la agrega ResponseEntity
+        if (request.getResponse() != null) {
+            request.getResponse().setHeader(HttpHeaders.CACHE_CONTROL, cacheControl.getHeaderValue());
+        }
+        return true;
+    }
+}
\ No newline at end of file
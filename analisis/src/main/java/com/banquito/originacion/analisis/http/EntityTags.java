@@ -0,0 +1,68 @@
+package com.banquito.originacion.analisis.http;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.StringJoiner;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+import org.springframework.util.DigestUtils;
+
+import com.banquito.originacion.analisis.concurrency.PrecondicionVersion;
+
+public final class EntityTags {
+
+    private static final String CUALQUIERA = "*";
+
+    private EntityTags() {
+    }
+
+    // ETag fuerte de un registro: su versión, que se incrementa en cada modificación
+    public static String deVersion(long version) {
+        return "\"" + version + "\"";
+    }
+
+    public static String deHuella(Object... partes) {
+        StringJoiner valor = new StringJoiner("|");
+        for (Object parte : partes) {
+            valor.add(String.valueOf(parte));
+        }
+        return "\"" + DigestUtils.md5DigestAsHex(valor.toString().getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+
+    // Para listados que solo pueden conocerse consultándolos: identidad y versión de cada registro, sin mapear ni serializar
+    public static <T> String deContenido(Collection<T> registros, Function<T, Object> id, ToLongFunction<T> version,
+            Object... extra) {
+        List<Object> partes = new ArrayList<>(registros.size() + extra.length);
+        for (T registro : registros) {
+            partes.add(id.apply(registro) + ":" + version.applyAsLong(registro));
+        }
+        partes.addAll(Arrays.asList(extra));
+        return deHuella(partes.toArray());
+    }
+
+    public static PrecondicionVersion precondicion(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank()) {
+            return PrecondicionVersion.NINGUNA;
+        }
+        List<Long> versiones = new ArrayList<>();
+        for (String etiqueta : ifMatch.split(",")) {
+            String valor = etiqueta.trim();
+            if (CUALQUIERA.equals(valor)) {
+                return PrecondicionVersion.NINGUNA;
+            }
+            // If-Match usa comparación fuerte: las etiquetas débiles o ajenas nunca coinciden
+            if (valor.length() > 2 && valor.startsWith("\"") && valor.endsWith("\"")) {
+                try {
+                    versiones.add(Long.valueOf(valor.substring(1, valor.length() - 1)));
+                } catch (NumberFormatException ex) {
+                    // No es una versión emitida por este servicio
+                }
+            }
+        }
+        return new PrecondicionVersion(true, versiones);
+    }
+}
\ No newline at end of file
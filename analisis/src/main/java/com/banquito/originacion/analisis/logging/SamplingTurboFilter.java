@@ -0,0 +1,64 @@
+package com.banquito.originacion.analisis.logging;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.slf4j.Marker;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+
+// Deja pasar solo uno de cada "rate" eventos de los loggers configurados hasta el nivel "level";
+// WARN y ERROR nunca se muestrean. Se evalúa antes de formatear el mensaje, por lo que descartar es barato
+public class SamplingTurboFilter extends TurboFilter {
+
+    private final List<String> loggerPrefixes = new ArrayList<>();
+    private int rate = 1;
+    private Level level = Level.INFO;
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level eventLevel, String format, Object[] params, Throwable t) {
+        // format nulo: consulta isXxxEnabled(), no un evento
+        if (!isStarted() || rate <= 1 || format == null || eventLevel == null || eventLevel.toInt() > level.toInt()) {
+            return FilterReply.NEUTRAL;
+        }
+        if (!matches(logger.getName())) {
+            return FilterReply.NEUTRAL;
+        }
+        // Aleatorio por hilo: sin un contador compartido que se convierta en punto de contención
+        return ThreadLocalRandom.current().nextInt(rate) == 0 ? FilterReply.NEUTRAL : FilterReply.DENY;
+    }
+
+    private boolean matches(String loggerName) {
+        for (String prefix : loggerPrefixes) {
+            if (loggerName.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public void addLoggerPrefix(String loggerPrefix) {
+        this.loggerPrefixes.add(loggerPrefix);
+    }
+
+    public void setRate(int rate) {
+        this.rate = rate;
+    }
+
+    public void setLevel(String level) {
+        this.level = Level.toLevel(level, Level.INFO);
+    }
+
+    @Override
+    public void start() {
+        if (rate < 1) {
+            addError("The sampling rate must be greater than zero");
+            return;
+        }
+        super.start();
+    }
+}
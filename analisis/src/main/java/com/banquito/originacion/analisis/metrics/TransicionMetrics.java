@@ -0,0 +1,44 @@
+package com.banquito.originacion.analisis.metrics;
+
+import org.springframework.stereotype.Component;
+
+import com.banquito.originacion.analisis.enums.EstadoHistorialEnum;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+@Component
+public class TransicionMetrics {
+
+    public static final String TRANSICIONES_INVALIDAS = "analisis.transiciones.invalidas";
+
+    // Valor de la etiqueta "desde" cuando la solicitud aún no tiene historial
+    static final String SIN_ESTADO = "ninguno";
+
+    private static final EstadoHistorialEnum[] ESTADOS = EstadoHistorialEnum.values();
+
+    // Contadores registrados por adelantado para cada par (desde, hacia); el último índice de origen es SIN_ESTADO
+    private final Counter[] invalidas;
+
+    public TransicionMetrics(MeterRegistry meterRegistry) {
+        this.invalidas = new Counter[(ESTADOS.length + 1) * ESTADOS.length];
+        for (int desde = 0; desde <= ESTADOS.length; desde++) {
+            String tagDesde = desde < ESTADOS.length ? ESTADOS[desde].name() : SIN_ESTADO;
+            for (EstadoHistorialEnum hacia : ESTADOS) {
+                invalidas[desde * ESTADOS.length + hacia.ordinal()] = Counter.builder(TRANSICIONES_INVALIDAS)
+                        .description("Transiciones de estado rechazadas por la máquina de estados")
+                        .tag("desde", tagDesde)
+                        .tag("hacia", hacia.name())
+                        .register(meterRegistry);
+            }
+        }
+    }
+
+    public void registrarTransicionInvalida(EstadoHistorialEnum desde, EstadoHistorialEnum hacia) {
+        if (hacia == null) {
+            return;
+        }
+        int indiceDesde = desde == null ? ESTADOS.length : desde.ordinal();
+        invalidas[indiceDesde * ESTADOS.length + hacia.ordinal()].increment();
+    }
+}
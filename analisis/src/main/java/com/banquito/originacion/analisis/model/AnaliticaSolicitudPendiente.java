@@ -0,0 +1,22 @@
+package com.banquito.originacion.analisis.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+// Solicitud cuyo historial cambió y aún no se refleja en el resumen de analítica
+@Entity
+@Table(name = "analitica_solicitud_pendiente", schema = "analisis_creditos")
+@Getter
+@Setter
+@NoArgsConstructor
+@ToString
+public class AnaliticaSolicitudPendiente {
+    
+    @Id
+    @Column(name = "id_solicitud")
+    private Integer idSolicitud;
+    
+} 
\ No newline at end of file
@@ -0,0 +1,44 @@
+package com.banquito.originacion.analisis.model;
+
+import java.time.LocalDate;
+
+import com.banquito.originacion.analisis.enums.EstadoHistorialEnum;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+// Transición derivada del historial; se escribe con JDBC desde AnaliticaRepository, el mapeo permite validar el esquema
+@Entity
+@Table(name = "analitica_transicion", schema = "analisis_creditos",
+        indexes = @Index(name = "idx_analitica_transicion_solicitud", columnList = "id_solicitud"))
+@Getter
+@Setter
+@NoArgsConstructor
+@ToString
+public class AnaliticaTransicion {
+    
+    // Registro de historial que cierra el estado de origen
+    @Id
+    @Column(name = "id_historial")
+    private Integer idHistorial;
+    
+    @Column(name = "id_solicitud", nullable = false)
+    private Integer idSolicitud;
+    
+    @Column(name = "dia", nullable = false)
+    private LocalDate dia;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "estado_desde", nullable = false, length = 20)
+    private EstadoHistorialEnum estadoDesde;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "estado_hacia", nullable = false, length = 20)
+    private EstadoHistorialEnum estadoHacia;
+    
+    @Column(name = "duracion_segundos", nullable = false)
+    private Long duracionSegundos;
+    
+} 
\ No newline at end of file
@@ -0,0 +1,60 @@
+package com.banquito.originacion.analisis.model;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+import com.banquito.originacion.analisis.enums.EstadoHistorialEnum;
+import jakarta.persistence.*;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+// Resumen diario por par de estados; se escribe con JDBC desde AnaliticaRepository, el mapeo permite validar el esquema
+@Entity
+@Table(name = "analitica_transicion_diaria", schema = "analisis_creditos")
+@IdClass(AnaliticaTransicionDiaria.Clave.class)
+@Getter
+@Setter
+@NoArgsConstructor
+@ToString
+public class AnaliticaTransicionDiaria {
+    
+    @Id
+    @Column(name = "dia")
+    private LocalDate dia;
+    
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(name = "estado_desde", length = 20)
+    private EstadoHistorialEnum estadoDesde;
+    
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(name = "estado_hacia", length = 20)
+    private EstadoHistorialEnum estadoHacia;
+    
+    // Cubeta del histograma logarítmico de duraciones (ver HistogramaDuraciones)
+    @Id
+    @Column(name = "cubeta")
+    private Short cubeta;
+    
+    @Column(name = "cantidad", nullable = false)
+    private Long cantidad;
+    
+    @Column(name = "duracion_total_segundos", nullable = false)
+    private Long duracionTotalSegundos;
+    
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @EqualsAndHashCode
+    public static class Clave implements Serializable {
+        private LocalDate dia;
+        private EstadoHistorialEnum estadoDesde;
+        private EstadoHistorialEnum estadoHacia;
+        private Short cubeta;
+    }
+    
+} 
\ No newline at end of file
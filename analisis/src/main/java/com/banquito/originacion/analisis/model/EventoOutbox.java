@@ -0,0 +1,58 @@
+package com.banquito.originacion.analisis.model;
+
+import java.time.LocalDateTime;
+
+import com.banquito.originacion.analisis.enums.EstadoHistorialEnum;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+// Evento de transición pendiente de publicar; se escribe y se lee con JDBC desde OutboxRepository, el mapeo permite validar el esquema
+@Entity
+@Table(name = "evento_outbox", schema = "analisis_creditos")
+@Getter
+@Setter
+@NoArgsConstructor
+@ToString
+public class EventoOutbox {
+    
+    // Asignado con nextval en el INSERT, no por Hibernate
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "evento_outbox_seq")
+    @SequenceGenerator(name = "evento_outbox_seq", sequenceName = "evento_outbox_seq",
+            schema = "analisis_creditos", allocationSize = 1)
+    @Column(name = "id_evento")
+    private Long idEvento;
+    
+    @Column(name = "id_solicitud", nullable = false)
+    private Integer idSolicitud;
+    
+    @Column(name = "id_historial", nullable = false)
+    private Integer idHistorial;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "estado_anterior", length = 20)
+    private EstadoHistorialEnum estadoAnterior;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "estado", nullable = false, length = 20)
+    private EstadoHistorialEnum estado;
+    
+    @Column(name = "fecha_hora", nullable = false)
+    private LocalDateTime fechaHora;
+    
+    @Column(name = "usuario", nullable = false, length = 50)
+    private String usuario;
+    
+    @Column(name = "motivo", nullable = false, length = 120)
+    private String motivo;
+    
+    @Column(name = "version", nullable = false)
+    private Long version;
+    
+    @Column(name = "fecha_registro", nullable = false)
+    private LocalDateTime fechaRegistro;
+    
+}
\ No newline at end of file
@@ -1,6 +1,5 @@
 package com.banquito.originacion.analisis.model;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import com.banquito.originacion.analisis.enums.EstadoHistorialEnum;
 import jakarta.persistence.*;
@@ -10,7 +9,14 @@ import lombok.Setter;
 import lombok.ToString;
 
 @Entity
-@Table(name = "historial_estados", schema = "analisis_creditos")
+// Los índices se crean con las migraciones de Flyway (db/migration); aquí solo se documentan
+// Particionada por mes sobre fecha_hora (V8): en la base la clave primaria es (id_historial, fecha_hora)
+@Table(name = "historial_estados", schema = "analisis_creditos", indexes = {
+        @Index(name = "idx_historial_estados_solicitud_fecha", columnList = "id_solicitud, fecha_hora DESC"),
+        @Index(name = "idx_historial_estados_estado_fecha", columnList = "estado, fecha_hora"),
+        @Index(name = "idx_historial_estados_usuario_fecha", columnList = "usuario, fecha_hora DESC"),
+        @Index(name = "idx_historial_estados_fecha_id", columnList = "fecha_hora, id_historial")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -18,7 +24,9 @@ import lombok.ToString;
 public class HistorialEstados {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "historial_estados_seq")
+    @SequenceGenerator(name = "historial_estados_seq", sequenceName = "historial_estados_seq",
+            schema = "analisis_creditos", allocationSize = 50)
     @Column(name = "id_historial")
     private Integer idHistorial;
     
@@ -38,8 +46,10 @@ public class HistorialEstados {
     @Column(name = "motivo", nullable = false, length = 120)
     private String motivo;
     
-    @Column(name = "version", nullable = false, precision = 9, scale = 0)
-    private BigDecimal version;
+    // PUT y PATCH la incrementan en el mismo UPDATE (EdicionRepository); la columna conserva su tipo NUMERIC(9,0)
+    @Version
+    @Column(name = "version", nullable = false, columnDefinition = "NUMERIC(9,0)")
+    private long version;
     
     // Constructor solo para la primary key
     public HistorialEstados(Integer idHistorial) {
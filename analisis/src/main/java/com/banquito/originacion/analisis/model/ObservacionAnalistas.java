@@ -1,6 +1,5 @@
 package com.banquito.originacion.analisis.model;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import jakarta.persistence.*;
 import lombok.Getter;
@@ -9,7 +8,13 @@ import lombok.Setter;
 import lombok.ToString;
 
 @Entity
-@Table(name = "observacion_analistas", schema = "analisis_creditos")
+// Los índices se crean con las migraciones de Flyway (db/migration); aquí solo se documentan
+// Particionada por mes sobre fecha_hora (V8): en la base la clave primaria es (id_observacion_analista, fecha_hora)
+@Table(name = "observacion_analistas", schema = "analisis_creditos", indexes = {
+        @Index(name = "idx_observacion_analistas_solicitud_fecha", columnList = "id_solicitud, fecha_hora DESC"),
+        @Index(name = "idx_observacion_analistas_usuario_fecha", columnList = "usuario, fecha_hora DESC"),
+        @Index(name = "idx_observacion_analistas_fecha_id", columnList = "fecha_hora, id_observacion_analista")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -34,8 +39,9 @@ public class ObservacionAnalistas {
     @Column(name = "razon_intervencion", nullable = false, length = 500)
     private String razonIntervencion;
     
-    @Column(name = "version", nullable = false, precision = 9, scale = 0)
-    private BigDecimal version;
+    @Version
+    @Column(name = "version", nullable = false, columnDefinition = "NUMERIC(9,0)")
+    private long version;
     
     public ObservacionAnalistas(Integer idObservacionAnalista) {
         this.idObservacionAnalista = idObservacionAnalista;
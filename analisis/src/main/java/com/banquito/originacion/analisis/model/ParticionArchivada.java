@@ -0,0 +1,56 @@
+package com.banquito.originacion.analisis.model;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import jakarta.persistence.*;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+// Mes de historial_estados u observacion_analistas que ya se archivó y cuya partición se eliminó;
+// se escribe con JDBC desde ArchivoRepository, el mapeo permite validar el esquema
+@Entity
+@Table(name = "particion_archivada", schema = "analisis_creditos")
+@IdClass(ParticionArchivada.Clave.class)
+@Getter
+@Setter
+@NoArgsConstructor
+@ToString
+public class ParticionArchivada {
+    
+    @Id
+    @Column(name = "tabla", length = 40)
+    private String tabla;
+    
+    // Primer día del mes
+    @Id
+    @Column(name = "mes")
+    private LocalDate mes;
+    
+    // Relativo a analisis.archivo.directorio
+    @Column(name = "archivo", nullable = false, length = 500)
+    private String archivo;
+    
+    @Column(name = "filas", nullable = false)
+    private Long filas;
+    
+    @Column(name = "bytes", nullable = false)
+    private Long bytes;
+    
+    @Column(name = "fecha_archivo", nullable = false)
+    private LocalDateTime fechaArchivo;
+    
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @EqualsAndHashCode
+    public static class Clave implements Serializable {
+        private String tabla;
+        private LocalDate mes;
+    }
+    
+}
\ No newline at end of file
@@ -0,0 +1,54 @@
+package com.banquito.originacion.analisis.model;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+import jakarta.persistence.*;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+// Filas de una solicitud dentro del archivo de un mes: el miembro gzip que empieza en desplazamiento
+@Entity
+@Table(name = "solicitud_archivada", schema = "analisis_creditos")
+@IdClass(SolicitudArchivada.Clave.class)
+@Getter
+@Setter
+@NoArgsConstructor
+@ToString
+public class SolicitudArchivada {
+    
+    @Id
+    @Column(name = "tabla", length = 40)
+    private String tabla;
+    
+    @Id
+    @Column(name = "id_solicitud")
+    private Integer idSolicitud;
+    
+    @Id
+    @Column(name = "mes")
+    private LocalDate mes;
+    
+    @Column(name = "desplazamiento", nullable = false)
+    private Long desplazamiento;
+    
+    @Column(name = "longitud", nullable = false)
+    private Integer longitud;
+    
+    @Column(name = "filas", nullable = false)
+    private Integer filas;
+    
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @EqualsAndHashCode
+    public static class Clave implements Serializable {
+        private String tabla;
+        private Integer idSolicitud;
+        private LocalDate mes;
+    }
+    
+}
\ No newline at end of file
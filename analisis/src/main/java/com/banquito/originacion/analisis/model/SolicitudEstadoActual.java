@@ -0,0 +1,126 @@
+package com.banquito.originacion.analisis.model;
+
+import java.time.LocalDateTime;
+
+import org.springframework.data.domain.Persistable;
+
+import com.banquito.originacion.analisis.enums.EstadoHistorialEnum;
+import jakarta.persistence.*;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+// Proyección con el último registro de historial_estados de cada solicitud
+@Entity
+@Table(name = "solicitud_estado_actual", schema = "analisis_creditos",
+        indexes = @Index(name = "idx_solicitud_estado_actual_estado", columnList = "estado, id_solicitud"))
+@Getter
+@Setter
+@NoArgsConstructor
+@ToString
+public class SolicitudEstadoActual implements Persistable<Integer> {
+    
+    @Id
+    @Column(name = "id_solicitud")
+    private Integer idSolicitud;
+    
+    @Column(name = "id_historial", nullable = false)
+    private Integer idHistorial;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "estado", nullable = false)
+    private EstadoHistorialEnum estado;
+    
+    @Column(name = "fecha_hora", nullable = false)
+    private LocalDateTime fechaHora;
+    
+    @Column(name = "usuario", nullable = false, length = 50)
+    private String usuario;
+    
+    @Column(name = "motivo", nullable = false, length = 120)
+    private String motivo;
+    
+    @Column(name = "version", nullable = false, columnDefinition = "NUMERIC(9,0)")
+    private long version;
+    
+    // El id es asignado: sin esta marca, save() haría un SELECT previo (merge) antes de cada INSERT
+    @Transient
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @ToString.Exclude
+    private boolean nueva;
+    
+    // Constructor solo para la primary key
+    public SolicitudEstadoActual(Integer idSolicitud) {
+        this.idSolicitud = idSolicitud;
+    }
+    
+    public static SolicitudEstadoActual nueva(HistorialEstados historial) {
+        SolicitudEstadoActual estadoActual = new SolicitudEstadoActual(historial.getIdSolicitud());
+        estadoActual.actualizarDesde(historial);
+        estadoActual.nueva = true;
+        return estadoActual;
+    }
+    
+    @Override
+    public Integer getId() {
+        return idSolicitud;
+    }
+    
+    @Override
+    public boolean isNew() {
+        return nueva;
+    }
+    
+    @PostPersist
+    @PostLoad
+    void marcarPersistida() {
+        this.nueva = false;
+    }
+    
+    public void actualizarDesde(HistorialEstados historial) {
+        this.idHistorial = historial.getIdHistorial();
+        this.estado = historial.getEstado();
+        this.fechaHora = historial.getFechaHora();
+        this.usuario = historial.getUsuario();
+        this.motivo = historial.getMotivo();
+        this.version = historial.getVersion();
+    }
+    
+    // Mismo criterio que la caché: gana la fecha más reciente y, ante empate, la versión más alta
+    public boolean esAnteriorA(HistorialEstados historial) {
+        int comparacion = this.fechaHora.compareTo(historial.getFechaHora());
+        if (comparacion != 0) {
+            return comparacion < 0;
+        }
+        return this.version <= historial.getVersion();
+    }
+    
+    @Override
+    public int hashCode() {
+        final int prime = 31;
+        int result = 1;
+        result = prime * result + ((idSolicitud == null) ? 0 : idSolicitud.hashCode());
+        return result;
+    }
+    
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj)
+            return true;
+        if (obj == null)
+            return false;
+        if (getClass() != obj.getClass())
+            return false;
+        SolicitudEstadoActual other = (SolicitudEstadoActual) obj;
+        if (idSolicitud == null) {
+            if (other.idSolicitud != null)
+                return false;
+        } else if (!idSolicitud.equals(other.idSolicitud))
+            return false;
+        return true;
+    }
+    
+} 
\ No newline at end of file
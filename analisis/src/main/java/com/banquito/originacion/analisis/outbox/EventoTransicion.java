@@ -0,0 +1,30 @@
+package com.banquito.originacion.analisis.outbox;
+
+import java.time.LocalDateTime;
+
+import com.banquito.originacion.analisis.enums.EstadoHistorialEnum;
+import com.banquito.originacion.analisis.model.HistorialEstados;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+// Evento publicado por cada nuevo registro de historial. idEvento es creciente dentro de cada solicitud y permite
+// a los consumidores descartar duplicados (la entrega es al menos una vez)
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record EventoTransicion(
+        Long idEvento,
+        Integer idSolicitud,
+        Integer idHistorial,
+        EstadoHistorialEnum estadoAnterior,
+        EstadoHistorialEnum estado,
+        LocalDateTime fechaHora,
+        String usuario,
+        String motivo,
+        long version,
+        LocalDateTime fechaRegistro) {
+
+    // Aún sin id: lo asigna la secuencia al insertarlo en el outbox
+    public static EventoTransicion de(HistorialEstados historial, EstadoHistorialEnum estadoAnterior) {
+        return new EventoTransicion(null, historial.getIdSolicitud(), historial.getIdHistorial(), estadoAnterior,
+                historial.getEstado(), historial.getFechaHora(), historial.getUsuario(), historial.getMotivo(),
+                historial.getVersion(), LocalDateTime.now());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,10 @@
+package com.banquito.originacion.analisis.outbox;
+
+import java.util.List;
+
+// Destino de los eventos del outbox. La publicación es síncrona: si el método vuelve sin excepción los eventos se
+// eliminan del outbox; si falla, el lote completo se vuelve a publicar en la siguiente ejecución del relay
+public interface PublicadorEventos {
+
+    void publicar(List<EventoTransicion> eventos);
+}
\ No newline at end of file
@@ -0,0 +1,62 @@
+package com.banquito.originacion.analisis.outbox;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+// Un evento JSON por línea al final del archivo; el lote se fuerza a disco antes de darlo por entregado
+@Component
+@ConditionalOnProperty(name = "analisis.outbox.publicador", havingValue = "archivo", matchIfMissing = true)
+public class PublicadorEventosArchivo implements PublicadorEventos {
+
+    private static final Logger log = LoggerFactory.getLogger(PublicadorEventosArchivo.class);
+
+    private final ObjectMapper objectMapper;
+    private final Path archivo;
+
+    public PublicadorEventosArchivo(ObjectMapper objectMapper,
+            @Value("${analisis.outbox.archivo.ruta:outbox/eventos-transicion.jsonl}") String ruta) {
+        this.objectMapper = objectMapper;
+        this.archivo = Path.of(ruta).toAbsolutePath();
+        log.info("PublicadorEventosArchivo initialized. File: {}", archivo);
+    }
+
+    @Override
+    public void publicar(List<EventoTransicion> eventos) {
+        try {
+            ByteArrayOutputStream lineas = new ByteArrayOutputStream(eventos.size() * 256);
+            for (EventoTransicion evento : eventos) {
+                objectMapper.writeValue(lineas, evento);
+                lineas.write('\n');
+            }
+            Path directorio = archivo.getParent();
+            if (directorio != null) {
+                Files.createDirectories(directorio);
+            }
+            try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.APPEND)) {
+                ByteBuffer buffer = ByteBuffer.wrap(lineas.toByteArray());
+                while (buffer.hasRemaining()) {
+                    canal.write(buffer);
+                }
+                canal.force(false);
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException("No se pudieron escribir los eventos en " + archivo, ex);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,38 @@
+package com.banquito.originacion.analisis.outbox;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+// Para pruebas: conserva los eventos publicados en memoria y permite simular fallos del destino
+@Component
+@ConditionalOnProperty(name = "analisis.outbox.publicador", havingValue = "memoria")
+public class PublicadorEventosMemoria implements PublicadorEventos {
+
+    private final List<EventoTransicion> publicados = new ArrayList<>();
+    private int fallosPendientes;
+
+    @Override
+    public synchronized void publicar(List<EventoTransicion> eventos) {
+        if (fallosPendientes > 0) {
+            fallosPendientes--;
+            throw new IllegalStateException("Fallo simulado del publicador en memoria");
+        }
+        publicados.addAll(eventos);
+    }
+
+    public synchronized List<EventoTransicion> getPublicados() {
+        return List.copyOf(publicados);
+    }
+
+    public synchronized void limpiar() {
+        publicados.clear();
+        fallosPendientes = 0;
+    }
+
+    public synchronized void fallarProximasPublicaciones(int cantidad) {
+        this.fallosPendientes = cantidad;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,116 @@
+package com.banquito.originacion.analisis.pagination;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+
+import com.banquito.originacion.analisis.exception.InvalidCursorException;
+
+public class KeysetPagination {
+
+    public static final int MAX_SIZE = 100;
+    public static final String FECHA_HORA = "fechaHora";
+
+    private static final String VERSION_CURSOR = "v1";
+    private static final String SEPARADOR = "|";
+
+    private final String idProperty;
+
+    public KeysetPagination(String idProperty) {
+        this.idProperty = idProperty;
+    }
+
+    public void validarSize(int size) {
+        if (size < 1 || size > MAX_SIZE) {
+            throw new InvalidCursorException("El tamaño de página debe estar entre 1 y " + MAX_SIZE);
+        }
+    }
+
+    public Sort sort(String sortBy, String sortDir) {
+        Sort.Direction direction = direction(sortDir);
+        // Solo se admiten columnas indexadas; el id desempata registros con la misma fecha
+        if (FECHA_HORA.equals(sortBy)) {
+            return Sort.by(direction, FECHA_HORA, idProperty);
+        }
+        if (idProperty.equals(sortBy)) {
+            return Sort.by(direction, idProperty);
+        }
+        throw new InvalidCursorException("No se puede paginar por cursor ordenando por '" + sortBy
+                + "'. Valores permitidos: " + FECHA_HORA + ", " + idProperty);
+    }
+
+    public KeysetScrollPosition position(String cursor, String sortBy, String sortDir) {
+        if (cursor == null || cursor.isBlank()) {
+            return ScrollPosition.keyset();
+        }
+        String[] partes;
+        try {
+            partes = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\" + SEPARADOR, -1);
+        } catch (IllegalArgumentException ex) {
+            throw new InvalidCursorException("El cursor no es válido");
+        }
+        if (partes.length != 5 || !VERSION_CURSOR.equals(partes[0])) {
+            throw new InvalidCursorException("El cursor no es válido");
+        }
+        Sort.Direction direccionCursor = parseDirection(partes[2]);
+        if (direccionCursor == null) {
+            throw new InvalidCursorException("El cursor no es válido");
+        }
+        if (!partes[1].equals(sortBy) || direccionCursor != direction(sortDir)) {
+            throw new InvalidCursorException("El cursor fue generado con otro ordenamiento");
+        }
+        try {
+            Map<String, Object> keys = new LinkedHashMap<>();
+            if (FECHA_HORA.equals(sortBy)) {
+                keys.put(FECHA_HORA, LocalDateTime.parse(partes[3]));
+            }
+            keys.put(idProperty, Integer.valueOf(partes[4]));
+            return ScrollPosition.forward(keys);
+        } catch (DateTimeParseException | NumberFormatException ex) {
+            throw new InvalidCursorException("El cursor no es válido");
+        }
+    }
+
+    public String nextCursor(Window<?> window, String sortBy, String sortDir) {
+        if (!window.hasNext() || window.isEmpty()) {
+            return null;
+        }
+        KeysetScrollPosition position = (KeysetScrollPosition) window.positionAt(window.size() - 1);
+        Map<String, Object> keys = position.getKeys();
+        Object fechaHora = keys.get(FECHA_HORA);
+        String valor = String.join(SEPARADOR,
+                VERSION_CURSOR,
+                sortBy,
+                direction(sortDir).name(),
+                fechaHora == null ? "" : fechaHora.toString(),
+                String.valueOf(keys.get(idProperty)));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(valor.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Igual que sortBy: un valor desconocido se rechaza en lugar de ordenar en un sentido que el cliente no pidió
+    private Sort.Direction direction(String sortDir) {
+        Sort.Direction direction = parseDirection(sortDir);
+        if (direction == null) {
+            throw new InvalidCursorException("No se puede ordenar en sentido '" + sortDir + "'. Valores permitidos: asc, desc");
+        }
+        return direction;
+    }
+
+    private static Sort.Direction parseDirection(String valor) {
+        if ("asc".equalsIgnoreCase(valor)) {
+            return Sort.Direction.ASC;
+        }
+        if ("desc".equalsIgnoreCase(valor)) {
+            return Sort.Direction.DESC;
+        }
+        return null;
+    }
+}
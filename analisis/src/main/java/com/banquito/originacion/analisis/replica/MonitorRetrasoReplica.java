@@ -0,0 +1,39 @@
+package com.banquito.originacion.analisis.replica;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+// Mide periódicamente el retraso de la réplica con una consulta configurable; si falla, se lee de la primaria
+public class MonitorRetrasoReplica {
+
+    private static final Logger log = LoggerFactory.getLogger(MonitorRetrasoReplica.class);
+
+    private final JdbcTemplate replica;
+    private final String consultaRetraso;
+    private final RuteoReplica ruteoReplica;
+
+    public MonitorRetrasoReplica(DataSource replica, String consultaRetraso, RuteoReplica ruteoReplica) {
+        this.replica = new JdbcTemplate(replica);
+        this.replica.setQueryTimeout(2);
+        this.consultaRetraso = consultaRetraso;
+        this.ruteoReplica = ruteoReplica;
+    }
+
+    @Scheduled(fixedDelayString = "${analisis.datasource.replica.verificacion-ms:1000}")
+    public void verificar() {
+        ruteoReplica.purgarEscriturasVencidas();
+        try {
+            Double segundos = replica.queryForObject(consultaRetraso, Double.class);
+            // Sin valor: la base no informa retraso (no es una réplica en recuperación), se considera al día
+            ruteoReplica.registrarRetraso(segundos == null ? 0 : Math.max(0, Math.round(segundos * 1000)));
+        } catch (DataAccessException ex) {
+            log.warn("Replica lag check failed: {}", ex.getMessage());
+            ruteoReplica.marcarNoDisponible();
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,30 @@
+package com.banquito.originacion.analisis.replica;
+
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+// Origen de las transacciones de solo lectura (LazyConnectionDataSourceProxy#setReadOnlyDataSource): se consulta al
+// obtener la conexión real, es decir, en la primera sentencia de la transacción
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    private static final String PRIMARIA = "primaria";
+    private static final String REPLICA = "replica";
+
+    private final RuteoReplica ruteoReplica;
+
+    public ReplicaRoutingDataSource(DataSource primaria, DataSource replica, RuteoReplica ruteoReplica) {
+        this.ruteoReplica = ruteoReplica;
+        setTargetDataSources(Map.of(PRIMARIA, primaria, REPLICA, replica));
+        setDefaultTargetDataSource(primaria);
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return ruteoReplica.usarReplica() ? REPLICA : PRIMARIA;
+    }
+}
\ No newline at end of file
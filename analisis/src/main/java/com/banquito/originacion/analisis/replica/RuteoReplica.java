@@ -0,0 +1,151 @@
+package com.banquito.originacion.analisis.replica;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+// Decide a qué base va cada transacción de solo lectura: a la réplica salvo que la solicitud consultada se haya
+// modificado hace poco (lectura de las propias escrituras) o que la réplica esté atrasada o no responda
+@Component
+public class RuteoReplica {
+
+    private static final Logger log = LoggerFactory.getLogger(RuteoReplica.class);
+
+    // Recurso de la transacción actual que la fija a la primaria
+    private static final Object LECTURA_EN_PRIMARIA = new Object();
+
+    private final boolean enabled;
+    private final long ventanaNanos;
+    private final long retrasoMaximoMs;
+    // Solicitudes modificadas recientemente y el instante (nanoTime) hasta el que se leen desde la primaria
+    private final Map<Integer, Long> escriturasRecientes = new ConcurrentHashMap<>();
+    // -1 mientras no haya una medición válida: hasta entonces se lee de la primaria
+    private volatile long retrasoMs = -1;
+
+    private final Counter lecturasReplica;
+    private final Counter lecturasPrimaria;
+
+    public RuteoReplica(MeterRegistry meterRegistry,
+            @Value("${analisis.datasource.replica.enabled:false}") boolean enabled,
+            @Value("${analisis.datasource.replica.ventana-escritura-ms:5000}") long ventanaEscrituraMs,
+            @Value("${analisis.datasource.replica.retraso-maximo-ms:1000}") long retrasoMaximoMs) {
+        this.enabled = enabled;
+        this.ventanaNanos = TimeUnit.MILLISECONDS.toNanos(ventanaEscrituraMs);
+        this.retrasoMaximoMs = retrasoMaximoMs;
+        this.lecturasReplica = Counter.builder("analisis.replica.lecturas").tag("destino", "replica")
+                .description("Transacciones de solo lectura atendidas por la réplica").register(meterRegistry);
+        this.lecturasPrimaria = Counter.builder("analisis.replica.lecturas").tag("destino", "primaria")
+                .description("Transacciones de solo lectura enviadas a la primaria").register(meterRegistry);
+        if (enabled) {
+            Gauge.builder("analisis.replica.retraso", this, ruteo -> ruteo.retrasoMs < 0 ? Double.NaN : ruteo.retrasoMs / 1000.0)
+                    .description("Retraso medido de la réplica (NaN si no está disponible)")
+                    .baseUnit("seconds").register(meterRegistry);
+        }
+        log.info("RuteoReplica initialized. Enabled: {}, WriteWindowMs: {}, MaxLagMs: {}", enabled, ventanaEscrituraMs, retrasoMaximoMs);
+    }
+
+    public void registrarEscritura(Integer idSolicitud) {
+        if (idSolicitud != null) {
+            registrarEscritura(List.of(idSolicitud));
+        }
+    }
+
+    public void registrarEscritura(Collection<Integer> idsSolicitud) {
+        if (!enabled || idsSolicitud.isEmpty()) {
+            return;
+        }
+        // Se marca de inmediato y se renueva al confirmar: la ventana cuenta desde que el cambio es visible en la primaria
+        marcar(idsSolicitud);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            List<Integer> ids = List.copyOf(idsSolicitud);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    marcar(ids);
+                }
+            });
+        }
+    }
+
+    // Debe llamarse antes de la primera consulta de la transacción: la conexión real se obtiene en ese momento
+    public void leerSolicitud(Integer idSolicitud) {
+        if (!enabled || idSolicitud == null || !TransactionSynchronizationManager.isSynchronizationActive()
+                || TransactionSynchronizationManager.hasResource(LECTURA_EN_PRIMARIA)) {
+            return;
+        }
+        Long vence = escriturasRecientes.get(idSolicitud);
+        if (vence == null || System.nanoTime() - vence >= 0) {
+            return;
+        }
+        fijarPrimaria(idSolicitud);
+    }
+
+    // Para lecturas que no toleran ningún retraso; igual que leerSolicitud, antes de la primera consulta
+    public void leerEnPrimaria() {
+        if (!enabled || !TransactionSynchronizationManager.isSynchronizationActive()
+                || TransactionSynchronizationManager.hasResource(LECTURA_EN_PRIMARIA)) {
+            return;
+        }
+        fijarPrimaria(Boolean.TRUE);
+    }
+
+    boolean usarReplica() {
+        boolean replica = enabled && retrasoMs >= 0 && retrasoMs <= retrasoMaximoMs
+                && !TransactionSynchronizationManager.hasResource(LECTURA_EN_PRIMARIA);
+        (replica ? lecturasReplica : lecturasPrimaria).increment();
+        return replica;
+    }
+
+    void registrarRetraso(long retrasoMedidoMs) {
+        long anterior = this.retrasoMs;
+        this.retrasoMs = retrasoMedidoMs;
+        boolean estabaAlDia = anterior >= 0 && anterior <= retrasoMaximoMs;
+        boolean alDia = retrasoMedidoMs >= 0 && retrasoMedidoMs <= retrasoMaximoMs;
+        if (estabaAlDia && retrasoMedidoMs < 0) {
+            log.warn("Replica unavailable, read-only transactions fall back to the primary");
+        } else if (estabaAlDia && !alDia) {
+            log.warn("Replica lag {} ms exceeds {} ms, read-only transactions fall back to the primary", retrasoMedidoMs, retrasoMaximoMs);
+        } else if (!estabaAlDia && alDia) {
+            log.info("Replica lag {} ms, read-only transactions routed to the replica", retrasoMedidoMs);
+        }
+    }
+
+    void marcarNoDisponible() {
+        registrarRetraso(-1);
+    }
+
+    void purgarEscriturasVencidas() {
+        long ahora = System.nanoTime();
+        escriturasRecientes.values().removeIf(vence -> ahora - vence >= 0);
+    }
+
+    private void fijarPrimaria(Object motivo) {
+        TransactionSynchronizationManager.bindResource(LECTURA_EN_PRIMARIA, motivo);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(LECTURA_EN_PRIMARIA);
+            }
+        });
+    }
+
+    private void marcar(Collection<Integer> idsSolicitud) {
+        long vence = System.nanoTime() + ventanaNanos;
+        for (Integer idSolicitud : idsSolicitud) {
+            escriturasRecientes.put(idSolicitud, vence);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,206 @@
+package com.banquito.originacion.analisis.repository;
+
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import com.banquito.originacion.analisis.analitica.ResumenTransicion;
+import com.banquito.originacion.analisis.analitica.TransicionEstado;
+import com.banquito.originacion.analisis.enums.EstadoHistorialEnum;
+
+@Repository
+public class AnaliticaRepository {
+
+    private static final String INSERT_PENDIENTE = "INSERT INTO analisis_creditos.analitica_solicitud_pendiente (id_solicitud) "
+            + "VALUES (?) ON CONFLICT DO NOTHING";
+    private static final String INSERT_TODAS_PENDIENTES = "INSERT INTO analisis_creditos.analitica_solicitud_pendiente (id_solicitud) "
+            + "SELECT DISTINCT id_solicitud FROM analisis_creditos.historial_estados "
+            + "ON CONFLICT DO NOTHING";
+    private static final String DELETE_TODAS_TRANSICIONES = "DELETE FROM analisis_creditos.analitica_transicion";
+    private static final String DELETE_TODO_RESUMEN = "DELETE FROM analisis_creditos.analitica_transicion_diaria";
+    private static final String SELECT_PENDIENTES = "SELECT id_solicitud FROM analisis_creditos.analitica_solicitud_pendiente "
+            + "ORDER BY id_solicitud FETCH FIRST :limite ROWS ONLY";
+    private static final String DELETE_PENDIENTES = "DELETE FROM analisis_creditos.analitica_solicitud_pendiente "
+            + "WHERE id_solicitud IN (:idsSolicitud)";
+    // LAG sobre el historial de cada solicitud: cada registro con un estado previo es una transición
+    private static final String SELECT_TRANSICIONES_HISTORIAL = "SELECT id_historial, id_solicitud, estado_anterior, estado, fecha_anterior, fecha_hora "
+            + "FROM (SELECT id_historial, id_solicitud, estado, fecha_hora, "
+            + "LAG(estado) OVER (PARTITION BY id_solicitud ORDER BY fecha_hora, id_historial) AS estado_anterior, "
+            + "LAG(fecha_hora) OVER (PARTITION BY id_solicitud ORDER BY fecha_hora, id_historial) AS fecha_anterior "
+            + "FROM analisis_creditos.historial_estados WHERE id_solicitud IN (:idsSolicitud)) h "
+            + "WHERE estado_anterior IS NOT NULL";
+    private static final String SELECT_TRANSICIONES = "SELECT id_historial, id_solicitud, dia, estado_desde, estado_hacia, duracion_segundos "
+            + "FROM analisis_creditos.analitica_transicion WHERE id_solicitud IN (:idsSolicitud)";
+    private static final String DELETE_TRANSICIONES = "DELETE FROM analisis_creditos.analitica_transicion WHERE id_solicitud IN (:idsSolicitud)";
+    private static final String INSERT_TRANSICION = "INSERT INTO analisis_creditos.analitica_transicion "
+            + "(id_historial, id_solicitud, dia, estado_desde, estado_hacia, duracion_segundos) VALUES (?, ?, ?, ?, ?, ?)";
+    // Incremento atómico: dos procesos que actualizan la misma fila no pierden conteos
+    private static final String UPDATE_RESUMEN = "UPDATE analisis_creditos.analitica_transicion_diaria "
+            + "SET cantidad = cantidad + ?, duracion_total_segundos = duracion_total_segundos + ? "
+            + "WHERE dia = ? AND estado_desde = ? AND estado_hacia = ? AND cubeta = ?";
+    private static final String INSERT_RESUMEN = "INSERT INTO analisis_creditos.analitica_transicion_diaria "
+            + "(cantidad, duracion_total_segundos, dia, estado_desde, estado_hacia, cubeta) VALUES (?, ?, ?, ?, ?, ?)";
+    private static final String DELETE_RESUMEN_VACIO = "DELETE FROM analisis_creditos.analitica_transicion_diaria "
+            + "WHERE dia = ? AND estado_desde = ? AND estado_hacia = ? AND cubeta = ? AND cantidad <= 0";
+    private static final String SELECT_RESUMEN_POR_TRANSICION = "SELECT estado_desde, estado_hacia, cubeta, "
+            + "SUM(cantidad) AS cantidad, SUM(duracion_total_segundos) AS duracion_total_segundos "
+            + "FROM analisis_creditos.analitica_transicion_diaria WHERE dia >= :desde AND dia <= :hasta "
+            + "GROUP BY estado_desde, estado_hacia, cubeta";
+    private static final String SELECT_ENTRADAS_POR_DIA = "SELECT dia, estado_hacia, SUM(cantidad) AS cantidad "
+            + "FROM analisis_creditos.analitica_transicion_diaria WHERE dia >= :desde AND dia <= :hasta "
+            + "GROUP BY dia, estado_hacia ORDER BY dia";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public AnaliticaRepository(DataSource dataSource) {
+        // JDBC directo: inserts con ON CONFLICT, funciones de ventana e incrementos que JPQL no expresa
+        this.jdbcTemplate = new NamedParameterJdbcTemplate(dataSource);
+    }
+
+    public void marcarPendientes(Collection<Integer> idsSolicitud) {
+        if (idsSolicitud.isEmpty()) {
+            return;
+        }
+        List<Object[]> parametros = new ArrayList<>();
+        // Orden fijo para que dos transacciones concurrentes no se bloqueen mutuamente
+        for (Integer idSolicitud : new TreeSet<>(idsSolicitud)) {
+            parametros.add(new Object[] { idSolicitud });
+        }
+        jdbcTemplate.getJdbcTemplate().batchUpdate(INSERT_PENDIENTE, parametros);
+    }
+
+    public int marcarTodasPendientes() {
+        return jdbcTemplate.getJdbcTemplate().update(INSERT_TODAS_PENDIENTES);
+    }
+
+    public void eliminarResumen() {
+        jdbcTemplate.getJdbcTemplate().update(DELETE_TODO_RESUMEN);
+        jdbcTemplate.getJdbcTemplate().update(DELETE_TODAS_TRANSICIONES);
+    }
+
+    public List<Integer> findPendientes(int limite) {
+        return jdbcTemplate.queryForList(SELECT_PENDIENTES, Map.of("limite", limite), Integer.class);
+    }
+
+    public int eliminarPendientes(Collection<Integer> idsSolicitud) {
+        return jdbcTemplate.update(DELETE_PENDIENTES, Map.of("idsSolicitud", idsSolicitud));
+    }
+
+    public List<TransicionEstado> calcularTransicionesDesdeHistorial(Collection<Integer> idsSolicitud) {
+        return jdbcTemplate.query(SELECT_TRANSICIONES_HISTORIAL, Map.of("idsSolicitud", idsSolicitud), (rs, rowNum) -> {
+            LocalDateTime fechaAnterior = rs.getTimestamp("fecha_anterior").toLocalDateTime();
+            LocalDateTime fechaHora = rs.getTimestamp("fecha_hora").toLocalDateTime();
+            return new TransicionEstado(
+                    rs.getInt("id_historial"),
+                    rs.getInt("id_solicitud"),
+                    fechaHora.toLocalDate(),
+                    EstadoHistorialEnum.valueOf(rs.getString("estado_anterior")),
+                    EstadoHistorialEnum.valueOf(rs.getString("estado")),
+                    Duration.between(fechaAnterior, fechaHora).toSeconds());
+        });
+    }
+
+    public List<TransicionEstado> findTransiciones(Collection<Integer> idsSolicitud) {
+        return jdbcTemplate.query(SELECT_TRANSICIONES, Map.of("idsSolicitud", idsSolicitud), (rs, rowNum) -> new TransicionEstado(
+                rs.getInt("id_historial"),
+                rs.getInt("id_solicitud"),
+                rs.getDate("dia").toLocalDate(),
+                EstadoHistorialEnum.valueOf(rs.getString("estado_desde")),
+                EstadoHistorialEnum.valueOf(rs.getString("estado_hacia")),
+                rs.getLong("duracion_segundos")));
+    }
+
+    public void reemplazarTransiciones(Collection<Integer> idsSolicitud, List<TransicionEstado> transiciones) {
+        jdbcTemplate.update(DELETE_TRANSICIONES, Map.of("idsSolicitud", idsSolicitud));
+        List<Object[]> parametros = new ArrayList<>(transiciones.size());
+        for (TransicionEstado transicion : transiciones) {
+            parametros.add(new Object[] {
+                    transicion.idHistorial(),
+                    transicion.idSolicitud(),
+                    Date.valueOf(transicion.dia()),
+                    transicion.estadoDesde().name(),
+                    transicion.estadoHacia().name(),
+                    transicion.duracionSegundos() });
+        }
+        if (!parametros.isEmpty()) {
+            jdbcTemplate.getJdbcTemplate().batchUpdate(INSERT_TRANSICION, parametros);
+        }
+    }
+
+    public void aplicarDiferencias(List<ResumenTransicion> diferencias) {
+        if (diferencias.isEmpty()) {
+            return;
+        }
+        List<Object[]> parametros = new ArrayList<>(diferencias.size());
+        for (ResumenTransicion diferencia : diferencias) {
+            parametros.add(new Object[] {
+                    diferencia.cantidad(),
+                    diferencia.duracionTotalSegundos(),
+                    Date.valueOf(diferencia.dia()),
+                    diferencia.estadoDesde().name(),
+                    diferencia.estadoHacia().name(),
+                    diferencia.cubeta() });
+        }
+        int[] actualizadas = jdbcTemplate.getJdbcTemplate().batchUpdate(UPDATE_RESUMEN, parametros);
+        List<Object[]> nuevas = new ArrayList<>();
+        List<Object[]> decrementadas = new ArrayList<>();
+        for (int i = 0; i < actualizadas.length; i++) {
+            Object[] fila = parametros.get(i);
+            if (actualizadas[i] == 0) {
+                if (diferencias.get(i).cantidad() > 0) {
+                    nuevas.add(fila);
+                }
+            } else if (actualizadas[i] != Statement.EXECUTE_FAILED && diferencias.get(i).cantidad() < 0) {
+                decrementadas.add(new Object[] { fila[2], fila[3], fila[4], fila[5] });
+            }
+        }
+        if (!nuevas.isEmpty()) {
+            jdbcTemplate.getJdbcTemplate().batchUpdate(INSERT_RESUMEN, nuevas);
+        }
+        if (!decrementadas.isEmpty()) {
+            jdbcTemplate.getJdbcTemplate().batchUpdate(DELETE_RESUMEN_VACIO, decrementadas);
+        }
+    }
+
+    public List<ResumenTransicion> findResumenPorTransicion(LocalDate desde, LocalDate hasta) {
+        return jdbcTemplate.query(SELECT_RESUMEN_POR_TRANSICION, rango(desde, hasta), (rs, rowNum) -> new ResumenTransicion(
+                null,
+                EstadoHistorialEnum.valueOf(rs.getString("estado_desde")),
+                EstadoHistorialEnum.valueOf(rs.getString("estado_hacia")),
+                rs.getInt("cubeta"),
+                rs.getLong("cantidad"),
+                rs.getLong("duracion_total_segundos")));
+    }
+
+    public List<EntradasPorDia> findEntradasPorDia(LocalDate desde, LocalDate hasta) {
+        return jdbcTemplate.query(SELECT_ENTRADAS_POR_DIA, rango(desde, hasta), this::toEntradasPorDia);
+    }
+
+    private Map<String, Object> rango(LocalDate desde, LocalDate hasta) {
+        return Map.of("desde", Date.valueOf(desde), "hasta", Date.valueOf(hasta));
+    }
+
+    private EntradasPorDia toEntradasPorDia(ResultSet rs, int rowNum) throws SQLException {
+        return new EntradasPorDia(
+                rs.getDate("dia").toLocalDate(),
+                EstadoHistorialEnum.valueOf(rs.getString("estado_hacia")),
+                rs.getLong("cantidad"));
+    }
+
+    public record EntradasPorDia(LocalDate dia, EstadoHistorialEnum estado, long cantidad) {
+    }
+}
\ No newline at end of file
@@ -0,0 +1,75 @@
+package com.banquito.originacion.analisis.repository;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import com.banquito.originacion.analisis.archivo.SolicitudEnArchivo;
+import com.banquito.originacion.analisis.archivo.TablaParticionada;
+import com.banquito.originacion.analisis.archivo.UbicacionArchivo;
+
+// Índice de los meses archivados: qué archivo tiene cada mes y dónde está cada solicitud dentro de él
+@Repository
+public class ArchivoRepository {
+
+    private static final String INSERT_PARTICION = "INSERT INTO analisis_creditos.particion_archivada "
+            + "(tabla, mes, archivo, filas, bytes, fecha_archivo) VALUES (?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_SOLICITUD = "INSERT INTO analisis_creditos.solicitud_archivada "
+            + "(tabla, id_solicitud, mes, desplazamiento, longitud, filas) VALUES (?, ?, ?, ?, ?, ?)";
+    // Clave primaria (tabla, id_solicitud, mes): una búsqueda por índice, también para las solicitudes sin archivo
+    private static final String SELECT_UBICACIONES = "SELECT s.mes, p.archivo, s.desplazamiento, s.longitud "
+            + "FROM analisis_creditos.solicitud_archivada s JOIN analisis_creditos.particion_archivada p "
+            + "ON p.tabla = s.tabla AND p.mes = s.mes "
+            + "WHERE s.tabla = :tabla AND s.id_solicitud = :idSolicitud ORDER BY s.mes DESC";
+    private static final String SELECT_SOLICITUDES_ARCHIVADAS = "SELECT DISTINCT id_solicitud FROM analisis_creditos.solicitud_archivada "
+            + "WHERE tabla = :tabla AND id_solicitud IN (:idsSolicitud)";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public ArchivoRepository(DataSource dataSource) {
+        this.jdbcTemplate = new NamedParameterJdbcTemplate(dataSource);
+    }
+
+    public void registrar(TablaParticionada tabla, LocalDate mes, String archivo, long filas, long bytes,
+            List<SolicitudEnArchivo> solicitudes) {
+        Date dia = Date.valueOf(mes);
+        jdbcTemplate.getJdbcTemplate().update(INSERT_PARTICION, tabla.nombre(), dia, archivo, filas, bytes,
+                Timestamp.valueOf(LocalDateTime.now()));
+        List<Object[]> parametros = new ArrayList<>(solicitudes.size());
+        for (SolicitudEnArchivo solicitud : solicitudes) {
+            parametros.add(new Object[] {
+                    tabla.nombre(), solicitud.idSolicitud(), dia, solicitud.desplazamiento(), solicitud.longitud(), solicitud.filas()
+            });
+        }
+        jdbcTemplate.getJdbcTemplate().batchUpdate(INSERT_SOLICITUD, parametros);
+    }
+
+    // Del mes más reciente al más antiguo, igual que el orden en que se listan las filas
+    public List<UbicacionArchivo> findUbicaciones(TablaParticionada tabla, Integer idSolicitud) {
+        return jdbcTemplate.query(SELECT_UBICACIONES,
+                new MapSqlParameterSource("tabla", tabla.nombre()).addValue("idSolicitud", idSolicitud),
+                (rs, rowNum) -> new UbicacionArchivo(rs.getDate("mes").toLocalDate(), rs.getString("archivo"),
+                        rs.getLong("desplazamiento"), rs.getInt("longitud")));
+    }
+
+    public Set<Integer> findIdsSolicitudArchivados(TablaParticionada tabla, Collection<Integer> idsSolicitud) {
+        if (idsSolicitud.isEmpty()) {
+            return Set.of();
+        }
+        return new HashSet<>(jdbcTemplate.queryForList(SELECT_SOLICITUDES_ARCHIVADAS,
+                Map.of("tabla", tabla.nombre(), "idsSolicitud", idsSolicitud), Integer.class));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,78 @@
+package com.banquito.originacion.analisis.repository;
+
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import com.banquito.originacion.analisis.busqueda.CursorBusqueda;
+import com.banquito.originacion.analisis.busqueda.FiltroBusqueda;
+import com.banquito.originacion.analisis.busqueda.ObservacionEncontrada;
+import com.banquito.originacion.analisis.enums.OrdenBusquedaEnum;
+import com.banquito.originacion.analisis.vista.ObservacionAnalistasVista;
+
+@Repository
+public class BusquedaObservacionesRepository {
+
+    // Misma configuración que la columna generada razon_tsv (V6); con otra, las consultas no coinciden con el índice
+    private static final String CONFIGURACION = "spanish";
+
+    private static final String SELECT_COINCIDENCIAS = "SELECT id_observacion_analista, id_solicitud, usuario, fecha_hora, "
+            + "razon_intervencion, version, ts_rank_cd(razon_tsv, consulta) AS relevancia "
+            + "FROM analisis_creditos.observacion_analistas, websearch_to_tsquery('" + CONFIGURACION + "', :texto) AS consulta "
+            + "WHERE razon_tsv @@ consulta";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public BusquedaObservacionesRepository(DataSource dataSource) {
+        // SQL de PostgreSQL: tsvector, websearch_to_tsquery y ts_rank_cd no tienen equivalente en JPQL
+        this.jdbcTemplate = new NamedParameterJdbcTemplate(dataSource);
+    }
+
+    // Por relevancia, el índice GIN resuelve las coincidencias y el ranking se calcula solo sobre ellas, por lo que
+    // los filtros acotan también su costo. Por fecha, el planificador puede recorrer el índice (fecha_hora, id)
+    public List<ObservacionEncontrada> buscar(FiltroBusqueda filtro, OrdenBusquedaEnum orden, CursorBusqueda cursor, int limite) {
+        MapSqlParameterSource parametros = new MapSqlParameterSource("texto", filtro.texto());
+        StringBuilder coincidencias = new StringBuilder(SELECT_COINCIDENCIAS);
+        if (filtro.idSolicitud() != null) {
+            coincidencias.append(" AND id_solicitud = :idSolicitud");
+            parametros.addValue("idSolicitud", filtro.idSolicitud());
+        }
+        if (filtro.usuario() != null) {
+            coincidencias.append(" AND usuario = :usuario");
+            parametros.addValue("usuario", filtro.usuario());
+        }
+        if (filtro.desde() != null) {
+            coincidencias.append(" AND fecha_hora >= :desde");
+            parametros.addValue("desde", filtro.desde());
+        }
+        if (filtro.hasta() != null) {
+            coincidencias.append(" AND fecha_hora < :hasta");
+            parametros.addValue("hasta", filtro.hasta());
+        }
+
+        String clave = orden == OrdenBusquedaEnum.FECHA ? "fecha_hora" : "relevancia";
+        StringBuilder sql = new StringBuilder("SELECT * FROM (").append(coincidencias).append(") AS coincidencias");
+        if (cursor != null) {
+            sql.append(" WHERE (").append(clave).append(", id_observacion_analista) < (:clave, :idObservacionAnalista)");
+            // La relevancia se compara como real, el mismo tipo que devuelve ts_rank_cd
+            parametros.addValue("clave", orden == OrdenBusquedaEnum.FECHA ? cursor.fechaHora() : cursor.relevancia());
+            parametros.addValue("idObservacionAnalista", cursor.idObservacionAnalista());
+        }
+        sql.append(" ORDER BY ").append(clave).append(" DESC, id_observacion_analista DESC FETCH FIRST :limite ROWS ONLY");
+        parametros.addValue("limite", limite);
+
+        return jdbcTemplate.query(sql.toString(), parametros, (rs, rowNum) -> new ObservacionEncontrada(
+                new ObservacionAnalistasVista(
+                        rs.getInt("id_observacion_analista"),
+                        rs.getInt("id_solicitud"),
+                        rs.getString("usuario"),
+                        rs.getTimestamp("fecha_hora").toLocalDateTime(),
+                        rs.getString("razon_intervencion"),
+                        rs.getLong("version")),
+                rs.getFloat("relevancia")));
+    }
+}
\ No newline at end of file
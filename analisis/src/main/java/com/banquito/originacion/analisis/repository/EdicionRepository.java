@@ -0,0 +1,142 @@
+package com.banquito.originacion.analisis.repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import javax.sql.DataSource;
+
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.jdbc.DatabaseDriver;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import com.banquito.originacion.analisis.concurrency.PrecondicionVersion;
+import com.banquito.originacion.analisis.enums.EstadoHistorialEnum;
+import com.banquito.originacion.analisis.model.HistorialEstados;
+import com.banquito.originacion.analisis.model.ObservacionAnalistas;
+
+// PUT y PATCH en una sola sentencia: UPDATE ... SET ..., version = version + 1 WHERE id = ? AND version IN (If-Match).
+// Devuelve la fila como estaba antes del cambio, porque el historial necesita la solicitud anterior para recalcular su
+// estado actual. PostgreSQL la obtiene con RETURNING sobre la fila bloqueada; H2 (tests) no tiene RETURNING y usa OLD TABLE
+@Repository
+public class EdicionRepository {
+
+    private static final String HISTORIAL = "analisis_creditos.historial_estados";
+    private static final String OBSERVACIONES = "analisis_creditos.observacion_analistas";
+    private static final List<String> COLUMNAS_HISTORIAL = List.of(
+            "id_historial", "id_solicitud", "estado", "fecha_hora", "usuario", "motivo", "version");
+    private static final List<String> COLUMNAS_OBSERVACIONES = List.of(
+            "id_observacion_analista", "id_solicitud", "usuario", "fecha_hora", "razon_intervencion", "version");
+    // PUT reemplaza todas las columnas editables; PATCH conserva las que llegan en null
+    private static final String ASIGNACIONES_HISTORIAL = "id_solicitud = :idSolicitud, estado = :estado, "
+            + "fecha_hora = :fechaHora, usuario = :usuario, motivo = :motivo";
+    private static final String ASIGNACIONES_HISTORIAL_PARCIAL = "id_solicitud = COALESCE(:idSolicitud, r.id_solicitud), "
+            + "estado = COALESCE(:estado, r.estado), fecha_hora = COALESCE(:fechaHora, r.fecha_hora), "
+            + "usuario = COALESCE(:usuario, r.usuario), motivo = COALESCE(:motivo, r.motivo)";
+    private static final String ASIGNACIONES_OBSERVACION = "id_solicitud = :idSolicitud, usuario = :usuario, "
+            + "fecha_hora = :fechaHora, razon_intervencion = :razonIntervencion";
+    private static final String ASIGNACIONES_OBSERVACION_PARCIAL = "id_solicitud = COALESCE(:idSolicitud, r.id_solicitud), "
+            + "usuario = COALESCE(:usuario, r.usuario), fecha_hora = COALESCE(:fechaHora, r.fecha_hora), "
+            + "razon_intervencion = COALESCE(:razonIntervencion, r.razon_intervencion)";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final boolean postgres;
+
+    // Por la URL y no por una conexión: el DataSource principal es perezoso y enruta por transacción
+    public EdicionRepository(DataSource dataSource, DataSourceProperties properties) {
+        this.jdbcTemplate = new NamedParameterJdbcTemplate(dataSource);
+        this.postgres = DatabaseDriver.fromJdbcUrl(properties.determineUrl()) == DatabaseDriver.POSTGRESQL;
+    }
+
+    public Optional<HistorialEstados> actualizarHistorial(Integer idHistorial, HistorialEstados cambios, boolean parcial,
+            PrecondicionVersion precondicion) {
+        MapSqlParameterSource parametros = new MapSqlParameterSource()
+                .addValue("idSolicitud", cambios.getIdSolicitud(), Types.INTEGER)
+                .addValue("estado", cambios.getEstado() == null ? null : cambios.getEstado().name(), Types.VARCHAR)
+                .addValue("fechaHora", cambios.getFechaHora() == null ? null : Timestamp.valueOf(cambios.getFechaHora()), Types.TIMESTAMP)
+                .addValue("usuario", cambios.getUsuario(), Types.VARCHAR)
+                .addValue("motivo", cambios.getMotivo(), Types.VARCHAR);
+        return actualizar(HISTORIAL, COLUMNAS_HISTORIAL, parcial ? ASIGNACIONES_HISTORIAL_PARCIAL : ASIGNACIONES_HISTORIAL,
+                idHistorial, precondicion, parametros, this::toHistorialEstados);
+    }
+
+    public Optional<ObservacionAnalistas> actualizarObservacion(Integer idObservacionAnalista, ObservacionAnalistas cambios,
+            boolean parcial, PrecondicionVersion precondicion) {
+        MapSqlParameterSource parametros = new MapSqlParameterSource()
+                .addValue("idSolicitud", cambios.getIdSolicitud(), Types.INTEGER)
+                .addValue("usuario", cambios.getUsuario(), Types.VARCHAR)
+                .addValue("fechaHora", cambios.getFechaHora() == null ? null : Timestamp.valueOf(cambios.getFechaHora()), Types.TIMESTAMP)
+                .addValue("razonIntervencion", cambios.getRazonIntervencion(), Types.VARCHAR);
+        return actualizar(OBSERVACIONES, COLUMNAS_OBSERVACIONES, parcial ? ASIGNACIONES_OBSERVACION_PARCIAL : ASIGNACIONES_OBSERVACION,
+                idObservacionAnalista, precondicion, parametros, this::toObservacionAnalistas);
+    }
+
+    // Solo cuando el UPDATE no devolvió filas, para distinguir un registro inexistente de una versión que no coincide
+    public Optional<Long> findVersionHistorial(Integer idHistorial) {
+        return findVersion(HISTORIAL, COLUMNAS_HISTORIAL.get(0), idHistorial);
+    }
+
+    public Optional<Long> findVersionObservacion(Integer idObservacionAnalista) {
+        return findVersion(OBSERVACIONES, COLUMNAS_OBSERVACIONES.get(0), idObservacionAnalista);
+    }
+
+    private <T> Optional<T> actualizar(String tabla, List<String> columnas, String asignaciones, Integer id,
+            PrecondicionVersion precondicion, MapSqlParameterSource parametros, RowMapper<T> mapper) {
+        if (precondicion.exigida() && precondicion.versiones().isEmpty()) {
+            // If-Match sin ninguna versión emitida por este servicio: no puede coincidir
+            return Optional.empty();
+        }
+        parametros.addValue("id", id);
+        String columnaId = columnas.get(0);
+        String condicion = "r." + columnaId + " = :id";
+        if (precondicion.exigida()) {
+            condicion += " AND r.version IN (:versiones)";
+            parametros.addValue("versiones", precondicion.versiones());
+        }
+        String update = "UPDATE " + tabla + " r SET " + asignaciones + ", version = r.version + 1";
+        String sql;
+        if (postgres) {
+            // FOR UPDATE: si otra transacción cambió la fila mientras se esperaba el lock, anterior trae su versión confirmada
+            sql = update + " FROM (SELECT " + String.join(", ", columnas) + " FROM " + tabla + " WHERE " + columnaId
+                    + " = :id FOR UPDATE) anterior WHERE " + condicion + " AND r." + columnaId + " = anterior." + columnaId
+                    + " RETURNING " + columnas.stream().map(columna -> "anterior." + columna).collect(Collectors.joining(", "));
+        } else {
+            sql = "SELECT " + String.join(", ", columnas) + " FROM OLD TABLE (" + update + " WHERE " + condicion + ")";
+        }
+        return jdbcTemplate.query(sql, parametros, mapper).stream().findFirst();
+    }
+
+    private Optional<Long> findVersion(String tabla, String columnaId, Integer id) {
+        return jdbcTemplate.queryForList("SELECT version FROM " + tabla + " WHERE " + columnaId + " = :id",
+                Map.of("id", id), Long.class).stream().findFirst();
+    }
+
+    private HistorialEstados toHistorialEstados(ResultSet rs, int rowNum) throws SQLException {
+        HistorialEstados historial = new HistorialEstados(rs.getInt("id_historial"));
+        historial.setIdSolicitud(rs.getInt("id_solicitud"));
+        historial.setEstado(EstadoHistorialEnum.valueOf(rs.getString("estado")));
+        historial.setFechaHora(rs.getTimestamp("fecha_hora").toLocalDateTime());
+        historial.setUsuario(rs.getString("usuario"));
+        historial.setMotivo(rs.getString("motivo"));
+        historial.setVersion(rs.getLong("version"));
+        return historial;
+    }
+
+    private ObservacionAnalistas toObservacionAnalistas(ResultSet rs, int rowNum) throws SQLException {
+        ObservacionAnalistas observacion = new ObservacionAnalistas(rs.getInt("id_observacion_analista"));
+        observacion.setIdSolicitud(rs.getInt("id_solicitud"));
+        observacion.setUsuario(rs.getString("usuario"));
+        observacion.setFechaHora(rs.getTimestamp("fecha_hora").toLocalDateTime());
+        observacion.setRazonIntervencion(rs.getString("razon_intervencion"));
+        observacion.setVersion(rs.getLong("version"));
+        return observacion;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,102 @@
+package com.banquito.originacion.analisis.repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import com.banquito.originacion.analisis.enums.EstadoHistorialEnum;
+import com.banquito.originacion.analisis.model.HistorialEstados;
+import com.banquito.originacion.analisis.model.ObservacionAnalistas;
+
+@Repository
+public class ExportacionRepository {
+
+    private static final String SELECT_HISTORIAL = "SELECT id_historial, id_solicitud, estado, fecha_hora, usuario, motivo, version "
+            + "FROM analisis_creditos.historial_estados";
+    private static final String SELECT_OBSERVACIONES = "SELECT id_observacion_analista, id_solicitud, usuario, fecha_hora, razon_intervencion, version "
+            + "FROM analisis_creditos.observacion_analistas";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ExportacionRepository(DataSource dataSource,
+            @Value("${analisis.export.fetch-size:500}") int fetchSize) {
+        // JDBC directo: las filas no pasan por el contexto de persistencia y el driver las trae por bloques
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+    }
+
+    public void streamHistorialEstados(LocalDateTime desde, LocalDateTime hasta, EstadoHistorialEnum estado,
+            Consumer<HistorialEstados> consumer) {
+        List<Object> parametros = new ArrayList<>();
+        StringBuilder sql = new StringBuilder(SELECT_HISTORIAL);
+        agregarRangoFechas(sql, parametros, desde, hasta);
+        if (estado != null) {
+            sql.append(parametros.isEmpty() ? " WHERE" : " AND").append(" estado = ?");
+            parametros.add(estado.name());
+        }
+        sql.append(" ORDER BY fecha_hora, id_historial");
+        jdbcTemplate.query(sql.toString(), rs -> {
+            consumer.accept(toHistorialEstados(rs));
+        }, parametros.toArray());
+    }
+
+    public void streamObservacionesAnalistas(LocalDateTime desde, LocalDateTime hasta, String usuario,
+            Consumer<ObservacionAnalistas> consumer) {
+        List<Object> parametros = new ArrayList<>();
+        StringBuilder sql = new StringBuilder(SELECT_OBSERVACIONES);
+        agregarRangoFechas(sql, parametros, desde, hasta);
+        if (usuario != null && !usuario.isBlank()) {
+            sql.append(parametros.isEmpty() ? " WHERE" : " AND").append(" usuario = ?");
+            parametros.add(usuario);
+        }
+        sql.append(" ORDER BY fecha_hora, id_observacion_analista");
+        jdbcTemplate.query(sql.toString(), rs -> {
+            consumer.accept(toObservacionAnalistas(rs));
+        }, parametros.toArray());
+    }
+
+    private void agregarRangoFechas(StringBuilder sql, List<Object> parametros, LocalDateTime desde, LocalDateTime hasta) {
+        if (desde != null) {
+            sql.append(" WHERE fecha_hora >= ?");
+            parametros.add(Timestamp.valueOf(desde));
+        }
+        if (hasta != null) {
+            sql.append(parametros.isEmpty() ? " WHERE" : " AND").append(" fecha_hora < ?");
+            parametros.add(Timestamp.valueOf(hasta));
+        }
+    }
+
+    private HistorialEstados toHistorialEstados(ResultSet rs) throws SQLException {
+        // Instancia transitoria: nunca se registra en el EntityManager
+        HistorialEstados entity = new HistorialEstados();
+        entity.setIdHistorial(rs.getInt("id_historial"));
+        entity.setIdSolicitud(rs.getInt("id_solicitud"));
+        entity.setEstado(EstadoHistorialEnum.valueOf(rs.getString("estado")));
+        entity.setFechaHora(rs.getTimestamp("fecha_hora").toLocalDateTime());
+        entity.setUsuario(rs.getString("usuario"));
+        entity.setMotivo(rs.getString("motivo"));
+        entity.setVersion(rs.getLong("version"));
+        return entity;
+    }
+
+    private ObservacionAnalistas toObservacionAnalistas(ResultSet rs) throws SQLException {
+        ObservacionAnalistas entity = new ObservacionAnalistas();
+        entity.setIdObservacionAnalista(rs.getInt("id_observacion_analista"));
+        entity.setIdSolicitud(rs.getInt("id_solicitud"));
+        entity.setUsuario(rs.getString("usuario"));
+        entity.setFechaHora(rs.getTimestamp("fecha_hora").toLocalDateTime());
+        entity.setRazonIntervencion(rs.getString("razon_intervencion"));
+        entity.setVersion(rs.getLong("version"));
+        return entity;
+    }
+}
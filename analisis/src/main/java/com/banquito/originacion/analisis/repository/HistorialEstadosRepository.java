@@ -1,9 +1,16 @@
 package com.banquito.originacion.analisis.repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.banquito.originacion.analisis.model.HistorialEstados;
@@ -14,13 +21,19 @@ public interface HistorialEstadosRepository extends JpaRepository<HistorialEstad
     
     List<HistorialEstados> findByIdSolicitud(Integer idSolicitud);
     
-    List<HistorialEstados> findByEstado(EstadoHistorialEnum estado);
-
-    List<HistorialEstados> findByUsuario(String usuario);
+    Window<HistorialEstados> findByEstado(EstadoHistorialEnum estado, ScrollPosition position, Sort sort, Limit limit);
     
     List<HistorialEstados> findByIdSolicitudAndEstado(Integer idSolicitud, EstadoHistorialEnum estado);
         
     Optional<HistorialEstados> findFirstByIdSolicitudOrderByFechaHoraDesc(Integer idSolicitud);
-    
-    List<HistorialEstados> findByIdSolicitudOrderByFechaHoraDesc(Integer idSolicitud);
+
+    Window<HistorialEstados> findTimelineByIdSolicitud(Integer idSolicitud, ScrollPosition position, Sort sort, Limit limit);
+
+    @Query("SELECT COUNT(h) AS cantidad, MAX(h.idHistorial) AS ultimoId, SUM(h.version) AS sumaVersiones "
+            + "FROM HistorialEstados h WHERE h.idSolicitud = :idSolicitud")
+    HuellaRegistros findHuellaByIdSolicitud(@Param("idSolicitud") Integer idSolicitud);
+
+    @Query("SELECT h FROM HistorialEstados h WHERE h.idSolicitud IN :idsSolicitud AND h.fechaHora = "
+            + "(SELECT MAX(h2.fechaHora) FROM HistorialEstados h2 WHERE h2.idSolicitud = h.idSolicitud)")
+    List<HistorialEstados> findLatestByIdSolicitudIn(@Param("idsSolicitud") Collection<Integer> idsSolicitud);
 } 
\ No newline at end of file
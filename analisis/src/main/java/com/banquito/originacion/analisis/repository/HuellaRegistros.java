@@ -0,0 +1,11 @@
+package com.banquito.originacion.analisis.repository;
+
+// Resumen que cambia con cada alta, edición o eliminación: los ids son crecientes y toda edición incrementa la versión
+public interface HuellaRegistros {
+
+    long getCantidad();
+
+    Integer getUltimoId();
+
+    Long getSumaVersiones();
+}
\ No newline at end of file
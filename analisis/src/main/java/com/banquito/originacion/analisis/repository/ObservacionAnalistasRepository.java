@@ -2,7 +2,13 @@ package com.banquito.originacion.analisis.repository;
 
 import java.util.List;
 
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.banquito.originacion.analisis.model.ObservacionAnalistas;
@@ -12,11 +18,11 @@ public interface ObservacionAnalistasRepository extends JpaRepository<Observacio
     
     List<ObservacionAnalistas> findByIdSolicitud(Integer idSolicitud);
     
-    List<ObservacionAnalistas> findByUsuario(String usuario);
-
     List<ObservacionAnalistas> findByIdSolicitudAndUsuario(Integer idSolicitud, String usuario);
 
-    List<ObservacionAnalistas> findByIdSolicitudOrderByFechaHoraDesc(Integer idSolicitud);
-    
-    List<ObservacionAnalistas> findByUsuarioOrderByFechaHoraDesc(String usuario);
+    Window<ObservacionAnalistas> findTimelineByIdSolicitud(Integer idSolicitud, ScrollPosition position, Sort sort, Limit limit);
+
+    @Query("SELECT COUNT(o) AS cantidad, MAX(o.idObservacionAnalista) AS ultimoId, SUM(o.version) AS sumaVersiones "
+            + "FROM ObservacionAnalistas o WHERE o.idSolicitud = :idSolicitud")
+    HuellaRegistros findHuellaByIdSolicitud(@Param("idSolicitud") Integer idSolicitud);
 } 
\ No newline at end of file
@@ -0,0 +1,92 @@
+package com.banquito.originacion.analisis.repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import com.banquito.originacion.analisis.enums.EstadoHistorialEnum;
+import com.banquito.originacion.analisis.outbox.EventoTransicion;
+
+@Repository
+public class OutboxRepository {
+
+    // nextval en el propio INSERT: el id se obtiene con el lock de la solicitud tomado y sin una consulta adicional
+    private static final String INSERT_EVENTO = "INSERT INTO analisis_creditos.evento_outbox "
+            + "(id_evento, id_solicitud, id_historial, estado_anterior, estado, fecha_hora, usuario, motivo, version, fecha_registro) "
+            + "VALUES (nextval('analisis_creditos.evento_outbox_seq'), ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String SELECT_PENDIENTES = "SELECT id_evento, id_solicitud, id_historial, estado_anterior, estado, "
+            + "fecha_hora, usuario, motivo, version, fecha_registro FROM analisis_creditos.evento_outbox "
+            + "ORDER BY id_evento FETCH FIRST :limite ROWS ONLY";
+    private static final String DELETE_EVENTOS = "DELETE FROM analisis_creditos.evento_outbox WHERE id_evento IN (:idsEvento)";
+    private static final String SELECT_RESUMEN_PENDIENTES = "SELECT COUNT(*) AS pendientes, MIN(fecha_registro) AS mas_antiguo "
+            + "FROM analisis_creditos.evento_outbox";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public OutboxRepository(DataSource dataSource) {
+        this.jdbcTemplate = new NamedParameterJdbcTemplate(dataSource);
+    }
+
+    public void registrar(List<EventoTransicion> eventos) {
+        if (eventos.isEmpty()) {
+            return;
+        }
+        List<Object[]> parametros = new ArrayList<>(eventos.size());
+        for (EventoTransicion evento : eventos) {
+            parametros.add(new Object[] {
+                    evento.idSolicitud(),
+                    evento.idHistorial(),
+                    evento.estadoAnterior() == null ? null : evento.estadoAnterior().name(),
+                    evento.estado().name(),
+                    Timestamp.valueOf(evento.fechaHora()),
+                    evento.usuario(),
+                    evento.motivo(),
+                    evento.version(),
+                    Timestamp.valueOf(evento.fechaRegistro()) });
+        }
+        jdbcTemplate.getJdbcTemplate().batchUpdate(INSERT_EVENTO, parametros);
+    }
+
+    public List<EventoTransicion> findPendientes(int limite) {
+        return jdbcTemplate.query(SELECT_PENDIENTES, Map.of("limite", limite), this::toEventoTransicion);
+    }
+
+    public int eliminar(Collection<Long> idsEvento) {
+        return jdbcTemplate.update(DELETE_EVENTOS, Map.of("idsEvento", idsEvento));
+    }
+
+    public ResumenPendientes findResumenPendientes() {
+        return jdbcTemplate.getJdbcTemplate().queryForObject(SELECT_RESUMEN_PENDIENTES, (rs, rowNum) -> {
+            Timestamp masAntiguo = rs.getTimestamp("mas_antiguo");
+            return new ResumenPendientes(rs.getLong("pendientes"), masAntiguo == null ? null : masAntiguo.toLocalDateTime());
+        });
+    }
+
+    private EventoTransicion toEventoTransicion(ResultSet rs, int rowNum) throws SQLException {
+        String estadoAnterior = rs.getString("estado_anterior");
+        return new EventoTransicion(
+                rs.getLong("id_evento"),
+                rs.getInt("id_solicitud"),
+                rs.getInt("id_historial"),
+                estadoAnterior == null ? null : EstadoHistorialEnum.valueOf(estadoAnterior),
+                EstadoHistorialEnum.valueOf(rs.getString("estado")),
+                rs.getTimestamp("fecha_hora").toLocalDateTime(),
+                rs.getString("usuario"),
+                rs.getString("motivo"),
+                rs.getLong("version"),
+                rs.getTimestamp("fecha_registro").toLocalDateTime());
+    }
+
+    public record ResumenPendientes(long pendientes, LocalDateTime masAntiguo) {
+    }
+}
\ No newline at end of file
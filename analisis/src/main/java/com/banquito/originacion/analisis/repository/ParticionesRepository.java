@@ -0,0 +1,127 @@
+package com.banquito.originacion.analisis.repository;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import com.banquito.originacion.analisis.archivo.FilaArchivo;
+import com.banquito.originacion.analisis.archivo.HuellaParticion;
+import com.banquito.originacion.analisis.archivo.TablaParticionada;
+
+// DDL y lectura de las particiones mensuales. Los nombres de tabla no admiten parámetros: se arman desde
+// TablaParticionada y un mes, nunca desde texto recibido
+@Repository
+public class ParticionesRepository {
+
+    private static final String ESQUEMA = "analisis_creditos.";
+    private static final String CREAR_PARTICION = "SELECT analisis_creditos.crear_particion_mensual(:tabla, :mes)";
+    private static final String SELECT_COLUMNAS = "SELECT string_agg(quote_ident(column_name), ', ' ORDER BY ordinal_position) "
+            + "FROM information_schema.columns WHERE table_schema = 'analisis_creditos' AND table_name = :tabla AND is_generated = 'NEVER'";
+    private static final String SELECT_PARTICIONES = "SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid "
+            + "WHERE i.inhparent = CAST(:padre AS regclass) ORDER BY c.relname";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public ParticionesRepository(DataSource dataSource,
+            @Value("${analisis.export.fetch-size:500}") int fetchSize) {
+        this.jdbcTemplate = new NamedParameterJdbcTemplate(dataSource);
+        this.jdbcTemplate.getJdbcTemplate().setFetchSize(fetchSize);
+    }
+
+    public boolean crearParticion(TablaParticionada tabla, LocalDate mes) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(CREAR_PARTICION,
+                new MapSqlParameterSource("tabla", tabla.nombre()).addValue("mes", Date.valueOf(mes)), Boolean.class));
+    }
+
+    // Filas que quedaron en la partición por defecto porque llegaron antes que la partición de su mes
+    public boolean tieneFilasPorDefecto(TablaParticionada tabla, LocalDate mes) {
+        String sql = "SELECT EXISTS (SELECT 1 FROM " + ESQUEMA + tabla.particionPorDefecto()
+                + " WHERE fecha_hora >= :inicio AND fecha_hora < :fin)";
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(sql, rango(mes), Boolean.class));
+    }
+
+    // Con la partición por defecto desvinculada la del mes se crea sin revisarla; las filas del mes pasan a la nueva
+    // partición y la de defecto vuelve a adjuntarse. Toma locks exclusivos sobre la tabla: debe ir en una transacción corta
+    public int crearMoviendoFilasPorDefecto(TablaParticionada tabla, LocalDate mes) {
+        String padre = ESQUEMA + tabla.nombre();
+        String porDefecto = ESQUEMA + tabla.particionPorDefecto();
+        // Las columnas generadas (razon_tsv) no admiten valores en el INSERT
+        String columnas = jdbcTemplate.queryForObject(SELECT_COLUMNAS, Map.of("tabla", tabla.nombre()), String.class);
+        MapSqlParameterSource rango = rango(mes);
+        jdbcTemplate.getJdbcTemplate().execute("ALTER TABLE " + padre + " DETACH PARTITION " + porDefecto);
+        crearParticion(tabla, mes);
+        int movidas = jdbcTemplate.update("INSERT INTO " + padre + " (" + columnas + ") SELECT " + columnas + " FROM " + porDefecto
+                + " WHERE fecha_hora >= :inicio AND fecha_hora < :fin", rango);
+        jdbcTemplate.update("DELETE FROM " + porDefecto + " WHERE fecha_hora >= :inicio AND fecha_hora < :fin", rango);
+        jdbcTemplate.getJdbcTemplate().execute("ALTER TABLE " + padre + " ATTACH PARTITION " + porDefecto + " DEFAULT");
+        return movidas;
+    }
+
+    // Meses con partición propia adjunta a la tabla, del más antiguo al más reciente
+    public List<LocalDate> findMeses(TablaParticionada tabla) {
+        List<LocalDate> meses = new ArrayList<>();
+        for (String particion : jdbcTemplate.queryForList(SELECT_PARTICIONES, Map.of("padre", ESQUEMA + tabla.nombre()), String.class)) {
+            LocalDate mes = tabla.mes(particion);
+            if (mes != null) {
+                meses.add(mes);
+            }
+        }
+        meses.sort(null);
+        return meses;
+    }
+
+    // Alguna fila de una solicitud que no está en un estado final (o que no tiene estado actual)
+    public boolean tieneSolicitudesAbiertas(String particion, Collection<String> estadosFinales) {
+        String sql = "SELECT EXISTS (SELECT 1 FROM " + ESQUEMA + particion + " p WHERE NOT EXISTS "
+                + "(SELECT 1 FROM analisis_creditos.solicitud_estado_actual s "
+                + "WHERE s.id_solicitud = p.id_solicitud AND s.estado IN (:estadosFinales)))";
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(sql, Map.of("estadosFinales", estadosFinales), Boolean.class));
+    }
+
+    // Agrupadas por solicitud y, dentro de cada una, en el orden en que se listan (más reciente primero)
+    public void recorrer(TablaParticionada tabla, String particion, Consumer<FilaArchivo> consumer) {
+        String sql = "SELECT id_solicitud, " + tabla.columnaId() + " AS id, version, " + tabla.json() + "::text AS json "
+                + "FROM " + ESQUEMA + particion
+                + " ORDER BY id_solicitud, fecha_hora DESC, " + tabla.columnaId() + " DESC";
+        jdbcTemplate.getJdbcTemplate().query(sql, rs -> {
+            consumer.accept(new FilaArchivo(rs.getInt("id_solicitud"), rs.getInt("id"), rs.getLong("version"), rs.getString("json")));
+        });
+    }
+
+    public HuellaParticion huella(TablaParticionada tabla, String particion) {
+        String sql = "SELECT COUNT(*) AS filas, COALESCE(SUM(" + tabla.columnaId() + "), 0) AS suma_ids, "
+                + "COALESCE(SUM(version), 0) AS suma_versiones FROM " + ESQUEMA + particion;
+        return jdbcTemplate.getJdbcTemplate().queryForObject(sql, (rs, rowNum) -> new HuellaParticion(
+                rs.getLong("filas"), rs.getLong("suma_ids"), rs.getLong("suma_versiones")));
+    }
+
+    // Mientras DETACH espera su lock, las consultas nuevas sobre la tabla esperan detrás de él: se desiste pronto
+    public void limitarEsperaLock(long lockTimeoutMs) {
+        jdbcTemplate.queryForObject("SELECT set_config('lock_timeout', :valor, true)",
+                Map.of("valor", lockTimeoutMs + "ms"), String.class);
+    }
+
+    // Toma un lock exclusivo sobre la tabla y la partición: debe ir en una transacción corta
+    public void desvincular(TablaParticionada tabla, String particion) {
+        jdbcTemplate.getJdbcTemplate().execute("ALTER TABLE " + ESQUEMA + tabla.nombre() + " DETACH PARTITION " + ESQUEMA + particion);
+    }
+
+    public void eliminar(String particion) {
+        jdbcTemplate.getJdbcTemplate().execute("DROP TABLE " + ESQUEMA + particion);
+    }
+
+    private static MapSqlParameterSource rango(LocalDate mes) {
+        return new MapSqlParameterSource("inicio", Date.valueOf(mes)).addValue("fin", Date.valueOf(mes.plusMonths(1)));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,42 @@
+package com.banquito.originacion.analisis.repository;
+
+import java.util.List;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.banquito.originacion.analisis.enums.EstadoHistorialEnum;
+import com.banquito.originacion.analisis.model.SolicitudEstadoActual;
+
+@Repository
+public interface SolicitudEstadoActualRepository extends JpaRepository<SolicitudEstadoActual, Integer> {
+    
+    Page<SolicitudEstadoActual> findByEstado(EstadoHistorialEnum estado, Pageable pageable);
+    
+    long countByEstado(EstadoHistorialEnum estado);
+    
+    @Query("SELECT s.estado AS estado, COUNT(s) AS total FROM SolicitudEstadoActual s GROUP BY s.estado")
+    List<ConteoPorEstado> countGroupByEstado();
+    
+    // Solicitudes con historial, recorridas por keyset para reconstruir la proyección por lotes
+    @Query("SELECT DISTINCT h.idSolicitud FROM HistorialEstados h WHERE h.idSolicitud > :desde ORDER BY h.idSolicitud")
+    List<Integer> findIdsSolicitudConHistorial(@Param("desde") Integer desde, Limit limit);
+    
+    // Una solicitud con meses archivados conserva su estado actual aunque ya no tenga filas en historial_estados
+    @Modifying
+    @Query("DELETE FROM SolicitudEstadoActual s WHERE NOT EXISTS "
+            + "(SELECT 1 FROM HistorialEstados h WHERE h.idSolicitud = s.idSolicitud) AND NOT EXISTS "
+            + "(SELECT 1 FROM SolicitudArchivada a WHERE a.tabla = 'historial_estados' AND a.idSolicitud = s.idSolicitud)")
+    int deleteSinHistorial();
+    
+    interface ConteoPorEstado {
+        EstadoHistorialEnum getEstado();
+        long getTotal();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,225 @@
+package com.banquito.originacion.analisis.repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.StringJoiner;
+import java.util.function.Function;
+
+import javax.sql.DataSource;
+
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.mapping.PropertyReferenceException;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.data.util.TypeInformation;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import com.banquito.originacion.analisis.enums.EstadoHistorialEnum;
+import com.banquito.originacion.analisis.vista.HistorialEstadosVista;
+import com.banquito.originacion.analisis.vista.ObservacionAnalistasVista;
+
+@Repository
+public class VistaRepository {
+
+    private static final String SELECT_HISTORIAL = "SELECT id_historial, id_solicitud, estado, fecha_hora, usuario, motivo, version "
+            + "FROM analisis_creditos.historial_estados";
+    private static final String SELECT_ESTADO_ACTUAL = "SELECT id_historial, id_solicitud, estado, fecha_hora, usuario, motivo, version "
+            + "FROM analisis_creditos.solicitud_estado_actual";
+    private static final String SELECT_OBSERVACIONES = "SELECT id_observacion_analista, id_solicitud, usuario, fecha_hora, razon_intervencion, version "
+            + "FROM analisis_creditos.observacion_analistas";
+    private static final String COUNT_HISTORIAL = "SELECT COUNT(*) FROM analisis_creditos.historial_estados";
+    private static final String COUNT_OBSERVACIONES = "SELECT COUNT(*) FROM analisis_creditos.observacion_analistas";
+
+    // Propiedad del registro (la que llega en el Sort y en las claves del cursor) y su columna
+    private static final Map<String, Columna<HistorialEstadosVista>> COLUMNAS_HISTORIAL = Map.of(
+            "idHistorial", new Columna<>("id_historial", HistorialEstadosVista::idHistorial),
+            "idSolicitud", new Columna<>("id_solicitud", HistorialEstadosVista::idSolicitud),
+            "estado", new Columna<>("estado", HistorialEstadosVista::estado),
+            "fechaHora", new Columna<>("fecha_hora", HistorialEstadosVista::fechaHora),
+            "usuario", new Columna<>("usuario", HistorialEstadosVista::usuario),
+            "motivo", new Columna<>("motivo", HistorialEstadosVista::motivo),
+            "version", new Columna<>("version", HistorialEstadosVista::version));
+    private static final Map<String, Columna<ObservacionAnalistasVista>> COLUMNAS_OBSERVACIONES = Map.of(
+            "idObservacionAnalista", new Columna<>("id_observacion_analista", ObservacionAnalistasVista::idObservacionAnalista),
+            "idSolicitud", new Columna<>("id_solicitud", ObservacionAnalistasVista::idSolicitud),
+            "usuario", new Columna<>("usuario", ObservacionAnalistasVista::usuario),
+            "fechaHora", new Columna<>("fecha_hora", ObservacionAnalistasVista::fechaHora),
+            "razonIntervencion", new Columna<>("razon_intervencion", ObservacionAnalistasVista::razonIntervencion),
+            "version", new Columna<>("version", ObservacionAnalistasVista::version));
+
+    private static final RowMapper<HistorialEstadosVista> HISTORIAL = (rs, rowNum) -> toHistorialEstadosVista(rs);
+    private static final RowMapper<ObservacionAnalistasVista> OBSERVACION = (rs, rowNum) -> toObservacionAnalistasVista(rs);
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public VistaRepository(DataSource dataSource) {
+        // JDBC directo al registro inmutable: ni entidad gestionada, ni snapshot, ni copia posterior a un DTO
+        this.jdbcTemplate = new NamedParameterJdbcTemplate(dataSource);
+    }
+
+    public Optional<HistorialEstadosVista> findHistorialById(Integer idHistorial) {
+        return jdbcTemplate.query(SELECT_HISTORIAL + " WHERE id_historial = :id", Map.of("id", idHistorial), HISTORIAL)
+                .stream().findFirst();
+    }
+
+    public List<HistorialEstadosVista> findHistorialByIdSolicitud(Integer idSolicitud) {
+        return jdbcTemplate.query(SELECT_HISTORIAL + " WHERE id_solicitud = :idSolicitud ORDER BY fecha_hora DESC, id_historial DESC",
+                Map.of("idSolicitud", idSolicitud), HISTORIAL);
+    }
+
+    public Page<HistorialEstadosVista> findHistorialPagina(Pageable pageable) {
+        return pagina(SELECT_HISTORIAL, COUNT_HISTORIAL, COLUMNAS_HISTORIAL, HistorialEstadosVista.class, pageable, HISTORIAL);
+    }
+
+    public Window<HistorialEstadosVista> findHistorial(KeysetScrollPosition position, Sort sort, int size) {
+        return ventana(SELECT_HISTORIAL, null, new MapSqlParameterSource(), COLUMNAS_HISTORIAL, position, sort, size, HISTORIAL);
+    }
+
+    public Window<HistorialEstadosVista> findHistorialByEstado(EstadoHistorialEnum estado, KeysetScrollPosition position, Sort sort, int size) {
+        return ventana(SELECT_HISTORIAL, "estado = :estado", new MapSqlParameterSource("estado", estado.name()),
+                COLUMNAS_HISTORIAL, position, sort, size, HISTORIAL);
+    }
+
+    public Window<HistorialEstadosVista> findHistorialByUsuario(String usuario, KeysetScrollPosition position, Sort sort, int size) {
+        return ventana(SELECT_HISTORIAL, "usuario = :usuario", new MapSqlParameterSource("usuario", usuario),
+                COLUMNAS_HISTORIAL, position, sort, size, HISTORIAL);
+    }
+
+    // La proyección guarda una copia del último registro, por lo que se lee con la forma de un historial
+    public Window<HistorialEstadosVista> findEstadoActualByEstado(EstadoHistorialEnum estado, KeysetScrollPosition position, Sort sort, int size) {
+        return ventana(SELECT_ESTADO_ACTUAL, "estado = :estado", new MapSqlParameterSource("estado", estado.name()),
+                COLUMNAS_HISTORIAL, position, sort, size, HISTORIAL);
+    }
+
+    public Optional<ObservacionAnalistasVista> findObservacionById(Integer idObservacionAnalista) {
+        return jdbcTemplate.query(SELECT_OBSERVACIONES + " WHERE id_observacion_analista = :id", Map.of("id", idObservacionAnalista),
+                OBSERVACION).stream().findFirst();
+    }
+
+    public List<ObservacionAnalistasVista> findObservacionesByIdSolicitud(Integer idSolicitud) {
+        return jdbcTemplate.query(SELECT_OBSERVACIONES + " WHERE id_solicitud = :idSolicitud "
+                + "ORDER BY fecha_hora DESC, id_observacion_analista DESC", Map.of("idSolicitud", idSolicitud), OBSERVACION);
+    }
+
+    public Page<ObservacionAnalistasVista> findObservacionesPagina(Pageable pageable) {
+        return pagina(SELECT_OBSERVACIONES, COUNT_OBSERVACIONES, COLUMNAS_OBSERVACIONES, ObservacionAnalistasVista.class, pageable, OBSERVACION);
+    }
+
+    public Window<ObservacionAnalistasVista> findObservaciones(KeysetScrollPosition position, Sort sort, int size) {
+        return ventana(SELECT_OBSERVACIONES, null, new MapSqlParameterSource(), COLUMNAS_OBSERVACIONES, position, sort, size, OBSERVACION);
+    }
+
+    public Window<ObservacionAnalistasVista> findObservacionesByUsuario(String usuario, KeysetScrollPosition position, Sort sort, int size) {
+        return ventana(SELECT_OBSERVACIONES, "usuario = :usuario", new MapSqlParameterSource("usuario", usuario),
+                COLUMNAS_OBSERVACIONES, position, sort, size, OBSERVACION);
+    }
+
+    private <T> Page<T> pagina(String select, String count, Map<String, Columna<T>> columnas, Class<T> tipo,
+            Pageable pageable, RowMapper<T> rowMapper) {
+        StringBuilder sql = new StringBuilder(select);
+        if (pageable.getSort().isSorted()) {
+            StringJoiner orden = new StringJoiner(", ", " ORDER BY ", "");
+            for (Sort.Order order : pageable.getSort()) {
+                Columna<T> columna = columnas.get(order.getProperty());
+                if (columna == null) {
+                    throw new PropertyReferenceException(order.getProperty(), TypeInformation.of(tipo), List.of());
+                }
+                orden.add(columna.nombre() + (order.isDescending() ? " DESC" : ""));
+            }
+            sql.append(orden);
+        }
+        sql.append(" OFFSET :desplazamiento ROWS FETCH FIRST :limite ROWS ONLY");
+        List<T> contenido = jdbcTemplate.query(sql.toString(), new MapSqlParameterSource("desplazamiento", pageable.getOffset())
+                .addValue("limite", pageable.getPageSize()), rowMapper);
+        // Igual que Spring Data: el conteo se omite cuando la página ya indica el total
+        return PageableExecutionUtils.getPage(contenido, pageable,
+                () -> jdbcTemplate.getJdbcTemplate().queryForObject(count, Long.class));
+    }
+
+    // Sort y posición vienen de KeysetPagination: todas las columnas en la misma dirección y el id al final
+    private <T> Window<T> ventana(String select, String filtro, MapSqlParameterSource parametros, Map<String, Columna<T>> columnas,
+            KeysetScrollPosition position, Sort sort, int size, RowMapper<T> rowMapper) {
+        Map<String, Columna<T>> orden = new LinkedHashMap<>();
+        for (Sort.Order order : sort) {
+            orden.put(order.getProperty(), columnas.get(order.getProperty()));
+        }
+        boolean descendente = sort.iterator().next().isDescending();
+
+        List<String> condiciones = new ArrayList<>();
+        if (filtro != null) {
+            condiciones.add(filtro);
+        }
+        if (!position.isInitial()) {
+            // Comparación de filas: el índice (…, fecha_hora, id) resuelve el rango sin el OR que genera Spring Data
+            StringJoiner nombres = new StringJoiner(", ", "(", ")");
+            StringJoiner valores = new StringJoiner(", ", "(", ")");
+            int indice = 0;
+            for (Map.Entry<String, Columna<T>> entrada : orden.entrySet()) {
+                String parametro = "clave" + indice++;
+                nombres.add(entrada.getValue().nombre());
+                valores.add(":" + parametro);
+                parametros.addValue(parametro, position.getKeys().get(entrada.getKey()));
+            }
+            condiciones.add(nombres + (descendente ? " < " : " > ") + valores);
+        }
+
+        StringBuilder sql = new StringBuilder(select);
+        if (!condiciones.isEmpty()) {
+            sql.append(" WHERE ").append(String.join(" AND ", condiciones));
+        }
+        StringJoiner ordenSql = new StringJoiner(", ", " ORDER BY ", "");
+        for (Columna<T> columna : orden.values()) {
+            ordenSql.add(columna.nombre() + (descendente ? " DESC" : ""));
+        }
+        sql.append(ordenSql).append(" FETCH FIRST :limite ROWS ONLY");
+        // Una fila de más indica si existe la página siguiente
+        parametros.addValue("limite", size + 1);
+
+        List<T> filas = jdbcTemplate.query(sql.toString(), parametros, rowMapper);
+        boolean hasNext = filas.size() > size;
+        List<T> contenido = hasNext ? filas.subList(0, size) : filas;
+        return Window.from(contenido, indice -> {
+            Map<String, Object> claves = new LinkedHashMap<>();
+            for (Map.Entry<String, Columna<T>> entrada : orden.entrySet()) {
+                claves.put(entrada.getKey(), entrada.getValue().valor().apply(contenido.get(indice)));
+            }
+            return ScrollPosition.forward(claves);
+        }, hasNext);
+    }
+
+    private static HistorialEstadosVista toHistorialEstadosVista(ResultSet rs) throws SQLException {
+        return new HistorialEstadosVista(
+                rs.getInt("id_historial"),
+                rs.getInt("id_solicitud"),
+                EstadoHistorialEnum.valueOf(rs.getString("estado")),
+                rs.getTimestamp("fecha_hora").toLocalDateTime(),
+                rs.getString("usuario"),
+                rs.getString("motivo"),
+                rs.getLong("version"));
+    }
+
+    private static ObservacionAnalistasVista toObservacionAnalistasVista(ResultSet rs) throws SQLException {
+        return new ObservacionAnalistasVista(
+                rs.getInt("id_observacion_analista"),
+                rs.getInt("id_solicitud"),
+                rs.getString("usuario"),
+                rs.getTimestamp("fecha_hora").toLocalDateTime(),
+                rs.getString("razon_intervencion"),
+                rs.getLong("version"));
+    }
+
+    private record Columna<T>(String nombre, Function<T, Object> valor) {
+    }
+}
\ No newline at end of file
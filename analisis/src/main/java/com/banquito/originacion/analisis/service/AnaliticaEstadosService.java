@@ -0,0 +1,242 @@
+package com.banquito.originacion.analisis.service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.banquito.originacion.analisis.analitica.HistogramaDuraciones;
+import com.banquito.originacion.analisis.analitica.ResumenTransicion;
+import com.banquito.originacion.analisis.analitica.TransicionEstado;
+import com.banquito.originacion.analisis.concurrency.SolicitudLockManager;
+import com.banquito.originacion.analisis.enums.EstadoHistorialEnum;
+import com.banquito.originacion.analisis.exception.InvalidDateRangeException;
+import com.banquito.originacion.analisis.repository.AnaliticaRepository;
+import com.banquito.originacion.analisis.repository.AnaliticaRepository.EntradasPorDia;
+import com.banquito.originacion.analisis.statemachine.EstadoHistorialStateMachine;
+
+import io.micrometer.core.annotation.Timed;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+// Analítica de transiciones sobre un resumen diario que se mantiene de forma incremental: las escrituras de historial
+// solo marcan la solicitud como pendiente y un proceso programado recalcula sus transiciones con funciones de ventana,
+// aplicando al resumen la diferencia con lo que ya había aportado. Las consultas leen el resumen, no el historial.
+@Service
+@Transactional
+@Timed(value = "analisis.service", histogram = true)
+public class AnaliticaEstadosService {
+    
+    private static final Logger log = LoggerFactory.getLogger(AnaliticaEstadosService.class);
+    
+    private static final Comparator<ResumenTransicion> ORDEN_RESUMEN = Comparator
+            .comparing(ResumenTransicion::dia)
+            .thenComparing(ResumenTransicion::estadoDesde)
+            .thenComparing(ResumenTransicion::estadoHacia)
+            .thenComparingInt(ResumenTransicion::cubeta);
+    
+    private final AnaliticaRepository analiticaRepository;
+    private final SolicitudLockManager solicitudLockManager;
+    private final EstadoHistorialStateMachine stateMachine;
+    private final TransactionTemplate transactionTemplate;
+    private final int tamanioLote;
+    // El proceso programado y la reconstrucción no deben aplicar diferencias a la vez
+    private final ReentrantLock procesamiento = new ReentrantLock();
+    
+    public AnaliticaEstadosService(AnaliticaRepository analiticaRepository, SolicitudLockManager solicitudLockManager,
+            EstadoHistorialStateMachine stateMachine, PlatformTransactionManager transactionManager,
+            @Value("${analisis.analitica.tamanio-lote:500}") int tamanioLote) {
+        if (tamanioLote <= 0) {
+            throw new IllegalArgumentException("El tamaño de lote de la analítica debe ser mayor a cero");
+        }
+        this.analiticaRepository = analiticaRepository;
+        this.solicitudLockManager = solicitudLockManager;
+        this.stateMachine = stateMachine;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.tamanioLote = tamanioLote;
+    }
+    
+    // Se invoca dentro de la transacción que modifica el historial: la marca se confirma o se descarta con ella
+    public void marcarPendientes(Collection<Integer> idsSolicitud) {
+        analiticaRepository.marcarPendientes(idsSolicitud);
+    }
+    
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public ResultadoProcesamiento procesarPendientes() {
+        procesamiento.lock();
+        try {
+            return procesar();
+        } finally {
+            procesamiento.unlock();
+        }
+    }
+    
+    // Descarta el resumen y vuelve a procesar todas las solicitudes con historial
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public ResultadoProcesamiento reconstruir() {
+        procesamiento.lock();
+        try {
+            log.info("Rebuilding state analytics from historial_estados");
+            transactionTemplate.executeWithoutResult(status -> {
+                analiticaRepository.eliminarResumen();
+                analiticaRepository.marcarTodasPendientes();
+            });
+            return procesar();
+        } finally {
+            procesamiento.unlock();
+        }
+    }
+    
+    @Transactional(readOnly = true)
+    public List<DuracionEstado> duracionesPorEstado(LocalDate desde, LocalDate hasta) {
+        validarRango(desde, hasta);
+        Map<EstadoHistorialEnum, HistogramaDuraciones> histogramas = new EnumMap<>(EstadoHistorialEnum.class);
+        for (ResumenTransicion fila : analiticaRepository.findResumenPorTransicion(desde, hasta)) {
+            histogramas.computeIfAbsent(fila.estadoDesde(), estado -> new HistogramaDuraciones())
+                    .agregar(fila.cubeta(), fila.cantidad(), fila.duracionTotalSegundos());
+        }
+        List<DuracionEstado> duraciones = new ArrayList<>(histogramas.size());
+        histogramas.forEach((estado, histograma) -> duraciones.add(new DuracionEstado(estado, histograma)));
+        return duraciones;
+    }
+    
+    @Transactional(readOnly = true)
+    public List<ConteoTransicion> transiciones(LocalDate desde, LocalDate hasta) {
+        validarRango(desde, hasta);
+        Map<EstadoHistorialEnum, Map<EstadoHistorialEnum, HistogramaDuraciones>> histogramas = new EnumMap<>(EstadoHistorialEnum.class);
+        for (ResumenTransicion fila : analiticaRepository.findResumenPorTransicion(desde, hasta)) {
+            histogramas.computeIfAbsent(fila.estadoDesde(), estado -> new EnumMap<>(EstadoHistorialEnum.class))
+                    .computeIfAbsent(fila.estadoHacia(), estado -> new HistogramaDuraciones())
+                    .agregar(fila.cubeta(), fila.cantidad(), fila.duracionTotalSegundos());
+        }
+        List<ConteoTransicion> transiciones = new ArrayList<>();
+        histogramas.forEach((estadoDesde, porDestino) -> porDestino.forEach(
+                (estadoHacia, histograma) -> transiciones.add(new ConteoTransicion(estadoDesde, estadoHacia, histograma))));
+        return transiciones;
+    }
+    
+    // Conversión diaria: de las solicitudes que llegaron ese día a un estado final, qué proporción llegó a cada uno
+    @Transactional(readOnly = true)
+    public List<EmbudoDiario> embudoDiario(LocalDate desde, LocalDate hasta) {
+        validarRango(desde, hasta);
+        Map<LocalDate, Map<EstadoHistorialEnum, Long>> entradasPorDia = new LinkedHashMap<>();
+        for (EntradasPorDia fila : analiticaRepository.findEntradasPorDia(desde, hasta)) {
+            entradasPorDia.computeIfAbsent(fila.dia(), dia -> new EnumMap<>(EstadoHistorialEnum.class))
+                    .put(fila.estado(), fila.cantidad());
+        }
+        List<EmbudoDiario> embudo = new ArrayList<>(entradasPorDia.size());
+        entradasPorDia.forEach((dia, entradas) -> {
+            long resueltas = 0;
+            for (Map.Entry<EstadoHistorialEnum, Long> entrada : entradas.entrySet()) {
+                if (stateMachine.esEstadoFinal(entrada.getKey())) {
+                    resueltas += entrada.getValue();
+                }
+            }
+            Map<EstadoHistorialEnum, Double> conversion = new EnumMap<>(EstadoHistorialEnum.class);
+            for (EstadoHistorialEnum estado : EstadoHistorialEnum.values()) {
+                if (stateMachine.esEstadoFinal(estado)) {
+                    conversion.put(estado, resueltas == 0 ? 0.0 : (double) entradas.getOrDefault(estado, 0L) / resueltas);
+                }
+            }
+            embudo.add(new EmbudoDiario(dia, entradas, resueltas, conversion));
+        });
+        return embudo;
+    }
+    
+    private ResultadoProcesamiento procesar() {
+        long inicio = System.currentTimeMillis();
+        int solicitudes = 0;
+        int lotes = 0;
+        while (true) {
+            List<Integer> idsSolicitud = analiticaRepository.findPendientes(tamanioLote);
+            if (idsSolicitud.isEmpty()) {
+                break;
+            }
+            transactionTemplate.executeWithoutResult(status -> {
+                // Con el lock tomado ninguna transacción de historial de estas solicitudes queda a medio confirmar
+                solicitudLockManager.lockForTransaction(idsSolicitud);
+                procesarLote(idsSolicitud);
+            });
+            solicitudes += idsSolicitud.size();
+            lotes++;
+            if (idsSolicitud.size() < tamanioLote) {
+                break;
+            }
+        }
+        long duracionMs = System.currentTimeMillis() - inicio;
+        if (solicitudes > 0) {
+            log.info("State analytics updated. Solicitudes: {}, Batches: {}, Duration: {} ms", solicitudes, lotes, duracionMs);
+        }
+        return new ResultadoProcesamiento(solicitudes, lotes, duracionMs);
+    }
+    
+    private void procesarLote(List<Integer> idsSolicitud) {
+        analiticaRepository.eliminarPendientes(idsSolicitud);
+        List<TransicionEstado> anteriores = analiticaRepository.findTransiciones(idsSolicitud);
+        List<TransicionEstado> actuales = analiticaRepository.calcularTransicionesDesdeHistorial(idsSolicitud);
+        
+        Map<ResumenTransicion, long[]> diferencias = new HashMap<>();
+        acumular(diferencias, anteriores, -1);
+        acumular(diferencias, actuales, 1);
+        List<ResumenTransicion> cambios = new ArrayList<>();
+        diferencias.forEach((clave, diferencia) -> {
+            if (diferencia[0] != 0 || diferencia[1] != 0) {
+                cambios.add(new ResumenTransicion(clave.dia(), clave.estadoDesde(), clave.estadoHacia(), clave.cubeta(),
+                        diferencia[0], diferencia[1]));
+            }
+        });
+        // Orden fijo de filas para que dos lotes concurrentes no se bloqueen mutuamente
+        cambios.sort(ORDEN_RESUMEN);
+        
+        analiticaRepository.reemplazarTransiciones(idsSolicitud, actuales);
+        analiticaRepository.aplicarDiferencias(cambios);
+        log.debug("Processed analytics batch of {} solicitudes: {} transitions, {} summary rows changed",
+                idsSolicitud.size(), actuales.size(), cambios.size());
+    }
+    
+    private void acumular(Map<ResumenTransicion, long[]> diferencias, List<TransicionEstado> transiciones, int signo) {
+        for (TransicionEstado transicion : transiciones) {
+            ResumenTransicion clave = new ResumenTransicion(transicion.dia(), transicion.estadoDesde(),
+                    transicion.estadoHacia(), transicion.cubeta(), 0, 0);
+            long[] diferencia = diferencias.computeIfAbsent(clave, c -> new long[2]);
+            diferencia[0] += signo;
+            diferencia[1] += signo * transicion.duracionSegundos();
+        }
+    }
+    
+    private void validarRango(LocalDate desde, LocalDate hasta) {
+        if (desde == null || hasta == null) {
+            throw new InvalidDateRangeException("Las fechas desde y hasta son obligatorias");
+        }
+        if (desde.isAfter(hasta)) {
+            throw new InvalidDateRangeException("La fecha desde no puede ser posterior a la fecha hasta");
+        }
+    }
+    
+    public record DuracionEstado(EstadoHistorialEnum estado, HistogramaDuraciones histograma) {
+    }
+    
+    public record ConteoTransicion(EstadoHistorialEnum estadoDesde, EstadoHistorialEnum estadoHacia, HistogramaDuraciones histograma) {
+    }
+    
+    public record EmbudoDiario(LocalDate dia, Map<EstadoHistorialEnum, Long> entradas, long resueltas,
+            Map<EstadoHistorialEnum, Double> conversion) {
+    }
+    
+    public record ResultadoProcesamiento(int solicitudes, int lotes, long duracionMs) {
+    }
+}
\ No newline at end of file
@@ -0,0 +1,91 @@
+package com.banquito.originacion.analisis.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.banquito.originacion.analisis.archivo.ArchivoHistorico;
+import com.banquito.originacion.analisis.archivo.TablaParticionada;
+import com.banquito.originacion.analisis.archivo.UbicacionArchivo;
+import com.banquito.originacion.analisis.enums.EstadoHistorialEnum;
+import com.banquito.originacion.analisis.repository.ArchivoRepository;
+import com.banquito.originacion.analisis.vista.HistorialEstadosVista;
+import com.banquito.originacion.analisis.vista.ObservacionAnalistasVista;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.annotation.Timed;
+
+// Filas de meses archivados de una solicitud, en el mismo orden que las consultas por solicitud (más reciente primero).
+// Sin entradas en solicitud_archivada la lectura termina en la búsqueda por clave primaria, sin tocar el disco
+@Service
+@Transactional(readOnly = true)
+@Timed(value = "analisis.service", histogram = true)
+public class ArchivoHistoricoService {
+
+    private static final Logger log = LoggerFactory.getLogger(ArchivoHistoricoService.class);
+
+    private final ArchivoRepository archivoRepository;
+    private final ArchivoHistorico archivoHistorico;
+    private final ObjectMapper objectMapper;
+
+    public ArchivoHistoricoService(ArchivoRepository archivoRepository, ArchivoHistorico archivoHistorico, ObjectMapper objectMapper) {
+        this.archivoRepository = archivoRepository;
+        this.archivoHistorico = archivoHistorico;
+        this.objectMapper = objectMapper;
+    }
+
+    public List<HistorialEstadosVista> findHistorial(Integer idSolicitud) {
+        List<HistorialEstadosVista> historiales = new ArrayList<>();
+        for (JsonNode fila : leer(TablaParticionada.HISTORIAL_ESTADOS, idSolicitud)) {
+            historiales.add(new HistorialEstadosVista(
+                    fila.get("idHistorial").intValue(),
+                    fila.get("idSolicitud").intValue(),
+                    EstadoHistorialEnum.valueOf(fila.get("estado").textValue()),
+                    LocalDateTime.parse(fila.get("fechaHora").textValue()),
+                    fila.get("usuario").textValue(),
+                    fila.get("motivo").textValue(),
+                    fila.get("version").longValue()));
+        }
+        return historiales;
+    }
+
+    public List<ObservacionAnalistasVista> findObservaciones(Integer idSolicitud) {
+        List<ObservacionAnalistasVista> observaciones = new ArrayList<>();
+        for (JsonNode fila : leer(TablaParticionada.OBSERVACION_ANALISTAS, idSolicitud)) {
+            observaciones.add(new ObservacionAnalistasVista(
+                    fila.get("idObservacionAnalista").intValue(),
+                    fila.get("idSolicitud").intValue(),
+                    fila.get("usuario").textValue(),
+                    LocalDateTime.parse(fila.get("fechaHora").textValue()),
+                    fila.get("razonIntervencion").textValue(),
+                    fila.get("version").longValue()));
+        }
+        return observaciones;
+    }
+
+    private List<JsonNode> leer(TablaParticionada tabla, Integer idSolicitud) {
+        List<UbicacionArchivo> ubicaciones = archivoRepository.findUbicaciones(tabla, idSolicitud);
+        if (ubicaciones.isEmpty()) {
+            return List.of();
+        }
+        log.debug("Reading {} archived months of {} for solicitud {}", ubicaciones.size(), tabla.nombre(), idSolicitud);
+        List<JsonNode> filas = new ArrayList<>();
+        for (UbicacionArchivo ubicacion : ubicaciones) {
+            for (String linea : archivoHistorico.leer(ubicacion)) {
+                try {
+                    filas.add(objectMapper.readTree(linea));
+                } catch (JsonProcessingException ex) {
+                    throw new IllegalStateException("Línea inválida en el archivo " + ubicacion.archivo(), ex);
+                }
+            }
+        }
+        return filas;
+    }
+}
\ No newline at end of file
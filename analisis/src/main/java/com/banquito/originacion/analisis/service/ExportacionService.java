@@ -0,0 +1,199 @@
+package com.banquito.originacion.analisis.service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.banquito.originacion.analisis.enums.EstadoHistorialEnum;
+import com.banquito.originacion.analisis.enums.FormatoExportacionEnum;
+import com.banquito.originacion.analisis.exception.InvalidDateRangeException;
+import com.banquito.originacion.analisis.model.HistorialEstados;
+import com.banquito.originacion.analisis.model.ObservacionAnalistas;
+import com.banquito.originacion.analisis.repository.ExportacionRepository;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import io.micrometer.core.annotation.Timed;
+
+@Service
+@Timed(value = "analisis.service", histogram = true)
+public class ExportacionService {
+
+    private static final Logger log = LoggerFactory.getLogger(ExportacionService.class);
+
+    // Mismo formato que usan los DTO en la API
+    private static final DateTimeFormatter FORMATO_FECHA = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final String CABECERA_HISTORIAL = "idHistorial,idSolicitud,estado,fechaHora,usuario,motivo,version";
+    private static final String CABECERA_OBSERVACIONES = "idObservacionAnalista,idSolicitud,usuario,fechaHora,razonIntervencion,version";
+
+    private final ExportacionRepository exportacionRepository;
+    private final JsonFactory jsonFactory = new JsonFactory();
+
+    public ExportacionService(ExportacionRepository exportacionRepository) {
+        this.exportacionRepository = exportacionRepository;
+    }
+
+    // readOnly: PostgreSQL solo usa cursor con fetch size cuando autocommit está desactivado
+    @Transactional(readOnly = true)
+    public long exportarHistorialEstados(LocalDateTime desde, LocalDateTime hasta, EstadoHistorialEnum estado,
+            FormatoExportacionEnum formato, OutputStream out) throws IOException {
+        log.info("Exporting HistorialEstados as {}. Desde: {}, Hasta: {}, Estado: {}", formato, desde, hasta, estado);
+        validarRango(desde, hasta);
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        long[] total = {0};
+        if (formato == FormatoExportacionEnum.NDJSON) {
+            JsonGenerator generator = jsonFactory.createGenerator(writer);
+            exportacionRepository.streamHistorialEstados(desde, hasta, estado, historial -> {
+                escribirNdjson(generator, historial);
+                total[0]++;
+            });
+            generator.flush();
+        } else {
+            writer.write(CABECERA_HISTORIAL);
+            writer.write('\n');
+            exportacionRepository.streamHistorialEstados(desde, hasta, estado, historial -> {
+                escribirCsv(writer, historial);
+                total[0]++;
+            });
+        }
+        writer.flush();
+        log.info("Exported {} HistorialEstados rows.", total[0]);
+        return total[0];
+    }
+
+    @Transactional(readOnly = true)
+    public long exportarObservacionesAnalistas(LocalDateTime desde, LocalDateTime hasta, String usuario,
+            FormatoExportacionEnum formato, OutputStream out) throws IOException {
+        log.info("Exporting ObservacionAnalistas as {}. Desde: {}, Hasta: {}, Usuario: {}", formato, desde, hasta, usuario);
+        validarRango(desde, hasta);
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        long[] total = {0};
+        if (formato == FormatoExportacionEnum.NDJSON) {
+            JsonGenerator generator = jsonFactory.createGenerator(writer);
+            exportacionRepository.streamObservacionesAnalistas(desde, hasta, usuario, observacion -> {
+                escribirNdjson(generator, observacion);
+                total[0]++;
+            });
+            generator.flush();
+        } else {
+            writer.write(CABECERA_OBSERVACIONES);
+            writer.write('\n');
+            exportacionRepository.streamObservacionesAnalistas(desde, hasta, usuario, observacion -> {
+                escribirCsv(writer, observacion);
+                total[0]++;
+            });
+        }
+        writer.flush();
+        log.info("Exported {} ObservacionAnalistas rows.", total[0]);
+        return total[0];
+    }
+
+    // Los controladores la invocan antes de fijar el Content-Type de la exportación: con él ya fijado,
+    // el error no podría responderse como JSON
+    public void validarRango(LocalDateTime desde, LocalDateTime hasta) {
+        if (desde != null && hasta != null && !desde.isBefore(hasta)) {
+            throw new InvalidDateRangeException("La fecha 'desde' debe ser anterior a la fecha 'hasta'");
+        }
+    }
+
+    private void escribirNdjson(JsonGenerator generator, HistorialEstados historial) {
+        try {
+            generator.writeStartObject();
+            generator.writeNumberField("idHistorial", historial.getIdHistorial());
+            generator.writeNumberField("idSolicitud", historial.getIdSolicitud());
+            generator.writeStringField("estado", historial.getEstado().name());
+            generator.writeStringField("fechaHora", FORMATO_FECHA.format(historial.getFechaHora()));
+            generator.writeStringField("usuario", historial.getUsuario());
+            generator.writeStringField("motivo", historial.getMotivo());
+            generator.writeNumberField("version", historial.getVersion());
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private void escribirNdjson(JsonGenerator generator, ObservacionAnalistas observacion) {
+        try {
+            generator.writeStartObject();
+            generator.writeNumberField("idObservacionAnalista", observacion.getIdObservacionAnalista());
+            generator.writeNumberField("idSolicitud", observacion.getIdSolicitud());
+            generator.writeStringField("usuario", observacion.getUsuario());
+            generator.writeStringField("fechaHora", FORMATO_FECHA.format(observacion.getFechaHora()));
+            generator.writeStringField("razonIntervencion", observacion.getRazonIntervencion());
+            generator.writeNumberField("version", observacion.getVersion());
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private void escribirCsv(Writer writer, HistorialEstados historial) {
+        try {
+            writer.write(String.valueOf(historial.getIdHistorial()));
+            writer.write(',');
+            writer.write(String.valueOf(historial.getIdSolicitud()));
+            writer.write(',');
+            writer.write(historial.getEstado().name());
+            writer.write(',');
+            writer.write(FORMATO_FECHA.format(historial.getFechaHora()));
+            writer.write(',');
+            escribirCampoCsv(writer, historial.getUsuario());
+            writer.write(',');
+            escribirCampoCsv(writer, historial.getMotivo());
+            writer.write(',');
+            writer.write(String.valueOf(historial.getVersion()));
+            writer.write('\n');
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private void escribirCsv(Writer writer, ObservacionAnalistas observacion) {
+        try {
+            writer.write(String.valueOf(observacion.getIdObservacionAnalista()));
+            writer.write(',');
+            writer.write(String.valueOf(observacion.getIdSolicitud()));
+            writer.write(',');
+            escribirCampoCsv(writer, observacion.getUsuario());
+            writer.write(',');
+            writer.write(FORMATO_FECHA.format(observacion.getFechaHora()));
+            writer.write(',');
+            escribirCampoCsv(writer, observacion.getRazonIntervencion());
+            writer.write(',');
+            writer.write(String.valueOf(observacion.getVersion()));
+            writer.write('\n');
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private void escribirCampoCsv(Writer writer, String valor) throws IOException {
+        if (valor == null) {
+            return;
+        }
+        // RFC 4180: se entrecomilla solo si el valor contiene separadores, comillas o saltos de línea
+        boolean requiereComillas = valor.indexOf(',') >= 0 || valor.indexOf('"') >= 0
+                || valor.indexOf('\n') >= 0 || valor.indexOf('\r') >= 0;
+        if (!requiereComillas) {
+            writer.write(valor);
+            return;
+        }
+        writer.write('"');
+        writer.write(valor.replace("\"", "\"\""));
+        writer.write('"');
+    }
+}
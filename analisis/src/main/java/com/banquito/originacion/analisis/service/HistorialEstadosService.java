@@ -1,45 +1,114 @@
 package com.banquito.originacion.analisis.service;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.KeysetScrollPosition;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.banquito.originacion.analisis.cache.EstadoActual;
+import com.banquito.originacion.analisis.cache.EstadoActualCache;
+import com.banquito.originacion.analisis.cache.HistorialJsonCache;
+import com.banquito.originacion.analisis.concurrency.PrecondicionVersion;
+import com.banquito.originacion.analisis.concurrency.SolicitudLockManager;
 import com.banquito.originacion.analisis.exception.HistorialEstadosNotFoundException;
 import com.banquito.originacion.analisis.enums.EstadoHistorialEnum;
 import com.banquito.originacion.analisis.model.HistorialEstados;
+import com.banquito.originacion.analisis.model.SolicitudEstadoActual;
+import com.banquito.originacion.analisis.outbox.EventoTransicion;
+import com.banquito.originacion.analisis.repository.EdicionRepository;
 import com.banquito.originacion.analisis.repository.HistorialEstadosRepository;
+import com.banquito.originacion.analisis.replica.RuteoReplica;
+import com.banquito.originacion.analisis.repository.HuellaRegistros;
+import com.banquito.originacion.analisis.repository.VistaRepository;
+import com.banquito.originacion.analisis.sse.DifusionTransiciones;
+import com.banquito.originacion.analisis.statemachine.EstadoHistorialStateMachine;
+import com.banquito.originacion.analisis.vista.HistorialEstadosVista;
 import com.banquito.originacion.analisis.exception.InvalidTransitionException;
+import com.banquito.originacion.analisis.metrics.TransicionMetrics;
+
+import io.micrometer.core.annotation.Timed;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+// Por defecto solo lectura: Hibernate no guarda snapshots de las entidades cargadas ni hace flush (FlushMode.MANUAL),
+// y con réplica configurada la consulta se atiende desde ella. Las escrituras declaran su propia transacción
 @Service
-@Transactional
+@Transactional(readOnly = true)
+@Timed(value = "analisis.service", histogram = true)
 public class HistorialEstadosService {
     
     private static final Logger log = LoggerFactory.getLogger(HistorialEstadosService.class);
     
     private final HistorialEstadosRepository historialEstadosRepository;
+    private final VistaRepository vistaRepository;
+    private final EstadoActualCache estadoActualCache;
+    private final HistorialJsonCache historialJsonCache;
+    private final SolicitudLockManager solicitudLockManager;
+    private final EstadoHistorialStateMachine estadoHistorialStateMachine;
+    private final SolicitudEstadoActualService solicitudEstadoActualService;
+    private final TransicionMetrics transicionMetrics;
+    private final AnaliticaEstadosService analiticaEstadosService;
+    private final RuteoReplica ruteoReplica;
+    private final OutboxService outboxService;
+    private final DifusionTransiciones difusionTransiciones;
+    private final ArchivoHistoricoService archivoHistoricoService;
+    private final EdicionRepository edicionRepository;
     
-    public HistorialEstadosService(HistorialEstadosRepository historialEstadosRepository) {
+    public HistorialEstadosService(HistorialEstadosRepository historialEstadosRepository, VistaRepository vistaRepository,
+            EstadoActualCache estadoActualCache, HistorialJsonCache historialJsonCache,
+            SolicitudLockManager solicitudLockManager, EstadoHistorialStateMachine estadoHistorialStateMachine,
+            SolicitudEstadoActualService solicitudEstadoActualService, TransicionMetrics transicionMetrics,
+            AnaliticaEstadosService analiticaEstadosService, RuteoReplica ruteoReplica,
+            OutboxService outboxService, DifusionTransiciones difusionTransiciones,
+            ArchivoHistoricoService archivoHistoricoService, EdicionRepository edicionRepository) {
         this.historialEstadosRepository = historialEstadosRepository;
+        this.vistaRepository = vistaRepository;
+        this.estadoActualCache = estadoActualCache;
+        this.historialJsonCache = historialJsonCache;
+        this.solicitudLockManager = solicitudLockManager;
+        this.estadoHistorialStateMachine = estadoHistorialStateMachine;
+        this.solicitudEstadoActualService = solicitudEstadoActualService;
+        this.transicionMetrics = transicionMetrics;
+        this.analiticaEstadosService = analiticaEstadosService;
+        this.ruteoReplica = ruteoReplica;
+        this.outboxService = outboxService;
+        this.difusionTransiciones = difusionTransiciones;
+        this.archivoHistoricoService = archivoHistoricoService;
+        this.edicionRepository = edicionRepository;
     }
     
     public List<HistorialEstados> findAll() {
         return historialEstadosRepository.findAll();
     }
     
-    public Page<HistorialEstados> findAllPaginated(Pageable pageable) {
-        return historialEstadosRepository.findAll(pageable);
+    public Page<HistorialEstadosVista> findAllPaginated(Pageable pageable) {
+        return vistaRepository.findHistorialPagina(pageable);
+    }
+    
+    public Window<HistorialEstadosVista> findAllByCursor(KeysetScrollPosition position, Sort sort, int size) {
+        return vistaRepository.findHistorial(position, sort, size);
     }
     
+    // En la primaria: es la lectura previa a un PUT/PATCH con If-Match y una réplica atrasada lo haría fallar
     public HistorialEstados findById(Integer idHistorial) {
+        ruteoReplica.leerEnPrimaria();
         log.info("Attempting to find HistorialEstados with id: {}", idHistorial);
         Optional<HistorialEstados> historial = historialEstadosRepository.findById(idHistorial);
         if (historial.isEmpty()) {
@@ -49,35 +118,206 @@ public class HistorialEstadosService {
         log.info("Successfully found HistorialEstados with id: {}", idHistorial);
         return historial.get();
     }
+
+    // GET por id: misma lectura en la primaria que findById, sin cargar la entidad
+    public HistorialEstadosVista findVistaById(Integer idHistorial) {
+        ruteoReplica.leerEnPrimaria();
+        log.info("Attempting to find HistorialEstados view with id: {}", idHistorial);
+        return vistaRepository.findHistorialById(idHistorial)
+            .orElseThrow(() -> {
+                log.warn("HistorialEstados with id: {} not found.", idHistorial);
+                return new HistorialEstadosNotFoundException(idHistorial.toString(), "ID de historial");
+            });
+    }
     
     public List<HistorialEstados> findByIdSolicitud(Integer idSolicitud) {
+        ruteoReplica.leerSolicitud(idSolicitud);
         return historialEstadosRepository.findByIdSolicitud(idSolicitud);
     }
     
-    public List<HistorialEstados> findByEstado(EstadoHistorialEnum estado) {
-        return historialEstadosRepository.findByEstado(estado);
+    public Window<HistorialEstadosVista> findByEstado(EstadoHistorialEnum estado, KeysetScrollPosition position, Sort sort, int size) {
+        return vistaRepository.findHistorialByEstado(estado, position, sort, size);
     }
     
     public List<HistorialEstados> findByIdSolicitudAndEstado(Integer idSolicitud, EstadoHistorialEnum estado) {
+        ruteoReplica.leerSolicitud(idSolicitud);
         return historialEstadosRepository.findByIdSolicitudAndEstado(idSolicitud, estado);
     }
     
-    public List<HistorialEstados> findByUsuario(String usuario) {
-        return historialEstadosRepository.findByUsuario(usuario);
+    public Window<HistorialEstadosVista> findByUsuario(String usuario, KeysetScrollPosition position, Sort sort, int size) {
+        return vistaRepository.findHistorialByUsuario(usuario, position, sort, size);
     }
     
     public Optional<HistorialEstados> findLatestByIdSolicitud(Integer idSolicitud) {
         return historialEstadosRepository.findFirstByIdSolicitudOrderByFechaHoraDesc(idSolicitud);
     }
     
-    public List<HistorialEstados> findByIdSolicitudOrderByFechaHoraDesc(Integer idSolicitud) {
-        return historialEstadosRepository.findByIdSolicitudOrderByFechaHoraDesc(idSolicitud);
+    // En la primaria: alimenta la caché de las consultas del estado actual. Las transiciones no la usan
+    public Optional<EstadoActual> findEstadoActual(Integer idSolicitud) {
+        ruteoReplica.leerEnPrimaria();
+        Optional<EstadoActual> cached = estadoActualCache.get(idSolicitud);
+        if (cached.isPresent()) {
+            return cached;
+        }
+        long generacion = estadoActualCache.generacion(idSolicitud);
+        Optional<EstadoActual> estadoActual = cargarEstadosActuales(Set.of(idSolicitud)).get(idSolicitud);
+        estadoActual.ifPresent(estado -> estadoActualCache.put(idSolicitud, estado, generacion));
+        return estadoActual;
     }
     
+    public List<HistorialEstadosVista> findByIdSolicitudOrderByFechaHoraDesc(Integer idSolicitud) {
+        ruteoReplica.leerSolicitud(idSolicitud);
+        List<HistorialEstadosVista> historiales = vistaRepository.findHistorialByIdSolicitud(idSolicitud);
+        // Meses cerrados que ya no están en la base: se agregan al final, son anteriores a lo que sigue en ella
+        List<HistorialEstadosVista> archivados = archivoHistoricoService.findHistorial(idSolicitud);
+        if (archivados.isEmpty()) {
+            return historiales;
+        }
+        List<HistorialEstadosVista> todos = new ArrayList<>(historiales.size() + archivados.size());
+        todos.addAll(historiales);
+        todos.addAll(archivados);
+        return todos;
+    }
+
+    public HuellaRegistros findHuellaByIdSolicitud(Integer idSolicitud) {
+        ruteoReplica.leerSolicitud(idSolicitud);
+        return historialEstadosRepository.findHuellaByIdSolicitud(idSolicitud);
+    }
+    
+    @Transactional
     public HistorialEstados save(HistorialEstados historialEstados) {
         log.info("Attempting to save new HistorialEstados for solicitud: {}", historialEstados.getIdSolicitud());
         log.debug("New state details: {}", historialEstados);
 
+        // Regla de negocio: Las transiciones de una misma solicitud se serializan hasta el commit
+        if (historialEstados.getIdSolicitud() == null) {
+            throw new IllegalArgumentException("El ID de solicitud es obligatorio");
+        }
+        Integer idSolicitud = historialEstados.getIdSolicitud();
+        solicitudLockManager.lockForTransaction(idSolicitud);
+        Optional<EstadoActual> ultimoHistorialOpt = cargarEstadosActuales(Set.of(idSolicitud)).get(idSolicitud);
+        prepararNuevoEstado(historialEstados, ultimoHistorialOpt);
+        
+        HistorialEstados savedHistorial = historialEstadosRepository.save(historialEstados);
+        solicitudEstadoActualService.registrar(savedHistorial);
+        List<EventoTransicion> eventos = List.of(EventoTransicion.de(savedHistorial, ultimoHistorialOpt.map(EstadoActual::estado).orElse(null)));
+        outboxService.registrar(eventos);
+        difusionTransiciones.publicarAfterCommit(eventos);
+        analiticaEstadosService.marcarPendientes(List.of(idSolicitud));
+        ruteoReplica.registrarEscritura(idSolicitud);
+        EstadoActual nuevoEstadoActual = EstadoActual.of(savedHistorial);
+        if (ultimoHistorialOpt.isEmpty() || nuevoEstadoActual.isNotOlderThan(ultimoHistorialOpt.get())) {
+            estadoActualCache.putAfterCommit(idSolicitud, nuevoEstadoActual);
+        } else {
+            // La fecha proporcionada es anterior al último registro: el estado actual se recalcula desde la base
+            estadoActualCache.invalidateAfterCommit(idSolicitud);
+        }
+        log.info("Successfully saved new HistorialEstados with id {} for solicitud {}", savedHistorial.getIdHistorial(), savedHistorial.getIdSolicitud());
+        return savedHistorial;
+    }
+
+    @Transactional
+    public List<ResultadoLote> saveAll(List<HistorialEstados> historiales) {
+        log.info("Attempting to save batch of {} HistorialEstados", historiales.size());
+        Set<Integer> idsSolicitud = new HashSet<>();
+        for (HistorialEstados historial : historiales) {
+            if (historial.getIdSolicitud() != null) {
+                idsSolicitud.add(historial.getIdSolicitud());
+            }
+        }
+        solicitudLockManager.lockForTransaction(idsSolicitud);
+        Map<Integer, Optional<EstadoActual>> estadosIniciales = cargarEstadosActuales(idsSolicitud);
+        Map<Integer, Optional<EstadoActual>> estados = new HashMap<>(estadosIniciales);
+        Map<Integer, HistorialEstados> ultimosAceptados = new LinkedHashMap<>();
+        List<HistorialEstados> aceptados = new ArrayList<>(historiales.size());
+        List<EstadoHistorialEnum> estadosAnteriores = new ArrayList<>(historiales.size());
+        List<ResultadoLote> resultados = new ArrayList<>(historiales.size());
+
+        for (int indice = 0; indice < historiales.size(); indice++) {
+            HistorialEstados historial = historiales.get(indice);
+            Integer idSolicitud = historial.getIdSolicitud();
+            try {
+                if (idSolicitud == null) {
+                    throw new IllegalArgumentException("El ID de solicitud es obligatorio");
+                }
+                Optional<EstadoActual> ultimoHistorialOpt = estados.get(idSolicitud);
+                // Regla de negocio: Dentro del lote, la fecha automática debe respetar el orden de la cadena
+                if (historial.getFechaHora() == null && ultimoHistorialOpt.isPresent()) {
+                    LocalDateTime ahora = LocalDateTime.now();
+                    LocalDateTime anterior = ultimoHistorialOpt.get().fechaHora();
+                    if (anterior != null && !ahora.isAfter(anterior)) {
+                        historial.setFechaHora(anterior.plusNanos(1000));
+                    }
+                }
+                prepararNuevoEstado(historial, ultimoHistorialOpt);
+                estadosAnteriores.add(ultimoHistorialOpt.map(EstadoActual::estado).orElse(null));
+                estados.put(idSolicitud, Optional.of(EstadoActual.of(historial)));
+                ultimosAceptados.put(idSolicitud, historial);
+                aceptados.add(historial);
+                resultados.add(new ResultadoLote(indice, historial, null));
+            } catch (InvalidTransitionException | IllegalArgumentException ex) {
+                log.warn("Batch item {} for solicitud {} rejected: {}", indice, idSolicitud, ex.getMessage());
+                resultados.add(new ResultadoLote(indice, historial, ex.getMessage()));
+            }
+        }
+
+        // Con secuencia agrupada y hibernate.jdbc.batch_size los inserts se envían en lotes al hacer flush
+        historialEstadosRepository.saveAll(aceptados);
+        solicitudEstadoActualService.registrar(ultimosAceptados.values());
+        // En el orden del lote: dentro de una solicitud coincide con el orden de sus transiciones
+        List<EventoTransicion> eventos = new ArrayList<>(aceptados.size());
+        for (int i = 0; i < aceptados.size(); i++) {
+            eventos.add(EventoTransicion.de(aceptados.get(i), estadosAnteriores.get(i)));
+        }
+        outboxService.registrar(eventos);
+        difusionTransiciones.publicarAfterCommit(eventos);
+        analiticaEstadosService.marcarPendientes(ultimosAceptados.keySet());
+        ruteoReplica.registrarEscritura(ultimosAceptados.keySet());
+
+        for (Map.Entry<Integer, HistorialEstados> entry : ultimosAceptados.entrySet()) {
+            Integer idSolicitud = entry.getKey();
+            EstadoActual nuevoEstadoActual = EstadoActual.of(entry.getValue());
+            Optional<EstadoActual> estadoInicial = estadosIniciales.get(idSolicitud);
+            if (estadoInicial.isEmpty() || nuevoEstadoActual.isNotOlderThan(estadoInicial.get())) {
+                estadoActualCache.putAfterCommit(idSolicitud, nuevoEstadoActual);
+            } else {
+                estadoActualCache.invalidateAfterCommit(idSolicitud);
+            }
+        }
+        log.info("Batch processed. Accepted: {}, Rejected: {}", aceptados.size(), historiales.size() - aceptados.size());
+        return resultados;
+    }
+
+    // Con el lock de las solicitudes tomado se lee la base y no la caché: la caché es local de cada nodo y no ve
+    // las transiciones que otra instancia confirmó antes de que este nodo obtuviera el advisory lock.
+    // Proyección por clave primaria; historial_estados solo para las solicitudes que aún no están en ella
+    private Map<Integer, Optional<EstadoActual>> cargarEstadosActuales(Set<Integer> idsSolicitud) {
+        Map<Integer, Optional<EstadoActual>> estados = new HashMap<>();
+        if (idsSolicitud.isEmpty()) {
+            return estados;
+        }
+        for (SolicitudEstadoActual estadoActual : solicitudEstadoActualService.findAllById(idsSolicitud)) {
+            estados.put(estadoActual.getIdSolicitud(), Optional.of(EstadoActual.of(estadoActual)));
+        }
+        Set<Integer> sinProyeccion = new HashSet<>(idsSolicitud);
+        sinProyeccion.removeAll(estados.keySet());
+        if (!sinProyeccion.isEmpty()) {
+            for (HistorialEstados ultimo : historialEstadosRepository.findLatestByIdSolicitudIn(sinProyeccion)) {
+                EstadoActual estado = EstadoActual.of(ultimo);
+                Optional<EstadoActual> previo = estados.get(ultimo.getIdSolicitud());
+                // Empates en fecha_hora: prevalece la versión más alta
+                if (previo == null || previo.get().version() < estado.version()) {
+                    estados.put(ultimo.getIdSolicitud(), Optional.of(estado));
+                }
+            }
+        }
+        for (Integer idSolicitud : idsSolicitud) {
+            estados.putIfAbsent(idSolicitud, Optional.empty());
+        }
+        return estados;
+    }
+
+    private void prepararNuevoEstado(HistorialEstados historialEstados, Optional<EstadoActual> ultimoHistorialOpt) {
         // Regla de negocio: Validar que el estado sea válido
         if (historialEstados.getEstado() == null) {
             log.error("Save attempt failed: State is null.");
@@ -98,55 +338,53 @@ public class HistorialEstadosService {
         Integer idSolicitud = historialEstados.getIdSolicitud();
         EstadoHistorialEnum nuevoEstado = historialEstados.getEstado();
 
-        Optional<HistorialEstados> ultimoHistorialOpt = this.findLatestByIdSolicitud(idSolicitud);
-
         if (ultimoHistorialOpt.isPresent()) {
             // La solicitud ya tiene un historial, se debe validar la transición.
-            HistorialEstados ultimoHistorial = ultimoHistorialOpt.get();
-            EstadoHistorialEnum estadoActual = ultimoHistorial.getEstado();
+            EstadoActual ultimoHistorial = ultimoHistorialOpt.get();
+            EstadoHistorialEnum estadoActual = ultimoHistorial.estado();
             log.debug("Existing solicitud {}. Current state is {}. Attempting to transition to {}.", idSolicitud, estadoActual, nuevoEstado);
 
             // Regla 2: Evitar estados duplicados consecutivos.
             if (estadoActual == nuevoEstado) {
                 log.warn("Invalid transition for solicitud {}: Attempted to transition to the same state {}.", idSolicitud, nuevoEstado);
-                throw new InvalidTransitionException("La solicitud " + idSolicitud + " ya se encuentra en el estado " + nuevoEstado + ".");
+                transicionMetrics.registrarTransicionInvalida(estadoActual, nuevoEstado);
+                throw new InvalidTransitionException("La solicitud " + idSolicitud + " ya se encuentra en el estado " + nuevoEstado + ".", estadoActual, nuevoEstado);
             }
 
             // Regla 1: Validar si la transición de estado es permitida.
             if (!this.validarTransicionEstado(estadoActual, nuevoEstado)) {
                 log.error("Invalid transition for solicitud {}: Cannot transition from {} to {}.", idSolicitud, estadoActual, nuevoEstado);
+                transicionMetrics.registrarTransicionInvalida(estadoActual, nuevoEstado);
                 throw new InvalidTransitionException(idSolicitud, estadoActual, nuevoEstado);
             }
             
             // Regla de negocio: Incrementar la versión basada en el último registro.
-            historialEstados.setVersion(ultimoHistorial.getVersion().add(BigDecimal.ONE));
+            historialEstados.setVersion(ultimoHistorial.version() + 1);
         } else {
             // Es el primer estado para esta solicitud.
-            // Regla: El primer estado de una solicitud siempre debe ser 'Borrador'.
-            log.debug("This is the first state for solicitud {}. Validating initial state is 'Borrador'.", idSolicitud);
-            if (nuevoEstado != EstadoHistorialEnum.Borrador) {
-                log.error("Invalid initial state for new solicitud {}: Must be 'Borrador', but was '{}'.", idSolicitud, nuevoEstado);
-                throw new InvalidTransitionException("El estado inicial para una nueva solicitud debe ser 'Borrador', no '" + nuevoEstado + "'.");
+            // Regla: El primer estado de una solicitud siempre debe ser el estado inicial configurado ('Borrador').
+            EstadoHistorialEnum estadoInicial = estadoHistorialStateMachine.getEstadoInicial();
+            log.debug("This is the first state for solicitud {}. Validating initial state is '{}'.", idSolicitud, estadoInicial);
+            if (nuevoEstado != estadoInicial) {
+                log.error("Invalid initial state for new solicitud {}: Must be '{}', but was '{}'.", idSolicitud, estadoInicial, nuevoEstado);
+                transicionMetrics.registrarTransicionInvalida(null, nuevoEstado);
+                throw new InvalidTransitionException("El estado inicial para una nueva solicitud debe ser '" + estadoInicial + "', no '" + nuevoEstado + "'.", null, nuevoEstado);
             }
             
             // Regla de negocio: La versión inicial es 1.
-            historialEstados.setVersion(BigDecimal.ONE);
+            historialEstados.setVersion(1);
         }
         
         // Regla de negocio: Fecha automática si no se proporciona
         if (historialEstados.getFechaHora() == null) {
             historialEstados.setFechaHora(LocalDateTime.now());
         }
-        
-        HistorialEstados savedHistorial = historialEstadosRepository.save(historialEstados);
-        log.info("Successfully saved new HistorialEstados with id {} for solicitud {}", savedHistorial.getIdHistorial(), savedHistorial.getIdSolicitud());
-        return savedHistorial;
     }
 
-    public HistorialEstados update(Integer idHistorial, HistorialEstados historialEstados) {
+    @Transactional
+    public HistorialEstados update(Integer idHistorial, HistorialEstados historialEstados, PrecondicionVersion precondicion) {
         log.info("Attempting to fully update HistorialEstados with id: {}", idHistorial);
         log.debug("Update data: {}", historialEstados);
-        HistorialEstados existingHistorial = findById(idHistorial);
         
         if (historialEstados.getEstado() == null) {
             throw new IllegalArgumentException("El estado no puede ser nulo");
@@ -160,67 +398,117 @@ public class HistorialEstadosService {
             throw new IllegalArgumentException("El motivo no puede estar vacío");
         }
         
-        BigDecimal nuevaVersion = existingHistorial.getVersion().add(BigDecimal.ONE);
+        // UPDATE ... WHERE id = ? AND version IN (If-Match) sin leer antes la entidad; devuelve la fila anterior
+        HistorialEstados updatedHistorial = edicionRepository.actualizarHistorial(idHistorial, historialEstados, false, precondicion)
+            .orElseThrow(() -> sinActualizar(idHistorial, precondicion));
+        Integer idSolicitudAnterior = updatedHistorial.getIdSolicitud();
         
-        existingHistorial.setIdSolicitud(historialEstados.getIdSolicitud());
-        existingHistorial.setEstado(historialEstados.getEstado());
-        existingHistorial.setFechaHora(historialEstados.getFechaHora());
-        existingHistorial.setUsuario(historialEstados.getUsuario());
-        existingHistorial.setMotivo(historialEstados.getMotivo());
-        existingHistorial.setVersion(nuevaVersion);
+        updatedHistorial.setIdSolicitud(historialEstados.getIdSolicitud());
+        updatedHistorial.setEstado(historialEstados.getEstado());
+        updatedHistorial.setFechaHora(historialEstados.getFechaHora());
+        updatedHistorial.setUsuario(historialEstados.getUsuario());
+        updatedHistorial.setMotivo(historialEstados.getMotivo());
+        updatedHistorial.setVersion(updatedHistorial.getVersion() + 1);
         
-        HistorialEstados updatedHistorial = historialEstadosRepository.save(existingHistorial);
+        invalidarEstadoActual(idSolicitudAnterior, updatedHistorial.getIdSolicitud());
+        historialJsonCache.invalidateAfterCommit(idHistorial);
         log.info("Successfully updated HistorialEstados with id: {}", updatedHistorial.getIdHistorial());
         return updatedHistorial;
     }
 
-    public HistorialEstados partialUpdate(Integer idHistorial, HistorialEstados historialEstados) {
+    @Transactional
+    public HistorialEstados partialUpdate(Integer idHistorial, HistorialEstados historialEstados, PrecondicionVersion precondicion) {
         log.info("Attempting to partially update HistorialEstados with id: {}", idHistorial);
         log.debug("Partial update data: {}", historialEstados);
-        HistorialEstados existingHistorial = findById(idHistorial);
+        // Un usuario o motivo en blanco no se aplica, igual que uno ausente
+        if (historialEstados.getUsuario() != null && historialEstados.getUsuario().trim().isEmpty()) {
+            historialEstados.setUsuario(null);
+        }
+        if (historialEstados.getMotivo() != null && historialEstados.getMotivo().trim().isEmpty()) {
+            historialEstados.setMotivo(null);
+        }
+        
+        HistorialEstados updatedHistorial = edicionRepository.actualizarHistorial(idHistorial, historialEstados, true, precondicion)
+            .orElseThrow(() -> sinActualizar(idHistorial, precondicion));
+        Integer idSolicitudAnterior = updatedHistorial.getIdSolicitud();
         
         if (historialEstados.getIdSolicitud() != null) {
-            existingHistorial.setIdSolicitud(historialEstados.getIdSolicitud());
+            updatedHistorial.setIdSolicitud(historialEstados.getIdSolicitud());
         }
         if (historialEstados.getEstado() != null) {
-            existingHistorial.setEstado(historialEstados.getEstado());
+            updatedHistorial.setEstado(historialEstados.getEstado());
         }
         if (historialEstados.getFechaHora() != null) {
-            existingHistorial.setFechaHora(historialEstados.getFechaHora());
+            updatedHistorial.setFechaHora(historialEstados.getFechaHora());
         }
-        if (historialEstados.getUsuario() != null && !historialEstados.getUsuario().trim().isEmpty()) {
-            existingHistorial.setUsuario(historialEstados.getUsuario());
+        if (historialEstados.getUsuario() != null) {
+            updatedHistorial.setUsuario(historialEstados.getUsuario());
         }
-        if (historialEstados.getMotivo() != null && !historialEstados.getMotivo().trim().isEmpty()) {
-            existingHistorial.setMotivo(historialEstados.getMotivo());
+        if (historialEstados.getMotivo() != null) {
+            updatedHistorial.setMotivo(historialEstados.getMotivo());
         }
+        updatedHistorial.setVersion(updatedHistorial.getVersion() + 1);
         
-        existingHistorial.setVersion(existingHistorial.getVersion().add(BigDecimal.ONE));
-        
-        HistorialEstados updatedHistorial = historialEstadosRepository.save(existingHistorial);
+        invalidarEstadoActual(idSolicitudAnterior, updatedHistorial.getIdSolicitud());
+        historialJsonCache.invalidateAfterCommit(idHistorial);
         log.info("Successfully partially updated HistorialEstados with id: {}", updatedHistorial.getIdHistorial());
         return updatedHistorial;
     }
 
+    // El UPDATE no aplicó: 404 si el registro no existe, 412 si su versión no está en If-Match y 409 si cambió entre medio
+    private RuntimeException sinActualizar(Integer idHistorial, PrecondicionVersion precondicion) {
+        Optional<Long> versionActual = edicionRepository.findVersionHistorial(idHistorial);
+        if (versionActual.isEmpty()) {
+            log.warn("Update failed. HistorialEstados with id: {} not found.", idHistorial);
+            return new HistorialEstadosNotFoundException(idHistorial.toString(), "ID de historial");
+        }
+        precondicion.verificar(versionActual.get());
+        return new OptimisticLockingFailureException("El historial " + idHistorial + " fue modificado por otra operación");
+    }
+
+    @Transactional
     public void deleteById(Integer idHistorial) {
         log.info("Attempting to delete HistorialEstados with id: {}", idHistorial);
-        if (!historialEstadosRepository.existsById(idHistorial)) {
+        Optional<HistorialEstados> historial = historialEstadosRepository.findById(idHistorial);
+        if (historial.isEmpty()) {
             log.warn("Delete failed. HistorialEstados with id: {} not found.", idHistorial);
             throw new HistorialEstadosNotFoundException(idHistorial.toString(), "ID de historial");
         }
-        historialEstadosRepository.deleteById(idHistorial);
+        historialEstadosRepository.delete(historial.get());
+        Integer idSolicitud = historial.get().getIdSolicitud();
+        solicitudEstadoActualService.recalcular(List.of(idSolicitud));
+        analiticaEstadosService.marcarPendientes(List.of(idSolicitud));
+        ruteoReplica.registrarEscritura(idSolicitud);
+        estadoActualCache.invalidateAfterCommit(idSolicitud);
+        historialJsonCache.invalidateAfterCommit(idHistorial);
         log.info("Successfully deleted HistorialEstados with id: {}", idHistorial);
     }
     
+    private void invalidarEstadoActual(Integer idSolicitudAnterior, Integer idSolicitudNueva) {
+        // La edición puede cambiar estado, fecha o incluso la solicitud del registro más reciente
+        Set<Integer> idsSolicitud = new LinkedHashSet<>();
+        idsSolicitud.add(idSolicitudAnterior);
+        if (idSolicitudNueva != null) {
+            idsSolicitud.add(idSolicitudNueva);
+        }
+        solicitudEstadoActualService.recalcular(idsSolicitud);
+        analiticaEstadosService.marcarPendientes(idsSolicitud);
+        ruteoReplica.registrarEscritura(idsSolicitud);
+        estadoActualCache.invalidateAfterCommit(idSolicitudAnterior);
+        if (idSolicitudNueva != null && !idSolicitudNueva.equals(idSolicitudAnterior)) {
+            estadoActualCache.invalidateAfterCommit(idSolicitudNueva);
+        }
+    }
+    
     public boolean existsById(Integer idHistorial) {
         return historialEstadosRepository.existsById(idHistorial);
     }
 
     public EstadoHistorialEnum getEstadoActualSolicitud(Integer idSolicitud) {
         log.info("Fetching current state for solicitud id: {}", idSolicitud);
-        Optional<HistorialEstados> ultimoHistorial = findLatestByIdSolicitud(idSolicitud);
+        Optional<EstadoActual> ultimoHistorial = findEstadoActual(idSolicitud);
         if (ultimoHistorial.isPresent()) {
-            EstadoHistorialEnum estado = ultimoHistorial.get().getEstado();
+            EstadoHistorialEnum estado = ultimoHistorial.get().estado();
             log.info("Current state for solicitud {} is {}.", idSolicitud, estado);
             return estado;
         }
@@ -228,25 +516,27 @@ public class HistorialEstadosService {
         return null; // No hay historial para esta solicitud
     }
 
+    // Sin acceso a la base: no abren transacción ni piden conexión
+    @Transactional(propagation = Propagation.SUPPORTS)
     public boolean validarTransicionEstado(EstadoHistorialEnum estadoActual, EstadoHistorialEnum nuevoEstado) {
-        log.debug("Validating transition from {} to {}", estadoActual, nuevoEstado);
-        // Regla de negocio: Flujo de estados permitidos
-        switch (estadoActual) {
-            case Borrador:
-                return nuevoEstado == EstadoHistorialEnum.EnRevision || 
-                       nuevoEstado == EstadoHistorialEnum.Cancelada;
-            case EnRevision:
-                return nuevoEstado == EstadoHistorialEnum.Aprobada || 
-                       nuevoEstado == EstadoHistorialEnum.Rechazada || 
-                       nuevoEstado == EstadoHistorialEnum.Borrador;
-            case Aprobada:
-            case Rechazada:
-            case Cancelada:
-                log.debug("Transition from final state {} is not allowed.", estadoActual);
-                return false; // Estados finales, no se pueden cambiar
-            default:
-                log.warn("Attempted transition from an unknown or unhandled state: {}", estadoActual);
-                return false;
+        // Regla de negocio: Flujo de estados permitidos (configurable en analisis.transiciones.*)
+        return estadoHistorialStateMachine.esTransicionValida(estadoActual, nuevoEstado);
+    }
+
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public Set<EstadoHistorialEnum> getSiguientesEstados(EstadoHistorialEnum estadoActual) {
+        return estadoHistorialStateMachine.getSiguientesEstados(estadoActual);
+    }
+
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public Map<EstadoHistorialEnum, Set<EstadoHistorialEnum>> getTransiciones() {
+        return estadoHistorialStateMachine.getTransiciones();
+    }
+
+    public record ResultadoLote(int indice, HistorialEstados historial, String error) {
+
+        public boolean isAceptado() {
+            return error == null;
         }
     }
 } 
\ No newline at end of file
@@ -1,31 +1,68 @@
 package com.banquito.originacion.analisis.service;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.KeysetScrollPosition;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.banquito.originacion.analisis.busqueda.CursorBusqueda;
+import com.banquito.originacion.analisis.busqueda.FiltroBusqueda;
+import com.banquito.originacion.analisis.busqueda.ObservacionEncontrada;
+import com.banquito.originacion.analisis.concurrency.PrecondicionVersion;
+import com.banquito.originacion.analisis.enums.OrdenBusquedaEnum;
+import com.banquito.originacion.analisis.exception.InvalidDateRangeException;
+import com.banquito.originacion.analisis.exception.InvalidSearchException;
 import com.banquito.originacion.analisis.exception.ObservacionAnalistasNotFoundException;
 import com.banquito.originacion.analisis.model.ObservacionAnalistas;
+import com.banquito.originacion.analisis.replica.RuteoReplica;
+import com.banquito.originacion.analisis.repository.BusquedaObservacionesRepository;
+import com.banquito.originacion.analisis.repository.EdicionRepository;
+import com.banquito.originacion.analisis.repository.HuellaRegistros;
 import com.banquito.originacion.analisis.repository.ObservacionAnalistasRepository;
+import com.banquito.originacion.analisis.repository.VistaRepository;
+import com.banquito.originacion.analisis.vista.ObservacionAnalistasVista;
+
+import io.micrometer.core.annotation.Timed;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+// Mismo esquema que HistorialEstadosService: consultas de solo lectura, escrituras con su propia transacción
 @Service
-@Transactional
+@Transactional(readOnly = true)
+@Timed(value = "analisis.service", histogram = true)
 public class ObservacionAnalistasService {
     
     private static final Logger log = LoggerFactory.getLogger(ObservacionAnalistasService.class);
 
+    // razon_intervencion admite 500 caracteres; un texto más largo no describe una búsqueda
+    private static final int MAX_LONGITUD_TEXTO = 500;
+
     private final ObservacionAnalistasRepository observacionAnalistasRepository;
+    private final VistaRepository vistaRepository;
+    private final BusquedaObservacionesRepository busquedaObservacionesRepository;
+    private final RuteoReplica ruteoReplica;
+    private final ArchivoHistoricoService archivoHistoricoService;
+    private final EdicionRepository edicionRepository;
     
-    public ObservacionAnalistasService(ObservacionAnalistasRepository observacionAnalistasRepository) {
+    public ObservacionAnalistasService(ObservacionAnalistasRepository observacionAnalistasRepository, VistaRepository vistaRepository,
+            BusquedaObservacionesRepository busquedaObservacionesRepository, RuteoReplica ruteoReplica,
+            ArchivoHistoricoService archivoHistoricoService, EdicionRepository edicionRepository) {
         this.observacionAnalistasRepository = observacionAnalistasRepository;
+        this.vistaRepository = vistaRepository;
+        this.busquedaObservacionesRepository = busquedaObservacionesRepository;
+        this.ruteoReplica = ruteoReplica;
+        this.archivoHistoricoService = archivoHistoricoService;
+        this.edicionRepository = edicionRepository;
     }
     
     public List<ObservacionAnalistas> findAll() {
@@ -33,12 +70,19 @@ public class ObservacionAnalistasService {
         return observacionAnalistasRepository.findAll();
     }
     
-    public Page<ObservacionAnalistas> findAllPaginated(Pageable pageable) {
+    public Page<ObservacionAnalistasVista> findAllPaginated(Pageable pageable) {
         log.info("Finding all ObservacionAnalistas with pagination: {}", pageable);
-        return observacionAnalistasRepository.findAll(pageable);
+        return vistaRepository.findObservacionesPagina(pageable);
+    }
+    
+    public Window<ObservacionAnalistasVista> findAllByCursor(KeysetScrollPosition position, Sort sort, int size) {
+        log.info("Finding ObservacionAnalistas by cursor. Sort: {}, Size: {}", sort, size);
+        return vistaRepository.findObservaciones(position, sort, size);
     }
     
+    // En la primaria: es la lectura previa a un PUT/PATCH con If-Match y una réplica atrasada lo haría fallar
     public ObservacionAnalistas findById(Integer idObservacionAnalista) {
+        ruteoReplica.leerEnPrimaria();
         log.info("Attempting to find ObservacionAnalistas with id: {}", idObservacionAnalista);
         return observacionAnalistasRepository.findById(idObservacionAnalista)
             .orElseThrow(() -> {
@@ -48,93 +92,163 @@ public class ObservacionAnalistasService {
             });
     }
     
+    public ObservacionAnalistasVista findVistaById(Integer idObservacionAnalista) {
+        ruteoReplica.leerEnPrimaria();
+        log.info("Attempting to find ObservacionAnalistas view with id: {}", idObservacionAnalista);
+        return vistaRepository.findObservacionById(idObservacionAnalista)
+            .orElseThrow(() -> {
+                log.warn("ObservacionAnalistas with id: {} not found.", idObservacionAnalista);
+                return new ObservacionAnalistasNotFoundException(
+                    idObservacionAnalista.toString(), "ID de observación");
+            });
+    }
+    
     public List<ObservacionAnalistas> findByIdSolicitud(Integer idSolicitud) {
+        ruteoReplica.leerSolicitud(idSolicitud);
         log.info("Finding ObservacionAnalistas by idSolicitud: {}", idSolicitud);
         return observacionAnalistasRepository.findByIdSolicitud(idSolicitud);
     }
     
-    public List<ObservacionAnalistas> findByUsuario(String usuario) {
-        log.info("Finding ObservacionAnalistas by usuario: {}", usuario);
-        return observacionAnalistasRepository.findByUsuario(usuario);
+    public List<ObservacionAnalistasVista> findByIdSolicitudOrderByFechaHoraDesc(Integer idSolicitud) {
+        ruteoReplica.leerSolicitud(idSolicitud);
+        log.info("Finding ObservacionAnalistas by idSolicitud ordered by date: {}", idSolicitud);
+        List<ObservacionAnalistasVista> observaciones = vistaRepository.findObservacionesByIdSolicitud(idSolicitud);
+        List<ObservacionAnalistasVista> archivadas = archivoHistoricoService.findObservaciones(idSolicitud);
+        if (archivadas.isEmpty()) {
+            return observaciones;
+        }
+        List<ObservacionAnalistasVista> todas = new ArrayList<>(observaciones.size() + archivadas.size());
+        todas.addAll(observaciones);
+        todas.addAll(archivadas);
+        return todas;
+    }
+
+    public HuellaRegistros findHuellaByIdSolicitud(Integer idSolicitud) {
+        ruteoReplica.leerSolicitud(idSolicitud);
+        return observacionAnalistasRepository.findHuellaByIdSolicitud(idSolicitud);
     }
     
-    public List<ObservacionAnalistas> findByIdSolicitudOrderByFechaHoraDesc(Integer idSolicitud) {
-        log.info("Finding ObservacionAnalistas by idSolicitud ordered by date: {}", idSolicitud);
-        return observacionAnalistasRepository.findByIdSolicitudOrderByFechaHoraDesc(idSolicitud);
+    public Window<ObservacionAnalistasVista> findByUsuario(String usuario, KeysetScrollPosition position, Sort sort, int size) {
+        log.info("Finding ObservacionAnalistas by usuario: {}. Sort: {}, Size: {}", usuario, sort, size);
+        return vistaRepository.findObservacionesByUsuario(usuario, position, sort, size);
     }
     
-    public List<ObservacionAnalistas> findByUsuarioOrderByFechaHoraDesc(String usuario) {
-        log.info("Finding ObservacionAnalistas by usuario ordered by date: {}", usuario);
-        return observacionAnalistasRepository.findByUsuarioOrderByFechaHoraDesc(usuario);
+    public PaginaBusqueda buscar(FiltroBusqueda filtro, OrdenBusquedaEnum orden, CursorBusqueda cursor, int size) {
+        if (filtro.texto() == null || filtro.texto().isBlank()) {
+            throw new InvalidSearchException("El texto a buscar es obligatorio");
+        }
+        if (filtro.texto().length() > MAX_LONGITUD_TEXTO) {
+            throw new InvalidSearchException("El texto a buscar no puede superar los " + MAX_LONGITUD_TEXTO + " caracteres");
+        }
+        if (filtro.desde() != null && filtro.hasta() != null && !filtro.desde().isBefore(filtro.hasta())) {
+            throw new InvalidDateRangeException("La fecha desde debe ser anterior a la fecha hasta");
+        }
+        if (filtro.idSolicitud() != null) {
+            ruteoReplica.leerSolicitud(filtro.idSolicitud());
+        }
+        log.info("Searching ObservacionAnalistas. Texto: {}, IdSolicitud: {}, Usuario: {}, Desde: {}, Hasta: {}, Orden: {}, Size: {}",
+                filtro.texto(), filtro.idSolicitud(), filtro.usuario(), filtro.desde(), filtro.hasta(), orden, size);
+        // Una fila de más indica si existe la página siguiente
+        List<ObservacionEncontrada> resultados = busquedaObservacionesRepository.buscar(filtro, orden, cursor, size + 1);
+        if (resultados.size() <= size) {
+            return new PaginaBusqueda(resultados, null);
+        }
+        List<ObservacionEncontrada> pagina = resultados.subList(0, size);
+        return new PaginaBusqueda(pagina, CursorBusqueda.of(orden, pagina.get(size - 1)).codificar());
     }
     
+    @Transactional
     public ObservacionAnalistas save(ObservacionAnalistas observacionAnalistas) {
         log.info("Attempting to save new ObservacionAnalistas for solicitud: {}", observacionAnalistas.getIdSolicitud());
         log.debug("New observacion details: {}", observacionAnalistas);
         if (observacionAnalistas.getFechaHora() == null) {
             observacionAnalistas.setFechaHora(LocalDateTime.now());
         }
-        if (observacionAnalistas.getVersion() == null) {
-            observacionAnalistas.setVersion(BigDecimal.ONE);
+        if (observacionAnalistas.getVersion() <= 0) {
+            observacionAnalistas.setVersion(1);
         }
         ObservacionAnalistas savedObservacion = observacionAnalistasRepository.save(observacionAnalistas);
+        ruteoReplica.registrarEscritura(savedObservacion.getIdSolicitud());
         log.info("Successfully saved new ObservacionAnalistas with id {} for solicitud {}", savedObservacion.getIdObservacionAnalista(), savedObservacion.getIdSolicitud());
         return savedObservacion;
     }
     
-    public ObservacionAnalistas update(Integer idObservacionAnalista, ObservacionAnalistas observacionAnalistas) {
+    @Transactional
+    public ObservacionAnalistas update(Integer idObservacionAnalista, ObservacionAnalistas observacionAnalistas, PrecondicionVersion precondicion) {
         log.info("Attempting to fully update ObservacionAnalistas with id: {}", idObservacionAnalista);
         log.debug("Update data: {}", observacionAnalistas);
-        ObservacionAnalistas existingObservacion = findById(idObservacionAnalista);
+        // UPDATE ... WHERE id = ? AND version IN (If-Match) sin leer antes la entidad; devuelve la fila anterior
+        ObservacionAnalistas updatedObservacion = edicionRepository.actualizarObservacion(idObservacionAnalista, observacionAnalistas, false, precondicion)
+            .orElseThrow(() -> sinActualizar(idObservacionAnalista, precondicion));
+        Integer idSolicitudAnterior = updatedObservacion.getIdSolicitud();
         
-        existingObservacion.setIdSolicitud(observacionAnalistas.getIdSolicitud());
-        existingObservacion.setUsuario(observacionAnalistas.getUsuario());
-        existingObservacion.setFechaHora(observacionAnalistas.getFechaHora());
-        existingObservacion.setRazonIntervencion(observacionAnalistas.getRazonIntervencion());
-        existingObservacion.setVersion(existingObservacion.getVersion().add(BigDecimal.ONE));
+        updatedObservacion.setIdSolicitud(observacionAnalistas.getIdSolicitud());
+        updatedObservacion.setUsuario(observacionAnalistas.getUsuario());
+        updatedObservacion.setFechaHora(observacionAnalistas.getFechaHora());
+        updatedObservacion.setRazonIntervencion(observacionAnalistas.getRazonIntervencion());
+        updatedObservacion.setVersion(updatedObservacion.getVersion() + 1);
         
-        ObservacionAnalistas updatedObservacion = observacionAnalistasRepository.save(existingObservacion);
+        ruteoReplica.registrarEscritura(List.of(idSolicitudAnterior, updatedObservacion.getIdSolicitud()));
         log.info("Successfully updated ObservacionAnalistas with id: {}", updatedObservacion.getIdObservacionAnalista());
         return updatedObservacion;
     }
     
-    public ObservacionAnalistas partialUpdate(Integer idObservacionAnalista, ObservacionAnalistas observacionAnalistas) {
+    @Transactional
+    public ObservacionAnalistas partialUpdate(Integer idObservacionAnalista, ObservacionAnalistas observacionAnalistas, PrecondicionVersion precondicion) {
         log.info("Attempting to partially update ObservacionAnalistas with id: {}", idObservacionAnalista);
         log.debug("Partial update data: {}", observacionAnalistas);
-        ObservacionAnalistas existingObservacion = findById(idObservacionAnalista);
+        ObservacionAnalistas updatedObservacion = edicionRepository.actualizarObservacion(idObservacionAnalista, observacionAnalistas, true, precondicion)
+            .orElseThrow(() -> sinActualizar(idObservacionAnalista, precondicion));
+        Integer idSolicitudAnterior = updatedObservacion.getIdSolicitud();
         
         if (observacionAnalistas.getIdSolicitud() != null) {
-            existingObservacion.setIdSolicitud(observacionAnalistas.getIdSolicitud());
+            updatedObservacion.setIdSolicitud(observacionAnalistas.getIdSolicitud());
         }
         if (observacionAnalistas.getUsuario() != null) {
-            existingObservacion.setUsuario(observacionAnalistas.getUsuario());
+            updatedObservacion.setUsuario(observacionAnalistas.getUsuario());
         }
         if (observacionAnalistas.getFechaHora() != null) {
-            existingObservacion.setFechaHora(observacionAnalistas.getFechaHora());
+            updatedObservacion.setFechaHora(observacionAnalistas.getFechaHora());
         }
         if (observacionAnalistas.getRazonIntervencion() != null) {
-            existingObservacion.setRazonIntervencion(observacionAnalistas.getRazonIntervencion());
+            updatedObservacion.setRazonIntervencion(observacionAnalistas.getRazonIntervencion());
         }
+        updatedObservacion.setVersion(updatedObservacion.getVersion() + 1);
         
-        existingObservacion.setVersion(existingObservacion.getVersion().add(BigDecimal.ONE));
-        
-        ObservacionAnalistas updatedObservacion = observacionAnalistasRepository.save(existingObservacion);
+        ruteoReplica.registrarEscritura(List.of(idSolicitudAnterior, updatedObservacion.getIdSolicitud()));
         log.info("Successfully partially updated ObservacionAnalistas with id: {}", updatedObservacion.getIdObservacionAnalista());
         return updatedObservacion;
     }
     
+    // El UPDATE no aplicó: 404 si el registro no existe, 412 si su versión no está en If-Match y 409 si cambió entre medio
+    private RuntimeException sinActualizar(Integer idObservacionAnalista, PrecondicionVersion precondicion) {
+        Optional<Long> versionActual = edicionRepository.findVersionObservacion(idObservacionAnalista);
+        if (versionActual.isEmpty()) {
+            log.warn("Update failed. ObservacionAnalistas with id: {} not found.", idObservacionAnalista);
+            return new ObservacionAnalistasNotFoundException(idObservacionAnalista.toString(), "ID de observación");
+        }
+        precondicion.verificar(versionActual.get());
+        return new OptimisticLockingFailureException("La observación " + idObservacionAnalista + " fue modificada por otra operación");
+    }
+    
+    @Transactional
     public void deleteById(Integer idObservacionAnalista) {
         log.info("Attempting to delete ObservacionAnalistas with id: {}", idObservacionAnalista);
-        if (!observacionAnalistasRepository.existsById(idObservacionAnalista)) {
+        Optional<ObservacionAnalistas> observacion = observacionAnalistasRepository.findById(idObservacionAnalista);
+        if (observacion.isEmpty()) {
             log.warn("Delete failed. ObservacionAnalistas with id: {} not found.", idObservacionAnalista);
             throw new ObservacionAnalistasNotFoundException(
                 idObservacionAnalista.toString(), "ID de observación");
         }
-        observacionAnalistasRepository.deleteById(idObservacionAnalista);
+        observacionAnalistasRepository.delete(observacion.get());
+        ruteoReplica.registrarEscritura(observacion.get().getIdSolicitud());
         log.info("Successfully deleted ObservacionAnalistas with id: {}", idObservacionAnalista);
     }
     
     public boolean existsById(Integer idObservacionAnalista) {
         return observacionAnalistasRepository.existsById(idObservacionAnalista);
     }
-} 
\ No newline at end of file
+
+    public record PaginaBusqueda(List<ObservacionEncontrada> resultados, String nextCursor) {
+    }
+}
\ No newline at end of file
@@ -0,0 +1,189 @@
+package com.banquito.originacion.analisis.service;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.banquito.originacion.analisis.outbox.EventoTransicion;
+import com.banquito.originacion.analisis.outbox.PublicadorEventos;
+import com.banquito.originacion.analisis.repository.OutboxRepository;
+import com.banquito.originacion.analisis.repository.OutboxRepository.ResumenPendientes;
+
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+// Outbox de transiciones: el evento se inserta en la transacción que guarda el historial, así que existe si y solo
+// si el cambio se confirmó. El relay lo publica en lotes por orden de id y lo elimina después; si algo falla entre
+// publicar y eliminar, el lote se vuelve a publicar (al menos una vez)
+@Service
+@Timed(value = "analisis.service", histogram = true)
+public class OutboxService {
+    
+    private static final Logger log = LoggerFactory.getLogger(OutboxService.class);
+    
+    // Espacio de nombres del advisory lock del relay (primer argumento de pg_try_advisory_lock)
+    private static final int ADVISORY_LOCK_NAMESPACE = 0x4F555442;
+    private static final int ADVISORY_LOCK_RELAY = 0;
+    
+    private final OutboxRepository outboxRepository;
+    private final PublicadorEventos publicadorEventos;
+    private final DataSource dataSource;
+    private final boolean advisory;
+    private final int tamanioLote;
+    // Con dos publicaciones simultáneas un lote podría adelantarse a otro de la misma solicitud
+    private final ReentrantLock publicacion = new ReentrantLock();
+    
+    private final Counter eventosPublicados;
+    private final Counter fallosPublicacion;
+    private final Timer latenciaPublicacion;
+    private volatile long pendientes;
+    // Registro del evento pendiente más antiguo; null si el outbox está vacío
+    private volatile LocalDateTime pendienteMasAntiguo;
+    
+    public OutboxService(OutboxRepository outboxRepository, PublicadorEventos publicadorEventos, MeterRegistry meterRegistry,
+            DataSource dataSource, @Value("${analisis.outbox.relay.tamanio-lote:500}") int tamanioLote,
+            @Value("${analisis.historial.lock.advisory:true}") boolean advisory) {
+        if (tamanioLote <= 0) {
+            throw new IllegalArgumentException("El tamaño de lote del outbox debe ser mayor a cero");
+        }
+        this.outboxRepository = outboxRepository;
+        this.publicadorEventos = publicadorEventos;
+        this.dataSource = dataSource;
+        this.advisory = advisory;
+        this.tamanioLote = tamanioLote;
+        this.eventosPublicados = Counter.builder("analisis.outbox.publicados")
+                .description("Eventos de transición publicados por el relay").register(meterRegistry);
+        this.fallosPublicacion = Counter.builder("analisis.outbox.fallos")
+                .description("Lotes del outbox cuya publicación falló y se reintentará").register(meterRegistry);
+        this.latenciaPublicacion = Timer.builder("analisis.outbox.latencia")
+                .description("Tiempo entre el registro del evento y su publicación").register(meterRegistry);
+        Gauge.builder("analisis.outbox.pendientes", this, outbox -> outbox.pendientes)
+                .description("Eventos en el outbox al terminar la última ejecución del relay").register(meterRegistry);
+        // Se calcula al leerlo: si el relay deja de ejecutarse el retraso sigue creciendo
+        Gauge.builder("analisis.outbox.retraso", this, OutboxService::retrasoSegundos)
+                .description("Antigüedad del evento pendiente más antiguo").baseUnit("seconds").register(meterRegistry);
+        log.info("OutboxService initialized. Publisher: {}, BatchSize: {}, Advisory: {}",
+                publicadorEventos.getClass().getSimpleName(), tamanioLote, advisory);
+    }
+    
+    // Se invoca dentro de la transacción que guarda el historial, con el lock de las solicitudes tomado
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrar(List<EventoTransicion> eventos) {
+        outboxRepository.registrar(eventos);
+    }
+    
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public ResultadoPublicacion publicarPendientes() {
+        publicacion.lock();
+        try {
+            if (!advisory) {
+                return publicar();
+            }
+            return publicarConAdvisoryLock();
+        } finally {
+            publicacion.unlock();
+        }
+    }
+    
+    // Entre nodos: advisory lock de sesión en una conexión propia mientras dura la publicación. Si otra instancia
+    // lo tiene, esta ejecución no publica nada; si la instancia cae, PostgreSQL lo libera al cerrarse la conexión
+    private ResultadoPublicacion publicarConAdvisoryLock() {
+        try (Connection conexion = dataSource.getConnection()) {
+            if (!ejecutarLock(conexion, "SELECT pg_try_advisory_lock(?, ?)")) {
+                log.debug("Outbox relay is running on another instance, skipping");
+                return new ResultadoPublicacion(0, 0, pendientes, true, 0);
+            }
+            try {
+                return publicar();
+            } finally {
+                ejecutarLock(conexion, "SELECT pg_advisory_unlock(?, ?)");
+            }
+        } catch (SQLException ex) {
+            throw new DataAccessResourceFailureException("No se pudo obtener el lock del relay del outbox", ex);
+        }
+    }
+    
+    private boolean ejecutarLock(Connection conexion, String sql) throws SQLException {
+        try (PreparedStatement statement = conexion.prepareStatement(sql)) {
+            statement.setInt(1, ADVISORY_LOCK_NAMESPACE);
+            statement.setInt(2, ADVISORY_LOCK_RELAY);
+            try (ResultSet resultado = statement.executeQuery()) {
+                return resultado.next() && resultado.getBoolean(1);
+            }
+        }
+    }
+    
+    private ResultadoPublicacion publicar() {
+        long inicio = System.currentTimeMillis();
+        int publicados = 0;
+        int lotes = 0;
+        boolean completo = true;
+        while (true) {
+            List<EventoTransicion> eventos = outboxRepository.findPendientes(tamanioLote);
+            if (eventos.isEmpty()) {
+                break;
+            }
+            try {
+                publicadorEventos.publicar(eventos);
+            } catch (RuntimeException ex) {
+                // Sin eliminar nada: el lote completo se reintenta en orden en la siguiente ejecución
+                fallosPublicacion.increment();
+                log.warn("Outbox batch of {} events starting at id {} could not be published, will retry: {}",
+                        eventos.size(), eventos.get(0).idEvento(), ex.getMessage());
+                completo = false;
+                break;
+            }
+            List<Long> idsEvento = new ArrayList<>(eventos.size());
+            LocalDateTime ahora = LocalDateTime.now();
+            for (EventoTransicion evento : eventos) {
+                idsEvento.add(evento.idEvento());
+                latenciaPublicacion.record(Math.max(0, Duration.between(evento.fechaRegistro(), ahora).toNanos()), TimeUnit.NANOSECONDS);
+            }
+            outboxRepository.eliminar(idsEvento);
+            eventosPublicados.increment(eventos.size());
+            publicados += eventos.size();
+            lotes++;
+            if (eventos.size() < tamanioLote) {
+                break;
+            }
+        }
+        ResumenPendientes resumen = outboxRepository.findResumenPendientes();
+        this.pendientes = resumen.pendientes();
+        this.pendienteMasAntiguo = resumen.masAntiguo();
+        long duracionMs = System.currentTimeMillis() - inicio;
+        if (publicados > 0) {
+            log.info("Outbox events published. Events: {}, Batches: {}, Pending: {}, Duration: {} ms",
+                    publicados, lotes, resumen.pendientes(), duracionMs);
+        }
+        return new ResultadoPublicacion(publicados, lotes, resumen.pendientes(), completo, duracionMs);
+    }
+    
+    private double retrasoSegundos() {
+        LocalDateTime masAntiguo = this.pendienteMasAntiguo;
+        return masAntiguo == null ? 0 : Math.max(0, Duration.between(masAntiguo, LocalDateTime.now()).toMillis() / 1000.0);
+    }
+    
+    public record ResultadoPublicacion(int publicados, int lotes, long pendientes, boolean completo, long duracionMs) {
+    }
+}
\ No newline at end of file
@@ -0,0 +1,206 @@
+package com.banquito.originacion.analisis.service;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.banquito.originacion.analisis.archivo.ArchivoHistorico;
+import com.banquito.originacion.analisis.archivo.EscritorArchivo;
+import com.banquito.originacion.analisis.archivo.TablaParticionada;
+import com.banquito.originacion.analisis.enums.EstadoHistorialEnum;
+import com.banquito.originacion.analisis.repository.ArchivoRepository;
+import com.banquito.originacion.analisis.repository.ParticionesRepository;
+import com.banquito.originacion.analisis.statemachine.EstadoHistorialStateMachine;
+
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+// Mantenimiento de las particiones mensuales: crea los meses siguientes antes de que lleguen filas y archiva los
+// meses cerrados. Un mes se archiva solo si todas sus solicitudes están en un estado final, y siempre del más antiguo
+// al más reciente: así lo archivado de una solicitud es siempre anterior a lo que sigue en la base
+@Service
+@Timed(value = "analisis.service", histogram = true)
+public class ParticionesService {
+
+    private static final Logger log = LoggerFactory.getLogger(ParticionesService.class);
+
+    private final ParticionesRepository particionesRepository;
+    private final ArchivoRepository archivoRepository;
+    private final ArchivoHistorico archivoHistorico;
+    private final TransactionTemplate transactionTemplate;
+    private final List<String> estadosFinales = new ArrayList<>();
+    private final int mesesAdelantados;
+    private final boolean archivoEnabled;
+    private final int mesesRetencion;
+    private final long lockTimeoutMs;
+    // Meses que la última ejecución no pudo crear; mientras sea mayor a cero sus filas siguen en la partición por defecto
+    private volatile int particionesFallidas;
+
+    public ParticionesService(ParticionesRepository particionesRepository, ArchivoRepository archivoRepository,
+            ArchivoHistorico archivoHistorico, EstadoHistorialStateMachine stateMachine, PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry, @Value("${analisis.particiones.meses-adelantados:3}") int mesesAdelantados,
+            @Value("${analisis.archivo.enabled:false}") boolean archivoEnabled,
+            @Value("${analisis.archivo.meses-retencion:24}") int mesesRetencion,
+            @Value("${analisis.archivo.lock-timeout-ms:5000}") long lockTimeoutMs) {
+        if (mesesAdelantados < 0) {
+            throw new IllegalArgumentException("Los meses adelantados de las particiones no pueden ser negativos");
+        }
+        if (mesesRetencion <= 0) {
+            throw new IllegalArgumentException("Los meses de retención del archivo deben ser mayores a cero");
+        }
+        this.particionesRepository = particionesRepository;
+        this.archivoRepository = archivoRepository;
+        this.archivoHistorico = archivoHistorico;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        for (EstadoHistorialEnum estado : EstadoHistorialEnum.values()) {
+            if (stateMachine.esEstadoFinal(estado)) {
+                estadosFinales.add(estado.name());
+            }
+        }
+        this.mesesAdelantados = mesesAdelantados;
+        this.archivoEnabled = archivoEnabled;
+        this.mesesRetencion = mesesRetencion;
+        this.lockTimeoutMs = lockTimeoutMs;
+        Gauge.builder("analisis.particiones.fallidas", this, particiones -> particiones.particionesFallidas)
+                .description("Particiones mensuales que el último mantenimiento no pudo crear").register(meterRegistry);
+        log.info("ParticionesService initialized. MonthsAhead: {}, Archive: {}, RetentionMonths: {}, FinalStates: {}",
+                mesesAdelantados, archivoEnabled, mesesRetencion, estadosFinales);
+    }
+
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public ResultadoMantenimiento mantener() {
+        int creadas = crearParticiones();
+        int archivadas = archivoEnabled ? archivarParticiones() : 0;
+        return new ResultadoMantenimiento(creadas, archivadas, particionesFallidas);
+    }
+
+    // Mes actual y los siguientes. Si la partición por defecto ya tiene filas de un mes, sus filas pasan a la partición nueva
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public int crearParticiones() {
+        LocalDate mesActual = LocalDate.now().withDayOfMonth(1);
+        int creadas = 0;
+        int fallidas = 0;
+        for (TablaParticionada tabla : TablaParticionada.values()) {
+            for (int i = 0; i <= mesesAdelantados; i++) {
+                LocalDate mes = mesActual.plusMonths(i);
+                try {
+                    if (crearParticion(tabla, mes)) {
+                        creadas++;
+                    }
+                } catch (DataAccessException ex) {
+                    fallidas++;
+                    log.error("Could not create partition {}, its rows stay in the default partition: {}",
+                            tabla.particion(mes), ex.getMessage());
+                }
+            }
+        }
+        particionesFallidas = fallidas;
+        return creadas;
+    }
+
+    // Crear la partición bloquea la tabla y la partición por defecto; con lock_timeout el mes se reintenta mañana en lugar
+    // de dejar las consultas esperando detrás del DDL
+    private boolean crearParticion(TablaParticionada tabla, LocalDate mes) {
+        String particion = tabla.particion(mes);
+        return Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+            particionesRepository.limitarEsperaLock(lockTimeoutMs);
+            if (!particionesRepository.tieneFilasPorDefecto(tabla, mes)) {
+                boolean creada = particionesRepository.crearParticion(tabla, mes);
+                if (creada) {
+                    log.info("Created partition {}", particion);
+                }
+                return creada;
+            }
+            int movidas = particionesRepository.crearMoviendoFilasPorDefecto(tabla, mes);
+            log.info("Created partition {} moving {} rows from the default partition", particion, movidas);
+            return true;
+        }));
+    }
+
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public int archivarParticiones() {
+        LocalDate limite = LocalDate.now().withDayOfMonth(1).minusMonths(mesesRetencion);
+        int archivadas = 0;
+        for (TablaParticionada tabla : TablaParticionada.values()) {
+            for (LocalDate mes : particionesRepository.findMeses(tabla)) {
+                // Un mes que no puede archivarse detiene los siguientes de la misma tabla
+                if (!mes.isBefore(limite) || !archivarMes(tabla, mes)) {
+                    break;
+                }
+                archivadas++;
+            }
+        }
+        return archivadas;
+    }
+
+    private boolean archivarMes(TablaParticionada tabla, LocalDate mes) {
+        String particion = tabla.particion(mes);
+        if (particionesRepository.tieneSolicitudesAbiertas(particion, estadosFinales)) {
+            log.info("Partition {} has solicitudes not in a final state; it and later months stay in the database", particion);
+            return false;
+        }
+
+        // La partición se lee sin bloquear escrituras; lo escrito se compara después, con la partición ya desvinculada
+        String nombre = archivoHistorico.nombre(tabla, mes);
+        EscritorArchivo escritor = null;
+        try {
+            escritor = archivoHistorico.crear(nombre);
+            try (EscritorArchivo archivo = escritor) {
+                transactionTemplate.executeWithoutResult(status -> particionesRepository.recorrer(tabla, particion, archivo::escribir));
+                archivo.terminar();
+            }
+            archivoHistorico.publicar(escritor, nombre);
+        } catch (IOException | RuntimeException ex) {
+            if (escritor != null) {
+                archivoHistorico.descartar(escritor);
+            }
+            log.warn("Could not write archive for partition {}: {}", particion, ex.getMessage());
+            return false;
+        }
+
+        EscritorArchivo archivo = escritor;
+        Boolean archivada;
+        try {
+            archivada = transactionTemplate.execute(status -> {
+                particionesRepository.limitarEsperaLock(lockTimeoutMs);
+                particionesRepository.desvincular(tabla, particion);
+                // Si algo cambió entre la lectura y el lock, el rollback vuelve a adjuntar la partición
+                if (!archivo.huella().equals(particionesRepository.huella(tabla, particion))
+                        || particionesRepository.tieneSolicitudesAbiertas(particion, estadosFinales)) {
+                    status.setRollbackOnly();
+                    return false;
+                }
+                archivoRepository.registrar(tabla, mes, nombre, archivo.huella().filas(), archivo.bytes(), archivo.solicitudes());
+                particionesRepository.eliminar(particion);
+                return true;
+            });
+        } catch (DataAccessException ex) {
+            archivoHistorico.eliminar(nombre);
+            log.warn("Could not detach partition {}, will retry: {}", particion, ex.getMessage());
+            return false;
+        }
+        if (!Boolean.TRUE.equals(archivada)) {
+            archivoHistorico.eliminar(nombre);
+            log.info("Partition {} changed while it was being archived, will retry", particion);
+            return false;
+        }
+        log.info("Archived partition {}. Rows: {}, Solicitudes: {}, Bytes: {}, File: {}", particion, archivo.huella().filas(),
+                archivo.solicitudes().size(), archivo.bytes(), nombre);
+        return true;
+    }
+
+    public record ResultadoMantenimiento(int particionesCreadas, int particionesArchivadas, int particionesFallidas) {
+    }
+}
\ No newline at end of file
@@ -0,0 +1,228 @@
+package com.banquito.originacion.analisis.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.banquito.originacion.analisis.archivo.TablaParticionada;
+import com.banquito.originacion.analisis.concurrency.SolicitudLockManager;
+import com.banquito.originacion.analisis.enums.EstadoHistorialEnum;
+import com.banquito.originacion.analisis.exception.HistorialEstadosNotFoundException;
+import com.banquito.originacion.analisis.model.HistorialEstados;
+import com.banquito.originacion.analisis.model.SolicitudEstadoActual;
+import com.banquito.originacion.analisis.replica.RuteoReplica;
+import com.banquito.originacion.analisis.repository.ArchivoRepository;
+import com.banquito.originacion.analisis.repository.HistorialEstadosRepository;
+import com.banquito.originacion.analisis.repository.SolicitudEstadoActualRepository;
+import com.banquito.originacion.analisis.repository.SolicitudEstadoActualRepository.ConteoPorEstado;
+import com.banquito.originacion.analisis.repository.VistaRepository;
+import com.banquito.originacion.analisis.vista.HistorialEstadosVista;
+
+import io.micrometer.core.annotation.Timed;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+// Consultas de solo lectura; registrar y recalcular se unen a la transacción de escritura del historial
+@Service
+@Transactional(readOnly = true)
+@Timed(value = "analisis.service", histogram = true)
+public class SolicitudEstadoActualService {
+    
+    private static final Logger log = LoggerFactory.getLogger(SolicitudEstadoActualService.class);
+    
+    private final SolicitudEstadoActualRepository solicitudEstadoActualRepository;
+    private final HistorialEstadosRepository historialEstadosRepository;
+    private final VistaRepository vistaRepository;
+    private final SolicitudLockManager solicitudLockManager;
+    private final TransactionTemplate transactionTemplate;
+    private final int tamanioLote;
+    private final RuteoReplica ruteoReplica;
+    private final ArchivoRepository archivoRepository;
+    
+    public SolicitudEstadoActualService(SolicitudEstadoActualRepository solicitudEstadoActualRepository,
+            HistorialEstadosRepository historialEstadosRepository, VistaRepository vistaRepository, SolicitudLockManager solicitudLockManager,
+            PlatformTransactionManager transactionManager,
+            @Value("${analisis.proyeccion.estado-actual.tamanio-lote:500}") int tamanioLote, RuteoReplica ruteoReplica,
+            ArchivoRepository archivoRepository) {
+        if (tamanioLote <= 0) {
+            throw new IllegalArgumentException("El tamaño de lote de la reconstrucción debe ser mayor a cero");
+        }
+        this.solicitudEstadoActualRepository = solicitudEstadoActualRepository;
+        this.historialEstadosRepository = historialEstadosRepository;
+        this.vistaRepository = vistaRepository;
+        this.solicitudLockManager = solicitudLockManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.tamanioLote = tamanioLote;
+        this.ruteoReplica = ruteoReplica;
+        this.archivoRepository = archivoRepository;
+    }
+    
+    public Optional<SolicitudEstadoActual> findById(Integer idSolicitud) {
+        return solicitudEstadoActualRepository.findById(idSolicitud);
+    }
+    
+    public List<SolicitudEstadoActual> findAllById(Collection<Integer> idsSolicitud) {
+        return solicitudEstadoActualRepository.findAllById(idsSolicitud);
+    }
+    
+    public SolicitudEstadoActual findByIdSolicitud(Integer idSolicitud) {
+        ruteoReplica.leerSolicitud(idSolicitud);
+        log.info("Attempting to find current state for solicitud: {}", idSolicitud);
+        Optional<SolicitudEstadoActual> estadoActual = solicitudEstadoActualRepository.findById(idSolicitud);
+        if (estadoActual.isEmpty()) {
+            log.warn("Current state for solicitud {} not found.", idSolicitud);
+            throw new HistorialEstadosNotFoundException(idSolicitud.toString(), "ID de solicitud");
+        }
+        return estadoActual.get();
+    }
+    
+    public Window<HistorialEstadosVista> findByEstado(EstadoHistorialEnum estado, KeysetScrollPosition position, Sort sort, int size) {
+        return vistaRepository.findEstadoActualByEstado(estado, position, sort, size);
+    }
+    
+    public Page<SolicitudEstadoActual> findByEstadoPaginated(EstadoHistorialEnum estado, Pageable pageable) {
+        return solicitudEstadoActualRepository.findByEstado(estado, pageable);
+    }
+    
+    public Map<EstadoHistorialEnum, Long> contarPorEstado() {
+        Map<EstadoHistorialEnum, Long> conteo = new EnumMap<>(EstadoHistorialEnum.class);
+        for (EstadoHistorialEnum estado : EstadoHistorialEnum.values()) {
+            conteo.put(estado, 0L);
+        }
+        for (ConteoPorEstado fila : solicitudEstadoActualRepository.countGroupByEstado()) {
+            conteo.put(fila.getEstado(), fila.getTotal());
+        }
+        return conteo;
+    }
+    
+    // Se invoca dentro de la transacción que inserta el historial y con el lock de la solicitud tomado
+    @Transactional
+    public void registrar(HistorialEstados historial) {
+        registrar(List.of(historial));
+    }
+    
+    @Transactional
+    public void registrar(Collection<HistorialEstados> historiales) {
+        if (historiales.isEmpty()) {
+            return;
+        }
+        Map<Integer, HistorialEstados> ultimos = new HashMap<>();
+        for (HistorialEstados historial : historiales) {
+            ultimos.merge(historial.getIdSolicitud(), historial, (actual, nuevo) -> esMasReciente(nuevo, actual) ? nuevo : actual);
+        }
+        Map<Integer, SolicitudEstadoActual> existentes = new HashMap<>();
+        for (SolicitudEstadoActual estadoActual : solicitudEstadoActualRepository.findAllById(ultimos.keySet())) {
+            existentes.put(estadoActual.getIdSolicitud(), estadoActual);
+        }
+        List<SolicitudEstadoActual> nuevas = new ArrayList<>();
+        for (HistorialEstados historial : ultimos.values()) {
+            SolicitudEstadoActual existente = existentes.get(historial.getIdSolicitud());
+            if (existente == null) {
+                nuevas.add(SolicitudEstadoActual.nueva(historial));
+            } else if (existente.esAnteriorA(historial)) {
+                // Entidad administrada: el UPDATE se emite en el flush
+                existente.actualizarDesde(historial);
+            }
+        }
+        solicitudEstadoActualRepository.saveAll(nuevas);
+    }
+    
+    // Recalcula desde historial_estados las solicitudes cuyo registro más reciente pudo cambiar (edición o borrado)
+    @Transactional
+    public void recalcular(Collection<Integer> idsSolicitud) {
+        if (idsSolicitud.isEmpty()) {
+            return;
+        }
+        Map<Integer, HistorialEstados> ultimos = new HashMap<>();
+        for (HistorialEstados historial : historialEstadosRepository.findLatestByIdSolicitudIn(idsSolicitud)) {
+            ultimos.merge(historial.getIdSolicitud(), historial, (actual, nuevo) -> esMasReciente(nuevo, actual) ? nuevo : actual);
+        }
+        Map<Integer, SolicitudEstadoActual> existentes = new HashMap<>();
+        for (SolicitudEstadoActual estadoActual : solicitudEstadoActualRepository.findAllById(idsSolicitud)) {
+            existentes.put(estadoActual.getIdSolicitud(), estadoActual);
+        }
+        List<SolicitudEstadoActual> nuevas = new ArrayList<>();
+        List<SolicitudEstadoActual> sinHistorial = new ArrayList<>();
+        for (Integer idSolicitud : new HashSet<>(idsSolicitud)) {
+            HistorialEstados ultimo = ultimos.get(idSolicitud);
+            SolicitudEstadoActual existente = existentes.get(idSolicitud);
+            if (ultimo == null) {
+                if (existente != null) {
+                    sinHistorial.add(existente);
+                }
+            } else if (existente == null) {
+                nuevas.add(SolicitudEstadoActual.nueva(ultimo));
+            } else {
+                existente.actualizarDesde(ultimo);
+            }
+        }
+        if (!sinHistorial.isEmpty()) {
+            // Sin filas en la base pero con meses archivados: el último registro está en el archivo y no cambió
+            Set<Integer> archivadas = archivoRepository.findIdsSolicitudArchivados(TablaParticionada.HISTORIAL_ESTADOS,
+                    sinHistorial.stream().map(SolicitudEstadoActual::getIdSolicitud).toList());
+            sinHistorial.removeIf(estadoActual -> archivadas.contains(estadoActual.getIdSolicitud()));
+        }
+        solicitudEstadoActualRepository.saveAll(nuevas);
+        solicitudEstadoActualRepository.deleteAll(sinHistorial);
+    }
+    
+    // Reproduce historial_estados por lotes de solicitudes, cada lote en su propia transacción,
+    // para no mantener abierta una transacción larga ni bloquear todas las solicitudes a la vez
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public ResultadoReconstruccion reconstruir() {
+        log.info("Rebuilding solicitud_estado_actual projection in batches of {}", tamanioLote);
+        long inicio = System.currentTimeMillis();
+        int solicitudes = 0;
+        int lotes = 0;
+        Integer desde = Integer.MIN_VALUE;
+        while (true) {
+            List<Integer> idsSolicitud = solicitudEstadoActualRepository.findIdsSolicitudConHistorial(desde, Limit.of(tamanioLote));
+            if (idsSolicitud.isEmpty()) {
+                break;
+            }
+            transactionTemplate.executeWithoutResult(status -> {
+                solicitudLockManager.lockForTransaction(idsSolicitud);
+                recalcular(idsSolicitud);
+            });
+            solicitudes += idsSolicitud.size();
+            lotes++;
+            desde = idsSolicitud.get(idsSolicitud.size() - 1);
+            log.debug("Rebuilt batch {} up to solicitud {}", lotes, desde);
+        }
+        Integer eliminadas = transactionTemplate.execute(status -> solicitudEstadoActualRepository.deleteSinHistorial());
+        long duracionMs = System.currentTimeMillis() - inicio;
+        log.info("Projection rebuilt. Solicitudes: {}, Batches: {}, Orphans removed: {}, Duration: {} ms", solicitudes, lotes, eliminadas, duracionMs);
+        return new ResultadoReconstruccion(solicitudes, lotes, eliminadas == null ? 0 : eliminadas, duracionMs);
+    }
+    
+    private boolean esMasReciente(HistorialEstados nuevo, HistorialEstados actual) {
+        int comparacion = nuevo.getFechaHora().compareTo(actual.getFechaHora());
+        if (comparacion != 0) {
+            return comparacion > 0;
+        }
+        return nuevo.getVersion() > actual.getVersion();
+    }
+    
+    public record ResultadoReconstruccion(int solicitudes, int lotes, int eliminadas, long duracionMs) {
+    }
+}
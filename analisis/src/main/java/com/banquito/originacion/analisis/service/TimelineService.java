@@ -0,0 +1,172 @@
+package com.banquito.originacion.analisis.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.banquito.originacion.analisis.enums.TipoEventoTimelineEnum;
+import com.banquito.originacion.analisis.pagination.KeysetPagination;
+import com.banquito.originacion.analisis.replica.RuteoReplica;
+import com.banquito.originacion.analisis.repository.HistorialEstadosRepository;
+import com.banquito.originacion.analisis.repository.HuellaRegistros;
+import com.banquito.originacion.analisis.repository.ObservacionAnalistasRepository;
+import com.banquito.originacion.analisis.timeline.CursorTimeline;
+import com.banquito.originacion.analisis.timeline.EventoTimeline;
+import com.banquito.originacion.analisis.timeline.MezclaOrdenada;
+
+import io.micrometer.core.annotation.Timed;
+
+@Service
+@Timed(value = "analisis.service", histogram = true)
+public class TimelineService {
+
+    private static final Logger log = LoggerFactory.getLogger(TimelineService.class);
+
+    private static final String ID_HISTORIAL = "idHistorial";
+    private static final String ID_OBSERVACION = "idObservacionAnalista";
+
+    private final HistorialEstadosRepository historialEstadosRepository;
+    private final ObservacionAnalistasRepository observacionAnalistasRepository;
+    private final AsyncTaskExecutor executor;
+    private final TransactionTemplate lectura;
+    private final RuteoReplica ruteoReplica;
+    private final ArchivoHistoricoService archivoHistoricoService;
+
+    public TimelineService(HistorialEstadosRepository historialEstadosRepository,
+            ObservacionAnalistasRepository observacionAnalistasRepository,
+            @Qualifier("applicationTaskExecutor") AsyncTaskExecutor executor,
+            PlatformTransactionManager transactionManager, RuteoReplica ruteoReplica,
+            ArchivoHistoricoService archivoHistoricoService) {
+        this.historialEstadosRepository = historialEstadosRepository;
+        this.observacionAnalistasRepository = observacionAnalistasRepository;
+        this.executor = executor;
+        this.lectura = new TransactionTemplate(transactionManager);
+        this.lectura.setReadOnly(true);
+        this.ruteoReplica = ruteoReplica;
+        this.archivoHistoricoService = archivoHistoricoService;
+    }
+
+    // El hilo del request no abre transacción: cada fuente toma su propia conexión en el executor, así nunca
+    // se retiene una conexión del pool mientras se espera otra
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public PaginaTimeline findTimeline(Integer idSolicitud, CursorTimeline cursor, int size) {
+        log.info("Finding timeline for idSolicitud: {}. Size: {}, Cursor: {}", idSolicitud, size, cursor);
+        Limit limite = Limit.of(size);
+
+        CompletableFuture<Window<EventoTimeline>> estados = consultar(idSolicitud, () -> historialEstadosRepository
+                .findTimelineByIdSolicitud(idSolicitud, posicion(cursor, TipoEventoTimelineEnum.ESTADO, ID_HISTORIAL),
+                        orden(ID_HISTORIAL), limite)
+                .map(EventoTimeline::of));
+        CompletableFuture<Window<EventoTimeline>> observaciones = consultar(idSolicitud, () -> observacionAnalistasRepository
+                .findTimelineByIdSolicitud(idSolicitud, posicion(cursor, TipoEventoTimelineEnum.OBSERVACION, ID_OBSERVACION),
+                        orden(ID_OBSERVACION), limite)
+                .map(EventoTimeline::of));
+
+        Window<EventoTimeline> ventanaEstados = esperar(estados);
+        Window<EventoTimeline> ventanaObservaciones = esperar(observaciones);
+
+        List<List<EventoTimeline>> fuentes = new ArrayList<>(List.of(ventanaEstados.getContent(), ventanaObservaciones.getContent()));
+        // Los meses archivados de una fuente son anteriores a todo lo que queda de ella en la base: el archivo solo
+        // se consulta cuando la ventana de la base ya no tiene página siguiente
+        if (!ventanaEstados.hasNext() || !ventanaObservaciones.hasNext()) {
+            fuentes.addAll(esperar(consultar(idSolicitud, () -> archivados(idSolicitud, cursor, size,
+                    !ventanaEstados.hasNext(), !ventanaObservaciones.hasNext()))));
+        }
+        List<EventoTimeline> eventos = MezclaOrdenada.mezclar(fuentes, EventoTimeline.ORDEN, size);
+        // Cada fuente trae hasta size eventos, así que los size primeros de la mezcla siempre están entre ellos
+        int leidos = 0;
+        for (List<EventoTimeline> fuente : fuentes) {
+            leidos += fuente.size();
+        }
+        boolean hayMas = leidos > eventos.size() || ventanaEstados.hasNext() || ventanaObservaciones.hasNext();
+        String nextCursor = hayMas && !eventos.isEmpty()
+                ? CursorTimeline.of(eventos.get(eventos.size() - 1)).codificar()
+                : null;
+        return new PaginaTimeline(eventos, nextCursor);
+    }
+
+    // Dos agregaciones sobre los índices por solicitud: cambian con cualquier alta, edición o eliminación,
+    // así que identifican todas las páginas de la línea de tiempo sin leer los eventos
+    @Transactional(readOnly = true)
+    public String huella(Integer idSolicitud) {
+        ruteoReplica.leerSolicitud(idSolicitud);
+        HuellaRegistros estados = historialEstadosRepository.findHuellaByIdSolicitud(idSolicitud);
+        HuellaRegistros observaciones = observacionAnalistasRepository.findHuellaByIdSolicitud(idSolicitud);
+        return estados.getCantidad() + ":" + estados.getUltimoId() + ":" + estados.getSumaVersiones() + "|"
+                + observaciones.getCantidad() + ":" + observaciones.getUltimoId() + ":" + observaciones.getSumaVersiones();
+    }
+
+    private List<List<EventoTimeline>> archivados(Integer idSolicitud, CursorTimeline cursor, int size,
+            boolean estados, boolean observaciones) {
+        List<List<EventoTimeline>> fuentes = new ArrayList<>(2);
+        if (estados) {
+            fuentes.add(posteriores(archivoHistoricoService.findHistorial(idSolicitud), EventoTimeline::of, cursor, size));
+        }
+        if (observaciones) {
+            fuentes.add(posteriores(archivoHistoricoService.findObservaciones(idSolicitud), EventoTimeline::of, cursor, size));
+        }
+        return fuentes;
+    }
+
+    // El archivo ya viene en el orden de la línea de tiempo; uno de más, como en las ventanas, indica si hay más
+    private static <T> List<EventoTimeline> posteriores(List<T> filas, Function<T, EventoTimeline> evento,
+            CursorTimeline cursor, int size) {
+        List<EventoTimeline> eventos = new ArrayList<>();
+        for (T fila : filas) {
+            EventoTimeline candidato = evento.apply(fila);
+            if (cursor == null || cursor.precede(candidato)) {
+                eventos.add(candidato);
+                if (eventos.size() > size) {
+                    break;
+                }
+            }
+        }
+        return eventos;
+    }
+
+    private <T> CompletableFuture<T> consultar(Integer idSolicitud, Supplier<T> consulta) {
+        return CompletableFuture.supplyAsync(() -> lectura.execute(status -> {
+            ruteoReplica.leerSolicitud(idSolicitud);
+            return consulta.get();
+        }), executor);
+    }
+
+    private <T> T esperar(CompletableFuture<T> futuro) {
+        try {
+            return futuro.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            throw ex;
+        }
+    }
+
+    private static ScrollPosition posicion(CursorTimeline cursor, TipoEventoTimelineEnum tipo, String idProperty) {
+        return cursor == null ? ScrollPosition.keyset() : cursor.posicion(tipo, idProperty);
+    }
+
+    private static Sort orden(String idProperty) {
+        return Sort.by(Sort.Direction.DESC, KeysetPagination.FECHA_HORA, idProperty);
+    }
+
+    public record PaginaTimeline(List<EventoTimeline> eventos, String nextCursor) {
+    }
+}
\ No newline at end of file
@@ -0,0 +1,278 @@
+package com.banquito.originacion.analisis.sse;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.banquito.originacion.analisis.enums.EstadoHistorialEnum;
+import com.banquito.originacion.analisis.outbox.EventoTransicion;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+// Difunde a los clientes SSE las transiciones confirmadas en esta instancia. Cada evento se serializa una vez y se
+// entrega solo a los suscriptores de su solicitud o de sus estados; un suscriptor cuya cola se llena se desconecta y
+// puede reanudar con Last-Event-ID mientras el evento siga entre los retenidos
+@Component
+public class DifusionTransiciones {
+
+    private static final Logger log = LoggerFactory.getLogger(DifusionTransiciones.class);
+
+    static final String EVENTO_TRANSICION = "transicion";
+    // El cliente debe recargar el estado por REST: no se pueden reponer los eventos desde su último id
+    static final String EVENTO_REINICIO = "reinicio";
+
+    private final ObjectMapper objectMapper;
+    private final int capacidadSuscriptor;
+    private final int eventosRetenidos;
+    private final long timeoutMs;
+    private final long latidoMs;
+    // Prefijo de los ids: un Last-Event-ID de un arranque anterior no se confunde con los de este
+    private final String arranque = Long.toString(System.currentTimeMillis(), 36);
+
+    // Protege la secuencia, los retenidos y los índices; dentro solo se encola, nunca se escribe en un socket
+    private final ReentrantLock lock = new ReentrantLock();
+    private long secuencia;
+    private final ArrayDeque<EventoSse> retenidos = new ArrayDeque<>();
+    private final Map<Integer, Set<SuscriptorTransiciones>> porSolicitud = new HashMap<>();
+    private final Map<EstadoHistorialEnum, Set<SuscriptorTransiciones>> porEstado = new EnumMap<>(EstadoHistorialEnum.class);
+
+    private final AtomicInteger suscriptores = new AtomicInteger();
+    private final Counter descartados;
+
+    public DifusionTransiciones(ObjectMapper objectMapper, MeterRegistry meterRegistry,
+            @Value("${analisis.stream.capacidad-suscriptor:256}") int capacidadSuscriptor,
+            @Value("${analisis.stream.eventos-retenidos:10000}") int eventosRetenidos,
+            @Value("${analisis.stream.timeout-ms:1800000}") long timeoutMs,
+            @Value("${analisis.stream.latido-ms:15000}") long latidoMs) {
+        if (capacidadSuscriptor <= 0 || eventosRetenidos < 0) {
+            throw new IllegalArgumentException("La capacidad por suscriptor debe ser mayor a cero y los eventos retenidos no negativos");
+        }
+        this.objectMapper = objectMapper;
+        this.capacidadSuscriptor = capacidadSuscriptor;
+        this.eventosRetenidos = eventosRetenidos;
+        this.timeoutMs = timeoutMs;
+        this.latidoMs = latidoMs;
+        Gauge.builder("analisis.stream.suscriptores", suscriptores, AtomicInteger::get)
+                .description("Clientes SSE conectados al stream de transiciones").register(meterRegistry);
+        this.descartados = Counter.builder("analisis.stream.descartados")
+                .description("Clientes SSE desconectados por no consumir los eventos a tiempo").register(meterRegistry);
+        log.info("DifusionTransiciones initialized. SubscriberCapacity: {}, RetainedEvents: {}, TimeoutMs: {}",
+                capacidadSuscriptor, eventosRetenidos, timeoutMs);
+    }
+
+    public SseEmitter suscribirSolicitud(Integer idSolicitud, String ultimoId) {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        suscribir(emitter, idSolicitud, null, ultimoId);
+        return emitter;
+    }
+
+    public SseEmitter suscribirEstado(EstadoHistorialEnum estado, String ultimoId) {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        suscribir(emitter, null, estado, ultimoId);
+        return emitter;
+    }
+
+    // Se difunde solo si la transacción se confirma
+    public void publicarAfterCommit(List<EventoTransicion> eventos) {
+        if (eventos.isEmpty()) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    publicar(eventos);
+                }
+            });
+        } else {
+            publicar(eventos);
+        }
+    }
+
+    // Al iniciar el cierre, antes del apagado ordenado del servidor: un stream abierto cuenta como request activo
+    @EventListener(ContextClosedEvent.class)
+    public void cerrarSuscripciones() {
+        List<SuscriptorTransiciones> abiertos = new ArrayList<>();
+        lock.lock();
+        try {
+            porSolicitud.values().forEach(abiertos::addAll);
+            porEstado.values().forEach(abiertos::addAll);
+        } finally {
+            lock.unlock();
+        }
+        abiertos.forEach(SuscriptorTransiciones::cerrar);
+    }
+
+    public int getSuscriptores() {
+        return suscriptores.get();
+    }
+
+    void suscribir(SseEmitter emitter, Integer idSolicitud, EstadoHistorialEnum estado, String ultimoId) {
+        SuscriptorTransiciones suscriptor = new SuscriptorTransiciones(this, emitter, idSolicitud, estado,
+                capacidadSuscriptor, latidoMs);
+        emitter.onCompletion(suscriptor::cerrar);
+        emitter.onTimeout(suscriptor::cerrar);
+        emitter.onError(ex -> suscriptor.cerrar());
+        lock.lock();
+        try {
+            // Reposición e índice bajo el mismo lock: ningún evento se pierde ni se duplica entre ambos
+            if (ultimoId != null && !ultimoId.isBlank()) {
+                reponer(suscriptor, ultimoId.trim());
+            }
+            if (idSolicitud != null) {
+                porSolicitud.computeIfAbsent(idSolicitud, k -> new LinkedHashSet<>()).add(suscriptor);
+            } else {
+                porEstado.computeIfAbsent(estado, k -> new LinkedHashSet<>()).add(suscriptor);
+            }
+        } finally {
+            lock.unlock();
+        }
+        suscriptores.incrementAndGet();
+        suscriptor.iniciar();
+        log.debug("SSE subscriber registered. Solicitud: {}, Estado: {}, LastEventId: {}", idSolicitud, estado, ultimoId);
+    }
+
+    void retirar(SuscriptorTransiciones suscriptor) {
+        boolean retirado;
+        lock.lock();
+        try {
+            retirado = suscriptor.getIdSolicitud() != null
+                    ? quitar(porSolicitud, suscriptor.getIdSolicitud(), suscriptor)
+                    : quitar(porEstado, suscriptor.getEstado(), suscriptor);
+        } finally {
+            lock.unlock();
+        }
+        if (retirado) {
+            suscriptores.decrementAndGet();
+        }
+    }
+
+    void publicar(List<EventoTransicion> eventos) {
+        List<String> datos = new ArrayList<>(eventos.size());
+        for (EventoTransicion evento : eventos) {
+            datos.add(serializar(evento));
+        }
+        Set<SuscriptorTransiciones> desbordados = new LinkedHashSet<>();
+        lock.lock();
+        try {
+            for (int i = 0; i < eventos.size(); i++) {
+                EventoTransicion evento = eventos.get(i);
+                long numero = ++secuencia;
+                EventoSse sse = new EventoSse(numero, id(numero), EVENTO_TRANSICION, evento.idSolicitud(), evento.estado(),
+                        evento.estadoAnterior(), datos.get(i));
+                retener(sse);
+                entregar(porSolicitud.get(evento.idSolicitud()), sse, desbordados);
+                entregar(porEstado.get(evento.estado()), sse, desbordados);
+                if (evento.estadoAnterior() != null && evento.estadoAnterior() != evento.estado()) {
+                    entregar(porEstado.get(evento.estadoAnterior()), sse, desbordados);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        for (SuscriptorTransiciones suscriptor : desbordados) {
+            descartados.increment();
+            log.warn("SSE subscriber dropped: queue of {} events full. Solicitud: {}, Estado: {}",
+                    capacidadSuscriptor, suscriptor.getIdSolicitud(), suscriptor.getEstado());
+            retirar(suscriptor);
+            suscriptor.cerrar();
+        }
+    }
+
+    private void entregar(Set<SuscriptorTransiciones> conjunto, EventoSse evento, Set<SuscriptorTransiciones> desbordados) {
+        if (conjunto == null) {
+            return;
+        }
+        for (SuscriptorTransiciones suscriptor : conjunto) {
+            if (!suscriptor.ofrecer(evento)) {
+                desbordados.add(suscriptor);
+            }
+        }
+    }
+
+    private void reponer(SuscriptorTransiciones suscriptor, String ultimoId) {
+        long ultimo = secuenciaDe(ultimoId);
+        long primeroRetenido = retenidos.isEmpty() ? secuencia + 1 : retenidos.peekFirst().secuencia();
+        List<EventoSse> pendientes = new ArrayList<>();
+        boolean reanudable = ultimo >= 0 && ultimo >= primeroRetenido - 1 && ultimo <= secuencia;
+        if (reanudable) {
+            for (EventoSse evento : retenidos) {
+                if (evento.secuencia() > ultimo && suscriptor.acepta(evento)) {
+                    pendientes.add(evento);
+                }
+            }
+        }
+        if (!reanudable || pendientes.size() > capacidadSuscriptor) {
+            // Con el id actual: si el cliente se reconecta después de recargar, continúa desde aquí
+            suscriptor.ofrecer(new EventoSse(secuencia, id(secuencia), EVENTO_REINICIO, null, null, null, "{}"));
+            return;
+        }
+        pendientes.forEach(suscriptor::ofrecer);
+    }
+
+    private long secuenciaDe(String ultimoId) {
+        int separador = ultimoId.lastIndexOf('-');
+        if (separador <= 0 || !ultimoId.substring(0, separador).equals(arranque)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(ultimoId.substring(separador + 1));
+        } catch (NumberFormatException ex) {
+            return -1;
+        }
+    }
+
+    private void retener(EventoSse evento) {
+        if (eventosRetenidos == 0) {
+            return;
+        }
+        if (retenidos.size() == eventosRetenidos) {
+            retenidos.removeFirst();
+        }
+        retenidos.addLast(evento);
+    }
+
+    private String id(long numero) {
+        return arranque + "-" + numero;
+    }
+
+    private String serializar(EventoTransicion evento) {
+        try {
+            return objectMapper.writeValueAsString(evento);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("No se pudo serializar el evento de transición", ex);
+        }
+    }
+
+    private static <K> boolean quitar(Map<K, Set<SuscriptorTransiciones>> indice, K clave, SuscriptorTransiciones suscriptor) {
+        Set<SuscriptorTransiciones> conjunto = indice.get(clave);
+        if (conjunto == null || !conjunto.remove(suscriptor)) {
+            return false;
+        }
+        if (conjunto.isEmpty()) {
+            indice.remove(clave);
+        }
+        return true;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,8 @@
+package com.banquito.originacion.analisis.sse;
+
+import com.banquito.originacion.analisis.enums.EstadoHistorialEnum;
+
+// Evento ya serializado una sola vez, compartido por todos los suscriptores que lo reciben
+record EventoSse(long secuencia, String id, String nombre, Integer idSolicitud, EstadoHistorialEnum estado,
+        EstadoHistorialEnum estadoAnterior, String datos) {
+}
\ No newline at end of file
@@ -0,0 +1,102 @@
+package com.banquito.originacion.analisis.sse;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.banquito.originacion.analisis.enums.EstadoHistorialEnum;
+
+// Cola acotada por suscriptor y un hilo virtual que la vacía hacia el cliente: la escritura en el socket puede
+// bloquearse, la publicación no
+final class SuscriptorTransiciones implements Runnable {
+
+    private static final Logger log = LoggerFactory.getLogger(SuscriptorTransiciones.class);
+
+    private final DifusionTransiciones difusion;
+    private final SseEmitter emitter;
+    private final Integer idSolicitud;
+    private final EstadoHistorialEnum estado;
+    private final BlockingQueue<EventoSse> cola;
+    private final long latidoMs;
+    private volatile boolean activo = true;
+    private volatile Thread hilo;
+
+    SuscriptorTransiciones(DifusionTransiciones difusion, SseEmitter emitter, Integer idSolicitud, EstadoHistorialEnum estado,
+            int capacidad, long latidoMs) {
+        this.difusion = difusion;
+        this.emitter = emitter;
+        this.idSolicitud = idSolicitud;
+        this.estado = estado;
+        this.cola = new ArrayBlockingQueue<>(capacidad);
+        this.latidoMs = latidoMs;
+    }
+
+    Integer getIdSolicitud() {
+        return idSolicitud;
+    }
+
+    EstadoHistorialEnum getEstado() {
+        return estado;
+    }
+
+    // Por estado se reciben las entradas y las salidas, para seguir una cola de trabajo
+    boolean acepta(EventoSse evento) {
+        if (idSolicitud != null) {
+            return idSolicitud.equals(evento.idSolicitud());
+        }
+        return estado == evento.estado() || estado == evento.estadoAnterior();
+    }
+
+    // No bloquea: false si la cola está llena
+    boolean ofrecer(EventoSse evento) {
+        return cola.offer(evento);
+    }
+
+    void iniciar() {
+        hilo = Thread.ofVirtual().name("sse-transiciones").start(this);
+    }
+
+    // El envío en curso termina por su cuenta; los eventos que queden en la cola se descartan
+    void cerrar() {
+        activo = false;
+        Thread actual = hilo;
+        if (actual != null) {
+            actual.interrupt();
+        }
+    }
+
+    @Override
+    public void run() {
+        try {
+            while (activo) {
+                EventoSse evento = cola.poll(latidoMs, TimeUnit.MILLISECONDS);
+                if (!activo) {
+                    break;
+                }
+                if (evento == null) {
+                    // Comentario SSE: mantiene viva la conexión y detecta clientes que ya se fueron
+                    emitter.send(SseEmitter.event().comment("latido"));
+                } else {
+                    emitter.send(SseEmitter.event().id(evento.id()).name(evento.nombre()).data(evento.datos(), MediaType.APPLICATION_JSON));
+                }
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } catch (Exception ex) {
+            log.debug("SSE subscriber disconnected: {}", ex.getMessage());
+        } finally {
+            activo = false;
+            difusion.retirar(this);
+            try {
+                emitter.complete();
+            } catch (Exception ex) {
+                log.debug("SSE emitter already completed: {}", ex.getMessage());
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,71 @@
+package com.banquito.originacion.analisis.statemachine;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import com.banquito.originacion.analisis.config.TransicionesProperties;
+import com.banquito.originacion.analisis.enums.EstadoHistorialEnum;
+
+@Component
+public class EstadoHistorialStateMachine {
+
+    private static final Logger log = LoggerFactory.getLogger(EstadoHistorialStateMachine.class);
+
+    private static final EstadoHistorialEnum[] ESTADOS = EstadoHistorialEnum.values();
+
+    // Fila por estado origen; el bit i indica si se permite pasar al estado de ordinal i
+    private final int[] matriz = new int[ESTADOS.length];
+    private final Map<EstadoHistorialEnum, Set<EstadoHistorialEnum>> siguientes = new EnumMap<>(EstadoHistorialEnum.class);
+    private final EstadoHistorialEnum estadoInicial;
+
+    public EstadoHistorialStateMachine(TransicionesProperties properties) {
+        if (properties.getEstadoInicial() == null) {
+            throw new IllegalStateException("Debe configurarse analisis.transiciones.estado-inicial");
+        }
+        this.estadoInicial = properties.getEstadoInicial();
+        Map<EstadoHistorialEnum, Set<EstadoHistorialEnum>> reglas = properties.getPermitidas().isEmpty()
+                ? TransicionesProperties.reglasPorDefecto()
+                : properties.getPermitidas();
+        for (EstadoHistorialEnum origen : ESTADOS) {
+            Set<EstadoHistorialEnum> destinos = reglas.get(origen);
+            EnumSet<EstadoHistorialEnum> permitidos = destinos == null || destinos.isEmpty()
+                    ? EnumSet.noneOf(EstadoHistorialEnum.class)
+                    : EnumSet.copyOf(destinos);
+            for (EstadoHistorialEnum destino : permitidos) {
+                matriz[origen.ordinal()] |= 1 << destino.ordinal();
+            }
+            siguientes.put(origen, Collections.unmodifiableSet(permitidos));
+        }
+        log.info("EstadoHistorialStateMachine initialized. Initial state: {}, Transitions: {}", estadoInicial, siguientes);
+    }
+
+    public boolean esTransicionValida(EstadoHistorialEnum estadoActual, EstadoHistorialEnum nuevoEstado) {
+        if (estadoActual == null || nuevoEstado == null) {
+            return false;
+        }
+        return (matriz[estadoActual.ordinal()] & (1 << nuevoEstado.ordinal())) != 0;
+    }
+
+    public boolean esEstadoFinal(EstadoHistorialEnum estado) {
+        return estado != null && matriz[estado.ordinal()] == 0;
+    }
+
+    public Set<EstadoHistorialEnum> getSiguientesEstados(EstadoHistorialEnum estado) {
+        return siguientes.get(estado);
+    }
+
+    public Map<EstadoHistorialEnum, Set<EstadoHistorialEnum>> getTransiciones() {
+        return Collections.unmodifiableMap(siguientes);
+    }
+
+    public EstadoHistorialEnum getEstadoInicial() {
+        return estadoInicial;
+    }
+}
@@ -0,0 +1,57 @@
+package com.banquito.originacion.analisis.timeline;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.Map;
+
+import org.springframework.data.domain.ScrollPosition;
+
+import com.banquito.originacion.analisis.enums.TipoEventoTimelineEnum;
+import com.banquito.originacion.analisis.exception.InvalidCursorException;
+import com.banquito.originacion.analisis.pagination.KeysetPagination;
+
+// Último evento entregado; cada fuente se retoma desde aquí con su propio keyset (fechaHora, id)
+public record CursorTimeline(LocalDateTime fechaHora, TipoEventoTimelineEnum tipo, Integer id) {
+
+    private static final String VERSION_CURSOR = "t1";
+    private static final String SEPARADOR = "|";
+
+    public static CursorTimeline of(EventoTimeline evento) {
+        return new CursorTimeline(evento.fechaHora(), evento.tipo(), evento.id());
+    }
+
+    public static CursorTimeline decodificar(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String[] partes = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\" + SEPARADOR, -1);
+            if (partes.length != 4 || !VERSION_CURSOR.equals(partes[0])) {
+                throw new InvalidCursorException("El cursor no es válido");
+            }
+            return new CursorTimeline(LocalDateTime.parse(partes[1]), TipoEventoTimelineEnum.valueOf(partes[2]), Integer.valueOf(partes[3]));
+        } catch (IllegalArgumentException | DateTimeParseException ex) {
+            throw new InvalidCursorException("El cursor no es válido");
+        }
+    }
+
+    public String codificar() {
+        String valor = String.join(SEPARADOR, VERSION_CURSOR, fechaHora.toString(), tipo.name(), String.valueOf(id));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(valor.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Si el evento va después del cursor en EventoTimeline.ORDEN, es decir, si aún no se entregó
+    public boolean precede(EventoTimeline evento) {
+        return EventoTimeline.ORDEN.compare(new EventoTimeline(tipo, id, fechaHora, null, null), evento) < 0;
+    }
+
+    // Posición para la fuente de eventos del tipo indicado. Con la misma fecha, los eventos de un tipo anterior
+    // al del cursor ya se entregaron y los de un tipo posterior aún no: se excluyen o incluyen todos con el id extremo
+    public ScrollPosition posicion(TipoEventoTimelineEnum tipoFuente, String idProperty) {
+        int comparacion = tipoFuente.compareTo(tipo);
+        Integer idDesde = comparacion == 0 ? id : comparacion > 0 ? Integer.MAX_VALUE : Integer.MIN_VALUE;
+        return ScrollPosition.forward(Map.of(KeysetPagination.FECHA_HORA, fechaHora, idProperty, idDesde));
+    }
+}
\ No newline at end of file
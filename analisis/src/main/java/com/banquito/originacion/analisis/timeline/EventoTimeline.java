@@ -0,0 +1,57 @@
+package com.banquito.originacion.analisis.timeline;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+
+import com.banquito.originacion.analisis.enums.TipoEventoTimelineEnum;
+import com.banquito.originacion.analisis.model.HistorialEstados;
+import com.banquito.originacion.analisis.model.ObservacionAnalistas;
+import com.banquito.originacion.analisis.vista.HistorialEstadosVista;
+import com.banquito.originacion.analisis.vista.ObservacionAnalistasVista;
+
+// Evento de la línea de tiempo de una solicitud: un cambio de estado o una observación de analista
+public record EventoTimeline(
+        TipoEventoTimelineEnum tipo,
+        Integer id,
+        LocalDateTime fechaHora,
+        HistorialEstados historial,
+        ObservacionAnalistas observacion) {
+
+    // Más reciente primero; ante la misma fecha, por tipo y luego por id descendente (orden total para el cursor)
+    public static final Comparator<EventoTimeline> ORDEN = Comparator
+            .comparing(EventoTimeline::fechaHora, Comparator.reverseOrder())
+            .thenComparing(EventoTimeline::tipo)
+            .thenComparing(EventoTimeline::id, Comparator.reverseOrder());
+
+    public static EventoTimeline of(HistorialEstados historial) {
+        return new EventoTimeline(TipoEventoTimelineEnum.ESTADO, historial.getIdHistorial(), historial.getFechaHora(),
+                historial, null);
+    }
+
+    public static EventoTimeline of(ObservacionAnalistas observacion) {
+        return new EventoTimeline(TipoEventoTimelineEnum.OBSERVACION, observacion.getIdObservacionAnalista(),
+                observacion.getFechaHora(), null, observacion);
+    }
+
+    // Filas leídas del archivo histórico: entidades armadas desde la vista, nunca asociadas a un EntityManager
+    public static EventoTimeline of(HistorialEstadosVista vista) {
+        HistorialEstados historial = new HistorialEstados(vista.idHistorial());
+        historial.setIdSolicitud(vista.idSolicitud());
+        historial.setEstado(vista.estado());
+        historial.setFechaHora(vista.fechaHora());
+        historial.setUsuario(vista.usuario());
+        historial.setMotivo(vista.motivo());
+        historial.setVersion(vista.version());
+        return of(historial);
+    }
+
+    public static EventoTimeline of(ObservacionAnalistasVista vista) {
+        ObservacionAnalistas observacion = new ObservacionAnalistas(vista.idObservacionAnalista());
+        observacion.setIdSolicitud(vista.idSolicitud());
+        observacion.setUsuario(vista.usuario());
+        observacion.setFechaHora(vista.fechaHora());
+        observacion.setRazonIntervencion(vista.razonIntervencion());
+        observacion.setVersion(vista.version());
+        return of(observacion);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,37 @@
+package com.banquito.originacion.analisis.timeline;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+// Mezcla k-way de listas ya ordenadas: O(n log k) usando un heap con la cabeza de cada fuente
+public final class MezclaOrdenada {
+
+    private MezclaOrdenada() {
+    }
+
+    public static <T> List<T> mezclar(List<? extends List<? extends T>> fuentes, Comparator<? super T> orden, int limite) {
+        PriorityQueue<Cabeza<T>> heap = new PriorityQueue<>(Math.max(1, fuentes.size()),
+                (a, b) -> orden.compare(a.valor, b.valor));
+        for (List<? extends T> fuente : fuentes) {
+            Iterator<? extends T> iterador = fuente.iterator();
+            if (iterador.hasNext()) {
+                heap.add(new Cabeza<>(iterador.next(), iterador));
+            }
+        }
+        List<T> resultado = new ArrayList<>(limite);
+        while (!heap.isEmpty() && resultado.size() < limite) {
+            Cabeza<T> cabeza = heap.poll();
+            resultado.add(cabeza.valor);
+            if (cabeza.iterador.hasNext()) {
+                heap.add(new Cabeza<>(cabeza.iterador.next(), cabeza.iterador));
+            }
+        }
+        return resultado;
+    }
+
+    private record Cabeza<T>(T valor, Iterator<? extends T> iterador) {
+    }
+}
\ No newline at end of file
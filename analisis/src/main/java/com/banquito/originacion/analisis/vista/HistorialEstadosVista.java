@@ -0,0 +1,29 @@
+package com.banquito.originacion.analisis.vista;
+
+import java.time.LocalDateTime;
+
+import com.banquito.originacion.analisis.enums.EstadoHistorialEnum;
+import com.fasterxml.jackson.annotation.JsonFormat;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+// Proyección de solo lectura: la consulta construye el registro directamente desde las columnas, sin cargar la
+// entidad en el contexto de persistencia, y se serializa tal cual con el mismo JSON que HistorialEstadosDTO
+@Schema(description = "Historial de estados de una solicitud")
+public record HistorialEstadosVista(
+        @Schema(description = "ID del historial", example = "1")
+        Integer idHistorial,
+        @Schema(description = "ID de la solicitud", example = "12345")
+        Integer idSolicitud,
+        @Schema(description = "Estado del historial", example = "EnRevision")
+        EstadoHistorialEnum estado,
+        @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+        @Schema(description = "Fecha y hora del cambio de estado", example = "2024-01-15 10:30:00")
+        LocalDateTime fechaHora,
+        @Schema(description = "Usuario que realizó el cambio", example = "analista01")
+        String usuario,
+        @Schema(description = "Motivo del cambio de estado", example = "Solicitud en revisión inicial")
+        String motivo,
+        @Schema(description = "Versión del registro", example = "1")
+        long version) {
+}
\ No newline at end of file
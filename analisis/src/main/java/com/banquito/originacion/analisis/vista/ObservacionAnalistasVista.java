@@ -0,0 +1,25 @@
+package com.banquito.originacion.analisis.vista;
+
+import java.time.LocalDateTime;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+// Mismo JSON que ObservacionAnalistasDTO, construido por la consulta sin pasar por la entidad
+@Schema(description = "Observación de un analista")
+public record ObservacionAnalistasVista(
+        @Schema(description = "ID de la observación", example = "1")
+        Integer idObservacionAnalista,
+        @Schema(description = "ID de la solicitud", example = "12345")
+        Integer idSolicitud,
+        @Schema(description = "Usuario que realizó la observación", example = "analista01")
+        String usuario,
+        @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+        @Schema(description = "Fecha y hora de la observación", example = "2024-01-15 10:30:00")
+        LocalDateTime fechaHora,
+        @Schema(description = "Razón de la intervención del analista", example = "Se requiere documentación adicional para completar el análisis de riesgo crediticio")
+        String razonIntervencion,
+        @Schema(description = "Versión del registro", example = "1")
+        long version) {
+}
\ No newline at end of file
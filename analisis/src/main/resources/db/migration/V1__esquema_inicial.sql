@@ -0,0 +1,26 @@
+-- Esquema original (antes generado por ddl-auto=update). Las bases existentes se registran
+-- como baseline en esta versión (spring.flyway.baseline-on-migrate) y no la ejecutan.
+CREATE SCHEMA IF NOT EXISTS analisis_creditos;
+
+CREATE TABLE IF NOT EXISTS analisis_creditos.historial_estados (
+    id_historial INTEGER GENERATED BY DEFAULT AS IDENTITY,
+    id_solicitud INTEGER NOT NULL,
+    estado VARCHAR(255) NOT NULL,
+    fecha_hora TIMESTAMP(6) NOT NULL,
+    usuario VARCHAR(50) NOT NULL,
+    motivo VARCHAR(120) NOT NULL,
+    version NUMERIC(9, 0) NOT NULL,
+    CONSTRAINT historial_estados_pkey PRIMARY KEY (id_historial),
+    CONSTRAINT historial_estados_estado_check
+        CHECK (estado IN ('Borrador', 'EnRevision', 'Aprobada', 'Rechazada', 'Cancelada'))
+);
+
+CREATE TABLE IF NOT EXISTS analisis_creditos.observacion_analistas (
+    id_observacion_analista INTEGER GENERATED BY DEFAULT AS IDENTITY,
+    id_solicitud INTEGER NOT NULL,
+    usuario VARCHAR(50) NOT NULL,
+    fecha_hora TIMESTAMP(6) NOT NULL,
+    razon_intervencion VARCHAR(500) NOT NULL,
+    version NUMERIC(9, 0) NOT NULL,
+    CONSTRAINT observacion_analistas_pkey PRIMARY KEY (id_observacion_analista)
+);
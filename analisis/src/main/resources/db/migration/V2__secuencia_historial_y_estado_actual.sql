@@ -0,0 +1,25 @@
+-- Ids de historial por secuencia agrupada (allocationSize = 50) para permitir inserts en lote
+CREATE SEQUENCE IF NOT EXISTS analisis_creditos.historial_estados_seq INCREMENT BY 50;
+
+-- Alinea la secuencia con los ids existentes; Hibernate reserva los 50 ids anteriores al valor obtenido
+SELECT setval('analisis_creditos.historial_estados_seq',
+        GREATEST((SELECT COALESCE(MAX(id_historial), 0) FROM analisis_creditos.historial_estados) + 50,
+                 (SELECT last_value FROM analisis_creditos.historial_estados_seq)),
+        false);
+
+-- Proyección con el último registro de historial de cada solicitud
+CREATE TABLE IF NOT EXISTS analisis_creditos.solicitud_estado_actual (
+    id_solicitud INTEGER NOT NULL,
+    id_historial INTEGER NOT NULL,
+    estado VARCHAR(255) NOT NULL,
+    fecha_hora TIMESTAMP(6) NOT NULL,
+    usuario VARCHAR(50) NOT NULL,
+    motivo VARCHAR(120) NOT NULL,
+    version NUMERIC(9, 0) NOT NULL,
+    CONSTRAINT solicitud_estado_actual_pkey PRIMARY KEY (id_solicitud),
+    CONSTRAINT solicitud_estado_actual_estado_check
+        CHECK (estado IN ('Borrador', 'EnRevision', 'Aprobada', 'Rechazada', 'Cancelada'))
+);
+
+CREATE INDEX IF NOT EXISTS idx_solicitud_estado_actual_estado
+    ON analisis_creditos.solicitud_estado_actual (estado, id_solicitud);
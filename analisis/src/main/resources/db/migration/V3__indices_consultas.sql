@@ -0,0 +1,31 @@
+-- Índices para los finders de los repositorios. CONCURRENTLY evita bloquear escrituras
+-- mientras se construyen sobre tablas grandes (Flyway ejecuta esta migración fuera de transacción).
+
+-- findByIdSolicitud*, findFirstByIdSolicitudOrderByFechaHoraDesc, findLatestByIdSolicitudIn,
+-- findByIdSolicitudAndEstado (pocas filas por solicitud) y el recorrido de ids de la reconstrucción
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_historial_estados_solicitud_fecha
+    ON analisis_creditos.historial_estados (id_solicitud, fecha_hora DESC);
+
+-- findByEstado y exportación filtrada por estado y rango de fechas
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_historial_estados_estado_fecha
+    ON analisis_creditos.historial_estados (estado, fecha_hora);
+
+-- findByUsuario
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_historial_estados_usuario_fecha
+    ON analisis_creditos.historial_estados (usuario, fecha_hora DESC);
+
+-- Paginación por cursor (fechaHora + id) y exportación por rango de fechas
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_historial_estados_fecha_id
+    ON analisis_creditos.historial_estados (fecha_hora, id_historial);
+
+-- findByIdSolicitud*, findByIdSolicitudAndUsuario
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_observacion_analistas_solicitud_fecha
+    ON analisis_creditos.observacion_analistas (id_solicitud, fecha_hora DESC);
+
+-- findByUsuario*
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_observacion_analistas_usuario_fecha
+    ON analisis_creditos.observacion_analistas (usuario, fecha_hora DESC);
+
+-- Paginación por cursor y exportación por rango de fechas
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_observacion_analistas_fecha_id
+    ON analisis_creditos.observacion_analistas (fecha_hora, id_observacion_analista);
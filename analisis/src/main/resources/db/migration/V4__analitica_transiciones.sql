@@ -0,0 +1,36 @@
+-- Transiciones derivadas de historial_estados: una por registro que tiene un estado previo en su solicitud.
+-- Guarda la contribución de cada solicitud al resumen diario para poder restarla cuando su historial cambia.
+CREATE TABLE IF NOT EXISTS analisis_creditos.analitica_transicion (
+    id_historial INTEGER NOT NULL,
+    id_solicitud INTEGER NOT NULL,
+    dia DATE NOT NULL,
+    estado_desde VARCHAR(20) NOT NULL,
+    estado_hacia VARCHAR(20) NOT NULL,
+    duracion_segundos BIGINT NOT NULL,
+    CONSTRAINT analitica_transicion_pkey PRIMARY KEY (id_historial)
+);
+
+CREATE INDEX IF NOT EXISTS idx_analitica_transicion_solicitud
+    ON analisis_creditos.analitica_transicion (id_solicitud);
+
+-- Resumen diario por par de estados con un histograma logarítmico del tiempo en el estado de origen
+CREATE TABLE IF NOT EXISTS analisis_creditos.analitica_transicion_diaria (
+    dia DATE NOT NULL,
+    estado_desde VARCHAR(20) NOT NULL,
+    estado_hacia VARCHAR(20) NOT NULL,
+    cubeta SMALLINT NOT NULL,
+    cantidad BIGINT NOT NULL,
+    duracion_total_segundos BIGINT NOT NULL,
+    CONSTRAINT analitica_transicion_diaria_pkey PRIMARY KEY (dia, estado_desde, estado_hacia, cubeta)
+);
+
+-- Solicitudes cuyo historial cambió y aún no se reflejan en el resumen
+CREATE TABLE IF NOT EXISTS analisis_creditos.analitica_solicitud_pendiente (
+    id_solicitud INTEGER NOT NULL,
+    CONSTRAINT analitica_solicitud_pendiente_pkey PRIMARY KEY (id_solicitud)
+);
+
+-- El historial existente se procesa en segundo plano por el proceso programado de analítica
+INSERT INTO analisis_creditos.analitica_solicitud_pendiente (id_solicitud)
+SELECT DISTINCT id_solicitud FROM analisis_creditos.historial_estados
+ON CONFLICT DO NOTHING;
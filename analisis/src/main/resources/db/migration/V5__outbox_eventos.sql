@@ -0,0 +1,18 @@
+-- Outbox de transiciones de estado: cada alta de historial inserta su evento en la misma transacción y el relay
+-- lo publica y lo elimina. El id sale de la secuencia al insertar, con el lock de la solicitud tomado, por lo que
+-- respeta el orden de las transiciones de cada solicitud.
+CREATE SEQUENCE IF NOT EXISTS analisis_creditos.evento_outbox_seq;
+
+CREATE TABLE IF NOT EXISTS analisis_creditos.evento_outbox (
+    id_evento BIGINT NOT NULL,
+    id_solicitud INTEGER NOT NULL,
+    id_historial INTEGER NOT NULL,
+    estado_anterior VARCHAR(20),
+    estado VARCHAR(20) NOT NULL,
+    fecha_hora TIMESTAMP(6) NOT NULL,
+    usuario VARCHAR(50) NOT NULL,
+    motivo VARCHAR(120) NOT NULL,
+    version BIGINT NOT NULL,
+    fecha_registro TIMESTAMP(6) NOT NULL,
+    CONSTRAINT evento_outbox_pkey PRIMARY KEY (id_evento)
+);
\ No newline at end of file
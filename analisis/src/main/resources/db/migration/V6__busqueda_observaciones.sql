@@ -0,0 +1,6 @@
+-- Búsqueda de texto sobre razon_intervencion. La columna generada guarda el tsvector ya calculado: PostgreSQL
+-- la mantiene en cada INSERT y UPDATE, y el ranking la lee sin volver a analizar el texto de cada fila.
+-- Agregar una columna STORED reescribe la tabla; el índice GIN se crea en la migración siguiente, fuera de transacción.
+ALTER TABLE analisis_creditos.observacion_analistas
+    ADD COLUMN IF NOT EXISTS razon_tsv tsvector
+    GENERATED ALWAYS AS (to_tsvector('spanish', razon_intervencion)) STORED;
\ No newline at end of file
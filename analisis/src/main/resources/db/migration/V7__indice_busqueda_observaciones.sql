@@ -0,0 +1,3 @@
+-- BusquedaObservacionesRepository.buscar: razon_tsv @@ consulta
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_observacion_analistas_razon_tsv
+    ON analisis_creditos.observacion_analistas USING GIN (razon_tsv);
\ No newline at end of file
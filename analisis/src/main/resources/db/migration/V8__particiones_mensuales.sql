@@ -0,0 +1,149 @@
+-- historial_estados y observacion_analistas pasan a particionarse por mes sobre fecha_hora. Las consultas con rango o
+-- con orden por fecha y límite solo recorren los meses que necesitan, y cada mes cerrado puede archivarse y
+-- eliminarse completo (ArchivoHistoricoService) en lugar de borrar filas que luego debe recorrer el vacuum.
+-- Las tablas se copian dentro de esta migración: en bases grandes conviene ejecutarla en una ventana de mantenimiento.
+
+-- Crea la partición del mes indicado si no existe; la usan esta migración y ParticionesService
+CREATE OR REPLACE FUNCTION analisis_creditos.crear_particion_mensual(tabla TEXT, mes DATE)
+RETURNS BOOLEAN
+LANGUAGE plpgsql
+AS $$
+DECLARE
+    inicio DATE := date_trunc('month', mes)::DATE;
+    particion TEXT := tabla || '_' || to_char(inicio, 'YYYY_MM');
+BEGIN
+    IF to_regclass(format('analisis_creditos.%I', particion)) IS NOT NULL THEN
+        RETURN FALSE;
+    END IF;
+    EXECUTE format('CREATE TABLE analisis_creditos.%I PARTITION OF analisis_creditos.%I FOR VALUES FROM (%L) TO (%L)',
+            particion, tabla, inicio, (inicio + INTERVAL '1 month')::DATE);
+    RETURN TRUE;
+END;
+$$;
+
+-- La tabla anterior se conserva hasta copiar sus filas; sus índices y su clave primaria liberan los nombres
+ALTER TABLE analisis_creditos.historial_estados RENAME TO historial_estados_anterior;
+ALTER TABLE analisis_creditos.historial_estados_anterior RENAME CONSTRAINT historial_estados_pkey TO historial_estados_anterior_pkey;
+DROP INDEX IF EXISTS analisis_creditos.idx_historial_estados_solicitud_fecha;
+DROP INDEX IF EXISTS analisis_creditos.idx_historial_estados_estado_fecha;
+DROP INDEX IF EXISTS analisis_creditos.idx_historial_estados_usuario_fecha;
+DROP INDEX IF EXISTS analisis_creditos.idx_historial_estados_fecha_id;
+
+ALTER TABLE analisis_creditos.observacion_analistas RENAME TO observacion_analistas_anterior;
+ALTER TABLE analisis_creditos.observacion_analistas_anterior RENAME CONSTRAINT observacion_analistas_pkey TO observacion_analistas_anterior_pkey;
+DROP INDEX IF EXISTS analisis_creditos.idx_observacion_analistas_solicitud_fecha;
+DROP INDEX IF EXISTS analisis_creditos.idx_observacion_analistas_usuario_fecha;
+DROP INDEX IF EXISTS analisis_creditos.idx_observacion_analistas_fecha_id;
+DROP INDEX IF EXISTS analisis_creditos.idx_observacion_analistas_razon_tsv;
+
+-- Los ids de historial salen de historial_estados_seq
+CREATE TABLE analisis_creditos.historial_estados (
+    id_historial INTEGER NOT NULL,
+    id_solicitud INTEGER NOT NULL,
+    estado VARCHAR(255) NOT NULL,
+    fecha_hora TIMESTAMP(6) NOT NULL,
+    usuario VARCHAR(50) NOT NULL,
+    motivo VARCHAR(120) NOT NULL,
+    version NUMERIC(9, 0) NOT NULL,
+    CONSTRAINT historial_estados_estado_check
+        CHECK (estado IN ('Borrador', 'EnRevision', 'Aprobada', 'Rechazada', 'Cancelada'))
+) PARTITION BY RANGE (fecha_hora);
+
+CREATE TABLE analisis_creditos.observacion_analistas (
+    id_observacion_analista INTEGER GENERATED BY DEFAULT AS IDENTITY,
+    id_solicitud INTEGER NOT NULL,
+    usuario VARCHAR(50) NOT NULL,
+    fecha_hora TIMESTAMP(6) NOT NULL,
+    razon_intervencion VARCHAR(500) NOT NULL,
+    version NUMERIC(9, 0) NOT NULL,
+    razon_tsv tsvector GENERATED ALWAYS AS (to_tsvector('spanish', razon_intervencion)) STORED
+) PARTITION BY RANGE (fecha_hora);
+
+-- Fechas fuera de los meses creados (cargas con fechas antiguas o muy adelantadas) caen en la partición por defecto
+CREATE TABLE analisis_creditos.historial_estados_default PARTITION OF analisis_creditos.historial_estados DEFAULT;
+CREATE TABLE analisis_creditos.observacion_analistas_default PARTITION OF analisis_creditos.observacion_analistas DEFAULT;
+
+-- Un mes por cada mes con datos y los tres siguientes al actual; el proceso programado mantiene los meses adelantados
+DO $$
+DECLARE
+    mes DATE;
+BEGIN
+    FOR mes IN
+        SELECT DISTINCT date_trunc('month', fecha_hora)::DATE FROM analisis_creditos.historial_estados_anterior
+        UNION
+        SELECT generate_series(date_trunc('month', LOCALTIMESTAMP), date_trunc('month', LOCALTIMESTAMP) + INTERVAL '3 months',
+                INTERVAL '1 month')::DATE
+    LOOP
+        PERFORM analisis_creditos.crear_particion_mensual('historial_estados', mes);
+    END LOOP;
+    FOR mes IN
+        SELECT DISTINCT date_trunc('month', fecha_hora)::DATE FROM analisis_creditos.observacion_analistas_anterior
+        UNION
+        SELECT generate_series(date_trunc('month', LOCALTIMESTAMP), date_trunc('month', LOCALTIMESTAMP) + INTERVAL '3 months',
+                INTERVAL '1 month')::DATE
+    LOOP
+        PERFORM analisis_creditos.crear_particion_mensual('observacion_analistas', mes);
+    END LOOP;
+END;
+$$;
+
+INSERT INTO analisis_creditos.historial_estados (id_historial, id_solicitud, estado, fecha_hora, usuario, motivo, version)
+SELECT id_historial, id_solicitud, estado, fecha_hora, usuario, motivo, version
+FROM analisis_creditos.historial_estados_anterior;
+
+INSERT INTO analisis_creditos.observacion_analistas (id_observacion_analista, id_solicitud, usuario, fecha_hora, razon_intervencion, version)
+SELECT id_observacion_analista, id_solicitud, usuario, fecha_hora, razon_intervencion, version
+FROM analisis_creditos.observacion_analistas_anterior;
+
+SELECT setval(pg_get_serial_sequence('analisis_creditos.observacion_analistas', 'id_observacion_analista'),
+        COALESCE((SELECT MAX(id_observacion_analista) FROM analisis_creditos.observacion_analistas), 0) + 1, false);
+
+DROP TABLE analisis_creditos.historial_estados_anterior;
+DROP TABLE analisis_creditos.observacion_analistas_anterior;
+
+-- La clave primaria de una tabla particionada debe incluir la columna de partición. Los ids siguen saliendo de
+-- una secuencia, pero su unicidad ya no la verifica un índice global
+ALTER TABLE analisis_creditos.historial_estados
+    ADD CONSTRAINT historial_estados_pkey PRIMARY KEY (id_historial, fecha_hora);
+ALTER TABLE analisis_creditos.observacion_analistas
+    ADD CONSTRAINT observacion_analistas_pkey PRIMARY KEY (id_observacion_analista, fecha_hora);
+
+-- Los mismos índices de V3 y V7, ahora creados en cada partición (las nuevas los heredan al crearse)
+CREATE INDEX idx_historial_estados_solicitud_fecha
+    ON analisis_creditos.historial_estados (id_solicitud, fecha_hora DESC);
+CREATE INDEX idx_historial_estados_estado_fecha
+    ON analisis_creditos.historial_estados (estado, fecha_hora);
+CREATE INDEX idx_historial_estados_usuario_fecha
+    ON analisis_creditos.historial_estados (usuario, fecha_hora DESC);
+CREATE INDEX idx_historial_estados_fecha_id
+    ON analisis_creditos.historial_estados (fecha_hora, id_historial);
+CREATE INDEX idx_observacion_analistas_solicitud_fecha
+    ON analisis_creditos.observacion_analistas (id_solicitud, fecha_hora DESC);
+CREATE INDEX idx_observacion_analistas_usuario_fecha
+    ON analisis_creditos.observacion_analistas (usuario, fecha_hora DESC);
+CREATE INDEX idx_observacion_analistas_fecha_id
+    ON analisis_creditos.observacion_analistas (fecha_hora, id_observacion_analista);
+CREATE INDEX idx_observacion_analistas_razon_tsv
+    ON analisis_creditos.observacion_analistas USING GIN (razon_tsv);
+
+-- Meses ya archivados: el archivo NDJSON comprimido de cada partición eliminada
+CREATE TABLE analisis_creditos.particion_archivada (
+    tabla VARCHAR(40) NOT NULL,
+    mes DATE NOT NULL,
+    archivo VARCHAR(500) NOT NULL,
+    filas BIGINT NOT NULL,
+    bytes BIGINT NOT NULL,
+    fecha_archivo TIMESTAMP(6) NOT NULL,
+    CONSTRAINT particion_archivada_pkey PRIMARY KEY (tabla, mes)
+);
+
+-- Dónde está cada solicitud dentro del archivo de un mes: un miembro gzip propio que se lee sin descomprimir el resto
+CREATE TABLE analisis_creditos.solicitud_archivada (
+    tabla VARCHAR(40) NOT NULL,
+    id_solicitud INTEGER NOT NULL,
+    mes DATE NOT NULL,
+    desplazamiento BIGINT NOT NULL,
+    longitud INTEGER NOT NULL,
+    filas INTEGER NOT NULL,
+    CONSTRAINT solicitud_archivada_pkey PRIMARY KEY (tabla, id_solicitud, mes)
+);
\ No newline at end of file
@@ -0,0 +1,52 @@
+package com.banquito.originacion.analisis.analitica;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class HistogramaDuracionesTest {
+
+    @Test
+    void percentilesQuedanDentroDelErrorDeLaCubeta() {
+        Random random = new Random(42);
+        long[] duraciones = new long[10_000];
+        HistogramaDuraciones histograma = new HistogramaDuraciones();
+        for (int i = 0; i < duraciones.length; i++) {
+            // Entre un minuto y unas dos semanas, con cola larga
+            duraciones[i] = 60 + (long) Math.exp(random.nextDouble() * 14);
+            histograma.agregar(HistogramaDuraciones.cubeta(duraciones[i]), 1, duraciones[i]);
+        }
+        Arrays.sort(duraciones);
+
+        for (double cuantil : new double[] { 0.5, 0.9, 0.95, 0.99 }) {
+            double real = duraciones[(int) Math.ceil(cuantil * duraciones.length) - 1];
+            double estimado = histograma.percentil(cuantil);
+            assertTrue(Math.abs(estimado - real) / real < 0.19, "p" + cuantil + " real " + real + " estimado " + estimado);
+        }
+        assertEquals(duraciones.length, histograma.getTotal());
+        assertEquals(Arrays.stream(duraciones).average().orElseThrow(), histograma.getPromedioSegundos(), 1e-6);
+    }
+
+    @Test
+    void combinarHistogramasEquivaleASumarCubetas() {
+        HistogramaDuraciones enero = new HistogramaDuraciones();
+        HistogramaDuraciones febrero = new HistogramaDuraciones();
+        HistogramaDuraciones total = new HistogramaDuraciones();
+        for (long segundos = 0; segundos < 5_000; segundos += 7) {
+            HistogramaDuraciones mes = segundos % 2 == 0 ? enero : febrero;
+            mes.agregar(HistogramaDuraciones.cubeta(segundos), 1, segundos);
+            total.agregar(HistogramaDuraciones.cubeta(segundos), 1, segundos);
+        }
+        enero.agregar(febrero);
+
+        assertEquals(total.getTotal(), enero.getTotal());
+        assertEquals(total.percentil(0.9), enero.percentil(0.9));
+        assertEquals(0, new HistogramaDuraciones().percentil(0.5));
+        assertEquals(0, HistogramaDuraciones.cubeta(0));
+        assertEquals(HistogramaDuraciones.CUBETAS - 1, HistogramaDuraciones.cubeta(Long.MAX_VALUE));
+    }
+}
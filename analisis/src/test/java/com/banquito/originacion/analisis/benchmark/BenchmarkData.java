@@ -0,0 +1,47 @@
+package com.banquito.originacion.analisis.benchmark;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.banquito.originacion.analisis.enums.EstadoHistorialEnum;
+import com.banquito.originacion.analisis.model.HistorialEstados;
+import com.banquito.originacion.analisis.model.ObservacionAnalistas;
+
+final class BenchmarkData {
+
+    private static final LocalDateTime FECHA_BASE = LocalDateTime.of(2024, 1, 15, 10, 30);
+
+    private BenchmarkData() {
+    }
+
+    static List<HistorialEstados> historiales(int cantidad) {
+        EstadoHistorialEnum[] estados = EstadoHistorialEnum.values();
+        List<HistorialEstados> historiales = new ArrayList<>(cantidad);
+        for (int i = 0; i < cantidad; i++) {
+            HistorialEstados historial = new HistorialEstados(i + 1);
+            historial.setIdSolicitud(10_000 + i / 3);
+            historial.setEstado(estados[i % estados.length]);
+            historial.setFechaHora(FECHA_BASE.plusMinutes(i));
+            historial.setUsuario("analista" + (i % 20));
+            historial.setMotivo("Cambio de estado generado para el benchmark número " + i);
+            historial.setVersion(i % 3 + 1);
+            historiales.add(historial);
+        }
+        return historiales;
+    }
+
+    static List<ObservacionAnalistas> observaciones(int cantidad) {
+        List<ObservacionAnalistas> observaciones = new ArrayList<>(cantidad);
+        for (int i = 0; i < cantidad; i++) {
+            ObservacionAnalistas observacion = new ObservacionAnalistas(i + 1);
+            observacion.setIdSolicitud(10_000 + i / 3);
+            observacion.setUsuario("analista" + (i % 20));
+            observacion.setFechaHora(FECHA_BASE.plusMinutes(i));
+            observacion.setRazonIntervencion("Se requiere documentación adicional para completar el análisis de riesgo crediticio " + i);
+            observacion.setVersion(1);
+            observaciones.add(observacion);
+        }
+        return observaciones;
+    }
+}
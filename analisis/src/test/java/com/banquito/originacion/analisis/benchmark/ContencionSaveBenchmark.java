@@ -0,0 +1,130 @@
+package com.banquito.originacion.analisis.benchmark;
+
+import static com.banquito.originacion.analisis.support.HistorialEstadosFixtures.nuevo;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.banquito.originacion.analisis.AnalisisApplication;
+import com.banquito.originacion.analisis.enums.EstadoHistorialEnum;
+import com.banquito.originacion.analisis.exception.InvalidTransitionException;
+import com.banquito.originacion.analisis.model.HistorialEstados;
+import com.banquito.originacion.analisis.service.HistorialEstadosService;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+
+// Throughput de HistorialEstadosService.save con todos los hilos sobre la misma solicitud (se serializan en el lock por
+// franjas y en pg_advisory_xact_lock) frente a una solicitud por hilo. El número de hilos se elige con -t
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ContencionSaveBenchmark {
+
+    private static final int SOLICITUD_COMPARTIDA = 1;
+
+    @State(Scope.Benchmark)
+    public static class Contexto {
+
+        // h2 solo pasa por el lock por franjas; sirve donde PostgreSQL no puede arrancar (como root)
+        @Param({ "postgres", "h2" })
+        String base;
+
+        EmbeddedPostgres postgres;
+        ConfigurableApplicationContext context;
+        HistorialEstadosService service;
+        final AtomicInteger solicitudes = new AtomicInteger(SOLICITUD_COMPARTIDA);
+        // Último estado conocido de la solicitud compartida; puede estar desactualizado
+        volatile EstadoHistorialEnum estadoCompartido = EstadoHistorialEnum.Borrador;
+
+        @Setup
+        public void setup() throws IOException {
+            List<String> argumentos = new ArrayList<>(List.of(
+                    // Se mide la espera por el lock, no por conexiones ni por el timeout que responde 409
+                    "--analisis.historial.lock.timeout-ms=60000",
+                    "--spring.datasource.hikari.maximum-pool-size=40"));
+            if ("postgres".equals(base)) {
+                postgres = EmbeddedPostgres.builder().start();
+                argumentos.addAll(List.of(
+                        "--spring.datasource.url=" + postgres.getJdbcUrl("postgres", "postgres"),
+                        "--spring.datasource.username=postgres",
+                        "--spring.datasource.password=",
+                        "--spring.datasource.driver-class-name=org.postgresql.Driver",
+                        "--spring.flyway.enabled=true",
+                        "--spring.jpa.hibernate.ddl-auto=validate",
+                        "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.PostgreSQLDialect",
+                        "--analisis.historial.lock.advisory=true"));
+            }
+            // Como argumentos de línea de comandos para que prevalezcan sobre application-test.properties
+            context = new SpringApplicationBuilder(AnalisisApplication.class)
+                    .web(WebApplicationType.NONE)
+                    .profiles("test")
+                    .properties("logging.config=classpath:logback-test.xml")
+                    .run(argumentos.toArray(String[]::new));
+            service = context.getBean(HistorialEstadosService.class);
+            service.save(nuevo(SOLICITUD_COMPARTIDA, EstadoHistorialEnum.Borrador));
+        }
+
+        @TearDown
+        public void tearDown() throws IOException {
+            context.close();
+            if (postgres != null) {
+                postgres.close();
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class SolicitudPropia {
+
+        Integer idSolicitud;
+        EstadoHistorialEnum siguiente = EstadoHistorialEnum.EnRevision;
+
+        @Setup
+        public void setup(Contexto contexto) {
+            idSolicitud = contexto.solicitudes.incrementAndGet();
+            contexto.service.save(nuevo(idSolicitud, EstadoHistorialEnum.Borrador));
+        }
+    }
+
+    // Cada operación confirma una transición Borrador <-> EnRevision. Si otro hilo ya la hizo, el save se rechaza al
+    // validar contra la base y se reintenta con la contraria: el rechazo también pasa por los locks y cuenta en la medición
+    @Benchmark
+    public HistorialEstados mismaSolicitud(Contexto contexto) {
+        while (true) {
+            EstadoHistorialEnum siguiente = alternar(contexto.estadoCompartido);
+            try {
+                HistorialEstados guardado = contexto.service.save(nuevo(SOLICITUD_COMPARTIDA, siguiente));
+                contexto.estadoCompartido = siguiente;
+                return guardado;
+            } catch (InvalidTransitionException ex) {
+                contexto.estadoCompartido = siguiente;
+            }
+        }
+    }
+
+    @Benchmark
+    public HistorialEstados solicitudesDistintas(Contexto contexto, SolicitudPropia solicitud) {
+        HistorialEstados guardado = contexto.service.save(nuevo(solicitud.idSolicitud, solicitud.siguiente));
+        solicitud.siguiente = alternar(solicitud.siguiente);
+        return guardado;
+    }
+
+    private static EstadoHistorialEnum alternar(EstadoHistorialEnum estado) {
+        return estado == EstadoHistorialEnum.Borrador ? EstadoHistorialEnum.EnRevision : EstadoHistorialEnum.Borrador;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,47 @@
+package com.banquito.originacion.analisis.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.banquito.originacion.analisis.config.TransicionesProperties;
+import com.banquito.originacion.analisis.enums.EstadoHistorialEnum;
+import com.banquito.originacion.analisis.service.HistorialEstadosService;
+import com.banquito.originacion.analisis.statemachine.EstadoHistorialStateMachine;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class EstadoTransicionBenchmark {
+
+    private HistorialEstadosService service;
+    private EstadoHistorialEnum[] estados;
+
+    @Setup
+    public void setup() {
+        // validarTransicionEstado solo usa la máquina de estados
+        service = new HistorialEstadosService(null, null, null, null, null, new EstadoHistorialStateMachine(new TransicionesProperties()), null, null, null, null, null, null, null, null);
+        estados = EstadoHistorialEnum.values();
+    }
+
+    @Benchmark
+    public void validarTodasLasTransiciones(Blackhole blackhole) {
+        for (EstadoHistorialEnum actual : estados) {
+            for (EstadoHistorialEnum nuevo : estados) {
+                blackhole.consume(service.validarTransicionEstado(actual, nuevo));
+            }
+        }
+    }
+
+    @Benchmark
+    public boolean validarTransicionPermitida() {
+        return service.validarTransicionEstado(EstadoHistorialEnum.EnRevision, EstadoHistorialEnum.Aprobada);
+    }
+}
@@ -0,0 +1,80 @@
+package com.banquito.originacion.analisis.benchmark;
+
+import static com.banquito.originacion.analisis.support.HistorialEstadosFixtures.nuevo;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.banquito.originacion.analisis.AnalisisApplication;
+import com.banquito.originacion.analisis.enums.EstadoHistorialEnum;
+import com.banquito.originacion.analisis.model.HistorialEstados;
+import com.banquito.originacion.analisis.service.HistorialEstadosService;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class HistorialEstadosSaveBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Contexto {
+
+        ConfigurableApplicationContext context;
+        HistorialEstadosService service;
+        final AtomicInteger solicitudes = new AtomicInteger();
+
+        @Setup
+        public void setup() {
+            // Contexto completo sobre H2 en memoria (perfil test), sin servidor web
+            context = new SpringApplicationBuilder(AnalisisApplication.class)
+                    .web(WebApplicationType.NONE)
+                    .profiles("test")
+                    .properties("logging.config=classpath:logback-test.xml")
+                    .run();
+            service = context.getBean(HistorialEstadosService.class);
+        }
+
+        @TearDown
+        public void tearDown() {
+            context.close();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Solicitud {
+
+        Integer idSolicitud;
+        EstadoHistorialEnum siguiente = EstadoHistorialEnum.EnRevision;
+
+        @Setup
+        public void setup(Contexto contexto) {
+            idSolicitud = 1_000_000 + contexto.solicitudes.incrementAndGet();
+            contexto.service.save(nuevo(idSolicitud, EstadoHistorialEnum.Borrador));
+        }
+    }
+
+    @Benchmark
+    public HistorialEstados saveEstadoInicial(Contexto contexto) {
+        return contexto.service.save(nuevo(contexto.solicitudes.incrementAndGet(), EstadoHistorialEnum.Borrador));
+    }
+
+    @Benchmark
+    public HistorialEstados saveTransicion(Contexto contexto, Solicitud solicitud) {
+        // Ciclo válido Borrador -> EnRevision -> Borrador sobre la misma solicitud
+        HistorialEstados guardado = contexto.service.save(nuevo(solicitud.idSolicitud, solicitud.siguiente));
+        solicitud.siguiente = solicitud.siguiente == EstadoHistorialEnum.EnRevision
+                ? EstadoHistorialEnum.Borrador
+                : EstadoHistorialEnum.EnRevision;
+        return guardado;
+    }
+}
@@ -0,0 +1,73 @@
+package com.banquito.originacion.analisis.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.banquito.originacion.analisis.cache.HistorialJsonCache;
+import com.banquito.originacion.analisis.cache.HistorialJsonModule;
+import com.banquito.originacion.analisis.controller.dto.HistorialEstadosDTO;
+import com.banquito.originacion.analisis.controller.dto.ObservacionAnalistasDTO;
+import com.banquito.originacion.analisis.controller.mapper.HistorialEstadosMapper;
+import com.banquito.originacion.analisis.controller.mapper.ObservacionAnalistasMapper;
+import com.banquito.originacion.analisis.vista.HistorialEstadosVista;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class JacksonSerializationBenchmark {
+
+    @Param({"1", "100", "1000"})
+    private int cantidad;
+
+    private ObjectMapper objectMapper;
+    private ObjectMapper objectMapperCache;
+    private List<HistorialEstadosDTO> historiales;
+    private List<HistorialEstadosVista> vistas;
+    private List<ObservacionAnalistasDTO> observaciones;
+
+    @Setup
+    public void setup() {
+        // Misma configuración base que el ObjectMapper de Spring MVC
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        // Con la caché de fragmentos JSON que registra la aplicación; se llena en la primera iteración de calentamiento
+        objectMapperCache = Jackson2ObjectMapperBuilder.json()
+                .modulesToInstall(new HistorialJsonModule(new HistorialJsonCache(true, 16 * 1024 * 1024)))
+                .build();
+        HistorialEstadosMapper historialMapper = new HistorialEstadosMapper();
+        historiales = historialMapper.toDTOList(BenchmarkData.historiales(cantidad));
+        vistas = BenchmarkData.historiales(cantidad).stream().map(historialMapper::toVista).toList();
+        observaciones = new ObservacionAnalistasMapper().toDTOList(BenchmarkData.observaciones(cantidad));
+    }
+
+    @Benchmark
+    public byte[] serializarHistorialesDTO() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(historiales);
+    }
+
+    @Benchmark
+    public byte[] serializarHistorialesVista() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(vistas);
+    }
+
+    @Benchmark
+    public byte[] serializarHistorialesVistaCache() throws JsonProcessingException {
+        return objectMapperCache.writeValueAsBytes(vistas);
+    }
+
+    @Benchmark
+    public byte[] serializarObservacionesDTO() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(observaciones);
+    }
+}
@@ -0,0 +1,83 @@
+package com.banquito.originacion.analisis.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.banquito.originacion.analisis.AnalisisApplication;
+import com.banquito.originacion.analisis.enums.EstadoHistorialEnum;
+import com.banquito.originacion.analisis.model.HistorialEstados;
+import com.banquito.originacion.analisis.repository.HistorialEstadosRepository;
+
+// Misma consulta de listado en una transacción de lectura-escritura (comportamiento anterior del servicio) y en una
+// de solo lectura; con -prof gc se compara además la memoria asignada por operación
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class ListadoTransaccionBenchmark {
+
+    private static final Sort ORDEN = Sort.by(Sort.Direction.DESC, "fechaHora", "idHistorial");
+
+    @Param({ "1000" })
+    int filas;
+
+    ConfigurableApplicationContext context;
+    HistorialEstadosRepository repository;
+    TransactionTemplate lecturaEscritura;
+    TransactionTemplate soloLectura;
+
+    @Setup
+    public void setup() {
+        context = new SpringApplicationBuilder(AnalisisApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("test")
+                .properties("logging.config=classpath:logback-test.xml")
+                .run();
+        repository = context.getBean(HistorialEstadosRepository.class);
+        PlatformTransactionManager transactionManager = context.getBean(PlatformTransactionManager.class);
+        lecturaEscritura = new TransactionTemplate(transactionManager);
+        soloLectura = new TransactionTemplate(transactionManager);
+        soloLectura.setReadOnly(true);
+
+        List<HistorialEstados> historiales = BenchmarkData.historiales(filas);
+        for (HistorialEstados historial : historiales) {
+            historial.setIdHistorial(null);
+            historial.setEstado(EstadoHistorialEnum.EnRevision);
+        }
+        repository.saveAll(historiales);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Window<HistorialEstados> listadoLecturaEscritura() {
+        // Una única página con todas las filas sembradas: se mide el mismo volumen que el listado completo
+        return lecturaEscritura.execute(status -> repository.findByEstado(EstadoHistorialEnum.EnRevision, ScrollPosition.keyset(), ORDEN, Limit.of(filas)));
+    }
+
+    @Benchmark
+    public Window<HistorialEstados> listadoSoloLectura() {
+        return soloLectura.execute(status -> repository.findByEstado(EstadoHistorialEnum.EnRevision, ScrollPosition.keyset(), ORDEN, Limit.of(filas)));
+    }
+}
\ No newline at end of file
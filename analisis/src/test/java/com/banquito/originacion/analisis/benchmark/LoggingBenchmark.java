@@ -0,0 +1,96 @@
+package com.banquito.originacion.analisis.benchmark;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.logging.LoggingInitializationContext;
+import org.springframework.boot.logging.LoggingSystem;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.util.FileSystemUtils;
+
+import ch.qos.logback.classic.LoggerContext;
+
+import com.banquito.originacion.analisis.controller.HistorialEstadosController;
+import com.banquito.originacion.analisis.controller.dto.HistorialEstadosDTO;
+import com.banquito.originacion.analisis.controller.mapper.HistorialEstadosMapper;
+import com.banquito.originacion.analisis.model.HistorialEstados;
+import com.banquito.originacion.analisis.service.HistorialEstadosService;
+
+// Compara logback-spring.xml con el perfil por defecto (síncrono, TRACE, %C) y con el perfil prod
+// (asíncrono, JSON, muestreo) emitiendo los mismos logs que un POST /api/historial-estados
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Threads(8)
+public class LoggingBenchmark {
+
+    private static final Logger controllerLog = LoggerFactory.getLogger(HistorialEstadosController.class);
+    private static final Logger serviceLog = LoggerFactory.getLogger(HistorialEstadosService.class);
+
+    @Param({"default", "prod"})
+    private String perfil;
+
+    private LoggingSystem loggingSystem;
+    private Path directorio;
+    private PrintStream stdout;
+    private HistorialEstadosDTO dto;
+    private HistorialEstados historial;
+
+    @Setup
+    public void setup() throws IOException {
+        directorio = Files.createTempDirectory("logging-benchmark");
+        // La salida de consola se descarta para no medir la terminal ni llenar la salida de JMH
+        stdout = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+
+        StandardEnvironment environment = new StandardEnvironment();
+        environment.setActiveProfiles(perfil);
+        environment.getPropertySources().addFirst(new MapPropertySource("benchmark",
+                Map.of("analisis.logging.path", directorio.toString())));
+        loggingSystem = LoggingSystem.get(getClass().getClassLoader());
+        loggingSystem.beforeInitialize();
+        loggingSystem.initialize(new LoggingInitializationContext(environment), "classpath:logback-spring.xml", null);
+
+        historial = BenchmarkData.historiales(1).get(0);
+        dto = new HistorialEstadosMapper().toDTO(historial);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        // Detiene el contexto de logback: los appenders asíncronos vacían su cola antes de cerrar
+        loggingSystem.cleanUp();
+        ((LoggerContext) LoggerFactory.getILoggerFactory()).stop();
+        System.setOut(stdout);
+        FileSystemUtils.deleteRecursively(directorio);
+    }
+
+    @Benchmark
+    public void requestCrearHistorial() {
+        controllerLog.info("Received request to create new HistorialEstados.");
+        controllerLog.debug("Request body: {}", dto);
+        serviceLog.info("Attempting to save new HistorialEstados for solicitud: {}", historial.getIdSolicitud());
+        serviceLog.debug("New state details: {}", historial);
+        serviceLog.debug("Existing solicitud {}. Current state is {}. Attempting to transition to {}.",
+                historial.getIdSolicitud(), historial.getEstado(), historial.getEstado());
+        serviceLog.info("Successfully saved new HistorialEstados with id {} for solicitud {}",
+                historial.getIdHistorial(), historial.getIdSolicitud());
+    }
+}
@@ -0,0 +1,62 @@
+package com.banquito.originacion.analisis.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.banquito.originacion.analisis.controller.dto.HistorialEstadosDTO;
+import com.banquito.originacion.analisis.controller.dto.ObservacionAnalistasDTO;
+import com.banquito.originacion.analisis.controller.mapper.HistorialEstadosMapper;
+import com.banquito.originacion.analisis.controller.mapper.ObservacionAnalistasMapper;
+import com.banquito.originacion.analisis.model.HistorialEstados;
+import com.banquito.originacion.analisis.model.ObservacionAnalistas;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MapperBenchmark {
+
+    @Param({"1", "100", "1000"})
+    private int cantidad;
+
+    private HistorialEstadosMapper historialMapper;
+    private ObservacionAnalistasMapper observacionMapper;
+    private List<HistorialEstados> historiales;
+    private List<ObservacionAnalistas> observaciones;
+
+    @Setup
+    public void setup() {
+        historialMapper = new HistorialEstadosMapper();
+        observacionMapper = new ObservacionAnalistasMapper();
+        historiales = BenchmarkData.historiales(cantidad);
+        observaciones = BenchmarkData.observaciones(cantidad);
+    }
+
+    @Benchmark
+    public HistorialEstadosDTO historialToDTO() {
+        return historialMapper.toDTO(historiales.get(0));
+    }
+
+    @Benchmark
+    public List<HistorialEstadosDTO> historialToDTOList() {
+        return historialMapper.toDTOList(historiales);
+    }
+
+    @Benchmark
+    public ObservacionAnalistasDTO observacionToDTO() {
+        return observacionMapper.toDTO(observaciones.get(0));
+    }
+
+    @Benchmark
+    public List<ObservacionAnalistasDTO> observacionToDTOList() {
+        return observacionMapper.toDTOList(observaciones);
+    }
+}
@@ -0,0 +1,95 @@
+package com.banquito.originacion.analisis.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.banquito.originacion.analisis.AnalisisApplication;
+import com.banquito.originacion.analisis.controller.dto.CursorPageDTO;
+import com.banquito.originacion.analisis.controller.dto.HistorialEstadosDTO;
+import com.banquito.originacion.analisis.controller.mapper.HistorialEstadosMapper;
+import com.banquito.originacion.analisis.enums.EstadoHistorialEnum;
+import com.banquito.originacion.analisis.model.HistorialEstados;
+import com.banquito.originacion.analisis.repository.HistorialEstadosRepository;
+import com.banquito.originacion.analisis.repository.VistaRepository;
+import com.banquito.originacion.analisis.vista.HistorialEstadosVista;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+// Una página de GET /estado/{estado} de principio a fin (consulta, conversión y JSON): antes, entidades gestionadas
+// copiadas a HistorialEstadosDTO; ahora, filas leídas por JDBC directo al registro. Con -prof gc se comparan los bytes asignados
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class ProyeccionListadoBenchmark {
+
+    private static final int FILAS = 1000;
+    private static final Sort ORDEN = Sort.by(Sort.Direction.DESC, "fechaHora", "idHistorial");
+
+    @Param({ "20", "100" })
+    int size;
+
+    ConfigurableApplicationContext context;
+    HistorialEstadosRepository repository;
+    VistaRepository vistaRepository;
+    HistorialEstadosMapper mapper;
+    ObjectMapper objectMapper;
+    TransactionTemplate soloLectura;
+
+    @Setup
+    public void setup() {
+        context = new SpringApplicationBuilder(AnalisisApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("test")
+                .properties("logging.config=classpath:logback-test.xml")
+                .run();
+        repository = context.getBean(HistorialEstadosRepository.class);
+        vistaRepository = context.getBean(VistaRepository.class);
+        mapper = context.getBean(HistorialEstadosMapper.class);
+        objectMapper = context.getBean(ObjectMapper.class);
+        soloLectura = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        soloLectura.setReadOnly(true);
+
+        List<HistorialEstados> historiales = BenchmarkData.historiales(FILAS);
+        for (HistorialEstados historial : historiales) {
+            historial.setIdHistorial(null);
+            historial.setEstado(EstadoHistorialEnum.EnRevision);
+        }
+        repository.saveAll(historiales);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public byte[] entidades() throws Exception {
+        List<HistorialEstadosDTO> pagina = soloLectura.execute(status -> mapper.toDTOList(repository.findByEstado(
+                EstadoHistorialEnum.EnRevision, ScrollPosition.keyset(), ORDEN, Limit.of(size)).getContent()));
+        return objectMapper.writeValueAsBytes(new CursorPageDTO<>(pagina, null));
+    }
+
+    @Benchmark
+    public byte[] vista() throws Exception {
+        List<HistorialEstadosVista> pagina = soloLectura.execute(status -> vistaRepository.findHistorialByEstado(
+                EstadoHistorialEnum.EnRevision, ScrollPosition.keyset(), ORDEN, size).getContent());
+        return objectMapper.writeValueAsBytes(new CursorPageDTO<>(pagina, null));
+    }
+}
\ No newline at end of file
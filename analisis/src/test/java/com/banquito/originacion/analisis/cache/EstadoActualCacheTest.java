@@ -0,0 +1,78 @@
+package com.banquito.originacion.analisis.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+
+import org.junit.jupiter.api.Test;
+
+import com.banquito.originacion.analisis.enums.EstadoHistorialEnum;
+
+class EstadoActualCacheTest {
+
+    private static final LocalDateTime FECHA = LocalDateTime.of(2025, 3, 1, 10, 0);
+
+    @Test
+    void cuentaAciertosFallosYDesalojaLaMenosUsada() {
+        EstadoActualCache cache = new EstadoActualCache(true, 2);
+        assertTrue(cache.get(1).isEmpty());
+        cache.put(1, estado(EstadoHistorialEnum.Borrador, 1, FECHA), cache.generacion(1));
+        cache.put(2, estado(EstadoHistorialEnum.Borrador, 1, FECHA), cache.generacion(2));
+        // La 1 se usa después de la 2: al llegar la 3 se desaloja la 2
+        assertEquals(EstadoHistorialEnum.Borrador, cache.get(1).orElseThrow().estado());
+        cache.put(3, estado(EstadoHistorialEnum.Borrador, 1, FECHA), cache.generacion(3));
+
+        assertTrue(cache.get(2).isEmpty());
+        assertTrue(cache.get(1).isPresent());
+        assertTrue(cache.get(3).isPresent());
+        assertEquals(2, cache.size());
+        assertEquals(3, cache.getHits());
+        assertEquals(2, cache.getMisses());
+        assertEquals(3, cache.getPuts());
+        assertEquals(1, cache.getEvictions());
+    }
+
+    @Test
+    void noReemplazaUnEstadoMasRecientePorUnoAnterior() {
+        EstadoActualCache cache = new EstadoActualCache(true, 10);
+        cache.put(1, estado(EstadoHistorialEnum.EnRevision, 2, FECHA.plusMinutes(5)), cache.generacion(1));
+        cache.put(1, estado(EstadoHistorialEnum.Borrador, 1, FECHA), cache.generacion(1));
+
+        assertEquals(EstadoHistorialEnum.EnRevision, cache.get(1).orElseThrow().estado());
+    }
+
+    @Test
+    void descartaLoLeidoAntesDeUnaInvalidacion() {
+        EstadoActualCache cache = new EstadoActualCache(true, 10);
+        cache.put(1, estado(EstadoHistorialEnum.EnRevision, 2, FECHA), cache.generacion(1));
+
+        // Un lector sin caché toma la generación y lee el estado; antes de guardarlo se confirma un borrado
+        long generacion = cache.generacion(1);
+        EstadoActual leido = estado(EstadoHistorialEnum.EnRevision, 2, FECHA);
+        cache.invalidate(1);
+        cache.put(1, leido, generacion);
+        assertTrue(cache.get(1).isEmpty(), "El estado borrado volvió a la caché");
+
+        // Con la misma fecha tampoco: la entrada ya no existe y isNotOlderThan no lo impediría
+        cache.put(1, leido, cache.generacion(1));
+        assertTrue(cache.get(1).isPresent());
+        generacion = cache.generacion(1);
+        cache.clear();
+        cache.put(1, leido, generacion);
+        assertTrue(cache.get(1).isEmpty(), "clear también invalida las lecturas en curso");
+    }
+
+    @Test
+    void deshabilitadaNoGuardaNada() {
+        EstadoActualCache cache = new EstadoActualCache(false, 10);
+        cache.put(1, estado(EstadoHistorialEnum.Borrador, 1, FECHA), cache.generacion(1));
+
+        assertTrue(cache.get(1).isEmpty());
+        assertEquals(0, cache.size());
+    }
+
+    private static EstadoActual estado(EstadoHistorialEnum estado, long version, LocalDateTime fechaHora) {
+        return new EstadoActual(null, estado, version, fechaHora);
+    }
+}
\ No newline at end of file
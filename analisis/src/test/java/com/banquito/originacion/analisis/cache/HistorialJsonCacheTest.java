@@ -0,0 +1,149 @@
+package com.banquito.originacion.analisis.cache;
+
+import static com.banquito.originacion.analisis.support.HistorialEstadosFixtures.nuevo;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.banquito.originacion.analisis.concurrency.PrecondicionVersion;
+import com.banquito.originacion.analisis.enums.EstadoHistorialEnum;
+import com.banquito.originacion.analisis.model.HistorialEstados;
+import com.banquito.originacion.analisis.service.HistorialEstadosService;
+import com.banquito.originacion.analisis.vista.HistorialEstadosVista;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.json.JsonWriteFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+// El JSON precalculado de cada historial: se reutiliza por versión y formato, y las ediciones y borrados lo invalidan
+@SpringBootTest
+class HistorialJsonCacheTest {
+
+    private static final int SOLICITUD_REUTILIZADA = 9603;
+    private static final int SOLICITUD_BORRADA = 9604;
+    private static final int SOLICITUD_ESCAPADA = 9605;
+    private static final int SOLICITUD_EDITADA = 9606;
+
+    @Autowired
+    private HistorialEstadosService service;
+
+    @Autowired
+    private HistorialJsonCache cache;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void laSegundaSerializacionCopiaElFragmentoGuardado() throws Exception {
+        HistorialEstados historial = service.save(nuevo(SOLICITUD_REUTILIZADA, EstadoHistorialEnum.Borrador));
+        HistorialEstadosVista vista = service.findVistaById(historial.getIdHistorial());
+        cache.invalidate(historial.getIdHistorial());
+
+        long hits = cache.getHits();
+        String primera = objectMapper.writeValueAsString(vista);
+        assertEquals(hits, cache.getHits());
+        String segunda = objectMapper.writeValueAsString(vista);
+        assertEquals(hits + 1, cache.getHits());
+        assertEquals(primera, segunda);
+        assertEquals(historial.getMotivo(), objectMapper.readTree(segunda).path("motivo").asText());
+    }
+
+    @Test
+    void laEdicionInvalidaLaVersionAnteriorAunqueSeLeaAntesDelCommit() throws Exception {
+        HistorialEstados historial = service.save(nuevo(SOLICITUD_EDITADA, EstadoHistorialEnum.Borrador));
+        Integer idHistorial = historial.getIdHistorial();
+        HistorialEstadosVista anterior = service.findVistaById(idHistorial);
+        FormatoJson formato = formato();
+        objectMapper.writeValueAsString(anterior);
+        assertNotNull(cache.get(idHistorial, anterior.version(), formato));
+
+        HistorialEstados cambios = new HistorialEstados();
+        cambios.setMotivo("Motivo corregido");
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            service.partialUpdate(idHistorial, cambios, PrecondicionVersion.NINGUNA);
+            assertNull(cache.get(idHistorial, anterior.version(), formato));
+            // Un lector concurrente serializa la versión previa después de la invalidación inmediata
+            escribir(anterior);
+        });
+
+        assertNull(cache.get(idHistorial, anterior.version(), formato), "La versión previa sobrevivió al commit");
+        HistorialEstadosVista editada = service.findVistaById(idHistorial);
+        assertTrue(editada.version() > anterior.version());
+        assertEquals("Motivo corregido", objectMapper.readTree(objectMapper.writeValueAsString(editada)).path("motivo").asText());
+    }
+
+    @Test
+    void elBorradoQuitaElFragmento() throws Exception {
+        HistorialEstados historial = service.save(nuevo(SOLICITUD_BORRADA, EstadoHistorialEnum.Borrador));
+        HistorialEstadosVista vista = service.findVistaById(historial.getIdHistorial());
+        objectMapper.writeValueAsString(vista);
+        assertNotNull(cache.get(historial.getIdHistorial(), vista.version(), formato()));
+
+        service.deleteById(historial.getIdHistorial());
+
+        assertNull(cache.get(historial.getIdHistorial(), vista.version(), formato()));
+    }
+
+    @Test
+    void unFormatoDistintoNoReutilizaElFragmento() throws Exception {
+        HistorialEstados nuevo = nuevo(SOLICITUD_ESCAPADA, EstadoHistorialEnum.Borrador);
+        nuevo.setMotivo("Revisión pendiente");
+        HistorialEstadosVista vista = service.findVistaById(service.save(nuevo).getIdHistorial());
+
+        String normal = objectMapper.writeValueAsString(vista);
+        String ascii = objectMapper.writer().with(JsonWriteFeature.ESCAPE_NON_ASCII).writeValueAsString(vista);
+        String sangria = objectMapper.writerWithDefaultPrettyPrinter().writeValueAsString(vista);
+
+        assertTrue(normal.contains("Revisión pendiente"), normal);
+        assertTrue(ascii.contains("Revisi\\u00F3n pendiente"), ascii);
+        assertTrue(sangria.contains("\n"), sangria);
+        assertEquals(normal, objectMapper.writeValueAsString(vista));
+        assertEquals(objectMapper.readTree(normal), objectMapper.readTree(ascii));
+    }
+
+    @Test
+    void comoCadenaElFragmentoSeEscribeEscapado() throws Exception {
+        String json = "{\"motivo\":\"Revisión\"}";
+        FragmentoJson fragmento = new FragmentoJson(1, formato(), json.getBytes(StandardCharsets.UTF_8));
+
+        StringWriter caracteres = new StringWriter();
+        try (JsonGenerator generador = objectMapper.getFactory().createGenerator(caracteres)) {
+            generador.writeString(fragmento);
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (JsonGenerator generador = objectMapper.getFactory().createGenerator(bytes)) {
+            generador.writeString(fragmento);
+        }
+
+        assertEquals(json, objectMapper.readValue(caracteres.toString(), String.class));
+        assertEquals(caracteres.toString(), bytes.toString(StandardCharsets.UTF_8));
+    }
+
+    private FormatoJson formato() throws IOException {
+        try (JsonGenerator generador = objectMapper.getFactory().createGenerator(new StringWriter())) {
+            return FormatoJson.de(generador);
+        }
+    }
+
+    private void escribir(HistorialEstadosVista vista) {
+        try {
+            objectMapper.writeValueAsString(vista);
+        } catch (IOException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,178 @@
+package com.banquito.originacion.analisis.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import com.banquito.originacion.analisis.support.PostgresEmbebido;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+// Búsqueda de texto completo contra PostgreSQL embebido: ranking, filtros y continuación por cursor cuando
+// varias observaciones tienen exactamente la misma relevancia o la misma fecha
+@SpringBootTest(properties = {
+        "spring.flyway.enabled=true",
+        "spring.jpa.hibernate.ddl-auto=validate",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.PostgreSQLDialect",
+        "analisis.historial.lock.advisory=true"
+})
+@AutoConfigureMockMvc
+@ExtendWith(PostgresEmbebido.class)
+class BusquedaObservacionesTest {
+
+    private static final LocalDateTime INICIO = LocalDateTime.of(2024, 3, 4, 9, 0);
+    private static final String EMPATADA = "Ingresos verificados con el garante";
+
+    // Se cargan una vez: el PostgreSQL embebido y el contexto se comparten entre los tests de la clase
+    private static final List<Observacion> observaciones = new ArrayList<>();
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private record Observacion(int id, int idSolicitud, String usuario, LocalDateTime fechaHora, String razon) {
+    }
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        PostgresEmbebido.registrar(registry);
+    }
+
+    @BeforeEach
+    void crearObservaciones() {
+        if (!observaciones.isEmpty()) {
+            return;
+        }
+        // Siete con el mismo texto (misma relevancia), de a pares con la misma fecha
+        for (int i = 0; i < 7; i++) {
+            insertar(10 + i % 2, i % 3 == 0 ? "analista.a" : "analista.b", INICIO.plusHours(i / 2), EMPATADA);
+        }
+        insertar(10, "analista.a", INICIO.plusDays(1), "Ingresos, ingresos e ingresos: el garante confirma los ingresos");
+        insertar(11, "analista.b", INICIO.plusDays(2), "Ingresos declarados sin respaldo");
+        insertar(12, "analista.a", INICIO.plusDays(3), "Documentación incompleta del garante");
+        insertar(12, "analista.b", INICIO.plusDays(4), "Solicitud sin observaciones relevantes");
+    }
+
+    @Test
+    void recorrePorRelevanciaSinRepetirNiPerderResultadosEmpatados() throws Exception {
+        List<JsonNode> completa = recorrer(Map.of("texto", "ingresos", "size", "50"));
+        List<JsonNode> paginada = recorrer(Map.of("texto", "ingresos", "size", "2"));
+
+        assertEquals(ids(completa), ids(paginada));
+        assertEquals(esperados(observacion -> contiene(observacion, "ingresos")), new HashSet<>(ids(paginada)));
+        // Mayor relevancia primero; a igual relevancia, id descendente
+        for (int i = 1; i < paginada.size(); i++) {
+            double anterior = paginada.get(i - 1).path("relevancia").asDouble();
+            double actual = paginada.get(i).path("relevancia").asDouble();
+            assertTrue(anterior > actual || anterior == actual && id(paginada.get(i - 1)) > id(paginada.get(i)),
+                    "Orden incorrecto en la posición " + i);
+        }
+        assertTrue(razon(paginada.get(0)).startsWith("Ingresos, ingresos e ingresos"), razon(paginada.get(0)));
+        assertEquals(7, paginada.stream().filter(resultado -> EMPATADA.equals(razon(resultado))).count());
+    }
+
+    @Test
+    void recorrePorFechaConFechasRepetidas() throws Exception {
+        List<JsonNode> paginada = recorrer(Map.of("texto", "garante", "orden", "FECHA", "size", "2"));
+
+        List<Integer> esperados = observaciones.stream().filter(observacion -> contiene(observacion, "garante"))
+                .sorted(Comparator.comparing(Observacion::fechaHora).thenComparing(Observacion::id).reversed())
+                .map(Observacion::id).toList();
+        assertEquals(esperados, ids(paginada));
+    }
+
+    @Test
+    void aplicaLosFiltrosYLaSintaxisDeBusqueda() throws Exception {
+        assertEquals(esperados(observacion -> observacion.idSolicitud() == 11 && contiene(observacion, "ingresos")),
+                encontrados(Map.of("texto", "ingresos", "idSolicitud", "11", "size", "2")));
+        assertEquals(esperados(observacion -> observacion.usuario().equals("analista.a") && contiene(observacion, "garante")),
+                encontrados(Map.of("texto", "garante", "usuario", "analista.a", "size", "2")));
+        // desde inclusiva y hasta exclusiva, sobre fechas que coinciden exactamente con los límites
+        LocalDateTime desde = INICIO.plusHours(1);
+        LocalDateTime hasta = INICIO.plusHours(3);
+        assertEquals(esperados(observacion -> observacion.razon().equals(EMPATADA)
+                        && !observacion.fechaHora().isBefore(desde) && observacion.fechaHora().isBefore(hasta)),
+                encontrados(Map.of("texto", "verificados", "desde", desde.toString(), "hasta", hasta.toString(), "size", "2")));
+        assertEquals(esperados(observacion -> contiene(observacion, "ingresos") && !contiene(observacion, "garante")),
+                encontrados(Map.of("texto", "ingresos -garante", "size", "2")));
+        assertEquals(esperados(observacion -> observacion.razon().equals(EMPATADA)),
+                encontrados(Map.of("texto", "\"ingresos verificados\"", "size", "3")));
+    }
+
+    private Set<Integer> encontrados(Map<String, String> parametros) throws Exception {
+        return new HashSet<>(ids(recorrer(parametros)));
+    }
+
+    private List<JsonNode> recorrer(Map<String, String> parametros) throws Exception {
+        List<JsonNode> resultados = new ArrayList<>();
+        String cursor = null;
+        int paginas = 0;
+        do {
+            MockHttpServletRequestBuilder request = get("/api/observaciones-analistas/buscar");
+            parametros.forEach(request::param);
+            if (cursor != null) {
+                request.param("cursor", cursor);
+            }
+            JsonNode pagina = objectMapper.readTree(mockMvc.perform(request).andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString());
+            pagina.path("content").forEach(resultados::add);
+            cursor = pagina.path("nextCursor").isNull() ? null : pagina.path("nextCursor").asText();
+        } while (cursor != null && ++paginas < 50);
+        return resultados;
+    }
+
+    private static Set<Integer> esperados(Predicate<Observacion> condicion) {
+        return observaciones.stream().filter(condicion).map(Observacion::id).collect(Collectors.toSet());
+    }
+
+    private static boolean contiene(Observacion observacion, String palabra) {
+        return observacion.razon().toLowerCase().contains(palabra);
+    }
+
+    private static List<Integer> ids(List<JsonNode> resultados) {
+        return resultados.stream().map(BusquedaObservacionesTest::id).toList();
+    }
+
+    private static int id(JsonNode resultado) {
+        return resultado.path("observacion").path("idObservacionAnalista").asInt();
+    }
+
+    private static String razon(JsonNode resultado) {
+        return resultado.path("observacion").path("razonIntervencion").asText();
+    }
+
+    private void insertar(int idSolicitud, String usuario, LocalDateTime fechaHora, String razon) {
+        Integer id = jdbcTemplate.queryForObject("INSERT INTO analisis_creditos.observacion_analistas "
+                + "(id_solicitud, usuario, fecha_hora, razon_intervencion, version) VALUES (?, ?, ?, ?, 1) "
+                + "RETURNING id_observacion_analista", Integer.class, idSolicitud, usuario, fechaHora, razon);
+        observaciones.add(new Observacion(id, idSolicitud, usuario, fechaHora, razon));
+    }
+}
\ No newline at end of file
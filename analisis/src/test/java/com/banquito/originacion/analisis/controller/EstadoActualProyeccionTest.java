@@ -0,0 +1,164 @@
+package com.banquito.originacion.analisis.controller;
+
+import static com.banquito.originacion.analisis.support.HistorialEstadosFixtures.nuevo;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.banquito.originacion.analisis.enums.EstadoHistorialEnum;
+import com.banquito.originacion.analisis.model.HistorialEstados;
+import com.banquito.originacion.analisis.model.SolicitudEstadoActual;
+import com.banquito.originacion.analisis.service.HistorialEstadosService;
+import com.banquito.originacion.analisis.service.SolicitudEstadoActualService;
+import com.banquito.originacion.analisis.service.SolicitudEstadoActualService.ResultadoReconstruccion;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+// La proyección solicitud_estado_actual: se escribe con el alta del historial, la reconstrucción por lotes la
+// reproduce y /estado/{estado}?actual=true responde desde ella
+@SpringBootTest(properties = "analisis.proyeccion.estado-actual.tamanio-lote=2")
+@AutoConfigureMockMvc
+class EstadoActualProyeccionTest {
+
+    private static final int SOLICITUD_TRANSACCION = 9001;
+    private static final int PRIMERA_RECONSTRUIDA = 9002;
+    private static final int RECONSTRUIDAS = 5;
+    private static final int SOLICITUD_HUERFANA = 9009;
+    private static final int SOLICITUD_APROBADA = 9010;
+    private static final int SOLICITUD_EN_REVISION = 9011;
+    private static final int SOLICITUD_DEVUELTA = 9012;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private HistorialEstadosService service;
+
+    @Autowired
+    private SolicitudEstadoActualService solicitudEstadoActualService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void laProyeccionSeEscribeEnLaTransaccionDelAlta() {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.executeWithoutResult(status -> {
+            HistorialEstados historial = service.save(nuevo(SOLICITUD_TRANSACCION, EstadoHistorialEnum.Borrador));
+            assertEquals(historial.getIdHistorial(),
+                    solicitudEstadoActualService.findById(SOLICITUD_TRANSACCION).orElseThrow().getIdHistorial());
+            status.setRollbackOnly();
+        });
+        // El rollback del alta se lleva también la fila de la proyección
+        assertTrue(solicitudEstadoActualService.findById(SOLICITUD_TRANSACCION).isEmpty());
+        assertTrue(service.findByIdSolicitud(SOLICITUD_TRANSACCION).isEmpty());
+
+        HistorialEstados borrador = transaction.execute(status -> service.save(nuevo(SOLICITUD_TRANSACCION, EstadoHistorialEnum.Borrador)));
+        assertEquals(1, borrador.getVersion());
+        assertProyeccion(borrador, solicitudEstadoActualService.findById(SOLICITUD_TRANSACCION).orElseThrow());
+        HistorialEstados enRevision = service.save(nuevo(SOLICITUD_TRANSACCION, EstadoHistorialEnum.EnRevision));
+        assertProyeccion(enRevision, solicitudEstadoActualService.findById(SOLICITUD_TRANSACCION).orElseThrow());
+    }
+
+    @Test
+    void laReconstruccionPorLotesReproduceLaProyeccion() {
+        Map<Integer, HistorialEstados> ultimos = new LinkedHashMap<>();
+        for (int i = 0; i < RECONSTRUIDAS; i++) {
+            int idSolicitud = PRIMERA_RECONSTRUIDA + i;
+            HistorialEstados ultimo = service.save(nuevo(idSolicitud, EstadoHistorialEnum.Borrador));
+            if (i % 2 == 0) {
+                ultimo = service.save(nuevo(idSolicitud, EstadoHistorialEnum.EnRevision));
+            }
+            if (i % 4 == 0) {
+                ultimo = service.save(nuevo(idSolicitud, EstadoHistorialEnum.Aprobada));
+            }
+            ultimos.put(idSolicitud, ultimo);
+        }
+
+        // Proyección desalineada: una fila falta, otra tiene un estado que no es el último y otra no tiene historial
+        jdbcTemplate.update("DELETE FROM analisis_creditos.solicitud_estado_actual WHERE id_solicitud = ?", PRIMERA_RECONSTRUIDA + 1);
+        jdbcTemplate.update("UPDATE analisis_creditos.solicitud_estado_actual SET estado = 'Cancelada', version = 9 WHERE id_solicitud = ?",
+                PRIMERA_RECONSTRUIDA + 2);
+        jdbcTemplate.update("INSERT INTO analisis_creditos.solicitud_estado_actual "
+                + "(id_solicitud, id_historial, estado, fecha_hora, usuario, motivo, version) VALUES (?, ?, ?, ?, ?, ?, ?)",
+                SOLICITUD_HUERFANA, 999_999, "Borrador", LocalDateTime.now(), "analista.proyeccion", "Sin historial", 1);
+
+        ResultadoReconstruccion resultado = solicitudEstadoActualService.reconstruir();
+
+        assertTrue(resultado.lotes() >= (resultado.solicitudes() + 1) / 2, "Lotes de más de dos solicitudes: " + resultado);
+        assertTrue(resultado.eliminadas() >= 1);
+        assertTrue(solicitudEstadoActualService.findById(SOLICITUD_HUERFANA).isEmpty());
+        for (HistorialEstados ultimo : ultimos.values()) {
+            assertProyeccion(ultimo, solicitudEstadoActualService.findById(ultimo.getIdSolicitud()).orElseThrow());
+        }
+    }
+
+    @Test
+    void elFiltroActualRespondeSoloLasSolicitudesQueSiguenEnElEstado() throws Exception {
+        service.save(nuevo(SOLICITUD_APROBADA, EstadoHistorialEnum.Borrador));
+        service.save(nuevo(SOLICITUD_APROBADA, EstadoHistorialEnum.EnRevision));
+        service.save(nuevo(SOLICITUD_APROBADA, EstadoHistorialEnum.Aprobada));
+        service.save(nuevo(SOLICITUD_EN_REVISION, EstadoHistorialEnum.Borrador));
+        HistorialEstados enRevision = service.save(nuevo(SOLICITUD_EN_REVISION, EstadoHistorialEnum.EnRevision));
+        service.save(nuevo(SOLICITUD_DEVUELTA, EstadoHistorialEnum.Borrador));
+        service.save(nuevo(SOLICITUD_DEVUELTA, EstadoHistorialEnum.EnRevision));
+        service.save(nuevo(SOLICITUD_DEVUELTA, EstadoHistorialEnum.Borrador));
+        HistorialEstados devueltaEnRevision = service.save(nuevo(SOLICITUD_DEVUELTA, EstadoHistorialEnum.EnRevision));
+
+        // Un registro por solicitud (el vigente), ordenado por id de solicitud y recorrido por cursor de a uno
+        Map<Integer, Integer> vigentes = new LinkedHashMap<>();
+        String cursor = null;
+        int paginas = 0;
+        do {
+            MockHttpServletRequestBuilder request = get("/api/historial-estados/estado/EnRevision")
+                    .param("actual", "true").param("size", "1").param("sortDir", "asc");
+            if (cursor != null) {
+                request.param("cursor", cursor);
+            }
+            JsonNode pagina = objectMapper.readTree(mockMvc.perform(request).andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString());
+            for (JsonNode historial : pagina.path("content")) {
+                int idSolicitud = historial.path("idSolicitud").asInt();
+                if (idSolicitud >= SOLICITUD_APROBADA && idSolicitud <= SOLICITUD_DEVUELTA) {
+                    assertNull(vigentes.put(idSolicitud, historial.path("idHistorial").asInt()), "Solicitud repetida");
+                }
+            }
+            cursor = pagina.path("nextCursor").isNull() ? null : pagina.path("nextCursor").asText();
+        } while (cursor != null && ++paginas < 100);
+
+        assertEquals(List.of(SOLICITUD_EN_REVISION, SOLICITUD_DEVUELTA), new ArrayList<>(vigentes.keySet()));
+        assertEquals(enRevision.getIdHistorial(), vigentes.get(SOLICITUD_EN_REVISION));
+        assertEquals(devueltaEnRevision.getIdHistorial(), vigentes.get(SOLICITUD_DEVUELTA));
+    }
+
+    private static void assertProyeccion(HistorialEstados esperado, SolicitudEstadoActual proyeccion) {
+        assertEquals(esperado.getIdHistorial(), proyeccion.getIdHistorial());
+        assertEquals(esperado.getEstado(), proyeccion.getEstado());
+        assertEquals(esperado.getVersion(), proyeccion.getVersion());
+        assertEquals(esperado.getUsuario(), proyeccion.getUsuario());
+    }
+}
\ No newline at end of file
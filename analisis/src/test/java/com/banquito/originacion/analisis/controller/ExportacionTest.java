@@ -0,0 +1,173 @@
+package com.banquito.originacion.analisis.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.banquito.originacion.analisis.enums.EstadoHistorialEnum;
+import com.banquito.originacion.analisis.model.HistorialEstados;
+import com.banquito.originacion.analisis.model.ObservacionAnalistas;
+import com.banquito.originacion.analisis.repository.ExportacionRepository;
+import com.banquito.originacion.analisis.service.HistorialEstadosService;
+import com.banquito.originacion.analisis.service.ObservacionAnalistasService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.persistence.EntityManager;
+
+// Los registros de la exportación están en 2019: el rango de fechas los separa de lo que creen otros tests
+@SpringBootTest
+@AutoConfigureMockMvc
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ExportacionTest {
+
+    private static final int SOLICITUD = 9901;
+    private static final String USUARIO_OBSERVACIONES = "analista.export";
+    private static final String MOTIVO_CON_COMILLAS = "Revisión \"manual\", con firma";
+    private static final String RAZON_MULTILINEA = "Primera línea\nSegunda línea";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private HistorialEstadosService historialService;
+
+    @Autowired
+    private ObservacionAnalistasService observacionService;
+
+    @Autowired
+    private ExportacionRepository exportacionRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final List<HistorialEstados> historiales = new ArrayList<>();
+
+    @BeforeAll
+    void crearRegistros() {
+        historiales.add(historialService.save(historial(EstadoHistorialEnum.Borrador, LocalDateTime.of(2019, 1, 10, 8, 0), "Ingreso")));
+        historiales.add(historialService.save(historial(EstadoHistorialEnum.EnRevision, LocalDateTime.of(2019, 2, 10, 8, 0),
+                MOTIVO_CON_COMILLAS)));
+        historiales.add(historialService.save(historial(EstadoHistorialEnum.Aprobada, LocalDateTime.of(2019, 3, 10, 8, 0), "Aprobada")));
+
+        observacionService.save(observacion(USUARIO_OBSERVACIONES, RAZON_MULTILINEA));
+        observacionService.save(observacion("otro.analista", "No debe exportarse"));
+    }
+
+    @Test
+    void ndjsonFiltraPorRangoYEstado() throws Exception {
+        List<JsonNode> filas = ndjson(get("/api/historial-estados/export")
+                .param("desde", "2019-01-01T00:00:00").param("hasta", "2019-03-01T00:00:00"));
+        assertEquals(List.of(historiales.get(0).getIdHistorial(), historiales.get(1).getIdHistorial()),
+                filas.stream().map(fila -> fila.path("idHistorial").asInt()).toList(), "hasta es exclusivo");
+        JsonNode segunda = filas.get(1);
+        assertEquals(SOLICITUD, segunda.path("idSolicitud").asInt());
+        assertEquals("EnRevision", segunda.path("estado").asText());
+        assertEquals("2019-02-10 08:00:00", segunda.path("fechaHora").asText());
+        assertEquals(MOTIVO_CON_COMILLAS, segunda.path("motivo").asText());
+        assertEquals(2, segunda.path("version").asLong());
+
+        List<JsonNode> aprobadas = ndjson(get("/api/historial-estados/export").param("estado", "Aprobada")
+                .param("desde", "2019-01-01T00:00:00").param("hasta", "2020-01-01T00:00:00"));
+        assertEquals(1, aprobadas.size());
+        assertEquals(historiales.get(2).getIdHistorial(), aprobadas.get(0).path("idHistorial").asInt());
+
+        mockMvc.perform(get("/api/historial-estados/export")
+                        .param("desde", "2019-03-01T00:00:00").param("hasta", "2019-01-01T00:00:00"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void csvEntrecomillaSeparadoresComillasYSaltosDeLinea() throws Exception {
+        String historialCsv = contenido(get("/api/historial-estados/export").param("formato", "CSV")
+                .param("desde", "2019-02-01T00:00:00").param("hasta", "2019-03-01T00:00:00"));
+        assertEquals("idHistorial,idSolicitud,estado,fechaHora,usuario,motivo,version\n"
+                + historiales.get(1).getIdHistorial() + "," + SOLICITUD + ",EnRevision,2019-02-10 08:00:00,analista.export,"
+                + "\"Revisión \"\"manual\"\", con firma\",2\n", historialCsv);
+
+        String observacionesCsv = contenido(get("/api/observaciones-analistas/export").param("formato", "CSV")
+                .param("usuario", USUARIO_OBSERVACIONES)
+                .param("desde", "2019-01-01T00:00:00").param("hasta", "2020-01-01T00:00:00"));
+        String[] lineas = observacionesCsv.split("\n", -1);
+        assertEquals("idObservacionAnalista,idSolicitud,usuario,fechaHora,razonIntervencion,version", lineas[0]);
+        assertTrue(observacionesCsv.contains(",analista.export,2019-04-15 10:00:00,\"Primera línea\nSegunda línea\",1\n"),
+                observacionesCsv);
+        assertFalse(observacionesCsv.contains("No debe exportarse"));
+    }
+
+    @Test
+    void lasFilasExportadasNoSonEntidadesAdministradas() {
+        TransactionTemplate transaccion = new TransactionTemplate(transactionManager);
+        transaccion.setReadOnly(true);
+        List<HistorialEstados> exportados = new ArrayList<>();
+        transaccion.executeWithoutResult(status -> {
+            exportacionRepository.streamHistorialEstados(LocalDateTime.of(2019, 1, 1, 0, 0), LocalDateTime.of(2020, 1, 1, 0, 0),
+                    null, historial -> {
+                        assertFalse(entityManager.contains(historial), "La fila quedó en el contexto de persistencia");
+                        exportados.add(historial);
+                    });
+        });
+        assertEquals(3, exportados.size());
+    }
+
+    private List<JsonNode> ndjson(MockHttpServletRequestBuilder request) throws Exception {
+        List<JsonNode> filas = new ArrayList<>();
+        for (String linea : contenido(request).split("\n")) {
+            if (!linea.isEmpty()) {
+                filas.add(objectMapper.readTree(linea));
+            }
+        }
+        return filas;
+    }
+
+    private String contenido(MockHttpServletRequestBuilder request) throws Exception {
+        return mockMvc.perform(request)
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Disposition", org.hamcrest.Matchers.startsWith("attachment")))
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+    }
+
+    private static HistorialEstados historial(EstadoHistorialEnum estado, LocalDateTime fechaHora, String motivo) {
+        HistorialEstados historial = new HistorialEstados();
+        historial.setIdSolicitud(SOLICITUD);
+        historial.setEstado(estado);
+        historial.setFechaHora(fechaHora);
+        historial.setUsuario("analista.export");
+        historial.setMotivo(motivo);
+        return historial;
+    }
+
+    private static ObservacionAnalistas observacion(String usuario, String razon) {
+        ObservacionAnalistas observacion = new ObservacionAnalistas();
+        observacion.setIdSolicitud(SOLICITUD);
+        observacion.setUsuario(usuario);
+        observacion.setFechaHora(LocalDateTime.of(2019, 4, 15, 10, 0));
+        observacion.setRazonIntervencion(razon);
+        return observacion;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,90 @@
+package com.banquito.originacion.analisis.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.List;
+
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.banquito.originacion.analisis.enums.EstadoHistorialEnum;
+import com.banquito.originacion.analisis.model.HistorialEstados;
+import com.banquito.originacion.analisis.service.HistorialEstadosService;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class HistorialEstadosLoteTest {
+
+    private static final int SOLICITUD_CADENA = 9701;
+    private static final int SOLICITUD_NUEVA = 9702;
+    private static final int SOLICITUD_COMPLETA = 9703;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private HistorialEstadosService service;
+
+    @Test
+    void registraCadenasYRechazaSoloLosEslabonesInvalidos() throws Exception {
+        String lote = lote(
+                item(SOLICITUD_CADENA, "Borrador"),
+                item(SOLICITUD_CADENA, "EnRevision"),
+                // Repite el estado del eslabón anterior del mismo lote
+                item(SOLICITUD_CADENA, "EnRevision"),
+                // Se valida contra el último eslabón aceptado, no contra el rechazado
+                item(SOLICITUD_CADENA, "Aprobada"),
+                item(SOLICITUD_NUEVA, "Aprobada"),
+                item(SOLICITUD_NUEVA, "Borrador"));
+
+        mockMvc.perform(post("/api/historial-estados/batch").contentType(MediaType.APPLICATION_JSON).content(lote))
+                .andExpect(status().isMultiStatus())
+                .andExpect(jsonPath("$.length()").value(6))
+                .andExpect(jsonPath("$[*].indice").value(Matchers.contains(0, 1, 2, 3, 4, 5)))
+                .andExpect(jsonPath("$[*].aceptado").value(Matchers.contains(true, true, false, true, false, true)))
+                .andExpect(jsonPath("$[0].historial.version").value(1))
+                .andExpect(jsonPath("$[1].historial.version").value(2))
+                .andExpect(jsonPath("$[3].historial.version").value(3))
+                .andExpect(jsonPath("$[3].historial.idHistorial").isNumber())
+                .andExpect(jsonPath("$[2].error").value(Matchers.containsString("ya se encuentra en el estado EnRevision")))
+                .andExpect(jsonPath("$[2].historial.idHistorial").doesNotExist())
+                .andExpect(jsonPath("$[4].error").value(Matchers.containsString("estado inicial")))
+                .andExpect(jsonPath("$[5].historial.version").value(1))
+                .andExpect(jsonPath("$[0].error").doesNotExist());
+
+        List<HistorialEstados> cadena = service.findByIdSolicitud(SOLICITUD_CADENA);
+        assertEquals(3, cadena.size(), "El eslabón rechazado no se guarda");
+        assertEquals(EstadoHistorialEnum.Aprobada, service.getEstadoActualSolicitud(SOLICITUD_CADENA));
+        assertEquals(EstadoHistorialEnum.Borrador, service.getEstadoActualSolicitud(SOLICITUD_NUEVA));
+    }
+
+    @Test
+    void unLoteSinRechazosRespondeCreated() throws Exception {
+        mockMvc.perform(post("/api/historial-estados/batch").contentType(MediaType.APPLICATION_JSON)
+                        .content(lote(item(SOLICITUD_COMPLETA, "Borrador"), item(SOLICITUD_COMPLETA, "Cancelada"))))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$[*].aceptado").value(Matchers.contains(true, true)));
+
+        mockMvc.perform(post("/api/historial-estados/batch").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"historiales\":[]}"))
+                .andExpect(status().isBadRequest());
+        assertEquals(EstadoHistorialEnum.Cancelada, service.getEstadoActualSolicitud(SOLICITUD_COMPLETA));
+    }
+
+    private static String lote(String... items) {
+        return "{\"historiales\":[" + String.join(",", items) + "]}";
+    }
+
+    private static String item(int idSolicitud, String estado) {
+        return "{\"idSolicitud\":" + idSolicitud + ",\"estado\":\"" + estado
+                + "\",\"usuario\":\"analista.lote\",\"motivo\":\"Transición del test de lotes\"}";
+    }
+}
\ No newline at end of file
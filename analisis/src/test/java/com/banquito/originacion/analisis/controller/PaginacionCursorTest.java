@@ -0,0 +1,138 @@
+package com.banquito.originacion.analisis.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.List;
+
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import com.banquito.originacion.analisis.enums.EstadoHistorialEnum;
+import com.banquito.originacion.analisis.model.HistorialEstados;
+import com.banquito.originacion.analisis.service.HistorialEstadosService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class PaginacionCursorTest {
+
+    private static final String USUARIO = "analista.cursor";
+    private static final int PRIMERA_SOLICITUD = 9801;
+    private static final int SOLICITUDES = 7;
+    private static final LocalDateTime FECHA = LocalDateTime.of(2025, 5, 1, 9, 0);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private HistorialEstadosService service;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final List<HistorialEstados> creados = new ArrayList<>();
+
+    @BeforeAll
+    void crearHistoriales() {
+        for (int i = 0; i < SOLICITUDES; i++) {
+            HistorialEstados historial = new HistorialEstados();
+            historial.setIdSolicitud(PRIMERA_SOLICITUD + i);
+            historial.setEstado(EstadoHistorialEnum.Borrador);
+            historial.setUsuario(USUARIO);
+            historial.setMotivo("Registro del test de cursor");
+            // Pares con la misma fecha: el id desempata y ninguno se repite ni se pierde entre páginas
+            historial.setFechaHora(FECHA.plusMinutes(i / 2));
+            creados.add(service.save(historial));
+        }
+    }
+
+    @Test
+    void recorreTodasLasPaginasEnOrdenSinRepetir() throws Exception {
+        Comparator<HistorialEstados> porFechaEId = Comparator.comparing(HistorialEstados::getFechaHora)
+                .thenComparing(HistorialEstados::getIdHistorial);
+        assertEquals(ids(creados.stream().sorted(porFechaEId.reversed()).toList()), recorrer("desc"));
+        assertEquals(ids(creados.stream().sorted(porFechaEId).toList()), recorrer("asc"));
+    }
+
+    @Test
+    void rechazaCursoresAlteradosYOrdenamientosDesconocidos() throws Exception {
+        String cursor = pagina(get("/api/historial-estados/usuario/" + USUARIO).param("size", "3")).path("nextCursor").asText();
+
+        // Cursor de otro ordenamiento, base64 inválido, contenido sin el formato esperado y sentido alterado
+        esperarRechazo(get("/api/historial-estados/usuario/" + USUARIO).param("sortDir", "asc").param("cursor", cursor),
+                "otro ordenamiento");
+        esperarRechazo(get("/api/historial-estados/usuario/" + USUARIO).param("cursor", "%%no-es-base64%%"), "cursor no es válido");
+        esperarRechazo(get("/api/historial-estados/usuario/" + USUARIO).param("cursor", codificar("v1|fechaHora|DESC|ayer|7")),
+                "cursor no es válido");
+        String decodificado = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        esperarRechazo(get("/api/historial-estados/usuario/" + USUARIO)
+                .param("cursor", codificar(decodificado.replace("|DESC|", "|SIDEWAYS|"))), "cursor no es válido");
+        esperarRechazo(get("/api/historial-estados/usuario/" + USUARIO)
+                .param("cursor", codificar(decodificado.replace("v1|", "v9|"))), "cursor no es válido");
+
+        esperarRechazo(get("/api/historial-estados/usuario/" + USUARIO).param("sortDir", "DESCENDING"), "DESCENDING");
+        esperarRechazo(get("/api/historial-estados/cursor").param("sortDir", "dsc"), "dsc");
+        esperarRechazo(get("/api/historial-estados/cursor").param("sortBy", "usuario"), "usuario");
+        esperarRechazo(get("/api/historial-estados/cursor").param("size", "0"), "tamaño de página");
+    }
+
+    private List<Integer> recorrer(String sortDir) throws Exception {
+        List<Integer> ids = new ArrayList<>();
+        String cursor = null;
+        int paginas = 0;
+        do {
+            MockHttpServletRequestBuilder request = get("/api/historial-estados/usuario/" + USUARIO)
+                    .param("size", "3").param("sortDir", sortDir);
+            if (cursor != null) {
+                request.param("cursor", cursor);
+            }
+            JsonNode pagina = pagina(request);
+            pagina.path("content").forEach(historial -> ids.add(historial.path("idHistorial").asInt()));
+            cursor = pagina.path("nextCursor").isNull() ? null : pagina.path("nextCursor").asText();
+            paginas++;
+        } while (cursor != null);
+        assertEquals(3, paginas);
+        return ids;
+    }
+
+    private JsonNode pagina(MockHttpServletRequestBuilder request) throws Exception {
+        String cuerpo = mockMvc.perform(request).andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+        JsonNode pagina = objectMapper.readTree(cuerpo);
+        if (pagina.path("content").size() < 3) {
+            assertNull(pagina.path("nextCursor").textValue(), "La última página no devuelve cursor");
+        }
+        return pagina;
+    }
+
+    private void esperarRechazo(MockHttpServletRequestBuilder request, String mensaje) throws Exception {
+        mockMvc.perform(request)
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value(Matchers.containsString(mensaje)));
+    }
+
+    private static String codificar(String valor) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(valor.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static List<Integer> ids(List<HistorialEstados> historiales) {
+        return historiales.stream().map(HistorialEstados::getIdHistorial).toList();
+    }
+}
\ No newline at end of file
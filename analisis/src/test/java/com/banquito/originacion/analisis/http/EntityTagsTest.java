@@ -0,0 +1,25 @@
+package com.banquito.originacion.analisis.http;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+
+import com.banquito.originacion.analisis.exception.PreconditionFailedException;
+
+class EntityTagsTest {
+
+    @Test
+    void ifMatchAceptaSoloVersionesFuertesCoincidentes() {
+        long actual = 3;
+
+        assertDoesNotThrow(() -> EntityTags.precondicion(null).verificar(actual));
+        assertDoesNotThrow(() -> EntityTags.precondicion("*").verificar(actual));
+        assertDoesNotThrow(() -> EntityTags.precondicion(EntityTags.deVersion(actual)).verificar(actual));
+        assertDoesNotThrow(() -> EntityTags.precondicion("\"1\", \"3\"").verificar(actual));
+
+        assertThrows(PreconditionFailedException.class, () -> EntityTags.precondicion("\"2\"").verificar(actual));
+        assertThrows(PreconditionFailedException.class, () -> EntityTags.precondicion("W/\"3\"").verificar(actual));
+        assertThrows(PreconditionFailedException.class, () -> EntityTags.precondicion("\"abc\"").verificar(actual));
+    }
+}
\ No newline at end of file
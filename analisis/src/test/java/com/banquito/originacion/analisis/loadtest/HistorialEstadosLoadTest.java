@@ -0,0 +1,168 @@
+package com.banquito.originacion.analisis.loadtest;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.banquito.originacion.analisis.AnalisisApplication;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+// Compara hilos de plataforma y virtuales en Tomcat bajo la misma carga concurrente.
+// Ejecutar con: mvn test -Dsurefire.excludedGroups= -Dgroups=benchmark -Dtest=HistorialEstadosLoadTest
+// Parámetros: -Dloadtest.clientes=200 -Dloadtest.duracion-s=10 -Dloadtest.pool=10 -Dloadtest.lecturas=0.8
+@Tag("benchmark")
+class HistorialEstadosLoadTest {
+
+    private static final int CLIENTES = Integer.getInteger("loadtest.clientes", 200);
+    private static final int DURACION_S = Integer.getInteger("loadtest.duracion-s", 10);
+    private static final int POOL = Integer.getInteger("loadtest.pool", 10);
+    private static final double LECTURAS = Double.parseDouble(System.getProperty("loadtest.lecturas", "0.8"));
+    private static final int SOLICITUDES_INICIALES = 200;
+
+    @Test
+    void hilosDePlataformaVsVirtuales() throws Exception {
+        System.out.printf("clientes=%d duracion=%ds pool=%d lecturas=%.0f%%%n", CLIENTES, DURACION_S, POOL, LECTURAS * 100);
+        System.out.printf("%-10s %-6s %10s %10s %10s %8s %8s %14s%n",
+                "modo", "op", "req/s", "p50 ms", "p99 ms", "503", "otros", "acquire p99");
+        long total = 0;
+        for (boolean virtuales : new boolean[] {false, true}) {
+            total += ejecutar(virtuales);
+        }
+        assertTrue(total > 0, "La prueba de carga no completó ningún request");
+    }
+
+    private long ejecutar(boolean virtuales) throws Exception {
+        String modo = virtuales ? "virtual" : "plataforma";
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(AnalisisApplication.class)
+                .profiles("test")
+                .properties(
+                        "server.port=0",
+                        "logging.config=classpath:logback-test.xml",
+                        "spring.threads.virtual.enabled=" + virtuales,
+                        "spring.datasource.hikari.maximum-pool-size=" + POOL,
+                        "spring.datasource.url=jdbc:h2:mem:loadtest-" + modo
+                                + ";MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE;"
+                                + "INIT=CREATE SCHEMA IF NOT EXISTS analisis_creditos")
+                .run();
+        try (ExecutorService clientes = Executors.newVirtualThreadPerTaskExecutor()) {
+            int puerto = ((WebServerApplicationContext) context).getWebServer().getPort();
+            String base = "http://localhost:" + puerto + "/api/historial-estados";
+            HttpClient http = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .executor(clientes)
+                    .connectTimeout(Duration.ofSeconds(5))
+                    .build();
+
+            for (int id = 1; id <= SOLICITUDES_INICIALES; id++) {
+                http.send(post(base, id), HttpResponse.BodyHandlers.discarding());
+            }
+
+            MeterRegistry latencias = new SimpleMeterRegistry();
+            Resultado lecturas = new Resultado(latencias, "get");
+            Resultado escrituras = new Resultado(latencias, "post");
+            AtomicInteger siguienteSolicitud = new AtomicInteger(SOLICITUDES_INICIALES);
+            long fin = System.nanoTime() + TimeUnit.SECONDS.toNanos(DURACION_S);
+
+            List<Future<?>> tareas = new ArrayList<>(CLIENTES);
+            for (int i = 0; i < CLIENTES; i++) {
+                tareas.add(clientes.submit(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    while (System.nanoTime() < fin) {
+                        boolean lectura = random.nextDouble() < LECTURAS;
+                        HttpRequest request = lectura
+                                ? HttpRequest.newBuilder(URI.create(base + "/solicitud/" + (1 + random.nextInt(SOLICITUDES_INICIALES)))).GET().build()
+                                : post(base, siguienteSolicitud.incrementAndGet());
+                        (lectura ? lecturas : escrituras).medir(http, request);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> tarea : tareas) {
+                tarea.get();
+            }
+
+            Timer acquire = context.getBean(MeterRegistry.class).find("hikaricp.connections.acquire").timer();
+            String acquireP99 = acquire == null ? "-" : String.format("%.2f ms", percentil(acquire, 0.99));
+            lecturas.imprimir(modo, acquireP99);
+            escrituras.imprimir(modo, acquireP99);
+            return lecturas.timer.count() + escrituras.timer.count();
+        } finally {
+            context.close();
+        }
+    }
+
+    private static HttpRequest post(String base, int idSolicitud) {
+        String body = "{\"idSolicitud\":" + idSolicitud + ",\"estado\":\"Borrador\",\"usuario\":\"loadtest\",\"motivo\":\"Prueba de carga\"}";
+        return HttpRequest.newBuilder(URI.create(base))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private static double percentil(Timer timer, double percentil) {
+        for (ValueAtPercentile valor : timer.takeSnapshot().percentileValues()) {
+            if (valor.percentile() == percentil) {
+                return valor.value(TimeUnit.MILLISECONDS);
+            }
+        }
+        return Double.NaN;
+    }
+
+    private static final class Resultado {
+
+        private final String operacion;
+        private final Timer timer;
+        private final LongAdder rechazados = new LongAdder();
+        private final LongAdder errores = new LongAdder();
+
+        Resultado(MeterRegistry registry, String operacion) {
+            this.operacion = operacion;
+            this.timer = Timer.builder("loadtest." + operacion).publishPercentiles(0.5, 0.99).register(registry);
+        }
+
+        void medir(HttpClient http, HttpRequest request) throws InterruptedException {
+            long inicio = System.nanoTime();
+            try {
+                int status = http.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                if (status == 503) {
+                    rechazados.increment();
+                } else if (status >= 500) {
+                    errores.increment();
+                }
+            } catch (IOException ex) {
+                errores.increment();
+            }
+            timer.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+        }
+
+        void imprimir(String modo, String acquireP99) {
+            System.out.printf("%-10s %-6s %10.0f %10.2f %10.2f %8d %8d %14s%n", modo, operacion,
+                    timer.count() / (double) DURACION_S, percentil(timer, 0.5), percentil(timer, 0.99),
+                    rechazados.sum(), errores.sum(), acquireP99);
+        }
+    }
+}
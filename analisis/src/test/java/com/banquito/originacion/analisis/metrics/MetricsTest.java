@@ -0,0 +1,65 @@
+package com.banquito.originacion.analisis.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+// En los tests Spring Boot usa un SimpleMeterRegistry en memoria en lugar del registro de Prometheus
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class MetricsTest {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void registraTimersContadoresYMetricasDeInfraestructura() {
+        assertEquals(HttpStatus.CREATED, crearHistorial(9101, "Borrador").getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST, crearHistorial(9101, "Aprobada").getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST, crearHistorial(9102, "EnRevision").getStatusCode());
+        restTemplate.getForEntity("/api/historial-estados/solicitud/9101", String.class);
+
+        assertEquals(1.0, meterRegistry.get(TransicionMetrics.TRANSICIONES_INVALIDAS)
+                .tag("desde", "Borrador").tag("hacia", "Aprobada").counter().count());
+        assertEquals(1.0, meterRegistry.get(TransicionMetrics.TRANSICIONES_INVALIDAS)
+                .tag("desde", TransicionMetrics.SIN_ESTADO).tag("hacia", "EnRevision").counter().count());
+
+        Timer save = meterRegistry.get("analisis.service")
+                .tag("class", "com.banquito.originacion.analisis.service.HistorialEstadosService")
+                .tag("method", "save").tag("exception", "none").timer();
+        assertEquals(1, save.count());
+        assertTrue(save.takeSnapshot().percentileValues().length > 0);
+
+        Timer endpoint = meterRegistry.get("http.server.requests")
+                .tag("uri", "/api/historial-estados").tag("method", "POST").tag("status", "201").timer();
+        assertEquals(1, endpoint.count());
+        assertTrue(endpoint.takeSnapshot().percentileValues().length > 0);
+
+        assertNotNull(meterRegistry.find("hikaricp.connections.max").gauge());
+        assertNotNull(meterRegistry.find("hibernate.statements").functionCounter());
+        assertNotNull(meterRegistry.find("cache.gets").tag("cache", "estado-actual").functionCounter());
+    }
+
+    private ResponseEntity<String> crearHistorial(int idSolicitud, String estado) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        String body = "{\"idSolicitud\":" + idSolicitud + ",\"estado\":\"" + estado
+                + "\",\"usuario\":\"analista01\",\"motivo\":\"Prueba de métricas\"}";
+        return restTemplate.postForEntity("/api/historial-estados", new HttpEntity<>(body, headers), String.class);
+    }
+}
@@ -0,0 +1,131 @@
+package com.banquito.originacion.analisis.outbox;
+
+import static com.banquito.originacion.analisis.support.HistorialEstadosFixtures.nuevo;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.banquito.originacion.analisis.AnalisisApplication;
+import com.banquito.originacion.analisis.enums.EstadoHistorialEnum;
+import com.banquito.originacion.analisis.service.HistorialEstadosService;
+import com.banquito.originacion.analisis.service.OutboxService;
+import com.banquito.originacion.analisis.service.OutboxService.ResultadoPublicacion;
+import com.banquito.originacion.analisis.support.PostgresEmbebido;
+
+// Dos instancias con el relay habilitado sobre el mismo PostgreSQL: el advisory lock del relay hace que solo una
+// publique a la vez, sin duplicar eventos ni adelantar un lote de una solicitud a otro
+class OutboxRelayDosNodosTest {
+
+    // Mismo espacio de nombres y clave que usa OutboxService
+    private static final int ADVISORY_LOCK_NAMESPACE = 0x4F555442;
+    private static final int SOLICITUDES = 6;
+    private static final int TRANSICIONES_POR_SOLICITUD = 20;
+
+    @Test
+    @ExtendWith(PostgresEmbebido.class)
+    void dosRelaysConcurrentesPublicanCadaEventoUnaVezYEnOrden() throws Exception {
+        try (ConfigurableApplicationContext nodoA = iniciarNodo();
+                ConfigurableApplicationContext nodoB = iniciarNodo();
+                ExecutorService hilos = Executors.newFixedThreadPool(5)) {
+            HistorialEstadosService historial = nodoA.getBean(HistorialEstadosService.class);
+            List<OutboxService> relays = List.of(nodoA.getBean(OutboxService.class), nodoB.getBean(OutboxService.class));
+            List<PublicadorEventosMemoria> publicadores = List.of(
+                    nodoA.getBean(PublicadorEventosMemoria.class), nodoB.getBean(PublicadorEventosMemoria.class));
+
+            // Con el lock tomado por otra sesión, el relay no publica nada
+            for (int idSolicitud = 1; idSolicitud <= SOLICITUDES; idSolicitud++) {
+                historial.save(nuevo(idSolicitud, EstadoHistorialEnum.Borrador));
+            }
+            try (Connection conexion = PostgresEmbebido.actual().getPostgresDatabase().getConnection(); Statement statement = conexion.createStatement()) {
+                statement.execute("SELECT pg_advisory_lock(" + ADVISORY_LOCK_NAMESPACE + ", 0)");
+                assertEquals(0, relays.get(1).publicarPendientes().publicados());
+                statement.execute("SELECT pg_advisory_unlock(" + ADVISORY_LOCK_NAMESPACE + ", 0)");
+            }
+            assertEquals(SOLICITUDES, relays.get(1).publicarPendientes().publicados());
+
+            // Un escritor registra transiciones mientras los relays de ambos nodos publican en paralelo
+            CountDownLatch inicio = new CountDownLatch(1);
+            List<Future<?>> tareas = new ArrayList<>();
+            tareas.add(hilos.submit(() -> {
+                inicio.await();
+                for (int i = 0; i < TRANSICIONES_POR_SOLICITUD; i++) {
+                    EstadoHistorialEnum estado = i % 2 == 0 ? EstadoHistorialEnum.EnRevision : EstadoHistorialEnum.Borrador;
+                    for (int idSolicitud = 1; idSolicitud <= SOLICITUDES; idSolicitud++) {
+                        historial.save(nuevo(idSolicitud, estado));
+                    }
+                }
+                return null;
+            }));
+            for (int hilo = 0; hilo < 4; hilo++) {
+                OutboxService relay = relays.get(hilo % 2);
+                tareas.add(hilos.submit(() -> {
+                    inicio.await();
+                    for (int i = 0; i < 200; i++) {
+                        relay.publicarPendientes();
+                    }
+                    return null;
+                }));
+            }
+            inicio.countDown();
+            for (Future<?> tarea : tareas) {
+                tarea.get();
+            }
+            ResultadoPublicacion ultima = relays.get(0).publicarPendientes();
+            assertEquals(0, ultima.pendientes());
+
+            int total = SOLICITUDES + SOLICITUDES * TRANSICIONES_POR_SOLICITUD;
+            Set<Long> idsEvento = new HashSet<>();
+            for (PublicadorEventosMemoria publicador : publicadores) {
+                for (EventoTransicion evento : publicador.getPublicados()) {
+                    assertTrue(idsEvento.add(evento.idEvento()), "Evento publicado dos veces: " + evento.idEvento());
+                }
+                assertEnOrdenPorSolicitud(publicador.getPublicados());
+            }
+            assertEquals(total, idsEvento.size());
+        }
+    }
+
+    // Dentro de lo publicado por un nodo, las versiones de cada solicitud solo crecen
+    private static void assertEnOrdenPorSolicitud(List<EventoTransicion> eventos) {
+        long[] ultimaVersion = new long[SOLICITUDES + 1];
+        for (EventoTransicion evento : eventos) {
+            assertTrue(evento.version() > ultimaVersion[evento.idSolicitud()],
+                    "Evento fuera de orden en la solicitud " + evento.idSolicitud());
+            ultimaVersion[evento.idSolicitud()] = evento.version();
+        }
+    }
+
+    private static ConfigurableApplicationContext iniciarNodo() {
+        String[] propiedades = Stream.concat(Arrays.stream(PostgresEmbebido.propiedades()), Stream.of(
+                "spring.flyway.enabled=true",
+                "spring.jpa.hibernate.ddl-auto=validate",
+                "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.PostgreSQLDialect",
+                "analisis.historial.lock.advisory=true",
+                "analisis.outbox.relay.tamanio-lote=5"))
+                .map(propiedad -> "--" + propiedad).toArray(String[]::new);
+        return new SpringApplicationBuilder(AnalisisApplication.class)
+                .profiles("test")
+                .web(WebApplicationType.NONE)
+                .properties("logging.config=classpath:logback-test.xml")
+                // Como argumentos de línea de comandos para que prevalezcan sobre application-test.properties
+                .run(propiedades);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,96 @@
+package com.banquito.originacion.analisis.outbox;
+
+import static com.banquito.originacion.analisis.support.HistorialEstadosFixtures.nuevo;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.banquito.originacion.analisis.enums.EstadoHistorialEnum;
+import com.banquito.originacion.analisis.exception.InvalidTransitionException;
+import com.banquito.originacion.analisis.service.HistorialEstadosService;
+import com.banquito.originacion.analisis.service.OutboxService;
+import com.banquito.originacion.analisis.service.OutboxService.ResultadoPublicacion;
+
+// Tamaño de lote 2 para que una publicación recorra varios lotes
+@SpringBootTest(properties = "analisis.outbox.relay.tamanio-lote=2")
+class OutboxRelayTest {
+
+    private static final int SOLICITUD_A = 9501;
+    private static final int SOLICITUD_B = 9502;
+    private static final int SOLICITUD_DESCARTADA = 9503;
+
+    @Autowired
+    private HistorialEstadosService historialService;
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @Autowired
+    private PublicadorEventosMemoria publicador;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void publicaLasTransicionesConfirmadasEnOrdenYAlMenosUnaVez() {
+        // Eventos que hayan dejado otros tests en la misma base
+        outboxService.publicarPendientes();
+        publicador.limpiar();
+
+        historialService.save(nuevo(SOLICITUD_A, EstadoHistorialEnum.Borrador));
+        historialService.saveAll(List.of(
+                nuevo(SOLICITUD_B, EstadoHistorialEnum.Borrador),
+                nuevo(SOLICITUD_A, EstadoHistorialEnum.EnRevision),
+                nuevo(SOLICITUD_B, EstadoHistorialEnum.Aprobada),
+                nuevo(SOLICITUD_B, EstadoHistorialEnum.EnRevision)));
+        historialService.save(nuevo(SOLICITUD_A, EstadoHistorialEnum.Aprobada));
+        // Transición rechazada: la transacción no se confirma y no deja evento
+        assertThrows(InvalidTransitionException.class,
+                () -> historialService.save(nuevo(SOLICITUD_A, EstadoHistorialEnum.Borrador)));
+        // Revertida después de guardar: el evento se descarta con el historial
+        TransactionTemplate transaccion = new TransactionTemplate(transactionManager);
+        transaccion.executeWithoutResult(status -> {
+            historialService.save(nuevo(SOLICITUD_DESCARTADA, EstadoHistorialEnum.Borrador));
+            status.setRollbackOnly();
+        });
+
+        publicador.fallarProximasPublicaciones(1);
+        ResultadoPublicacion fallida = outboxService.publicarPendientes();
+        assertFalse(fallida.completo());
+        assertEquals(0, fallida.publicados());
+        assertEquals(5, fallida.pendientes(), "Nada se elimina si el destino falla");
+
+        ResultadoPublicacion resultado = outboxService.publicarPendientes();
+        assertTrue(resultado.completo());
+        assertEquals(5, resultado.publicados());
+        assertEquals(3, resultado.lotes());
+        assertEquals(0, resultado.pendientes());
+
+        List<EventoTransicion> eventosA = new ArrayList<>();
+        List<EventoTransicion> eventosB = new ArrayList<>();
+        for (EventoTransicion evento : publicador.getPublicados()) {
+            assertTrue(evento.idSolicitud() != SOLICITUD_DESCARTADA, "Evento de una transacción revertida");
+            (evento.idSolicitud() == SOLICITUD_A ? eventosA : eventosB).add(evento);
+        }
+        assertEquals(List.of(EstadoHistorialEnum.Borrador, EstadoHistorialEnum.EnRevision, EstadoHistorialEnum.Aprobada),
+                eventosA.stream().map(EventoTransicion::estado).toList());
+        assertEquals(List.of(1L, 2L, 3L), eventosA.stream().map(EventoTransicion::version).toList());
+        assertNull(eventosA.get(0).estadoAnterior());
+        assertEquals(EstadoHistorialEnum.EnRevision, eventosA.get(2).estadoAnterior());
+        assertEquals(List.of(EstadoHistorialEnum.Borrador, EstadoHistorialEnum.EnRevision),
+                eventosB.stream().map(EventoTransicion::estado).toList(), "Borrador -> Aprobada se rechaza dentro del lote");
+
+        assertEquals(0, outboxService.publicarPendientes().publicados(), "Lo publicado se elimina del outbox");
+    }
+}
\ No newline at end of file
@@ -0,0 +1,111 @@
+package com.banquito.originacion.analisis.replica;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.banquito.originacion.analisis.model.ObservacionAnalistas;
+import com.banquito.originacion.analisis.service.ObservacionAnalistasService;
+
+// Dos bases H2 en memoria sin replicación entre ellas: cada una tiene filas que la otra no, así que el resultado
+// de una consulta indica qué base la atendió
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:primaria;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1;"
+                + "INIT=CREATE SCHEMA IF NOT EXISTS analisis_creditos",
+        "analisis.datasource.replica.enabled=true",
+        "analisis.datasource.replica.url=jdbc:h2:mem:replica;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1;"
+                + "INIT=CREATE SCHEMA IF NOT EXISTS analisis_creditos",
+        "analisis.datasource.replica.username=sa",
+        "analisis.datasource.replica.password=",
+        "analisis.datasource.replica.consulta-retraso=SELECT segundos FROM analisis_creditos.retraso_replica",
+        // El test invoca la verificación del retraso directamente
+        "analisis.datasource.replica.verificacion-ms=3600000",
+        "analisis.datasource.replica.ventana-escritura-ms=" + ReplicaRoutingTest.VENTANA_MS,
+        "analisis.datasource.replica.retraso-maximo-ms=1000"
+})
+class ReplicaRoutingTest {
+
+    static final long VENTANA_MS = 1500;
+
+    private static final int SOLICITUD_PRIMARIA = 9401;
+    private static final int SOLICITUD_REPLICA = 9402;
+
+    @Autowired
+    @Qualifier("primariaDataSource")
+    private DataSource primaria;
+
+    @Autowired
+    @Qualifier("replicaDataSource")
+    private DataSource replica;
+
+    @Autowired
+    private MonitorRetrasoReplica monitor;
+
+    @Autowired
+    private ObservacionAnalistasService service;
+
+    @BeforeEach
+    void prepararReplica() {
+        JdbcTemplate replicaJdbc = new JdbcTemplate(replica);
+        replicaJdbc.execute("DROP ALL OBJECTS");
+        // Mismo esquema que la primaria (generado por Hibernate), sin datos
+        for (String sentencia : new JdbcTemplate(primaria).queryForList("SCRIPT NODATA", String.class)) {
+            if (!sentencia.startsWith("CREATE USER")) {
+                replicaJdbc.execute(sentencia);
+            }
+        }
+        replicaJdbc.execute("CREATE TABLE analisis_creditos.retraso_replica (segundos NUMERIC)");
+        replicaJdbc.update("INSERT INTO analisis_creditos.retraso_replica VALUES (0)");
+        replicaJdbc.update("INSERT INTO analisis_creditos.observacion_analistas "
+                + "(id_solicitud, usuario, fecha_hora, razon_intervencion, version) VALUES (?, ?, ?, ?, 1)",
+                SOLICITUD_REPLICA, "analista.replica", LocalDateTime.now(), "Fila que solo existe en la réplica");
+        monitor.verificar();
+    }
+
+    @Test
+    void lecturasVanALaReplicaSalvoEscrituraRecienteORetraso() throws Exception {
+        assertEquals(1, service.findByIdSolicitud(SOLICITUD_REPLICA).size(), "Lectura readOnly desde la réplica");
+
+        ObservacionAnalistas observacion = new ObservacionAnalistas();
+        observacion.setIdSolicitud(SOLICITUD_PRIMARIA);
+        observacion.setUsuario("analista.primaria");
+        observacion.setRazonIntervencion("Fila escrita en la primaria durante el test");
+        service.save(observacion);
+        assertEquals(1, new JdbcTemplate(primaria).queryForObject(
+                "SELECT COUNT(*) FROM analisis_creditos.observacion_analistas WHERE id_solicitud = ?", Integer.class,
+                SOLICITUD_PRIMARIA), "Las escrituras van a la primaria");
+
+        // Dentro de la ventana la solicitud recién modificada se lee de la primaria; las demás siguen en la réplica
+        assertEquals(1, service.findByIdSolicitud(SOLICITUD_PRIMARIA).size(), "Lectura de la propia escritura");
+        assertEquals(1, service.findByIdSolicitud(SOLICITUD_REPLICA).size());
+        // Las lecturas por id no pasan por la réplica
+        assertEquals(SOLICITUD_PRIMARIA, service.findById(observacion.getIdObservacionAnalista()).getIdSolicitud());
+
+        Thread.sleep(VENTANA_MS + 500);
+        assertEquals(List.of(), service.findByIdSolicitud(SOLICITUD_PRIMARIA), "Vencida la ventana vuelve a la réplica");
+
+        new JdbcTemplate(replica).update("UPDATE analisis_creditos.retraso_replica SET segundos = 30");
+        monitor.verificar();
+        assertEquals(List.of(), service.findByIdSolicitud(SOLICITUD_REPLICA), "Réplica atrasada: lectura en la primaria");
+        assertEquals(1, service.findByIdSolicitud(SOLICITUD_PRIMARIA).size());
+
+        new JdbcTemplate(replica).execute("DROP TABLE analisis_creditos.retraso_replica");
+        monitor.verificar();
+        assertEquals(1, service.findByIdSolicitud(SOLICITUD_PRIMARIA).size(), "Réplica sin respuesta: lectura en la primaria");
+
+        new JdbcTemplate(replica).execute("CREATE TABLE analisis_creditos.retraso_replica (segundos NUMERIC)");
+        new JdbcTemplate(replica).update("INSERT INTO analisis_creditos.retraso_replica VALUES (0.2)");
+        monitor.verificar();
+        assertEquals(1, service.findByIdSolicitud(SOLICITUD_REPLICA).size(), "Réplica al día de nuevo");
+    }
+}
\ No newline at end of file
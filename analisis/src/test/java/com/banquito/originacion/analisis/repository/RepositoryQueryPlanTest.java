@@ -0,0 +1,431 @@
+package com.banquito.originacion.analisis.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.banquito.originacion.analisis.analitica.ResumenTransicion;
+import com.banquito.originacion.analisis.archivo.SolicitudEnArchivo;
+import com.banquito.originacion.analisis.archivo.TablaParticionada;
+import com.banquito.originacion.analisis.busqueda.CursorBusqueda;
+import com.banquito.originacion.analisis.busqueda.FiltroBusqueda;
+import com.banquito.originacion.analisis.enums.EstadoHistorialEnum;
+import com.banquito.originacion.analisis.enums.OrdenBusquedaEnum;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.banquito.originacion.analisis.support.PostgresEmbebido;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+
+// Ejecuta cada finder de los repositorios contra un PostgreSQL embebido con el esquema de Flyway y datos
+// de volumen realista, captura el SQL que ejecutan y falla si su EXPLAIN usa un Seq Scan sobre una tabla grande
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "spring.flyway.enabled=true",
+        "spring.jpa.hibernate.ddl-auto=validate",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.PostgreSQLDialect",
+        "analisis.historial.lock.advisory=true"
+})
+@Import(RepositoryQueryPlanTest.CapturaSqlConfig.class)
+@ExtendWith(PostgresEmbebido.class)
+class RepositoryQueryPlanTest {
+
+    private static final Set<String> TABLAS_GRANDES = Set.of("historial_estados", "observacion_analistas", "solicitud_estado_actual",
+            "analitica_transicion", "analitica_transicion_diaria", "analitica_solicitud_pendiente", "solicitud_archivada");
+
+    // Particiones mensuales (historial_estados_2024_01) y por defecto: cuentan como su tabla padre
+    private static final Pattern PARTICION = Pattern.compile("_(\\d{4}_\\d{2}|default)$");
+
+    // Consultas que por definición recorren toda la tabla
+    private static final Set<String> EXENTAS = Set.of(
+            "SolicitudEstadoActualRepository.countGroupByEstado",
+            "SolicitudEstadoActualRepository.deleteSinHistorial",
+            "VistaRepository.findHistorialPagina",
+            "VistaRepository.findObservacionesPagina",
+            "AnaliticaRepository.marcarTodasPendientes",
+            "AnaliticaRepository.eliminarResumen");
+
+    private static final int SOLICITUDES = 50_000;
+    private static final int HISTORIALES = 200_000;
+    private static final int OBSERVACIONES = 100_000;
+    private static final LocalDateTime INICIO = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    @Autowired
+    private HistorialEstadosRepository historialEstadosRepository;
+
+    @Autowired
+    private ObservacionAnalistasRepository observacionAnalistasRepository;
+
+    @Autowired
+    private SolicitudEstadoActualRepository solicitudEstadoActualRepository;
+
+    @Autowired
+    private AnaliticaRepository analiticaRepository;
+
+    @Autowired
+    private VistaRepository vistaRepository;
+
+    @Autowired
+    private BusquedaObservacionesRepository busquedaObservacionesRepository;
+
+    @Autowired
+    private ArchivoRepository archivoRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private CapturaSql capturaSql;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        PostgresEmbebido.registrar(registry);
+    }
+
+    @Test
+    void ningunFinderRecorreSecuencialmenteTablasGrandes() throws Exception {
+        cargarDatos();
+        // En una partición vacía (los meses adelantados) el Seq Scan es el plan correcto
+        Set<String> vacias = new TreeSet<>(jdbcTemplate.queryForList("SELECT relname FROM pg_class "
+                + "WHERE relnamespace = CAST('analisis_creditos' AS regnamespace) AND relispartition AND reltuples <= 0", String.class));
+
+        Integer idSolicitud = 12_345;
+        String usuario = "analista7";
+        // Estados poco frecuentes: para los frecuentes el Seq Scan es el plan correcto
+        EstadoHistorialEnum estadoSelectivo = EstadoHistorialEnum.Cancelada;
+        List<Integer> idsSolicitud = IntStream.rangeClosed(1, 100).map(i -> i * 397).boxed().toList();
+        Sort cursor = Sort.by(Sort.Order.desc("fechaHora"), Sort.Order.desc("idHistorial"));
+        Sort cursorObservaciones = Sort.by(Sort.Order.desc("fechaHora"), Sort.Order.desc("idObservacionAnalista"));
+        KeysetScrollPosition segundaPagina = ScrollPosition.forward(Map.of("fechaHora", INICIO.plusMinutes(150_000), "idHistorial", 150_000));
+        KeysetScrollPosition segundaPaginaObservaciones = ScrollPosition.forward(
+                Map.of("fechaHora", INICIO.plusMinutes(50_000), "idObservacionAnalista", 50_000));
+
+        Map<String, Runnable> finders = new LinkedHashMap<>();
+        finders.put("HistorialEstadosRepository.findByIdSolicitud", () -> historialEstadosRepository.findByIdSolicitud(idSolicitud));
+        finders.put("HistorialEstadosRepository.findByEstado", () -> {
+            historialEstadosRepository.findByEstado(estadoSelectivo, ScrollPosition.keyset(), cursor, Limit.of(20));
+            historialEstadosRepository.findByEstado(estadoSelectivo, segundaPagina, cursor, Limit.of(20));
+        });
+        finders.put("HistorialEstadosRepository.findByIdSolicitudAndEstado",
+                () -> historialEstadosRepository.findByIdSolicitudAndEstado(idSolicitud, EstadoHistorialEnum.EnRevision));
+        finders.put("HistorialEstadosRepository.findFirstByIdSolicitudOrderByFechaHoraDesc",
+                () -> historialEstadosRepository.findFirstByIdSolicitudOrderByFechaHoraDesc(idSolicitud));
+        finders.put("HistorialEstadosRepository.findTimelineByIdSolicitud", () -> {
+            historialEstadosRepository.findTimelineByIdSolicitud(idSolicitud, ScrollPosition.keyset(), cursor, Limit.of(20));
+            historialEstadosRepository.findTimelineByIdSolicitud(idSolicitud, segundaPagina, cursor, Limit.of(20));
+        });
+        finders.put("HistorialEstadosRepository.findHuellaByIdSolicitud", () -> historialEstadosRepository.findHuellaByIdSolicitud(idSolicitud));
+        finders.put("HistorialEstadosRepository.findLatestByIdSolicitudIn",
+                () -> historialEstadosRepository.findLatestByIdSolicitudIn(idsSolicitud));
+
+        finders.put("ObservacionAnalistasRepository.findByIdSolicitud", () -> observacionAnalistasRepository.findByIdSolicitud(idSolicitud));
+        finders.put("ObservacionAnalistasRepository.findByIdSolicitudAndUsuario",
+                () -> observacionAnalistasRepository.findByIdSolicitudAndUsuario(idSolicitud, usuario));
+        finders.put("ObservacionAnalistasRepository.findTimelineByIdSolicitud", () -> {
+            observacionAnalistasRepository.findTimelineByIdSolicitud(idSolicitud, ScrollPosition.keyset(), cursorObservaciones, Limit.of(20));
+            observacionAnalistasRepository.findTimelineByIdSolicitud(idSolicitud, segundaPaginaObservaciones, cursorObservaciones, Limit.of(20));
+        });
+        finders.put("ObservacionAnalistasRepository.findHuellaByIdSolicitud",
+                () -> observacionAnalistasRepository.findHuellaByIdSolicitud(idSolicitud));
+
+        finders.put("SolicitudEstadoActualRepository.findByEstado", () -> {
+            solicitudEstadoActualRepository.findByEstado(estadoSelectivo, PageRequest.of(0, 20, Sort.by("idSolicitud")));
+        });
+        finders.put("SolicitudEstadoActualRepository.countByEstado", () -> solicitudEstadoActualRepository.countByEstado(estadoSelectivo));
+        finders.put("SolicitudEstadoActualRepository.countGroupByEstado", () -> solicitudEstadoActualRepository.countGroupByEstado());
+        finders.put("SolicitudEstadoActualRepository.findIdsSolicitudConHistorial", () -> {
+            solicitudEstadoActualRepository.findIdsSolicitudConHistorial(Integer.MIN_VALUE, Limit.of(500));
+            solicitudEstadoActualRepository.findIdsSolicitudConHistorial(SOLICITUDES / 2, Limit.of(500));
+        });
+        finders.put("SolicitudEstadoActualRepository.deleteSinHistorial",
+                () -> sinConfirmar(solicitudEstadoActualRepository::deleteSinHistorial));
+
+        finders.put("VistaRepository.findHistorialById", () -> vistaRepository.findHistorialById(150_000));
+        finders.put("VistaRepository.findHistorialByIdSolicitud", () -> vistaRepository.findHistorialByIdSolicitud(idSolicitud));
+        finders.put("VistaRepository.findHistorialPagina", () -> vistaRepository.findHistorialPagina(PageRequest.of(10, 20, cursor)));
+        finders.put("VistaRepository.findHistorial", () -> {
+            vistaRepository.findHistorial(ScrollPosition.keyset(), cursor, 20);
+            vistaRepository.findHistorial(segundaPagina, cursor, 20);
+        });
+        finders.put("VistaRepository.findHistorialByEstado", () -> {
+            vistaRepository.findHistorialByEstado(estadoSelectivo, ScrollPosition.keyset(), cursor, 20);
+            vistaRepository.findHistorialByEstado(estadoSelectivo, segundaPagina, cursor, 20);
+        });
+        finders.put("VistaRepository.findHistorialByUsuario", () -> {
+            vistaRepository.findHistorialByUsuario(usuario, ScrollPosition.keyset(), cursor, 20);
+            vistaRepository.findHistorialByUsuario(usuario, segundaPagina, cursor, 20);
+        });
+        finders.put("VistaRepository.findEstadoActualByEstado", () -> {
+            vistaRepository.findEstadoActualByEstado(estadoSelectivo, ScrollPosition.keyset(), Sort.by("idSolicitud"), 20);
+            vistaRepository.findEstadoActualByEstado(estadoSelectivo, ScrollPosition.forward(Map.of("idSolicitud", SOLICITUDES / 2)),
+                    Sort.by("idSolicitud"), 20);
+        });
+        finders.put("VistaRepository.findObservacionById", () -> vistaRepository.findObservacionById(50_000));
+        finders.put("VistaRepository.findObservacionesByIdSolicitud", () -> vistaRepository.findObservacionesByIdSolicitud(idSolicitud));
+        finders.put("VistaRepository.findObservacionesPagina",
+                () -> vistaRepository.findObservacionesPagina(PageRequest.of(10, 20, cursorObservaciones)));
+        finders.put("VistaRepository.findObservaciones", () -> {
+            vistaRepository.findObservaciones(ScrollPosition.keyset(), cursorObservaciones, 20);
+            vistaRepository.findObservaciones(segundaPaginaObservaciones, cursorObservaciones, 20);
+        });
+        finders.put("VistaRepository.findObservacionesByUsuario", () -> {
+            vistaRepository.findObservacionesByUsuario(usuario, ScrollPosition.keyset(), cursorObservaciones, 20);
+            vistaRepository.findObservacionesByUsuario(usuario, segundaPaginaObservaciones, cursorObservaciones, 20);
+        });
+
+        finders.put("BusquedaObservacionesRepository.buscar", () -> {
+            busquedaObservacionesRepository.buscar(new FiltroBusqueda("mora", null, null, null, null), OrdenBusquedaEnum.RELEVANCIA, null, 21);
+            busquedaObservacionesRepository.buscar(new FiltroBusqueda("mora tarjeta", null, null, null, null), OrdenBusquedaEnum.RELEVANCIA,
+                    new CursorBusqueda(OrdenBusquedaEnum.RELEVANCIA, 0.1f, null, 50_000), 21);
+            busquedaObservacionesRepository.buscar(new FiltroBusqueda("\"documentación adicional\" -ingresos", null, usuario,
+                    INICIO, INICIO.plusDays(30)), OrdenBusquedaEnum.RELEVANCIA, null, 21);
+            busquedaObservacionesRepository.buscar(new FiltroBusqueda("prueba", idSolicitud, null, null, null), OrdenBusquedaEnum.RELEVANCIA,
+                    null, 21);
+            busquedaObservacionesRepository.buscar(new FiltroBusqueda("prueba", null, null, null, null), OrdenBusquedaEnum.FECHA, null, 21);
+            busquedaObservacionesRepository.buscar(new FiltroBusqueda("prueba", null, null, null, null), OrdenBusquedaEnum.FECHA,
+                    new CursorBusqueda(OrdenBusquedaEnum.FECHA, 0, INICIO.plusMinutes(50_000), 50_000), 21);
+        });
+
+        LocalDate diaResumen = LocalDate.of(2023, 6, 15);
+        finders.put("AnaliticaRepository.marcarPendientes", () -> sinConfirmar(() -> analiticaRepository.marcarPendientes(idsSolicitud)));
+        finders.put("AnaliticaRepository.marcarTodasPendientes", () -> sinConfirmar(analiticaRepository::marcarTodasPendientes));
+        finders.put("AnaliticaRepository.eliminarResumen", () -> sinConfirmar(analiticaRepository::eliminarResumen));
+        finders.put("AnaliticaRepository.findPendientes", () -> analiticaRepository.findPendientes(500));
+        finders.put("AnaliticaRepository.eliminarPendientes", () -> sinConfirmar(() -> analiticaRepository.eliminarPendientes(idsSolicitud)));
+        finders.put("AnaliticaRepository.calcularTransicionesDesdeHistorial",
+                () -> analiticaRepository.calcularTransicionesDesdeHistorial(idsSolicitud));
+        finders.put("AnaliticaRepository.findTransiciones", () -> analiticaRepository.findTransiciones(idsSolicitud));
+        finders.put("AnaliticaRepository.reemplazarTransiciones",
+                () -> sinConfirmar(() -> analiticaRepository.reemplazarTransiciones(idsSolicitud, List.of())));
+        finders.put("AnaliticaRepository.aplicarDiferencias", () -> sinConfirmar(() -> analiticaRepository.aplicarDiferencias(List.of(
+                new ResumenTransicion(diaResumen, EstadoHistorialEnum.EnRevision, EstadoHistorialEnum.Aprobada, 3, -1, -100)))));
+        finders.put("AnaliticaRepository.findResumenPorTransicion",
+                () -> analiticaRepository.findResumenPorTransicion(diaResumen.withDayOfMonth(1), diaResumen.withDayOfMonth(30)));
+        finders.put("AnaliticaRepository.findEntradasPorDia",
+                () -> analiticaRepository.findEntradasPorDia(diaResumen.withDayOfMonth(1), diaResumen.withDayOfMonth(30)));
+
+        finders.put("ArchivoRepository.findUbicaciones",
+                () -> archivoRepository.findUbicaciones(TablaParticionada.HISTORIAL_ESTADOS, idSolicitud));
+        finders.put("ArchivoRepository.findIdsSolicitudArchivados",
+                () -> archivoRepository.findIdsSolicitudArchivados(TablaParticionada.HISTORIAL_ESTADOS, idsSolicitud));
+        finders.put("ArchivoRepository.registrar", () -> sinConfirmar(() -> archivoRepository.registrar(
+                TablaParticionada.OBSERVACION_ANALISTAS, LocalDate.of(2022, 1, 1), "prueba.ndjson.gz", 1, 10,
+                List.of(new SolicitudEnArchivo(idSolicitud, 0, 10, 1)))));
+
+        // Un finder nuevo sin caso en este test hace fallar la verificación
+        assertEquals(metodosDeclarados(HistorialEstadosRepository.class, ObservacionAnalistasRepository.class,
+                SolicitudEstadoActualRepository.class, AnaliticaRepository.class, VistaRepository.class,
+                BusquedaObservacionesRepository.class, ArchivoRepository.class), new TreeSet<>(finders.keySet()));
+
+        List<String> fallas = new ArrayList<>();
+        try (Connection explain = PostgresEmbebido.actual().getPostgresDatabase().getConnection()) {
+            for (Map.Entry<String, Runnable> finder : finders.entrySet()) {
+                capturaSql.limpiar();
+                finder.getValue().run();
+                List<QueryInfo> consultas = capturaSql.consultas();
+                assertTrue(!consultas.isEmpty(), finder.getKey() + " no ejecutó ninguna consulta");
+                if (EXENTAS.contains(finder.getKey())) {
+                    continue;
+                }
+                for (QueryInfo consulta : consultas) {
+                    if (consulta.getQuery().stripLeading().toLowerCase().startsWith("insert")) {
+                        continue;
+                    }
+                    JsonNode plan = explain(explain, consulta);
+                    Set<String> secuenciales = new TreeSet<>();
+                    buscarSeqScan(plan.get(0).get("Plan"), vacias, secuenciales);
+                    if (!secuenciales.isEmpty()) {
+                        fallas.add(finder.getKey() + ": Seq Scan sobre " + secuenciales + "\n  " + consulta.getQuery()
+                                + "\n  " + plan.toPrettyString().replace("\n", "\n  "));
+                    }
+                }
+            }
+        }
+        assertTrue(fallas.isEmpty(), "Consultas con Seq Scan:\n" + String.join("\n", fallas));
+    }
+
+    private void cargarDatos() {
+        // Flyway solo crea los meses próximos; sin los meses de la carga todo caería en la partición por defecto
+        jdbcTemplate.execute("SELECT analisis_creditos.crear_particion_mensual(t, CAST(m AS DATE)) "
+                + "FROM (VALUES ('historial_estados'), ('observacion_analistas')) AS tablas(t), "
+                + "generate_series(DATE '2024-01-01', DATE '2024-06-01', INTERVAL '1 month') AS m");
+        jdbcTemplate.update("INSERT INTO analisis_creditos.historial_estados "
+                + "(id_historial, id_solicitud, estado, fecha_hora, usuario, motivo, version) "
+                + "SELECT i, (i % ?) + 1, "
+                + "CASE WHEN i % 100 < 40 THEN 'Borrador' WHEN i % 100 < 75 THEN 'EnRevision' "
+                + "WHEN i % 100 < 90 THEN 'Aprobada' WHEN i % 100 < 98 THEN 'Rechazada' ELSE 'Cancelada' END, "
+                + "TIMESTAMP '2024-01-01' + i * INTERVAL '1 minute', 'analista' || (i % 500), 'Carga de prueba', 1 "
+                + "FROM generate_series(1, ?) AS i", SOLICITUDES, HISTORIALES);
+        jdbcTemplate.update("INSERT INTO analisis_creditos.observacion_analistas "
+                + "(id_observacion_analista, id_solicitud, usuario, fecha_hora, razon_intervencion, version) "
+                + "SELECT i, (i % ?) + 1, 'analista' || (i % 500), TIMESTAMP '2024-01-01' + i * INTERVAL '1 minute', "
+                + "CASE WHEN i % 200 = 0 THEN 'Cliente con mora en la tarjeta de crédito' "
+                + "WHEN i % 7 = 0 THEN 'Se requiere documentación adicional de ingresos' ELSE 'Observación de prueba' END, 1 "
+                + "FROM generate_series(1, ?) AS i", SOLICITUDES, OBSERVACIONES);
+        jdbcTemplate.update("INSERT INTO analisis_creditos.solicitud_estado_actual "
+                + "(id_solicitud, id_historial, estado, fecha_hora, usuario, motivo, version) "
+                + "SELECT DISTINCT ON (id_solicitud) id_solicitud, id_historial, estado, fecha_hora, usuario, motivo, version "
+                + "FROM analisis_creditos.historial_estados ORDER BY id_solicitud, fecha_hora DESC");
+        // Resumen de analítica: transiciones con LAG sobre el historial cargado y tres años de resumen diario
+        jdbcTemplate.update("INSERT INTO analisis_creditos.analitica_transicion "
+                + "(id_historial, id_solicitud, dia, estado_desde, estado_hacia, duracion_segundos) "
+                + "SELECT id_historial, id_solicitud, CAST(fecha_hora AS DATE), estado_anterior, estado, "
+                + "CAST(EXTRACT(EPOCH FROM fecha_hora - fecha_anterior) AS BIGINT) "
+                + "FROM (SELECT id_historial, id_solicitud, estado, fecha_hora, "
+                + "LAG(estado) OVER (PARTITION BY id_solicitud ORDER BY fecha_hora, id_historial) AS estado_anterior, "
+                + "LAG(fecha_hora) OVER (PARTITION BY id_solicitud ORDER BY fecha_hora, id_historial) AS fecha_anterior "
+                + "FROM analisis_creditos.historial_estados) h WHERE estado_anterior IS NOT NULL");
+        jdbcTemplate.update("INSERT INTO analisis_creditos.analitica_transicion_diaria "
+                + "(dia, estado_desde, estado_hacia, cubeta, cantidad, duracion_total_segundos) "
+                + "SELECT CAST(d AS DATE), desde.e, hacia.e, cubeta, 10, 10 * cubeta * 1000 "
+                + "FROM generate_series(DATE '2021-01-01', DATE '2023-12-31', INTERVAL '1 day') AS d, "
+                + "(VALUES ('Borrador'), ('EnRevision')) AS desde(e), "
+                + "(VALUES ('EnRevision'), ('Aprobada'), ('Rechazada'), ('Cancelada'), ('Borrador')) AS hacia(e), "
+                + "generate_series(0, 9) AS cubeta");
+        jdbcTemplate.update("INSERT INTO analisis_creditos.analitica_solicitud_pendiente (id_solicitud) "
+                + "SELECT i FROM generate_series(1, ?) AS i", SOLICITUDES);
+        // Dos años ya archivados: cada solicitud en un mes distinto
+        jdbcTemplate.update("INSERT INTO analisis_creditos.particion_archivada (tabla, mes, archivo, filas, bytes, fecha_archivo) "
+                + "SELECT 'historial_estados', CAST(m AS DATE), 'historial_estados.ndjson.gz', 1000, 100000, LOCALTIMESTAMP "
+                + "FROM generate_series(DATE '2022-01-01', DATE '2023-12-01', INTERVAL '1 month') AS m");
+        jdbcTemplate.update("INSERT INTO analisis_creditos.solicitud_archivada (tabla, id_solicitud, mes, desplazamiento, longitud, filas) "
+                + "SELECT 'historial_estados', i, DATE '2022-01-01' + CAST(i % 24 AS INTEGER) * INTERVAL '1 month', i * 100, 100, 2 "
+                + "FROM generate_series(1, ?) AS i", SOLICITUDES);
+        jdbcTemplate.execute("VACUUM ANALYZE");
+    }
+
+    private void sinConfirmar(Runnable accion) {
+        transactionTemplate.executeWithoutResult(status -> {
+            accion.run();
+            status.setRollbackOnly();
+        });
+    }
+
+    private JsonNode explain(Connection connection, QueryInfo consulta) throws Exception {
+        try (PreparedStatement statement = connection.prepareStatement("EXPLAIN (FORMAT JSON) " + consulta.getQuery())) {
+            List<List<ParameterSetOperation>> parametros = consulta.getParametersList();
+            if (!parametros.isEmpty()) {
+                for (ParameterSetOperation operacion : parametros.get(0)) {
+                    operacion.getMethod().invoke(statement, operacion.getArgs());
+                }
+            }
+            try (ResultSet resultSet = statement.executeQuery()) {
+                resultSet.next();
+                return objectMapper.readTree(resultSet.getString(1));
+            }
+        }
+    }
+
+    private void buscarSeqScan(JsonNode nodo, Set<String> vacias, Set<String> secuenciales) {
+        String relacion = nodo.path("Relation Name").asText();
+        if ("Seq Scan".equals(nodo.path("Node Type").asText()) && !vacias.contains(relacion)
+                && TABLAS_GRANDES.contains(PARTICION.matcher(relacion).replaceFirst(""))) {
+            secuenciales.add(relacion);
+        }
+        for (JsonNode hijo : nodo.path("Plans")) {
+            buscarSeqScan(hijo, vacias, secuenciales);
+        }
+    }
+
+    private static Set<String> metodosDeclarados(Class<?>... repositorios) {
+        return Arrays.stream(repositorios)
+                .flatMap(repositorio -> Arrays.stream(repositorio.getDeclaredMethods())
+                        .filter(metodo -> Modifier.isPublic(metodo.getModifiers()) && !metodo.isSynthetic() && !metodo.isDefault())
+                        .map(Method::getName)
+                        .map(nombre -> repositorio.getSimpleName() + "." + nombre))
+                .collect(Collectors.toCollection(TreeSet::new));
+    }
+
+    static class CapturaSql implements QueryExecutionListener {
+
+        private final List<QueryInfo> consultas = Collections.synchronizedList(new ArrayList<>());
+
+        @Override
+        public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        }
+
+        @Override
+        public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+            for (QueryInfo queryInfo : queryInfoList) {
+                consultas.add(queryInfo);
+            }
+        }
+
+        void limpiar() {
+            consultas.clear();
+        }
+
+        List<QueryInfo> consultas() {
+            return new ArrayList<>(consultas);
+        }
+    }
+
+    @TestConfiguration
+    static class CapturaSqlConfig {
+
+        @Bean
+        CapturaSql capturaSql() {
+            return new CapturaSql();
+        }
+
+        @Bean
+        static BeanPostProcessor capturaSqlDataSourcePostProcessor(ObjectProvider<CapturaSql> capturaSql) {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    if (bean instanceof DataSource dataSource) {
+                        return ProxyDataSourceBuilder.create(dataSource).name(beanName).listener(capturaSql.getObject()).build();
+                    }
+                    return bean;
+                }
+            };
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,278 @@
+package com.banquito.originacion.analisis.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import com.banquito.originacion.analisis.archivo.ArchivoHistorico;
+import com.banquito.originacion.analisis.archivo.EscritorArchivo;
+import com.banquito.originacion.analisis.support.PostgresEmbebido;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+// Mantenimiento de particiones contra PostgreSQL embebido: archivo de meses cerrados (y su reversión si la partición
+// cambia mientras se escribe) y creación de meses cuyas filas ya habían caído en la partición por defecto
+@SpringBootTest(properties = {
+        "spring.flyway.enabled=true",
+        "spring.jpa.hibernate.ddl-auto=validate",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.PostgreSQLDialect",
+        "analisis.historial.lock.advisory=true",
+        "analisis.particiones.meses-adelantados=5",
+        "analisis.archivo.enabled=true",
+        "analisis.archivo.meses-retencion=12",
+        "analisis.archivo.lock-timeout-ms=500"
+})
+@AutoConfigureMockMvc
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@ExtendWith(PostgresEmbebido.class)
+class ArchivoParticionesTest {
+
+    private static final int SOLICITUDES_CERRADAS = 5;
+    private static final int SOLICITUD_CONSULTADA = 3;
+    private static final int SOLICITUD_ABIERTA = 6;
+    private static final int SOLICITUD_ADELANTADA = 20;
+
+    private static Path directorio;
+    // Respuestas de la solicitud consultada antes de archivar: deben repetirse desde el archivo
+    private static final List<JsonNode> antes = new ArrayList<>();
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ParticionesService particionesService;
+
+    @Autowired
+    private ArchivoHistoricoInterrumpido archivoHistorico;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @TestConfiguration
+    static class Configuracion {
+
+        @Bean
+        @Primary
+        ArchivoHistoricoInterrumpido archivoHistoricoInterrumpido(@Value("${analisis.archivo.directorio}") String directorio) {
+            return new ArchivoHistoricoInterrumpido(directorio);
+        }
+    }
+
+    // Permite modificar la partición entre la escritura del archivo y el DETACH
+    static class ArchivoHistoricoInterrumpido extends ArchivoHistorico {
+
+        private volatile Consumer<String> antesDePublicar = nombre -> {
+        };
+
+        ArchivoHistoricoInterrumpido(String directorio) {
+            super(directorio);
+        }
+
+        @Override
+        public void publicar(EscritorArchivo escritor, String nombre) throws IOException {
+            antesDePublicar.accept(nombre);
+            super.publicar(escritor, nombre);
+        }
+    }
+
+    @BeforeAll
+    static void crearDirectorio() throws IOException {
+        directorio = Files.createTempDirectory("archivo-particiones");
+    }
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        PostgresEmbebido.registrar(registry);
+        registry.add("analisis.archivo.directorio", () -> directorio.toString());
+    }
+
+    @BeforeEach
+    void crearMeses() throws Exception {
+        if (!antes.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.execute("SELECT analisis_creditos.crear_particion_mensual(t, CAST(m AS DATE)) "
+                + "FROM (VALUES ('historial_estados'), ('observacion_analistas')) x(t), "
+                + "generate_series(DATE '2024-01-01', DATE '2024-06-01', INTERVAL '1 month') m");
+        // Borrador en enero, EnRevision en febrero y Aprobada en marzo; abril queda vacío y la solicitud abierta de mayo
+        // detiene el archivo en ese mes
+        jdbcTemplate.update("INSERT INTO analisis_creditos.historial_estados "
+                + "(id_historial, id_solicitud, estado, fecha_hora, usuario, motivo, version) "
+                + "SELECT s * 10 + k, s, (ARRAY['Borrador', 'EnRevision', 'Aprobada'])[k + 1], "
+                + "TIMESTAMP '2024-01-10 09:00' + k * INTERVAL '1 month' + s * INTERVAL '1 hour', 'analista.archivo', "
+                + "'Transición registrada por el test del archivo', k + 1 FROM generate_series(1, ?) s, generate_series(0, 2) k",
+                SOLICITUDES_CERRADAS);
+        jdbcTemplate.update("INSERT INTO analisis_creditos.historial_estados VALUES "
+                + "(900, ?, 'Borrador', TIMESTAMP '2024-05-10 09:00', 'analista.archivo', 'Solicitud sin cerrar', 1)", SOLICITUD_ABIERTA);
+        jdbcTemplate.update("INSERT INTO analisis_creditos.observacion_analistas (id_solicitud, usuario, fecha_hora, razon_intervencion, version) "
+                + "SELECT s, 'analista.archivo', TIMESTAMP '2024-02-15 09:00' + s * INTERVAL '1 hour', 'Observación ' || s, 1 "
+                + "FROM generate_series(1, ?) s", SOLICITUDES_CERRADAS);
+        jdbcTemplate.update("INSERT INTO analisis_creditos.observacion_analistas (id_solicitud, usuario, fecha_hora, razon_intervencion, version) "
+                + "VALUES (?, 'analista.archivo', TIMESTAMP '2024-05-15 09:00', 'Observación sin cerrar', 1)", SOLICITUD_ABIERTA);
+        jdbcTemplate.update("INSERT INTO analisis_creditos.solicitud_estado_actual "
+                + "(id_solicitud, id_historial, estado, fecha_hora, usuario, motivo, version) "
+                + "SELECT DISTINCT ON (id_solicitud) id_solicitud, id_historial, estado, fecha_hora, usuario, motivo, version "
+                + "FROM analisis_creditos.historial_estados ORDER BY id_solicitud, fecha_hora DESC");
+
+        antes.add(leer("/api/historial-estados/solicitud/" + SOLICITUD_CONSULTADA));
+        antes.add(leer("/api/observaciones-analistas/solicitud/" + SOLICITUD_CONSULTADA));
+        antes.add(objectMapper.valueToTree(recorrerTimeline(SOLICITUD_CONSULTADA)));
+    }
+
+    @Test
+    @Order(1)
+    void unCambioEntreLaEscrituraYElDetachRevierteElArchivoDelMes() {
+        archivoHistorico.antesDePublicar = nombre -> {
+            if (nombre.endsWith("historial_estados_2024_01.ndjson.gz")) {
+                jdbcTemplate.update("UPDATE analisis_creditos.historial_estados SET version = version + 100 WHERE id_historial = 10");
+            }
+        };
+        try {
+            particionesService.archivarParticiones();
+        } finally {
+            archivoHistorico.antesDePublicar = nombre -> {
+            };
+            jdbcTemplate.update("UPDATE analisis_creditos.historial_estados SET version = version - 100 WHERE id_historial = 10");
+        }
+
+        // El rollback vuelve a adjuntar enero, no registra nada y borra el archivo; los meses siguientes esperan
+        assertTrue(adjunta("historial_estados_2024_01"));
+        assertTrue(adjunta("historial_estados_2024_02"));
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM analisis_creditos.particion_archivada "
+                + "WHERE tabla = 'historial_estados'", Integer.class));
+        assertFalse(Files.exists(directorio.resolve("historial_estados/historial_estados_2024_01.ndjson.gz")));
+        assertEquals(3 * SOLICITUDES_CERRADAS + 1, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM analisis_creditos.historial_estados", Integer.class));
+    }
+
+    @Test
+    @Order(2)
+    void losMesesArchivadosSeEliminanYSiguenVisiblesPorSolicitud() throws Exception {
+        particionesService.archivarParticiones();
+
+        for (String mes : List.of("2024_01", "2024_02", "2024_03", "2024_04")) {
+            assertNull(jdbcTemplate.queryForObject("SELECT to_regclass(?)::text", String.class,
+                    "analisis_creditos.historial_estados_" + mes));
+            assertNull(jdbcTemplate.queryForObject("SELECT to_regclass(?)::text", String.class,
+                    "analisis_creditos.observacion_analistas_" + mes));
+        }
+        assertTrue(adjunta("historial_estados_2024_05"));
+        assertTrue(adjunta("observacion_analistas_2024_05"));
+        assertEquals(8, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM analisis_creditos.particion_archivada", Integer.class));
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM analisis_creditos.historial_estados", Integer.class));
+
+        assertEquals(antes.get(0), leer("/api/historial-estados/solicitud/" + SOLICITUD_CONSULTADA));
+        assertEquals(antes.get(1), leer("/api/observaciones-analistas/solicitud/" + SOLICITUD_CONSULTADA));
+        List<JsonNode> timeline = recorrerTimeline(SOLICITUD_CONSULTADA);
+        assertEquals(4, timeline.size());
+        assertEquals(antes.get(2), objectMapper.valueToTree(timeline));
+    }
+
+    @Test
+    @Order(3)
+    void lasFilasDeUnMesEnLaParticionPorDefectoPasanASuParticion() throws Exception {
+        LocalDate mes = LocalDate.now().withDayOfMonth(1).plusMonths(5);
+        String sufijo = String.format("%d_%02d", mes.getYear(), mes.getMonthValue());
+        jdbcTemplate.update("INSERT INTO analisis_creditos.historial_estados VALUES "
+                + "(950, ?, 'Borrador', ?, 'analista.archivo', 'Fecha sin partición', 1)", SOLICITUD_ADELANTADA, mes.atTime(9, 0));
+        jdbcTemplate.update("INSERT INTO analisis_creditos.observacion_analistas (id_solicitud, usuario, fecha_hora, razon_intervencion, version) "
+                + "VALUES (?, 'analista.archivo', ?, 'Observación adelantada', 1)", SOLICITUD_ADELANTADA, mes.atTime(10, 0));
+        assertEquals(1, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM analisis_creditos.historial_estados_default", Integer.class));
+
+        // Mientras otra sesión retiene la partición por defecto, el mes no se crea y queda en el gauge
+        try (Connection conexion = PostgresEmbebido.actual().getPostgresDatabase().getConnection()) {
+            conexion.setAutoCommit(false);
+            try (Statement statement = conexion.createStatement()) {
+                statement.execute("LOCK TABLE analisis_creditos.historial_estados_default IN ACCESS SHARE MODE");
+                particionesService.crearParticiones();
+            }
+            conexion.rollback();
+        }
+        assertTrue(meterRegistry.get("analisis.particiones.fallidas").gauge().value() >= 1);
+        assertFalse(adjunta("historial_estados_" + sufijo));
+        assertTrue(adjunta("observacion_analistas_" + sufijo));
+
+        particionesService.crearParticiones();
+
+        assertEquals(0, meterRegistry.get("analisis.particiones.fallidas").gauge().value());
+        assertTrue(adjunta("historial_estados_" + sufijo));
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM analisis_creditos.historial_estados_default", Integer.class));
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM analisis_creditos.observacion_analistas_default", Integer.class));
+        assertEquals(1, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM analisis_creditos.historial_estados_" + sufijo, Integer.class));
+        assertEquals(950, leer("/api/historial-estados/solicitud/" + SOLICITUD_ADELANTADA).path(0).path("idHistorial").asInt());
+        // La columna generada de búsqueda se recalcula al mover la fila
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM analisis_creditos.observacion_analistas_" + sufijo
+                + " WHERE razon_tsv @@ to_tsquery('spanish', 'adelantada')", Integer.class));
+    }
+
+    private boolean adjunta(String particion) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject("SELECT EXISTS (SELECT 1 FROM pg_inherits i "
+                + "JOIN pg_class c ON c.oid = i.inhrelid WHERE c.relname = ?)", Boolean.class, particion));
+    }
+
+    private JsonNode leer(String ruta) throws Exception {
+        return objectMapper.readTree(mockMvc.perform(get(ruta)).andExpect(status().isOk()).andReturn().getResponse().getContentAsString());
+    }
+
+    private List<JsonNode> recorrerTimeline(int idSolicitud) throws Exception {
+        List<JsonNode> eventos = new ArrayList<>();
+        String cursor = null;
+        int paginas = 0;
+        do {
+            MockHttpServletRequestBuilder request = get("/api/solicitudes/" + idSolicitud + "/timeline").param("size", "2");
+            if (cursor != null) {
+                request.param("cursor", cursor);
+            }
+            JsonNode pagina = objectMapper.readTree(mockMvc.perform(request).andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString());
+            pagina.path("content").forEach(eventos::add);
+            cursor = pagina.path("nextCursor").isNull() ? null : pagina.path("nextCursor").asText();
+        } while (cursor != null && ++paginas < 20);
+        return eventos;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,67 @@
+package com.banquito.originacion.analisis.service;
+
+import static com.banquito.originacion.analisis.support.HistorialEstadosFixtures.nuevo;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.banquito.originacion.analisis.cache.EstadoActual;
+import com.banquito.originacion.analisis.cache.EstadoActualCache;
+import com.banquito.originacion.analisis.concurrency.PrecondicionVersion;
+import com.banquito.originacion.analisis.enums.EstadoHistorialEnum;
+import com.banquito.originacion.analisis.model.HistorialEstados;
+
+// Ediciones y borrados no toman el lock de la solicitud: la caché del estado actual debe quedar igual que la base
+@SpringBootTest
+class EstadoActualCacheEscriturasTest {
+
+    private static final int SOLICITUD_EDITADA = 9601;
+    private static final int SOLICITUD_BORRADA = 9602;
+
+    @Autowired
+    private HistorialEstadosService service;
+
+    @Autowired
+    private SolicitudEstadoActualService solicitudEstadoActualService;
+
+    @Autowired
+    private EstadoActualCache cache;
+
+    @Test
+    void laEdicionDelUltimoRegistroReemplazaElEstadoEnCache() {
+        service.save(nuevo(SOLICITUD_EDITADA, EstadoHistorialEnum.Borrador));
+        HistorialEstados ultimo = service.save(nuevo(SOLICITUD_EDITADA, EstadoHistorialEnum.EnRevision));
+        assertEquals(EstadoHistorialEnum.EnRevision, service.findEstadoActual(SOLICITUD_EDITADA).orElseThrow().estado());
+        assertTrue(cache.get(SOLICITUD_EDITADA).isPresent(), "El alta guarda el estado en caché al confirmar");
+
+        HistorialEstados cambios = new HistorialEstados();
+        cambios.setEstado(EstadoHistorialEnum.Aprobada);
+        service.partialUpdate(ultimo.getIdHistorial(), cambios, PrecondicionVersion.NINGUNA);
+
+        assertTrue(cache.get(SOLICITUD_EDITADA).isEmpty());
+        assertEquals(EstadoHistorialEnum.Aprobada, service.findEstadoActual(SOLICITUD_EDITADA).orElseThrow().estado());
+    }
+
+    @Test
+    void unaLecturaAnteriorAlBorradoNoVuelveAGuardarElEstadoBorrado() {
+        service.save(nuevo(SOLICITUD_BORRADA, EstadoHistorialEnum.Borrador));
+        HistorialEstados ultimo = service.save(nuevo(SOLICITUD_BORRADA, EstadoHistorialEnum.EnRevision));
+        cache.invalidate(SOLICITUD_BORRADA);
+
+        // Lector sin caché: toma la generación y lee la proyección antes de que el borrado se confirme
+        long generacion = cache.generacion(SOLICITUD_BORRADA);
+        EstadoActual leido = EstadoActual.of(solicitudEstadoActualService.findById(SOLICITUD_BORRADA).orElseThrow());
+        service.deleteById(ultimo.getIdHistorial());
+        cache.put(SOLICITUD_BORRADA, leido, generacion);
+
+        assertTrue(cache.get(SOLICITUD_BORRADA).isEmpty(), "La caché conservó el registro borrado");
+        EstadoActual actual = service.findEstadoActual(SOLICITUD_BORRADA).orElseThrow();
+        assertEquals(EstadoHistorialEnum.Borrador, actual.estado());
+        // La siguiente transición se valida contra el estado que quedó en la base
+        HistorialEstados siguiente = service.save(nuevo(SOLICITUD_BORRADA, EstadoHistorialEnum.EnRevision));
+        assertEquals(actual.version() + 1, siguiente.getVersion());
+    }
+}
\ No newline at end of file
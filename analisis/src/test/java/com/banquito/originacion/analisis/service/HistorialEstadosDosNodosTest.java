@@ -0,0 +1,151 @@
+package com.banquito.originacion.analisis.service;
+
+import static com.banquito.originacion.analisis.support.HistorialEstadosFixtures.nuevo;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.banquito.originacion.analisis.AnalisisApplication;
+import com.banquito.originacion.analisis.enums.EstadoHistorialEnum;
+import com.banquito.originacion.analisis.exception.InvalidTransitionException;
+import com.banquito.originacion.analisis.model.HistorialEstados;
+import com.banquito.originacion.analisis.service.HistorialEstadosService.ResultadoLote;
+import com.banquito.originacion.analisis.support.PostgresEmbebido;
+
+// Dos instancias de la aplicación sobre la misma base: la caché del estado actual de un nodo no ve lo que
+// confirma el otro, y las transiciones deben validarse contra la base para no bifurcar el historial
+class HistorialEstadosDosNodosTest {
+
+    private static final int SOLICITUD_SAVE = 9201;
+    private static final int SOLICITUD_LOTE = 9202;
+    private static final int SOLICITUDES_CONCURRENTES = 4;
+    private static final int TRANSICIONES_POR_HILO = 30;
+
+    @Test
+    void unNodoConElEstadoEnCacheValidaContraLoQueConfirmoElOtro() {
+        String url = "jdbc:h2:mem:dos-nodos;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE;"
+                + "INIT=CREATE SCHEMA IF NOT EXISTS analisis_creditos";
+        try (ConfigurableApplicationContext nodoA = iniciarNodo("spring.datasource.url=" + url);
+                ConfigurableApplicationContext nodoB = iniciarNodo("spring.datasource.url=" + url, "spring.jpa.hibernate.ddl-auto=none")) {
+            HistorialEstadosService serviceA = nodoA.getBean(HistorialEstadosService.class);
+            HistorialEstadosService serviceB = nodoB.getBean(HistorialEstadosService.class);
+
+            serviceA.save(nuevo(SOLICITUD_SAVE, EstadoHistorialEnum.Borrador));
+            assertEquals(EstadoHistorialEnum.Borrador, serviceA.findEstadoActual(SOLICITUD_SAVE).orElseThrow().estado());
+            serviceB.save(nuevo(SOLICITUD_SAVE, EstadoHistorialEnum.EnRevision));
+
+            // El nodo A sigue con Borrador en caché, pero la solicitud ya está en revisión
+            assertEquals(EstadoHistorialEnum.Borrador, serviceA.findEstadoActual(SOLICITUD_SAVE).orElseThrow().estado());
+            assertThrows(InvalidTransitionException.class, () -> serviceA.save(nuevo(SOLICITUD_SAVE, EstadoHistorialEnum.EnRevision)));
+            HistorialEstados aprobada = serviceA.save(nuevo(SOLICITUD_SAVE, EstadoHistorialEnum.Aprobada));
+            assertEquals(3, aprobada.getVersion());
+
+            serviceB.save(nuevo(SOLICITUD_LOTE, EstadoHistorialEnum.Borrador));
+            assertEquals(EstadoHistorialEnum.Borrador, serviceA.findEstadoActual(SOLICITUD_LOTE).orElseThrow().estado());
+            serviceB.save(nuevo(SOLICITUD_LOTE, EstadoHistorialEnum.EnRevision));
+
+            List<ResultadoLote> resultados = serviceA.saveAll(List.of(
+                    nuevo(SOLICITUD_LOTE, EstadoHistorialEnum.EnRevision),
+                    nuevo(SOLICITUD_LOTE, EstadoHistorialEnum.Rechazada)));
+            assertFalse(resultados.get(0).isAceptado());
+            assertTrue(resultados.get(1).isAceptado());
+            assertEquals(3, resultados.get(1).historial().getVersion());
+
+            assertSinBifurcaciones(serviceB, SOLICITUD_SAVE);
+            assertSinBifurcaciones(serviceB, SOLICITUD_LOTE);
+        }
+    }
+
+    @Test
+    @ExtendWith(PostgresEmbebido.class)
+    void dosNodosConcurrentesNoRepitenVersiones() throws Exception {
+        try (ConfigurableApplicationContext nodoA = iniciarNodo(propiedadesPostgres());
+                ConfigurableApplicationContext nodoB = iniciarNodo(propiedadesPostgres());
+                ExecutorService hilos = Executors.newFixedThreadPool(8)) {
+            List<HistorialEstadosService> nodos = List.of(
+                    nodoA.getBean(HistorialEstadosService.class), nodoB.getBean(HistorialEstadosService.class));
+            for (int i = 1; i <= SOLICITUDES_CONCURRENTES; i++) {
+                nodos.get(0).save(nuevo(i, EstadoHistorialEnum.Borrador));
+            }
+
+            // Cada hilo propone la transición siguiente según la caché de su nodo, que a menudo está desactualizada
+            AtomicInteger aceptadas = new AtomicInteger();
+            List<Future<?>> tareas = new ArrayList<>();
+            for (int hilo = 0; hilo < 8; hilo++) {
+                HistorialEstadosService service = nodos.get(hilo % 2);
+                int idSolicitud = hilo % SOLICITUDES_CONCURRENTES + 1;
+                tareas.add(hilos.submit(() -> {
+                    for (int i = 0; i < TRANSICIONES_POR_HILO; i++) {
+                        EstadoHistorialEnum actual = service.findEstadoActual(idSolicitud).orElseThrow().estado();
+                        EstadoHistorialEnum siguiente = actual == EstadoHistorialEnum.Borrador
+                                ? EstadoHistorialEnum.EnRevision : EstadoHistorialEnum.Borrador;
+                        try {
+                            service.save(nuevo(idSolicitud, siguiente));
+                            aceptadas.incrementAndGet();
+                        } catch (InvalidTransitionException ex) {
+                            // Otro nodo llegó antes: la transición se rechaza en lugar de bifurcar el historial
+                        }
+                    }
+                }));
+            }
+            for (Future<?> tarea : tareas) {
+                tarea.get();
+            }
+
+            assertTrue(aceptadas.get() > 0);
+            int total = 0;
+            for (int i = 1; i <= SOLICITUDES_CONCURRENTES; i++) {
+                total += assertSinBifurcaciones(nodos.get(0), i) - 1;
+            }
+            assertEquals(aceptadas.get(), total);
+        }
+    }
+
+    // Versiones 1..n sin repetir y cada registro es una transición válida desde el anterior
+    private static int assertSinBifurcaciones(HistorialEstadosService service, Integer idSolicitud) {
+        List<HistorialEstados> historial = new ArrayList<>(service.findByIdSolicitud(idSolicitud));
+        historial.sort(Comparator.comparing(HistorialEstados::getVersion));
+        for (int i = 0; i < historial.size(); i++) {
+            assertEquals(i + 1, historial.get(i).getVersion(), "Versión repetida o salteada en la solicitud " + idSolicitud);
+            if (i > 0) {
+                assertTrue(service.validarTransicionEstado(historial.get(i - 1).getEstado(), historial.get(i).getEstado()),
+                        "Transición inválida en la versión " + (i + 1) + " de la solicitud " + idSolicitud);
+            }
+        }
+        return historial.size();
+    }
+
+    // Como argumentos de línea de comandos: las propiedades por defecto del builder no reemplazan a las del perfil test
+    private static ConfigurableApplicationContext iniciarNodo(String... propiedades) {
+        return new SpringApplicationBuilder(AnalisisApplication.class)
+                .profiles("test")
+                .web(WebApplicationType.NONE)
+                .properties("logging.config=classpath:logback-test.xml")
+                .run(Arrays.stream(propiedades).map(propiedad -> "--" + propiedad).toArray(String[]::new));
+    }
+
+    private static String[] propiedadesPostgres() {
+        return Stream.concat(Arrays.stream(PostgresEmbebido.propiedades()), Stream.of(
+                "spring.flyway.enabled=true",
+                "spring.jpa.hibernate.ddl-auto=validate",
+                "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.PostgreSQLDialect",
+                "analisis.historial.lock.advisory=true")).toArray(String[]::new);
+    }
+}
\ No newline at end of file
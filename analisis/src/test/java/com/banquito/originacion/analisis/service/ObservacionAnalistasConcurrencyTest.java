@@ -0,0 +1,113 @@
+package com.banquito.originacion.analisis.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import com.banquito.originacion.analisis.concurrency.PrecondicionVersion;
+import com.banquito.originacion.analisis.exception.ObservacionAnalistasNotFoundException;
+import com.banquito.originacion.analisis.exception.PreconditionFailedException;
+import com.banquito.originacion.analisis.model.ObservacionAnalistas;
+
+// Varios clientes hacen lectura → modificación → escritura condicionada sobre el mismo registro; con @Version
+// ninguna escritura puede pisar a otra sin haber leído su resultado
+@SpringBootTest
+class ObservacionAnalistasConcurrencyTest {
+
+    private static final int HILOS = 8;
+    private static final int EDICIONES_POR_HILO = 5;
+
+    @Autowired
+    private ObservacionAnalistasService service;
+
+    @Test
+    void actualizacionesConcurrentesNoSePierden() throws Exception {
+        ObservacionAnalistas observacion = new ObservacionAnalistas();
+        observacion.setIdSolicitud(9301);
+        observacion.setUsuario("analista.concurrencia");
+        observacion.setFechaHora(LocalDateTime.now());
+        observacion.setRazonIntervencion("Observación editada de forma concurrente:");
+        Integer id = service.save(observacion).getIdObservacionAnalista();
+
+        CountDownLatch inicio = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(HILOS);
+        List<Future<Integer>> conflictos = new ArrayList<>();
+        for (int hilo = 0; hilo < HILOS; hilo++) {
+            int numeroHilo = hilo;
+            Callable<Integer> editor = () -> {
+                inicio.await();
+                int reintentos = 0;
+                for (int edicion = 0; edicion < EDICIONES_POR_HILO; edicion++) {
+                    String marca = " h" + numeroHilo + "e" + edicion;
+                    while (true) {
+                        ObservacionAnalistas leida = service.findById(id);
+                        ObservacionAnalistas cambios = new ObservacionAnalistas();
+                        cambios.setRazonIntervencion(leida.getRazonIntervencion() + marca);
+                        try {
+                            service.partialUpdate(id, cambios, new PrecondicionVersion(true, List.of(leida.getVersion())));
+                            break;
+                        } catch (PreconditionFailedException | OptimisticLockingFailureException ex) {
+                            reintentos++;
+                        }
+                    }
+                }
+                return reintentos;
+            };
+            conflictos.add(executor.submit(editor));
+        }
+        inicio.countDown();
+        int totalConflictos = 0;
+        for (Future<Integer> resultado : conflictos) {
+            totalConflictos += resultado.get();
+        }
+        executor.shutdown();
+
+        ObservacionAnalistas finalizada = service.findById(id);
+        for (int hilo = 0; hilo < HILOS; hilo++) {
+            for (int edicion = 0; edicion < EDICIONES_POR_HILO; edicion++) {
+                String marca = " h" + hilo + "e" + edicion;
+                assertTrue(finalizada.getRazonIntervencion().contains(marca), "Se perdió la edición" + marca);
+            }
+        }
+        // Cada edición confirmada incrementa la versión exactamente una vez
+        assertEquals(1 + HILOS * EDICIONES_POR_HILO, finalizada.getVersion());
+        assertTrue(totalConflictos > 0, "El escenario debería haber producido conflictos");
+    }
+
+    @Test
+    void actualizacionSinFilasDistingueVersionDeRegistroInexistente() {
+        ObservacionAnalistas observacion = new ObservacionAnalistas();
+        observacion.setIdSolicitud(9302);
+        observacion.setUsuario("analista.concurrencia");
+        observacion.setFechaHora(LocalDateTime.now());
+        observacion.setRazonIntervencion("Observación con versión desactualizada");
+        Integer id = service.save(observacion).getIdObservacionAnalista();
+        ObservacionAnalistas cambios = new ObservacionAnalistas();
+        cambios.setRazonIntervencion("Cambio sobre una versión anterior");
+
+        // El UPDATE no aplica en ningún caso; la consulta posterior decide entre 412 y 404
+        assertThrows(PreconditionFailedException.class,
+                () -> service.partialUpdate(id, cambios, new PrecondicionVersion(true, List.of(7L))));
+        assertThrows(ObservacionAnalistasNotFoundException.class,
+                () -> service.partialUpdate(Integer.MAX_VALUE, cambios, new PrecondicionVersion(true, List.of(1L))));
+        assertEquals(1, service.findById(id).getVersion());
+        ObservacionAnalistas actualizada = service.partialUpdate(id, cambios, PrecondicionVersion.NINGUNA);
+        assertEquals(2, actualizada.getVersion());
+        assertEquals(9302, actualizada.getIdSolicitud());
+        assertEquals("Cambio sobre una versión anterior", service.findById(id).getRazonIntervencion());
+    }
+}
\ No newline at end of file
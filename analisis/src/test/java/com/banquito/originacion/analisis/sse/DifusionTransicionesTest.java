@@ -0,0 +1,143 @@
+package com.banquito.originacion.analisis.sse;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter.SseEventBuilder;
+
+import com.banquito.originacion.analisis.enums.EstadoHistorialEnum;
+import com.banquito.originacion.analisis.outbox.EventoTransicion;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class DifusionTransicionesTest {
+
+    private static final Pattern ID = Pattern.compile("id:(\\S+)");
+    private static final Pattern NOMBRE = Pattern.compile("event:(\\S+)");
+
+    @Test
+    void entregaPorSolicitudYEstadoYReanudaDesdeElUltimoId() throws Exception {
+        DifusionTransiciones difusion = nuevaDifusion(16);
+        EmitterRegistro porEstado = new EmitterRegistro();
+        EmitterRegistro porSolicitud = new EmitterRegistro();
+        difusion.suscribir(porEstado, null, EstadoHistorialEnum.EnRevision, null);
+        difusion.suscribir(porSolicitud, 1, null, null);
+
+        difusion.publicar(List.of(
+                evento(1, EstadoHistorialEnum.Borrador, EstadoHistorialEnum.EnRevision),
+                evento(2, null, EstadoHistorialEnum.Borrador),
+                evento(3, EstadoHistorialEnum.EnRevision, EstadoHistorialEnum.Aprobada)));
+
+        // Por estado: la solicitud 1 entra en EnRevision y la 3 sale de él
+        String entrada = porEstado.siguiente();
+        assertTrue(entrada.contains("\"idSolicitud\":1"), entrada);
+        String salida = porEstado.siguiente();
+        assertTrue(salida.contains("\"idSolicitud\":3"), salida);
+        assertTrue(porSolicitud.siguiente().contains("\"idSolicitud\":1"));
+        assertNull(porSolicitud.eventos.poll(200, TimeUnit.MILLISECONDS), "Solo eventos de su solicitud");
+
+        // Reconexión con el id del primer evento: se repone solo lo posterior que corresponde al filtro
+        EmitterRegistro reanudado = new EmitterRegistro();
+        difusion.suscribir(reanudado, null, EstadoHistorialEnum.EnRevision, extraer(ID, entrada));
+        assertEquals(extraer(ID, salida), extraer(ID, reanudado.siguiente()));
+
+        // Un id desconocido (otro arranque) no se puede reponer
+        EmitterRegistro desconocido = new EmitterRegistro();
+        difusion.suscribir(desconocido, 1, null, "anterior-2");
+        assertEquals(DifusionTransiciones.EVENTO_REINICIO, extraer(NOMBRE, desconocido.siguiente()));
+        assertEquals(4, difusion.getSuscriptores());
+    }
+
+    @Test
+    void desconectaAlSuscriptorLentoSinFrenarALosDemas() throws Exception {
+        DifusionTransiciones difusion = nuevaDifusion(2);
+        EmitterBloqueado lento = new EmitterBloqueado();
+        EmitterRegistro rapido = new EmitterRegistro();
+        difusion.suscribir(lento, 7, null, null);
+        difusion.suscribir(rapido, null, EstadoHistorialEnum.EnRevision, null);
+
+        difusion.publicar(List.of(evento(7, EstadoHistorialEnum.Borrador, EstadoHistorialEnum.EnRevision)));
+        assertTrue(lento.enviando.await(5, TimeUnit.SECONDS));
+        rapido.siguiente();
+        // El primero quedó en el socket del cliente lento; dos llenan su cola y el siguiente la desborda
+        for (int i = 0; i < 3; i++) {
+            difusion.publicar(List.of(evento(7, EstadoHistorialEnum.Borrador, EstadoHistorialEnum.EnRevision)));
+            rapido.siguiente();
+        }
+        assertEquals(1, difusion.getSuscriptores(), "El suscriptor lento se retira");
+        lento.liberar.countDown();
+
+        difusion.publicar(List.of(evento(8, EstadoHistorialEnum.Borrador, EstadoHistorialEnum.EnRevision)));
+        assertTrue(rapido.siguiente().contains("\"idSolicitud\":8"));
+    }
+
+    private static DifusionTransiciones nuevaDifusion(int capacidad) {
+        return new DifusionTransiciones(new ObjectMapper().findAndRegisterModules(), new SimpleMeterRegistry(),
+                capacidad, 100, 60_000, 60_000);
+    }
+
+    private static EventoTransicion evento(Integer idSolicitud, EstadoHistorialEnum anterior, EstadoHistorialEnum estado) {
+        LocalDateTime ahora = LocalDateTime.now();
+        return new EventoTransicion(null, idSolicitud, idSolicitud * 10, anterior, estado, ahora, "analista.sse",
+                "Transición del test de difusión", 1, ahora);
+    }
+
+    private static String extraer(Pattern patron, String texto) {
+        Matcher matcher = patron.matcher(texto);
+        assertTrue(matcher.find(), texto);
+        return matcher.group(1);
+    }
+
+    private static String texto(SseEventBuilder builder) {
+        StringBuilder texto = new StringBuilder();
+        builder.build().forEach(parte -> texto.append(parte.getData()));
+        return texto.toString();
+    }
+
+    // Registra lo enviado en lugar de escribirlo en una respuesta HTTP
+    private static class EmitterRegistro extends SseEmitter {
+
+        final BlockingQueue<String> eventos = new LinkedBlockingQueue<>();
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            eventos.add(texto(builder));
+        }
+
+        String siguiente() throws InterruptedException {
+            String evento = eventos.poll(5, TimeUnit.SECONDS);
+            assertTrue(evento != null, "No llegó el evento esperado");
+            return evento;
+        }
+    }
+
+    // Cliente que no consume: el primer envío se queda bloqueado como en un socket lleno
+    private static class EmitterBloqueado extends SseEmitter {
+
+        final CountDownLatch enviando = new CountDownLatch(1);
+        final CountDownLatch liberar = new CountDownLatch(1);
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            enviando.countDown();
+            try {
+                liberar.await();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,49 @@
+package com.banquito.originacion.analisis.statemachine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.EnumSet;
+
+import org.junit.jupiter.api.Test;
+
+import com.banquito.originacion.analisis.config.TransicionesProperties;
+import com.banquito.originacion.analisis.enums.EstadoHistorialEnum;
+
+class EstadoHistorialStateMachineTest {
+
+    @Test
+    void reglasPorDefectoCoincidenConElFlujoOriginal() {
+        EstadoHistorialStateMachine machine = new EstadoHistorialStateMachine(new TransicionesProperties());
+
+        assertTrue(machine.esTransicionValida(EstadoHistorialEnum.Borrador, EstadoHistorialEnum.EnRevision));
+        assertTrue(machine.esTransicionValida(EstadoHistorialEnum.Borrador, EstadoHistorialEnum.Cancelada));
+        assertTrue(machine.esTransicionValida(EstadoHistorialEnum.EnRevision, EstadoHistorialEnum.Aprobada));
+        assertTrue(machine.esTransicionValida(EstadoHistorialEnum.EnRevision, EstadoHistorialEnum.Rechazada));
+        assertTrue(machine.esTransicionValida(EstadoHistorialEnum.EnRevision, EstadoHistorialEnum.Borrador));
+        assertFalse(machine.esTransicionValida(EstadoHistorialEnum.Borrador, EstadoHistorialEnum.Aprobada));
+        assertFalse(machine.esTransicionValida(EstadoHistorialEnum.Borrador, EstadoHistorialEnum.Borrador));
+        assertFalse(machine.esTransicionValida(null, EstadoHistorialEnum.Borrador));
+        for (EstadoHistorialEnum destino : EstadoHistorialEnum.values()) {
+            assertFalse(machine.esTransicionValida(EstadoHistorialEnum.Aprobada, destino));
+            assertFalse(machine.esTransicionValida(EstadoHistorialEnum.Rechazada, destino));
+            assertFalse(machine.esTransicionValida(EstadoHistorialEnum.Cancelada, destino));
+        }
+        assertTrue(machine.esEstadoFinal(EstadoHistorialEnum.Aprobada));
+        assertEquals(EstadoHistorialEnum.Borrador, machine.getEstadoInicial());
+    }
+
+    @Test
+    void reglasConfiguradasReemplazanLasPorDefecto() {
+        TransicionesProperties properties = new TransicionesProperties();
+        properties.getPermitidas().put(EstadoHistorialEnum.Borrador, EnumSet.of(EstadoHistorialEnum.Aprobada));
+
+        EstadoHistorialStateMachine machine = new EstadoHistorialStateMachine(properties);
+
+        assertTrue(machine.esTransicionValida(EstadoHistorialEnum.Borrador, EstadoHistorialEnum.Aprobada));
+        assertFalse(machine.esTransicionValida(EstadoHistorialEnum.Borrador, EstadoHistorialEnum.EnRevision));
+        assertTrue(machine.esEstadoFinal(EstadoHistorialEnum.EnRevision));
+        assertEquals(EnumSet.of(EstadoHistorialEnum.Aprobada), machine.getSiguientesEstados(EstadoHistorialEnum.Borrador));
+    }
+}
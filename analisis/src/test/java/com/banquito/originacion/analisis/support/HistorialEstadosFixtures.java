@@ -0,0 +1,23 @@
+package com.banquito.originacion.analisis.support;
+
+import com.banquito.originacion.analisis.enums.EstadoHistorialEnum;
+import com.banquito.originacion.analisis.model.HistorialEstados;
+
+// Historiales listos para HistorialEstadosService.save; los tests solo eligen la solicitud y el estado
+public final class HistorialEstadosFixtures {
+
+    public static final String USUARIO = "analista.test";
+    public static final String MOTIVO = "Transición registrada por un test";
+
+    private HistorialEstadosFixtures() {
+    }
+
+    public static HistorialEstados nuevo(Integer idSolicitud, EstadoHistorialEnum estado) {
+        HistorialEstados historial = new HistorialEstados();
+        historial.setIdSolicitud(idSolicitud);
+        historial.setEstado(estado);
+        historial.setUsuario(USUARIO);
+        historial.setMotivo(MOTIVO);
+        return historial;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,100 @@
+package com.banquito.originacion.analisis.support;
+
+import java.io.IOException;
+
+import org.junit.jupiter.api.extension.BeforeAllCallback;
+import org.junit.jupiter.api.extension.BeforeEachCallback;
+import org.junit.jupiter.api.extension.ConditionEvaluationResult;
+import org.junit.jupiter.api.extension.ExecutionCondition;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.springframework.test.context.DynamicPropertyRegistry;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+
+// PostgreSQL embebido para los tests que lo necesitan: uno por clase con @ExtendWith en la clase, o por test con
+// @ExtendWith en el método. PostgreSQL no arranca como root; en ese caso el test se omite, salvo que
+// analisis.test.postgres.requerido=true (perfil ci), donde falla para que un build como root no lo pase por alto
+public class PostgresEmbebido implements ExecutionCondition, BeforeAllCallback, BeforeEachCallback {
+
+    public static final String REQUERIDO = "analisis.test.postgres.requerido";
+
+    private static final ExtensionContext.Namespace NAMESPACE = ExtensionContext.Namespace.create(PostgresEmbebido.class);
+
+    // El del test en ejecución: surefire ejecuta las clases de a una
+    private static volatile EmbeddedPostgres actual;
+
+    @Override
+    public ConditionEvaluationResult evaluateExecutionCondition(ExtensionContext context) {
+        if (esRoot() && !Boolean.getBoolean(REQUERIDO)) {
+            return ConditionEvaluationResult.disabled("PostgreSQL no puede ejecutarse como root");
+        }
+        return ConditionEvaluationResult.enabled("PostgreSQL embebido disponible");
+    }
+
+    @Override
+    public void beforeAll(ExtensionContext context) throws IOException {
+        iniciar(context);
+    }
+
+    @Override
+    public void beforeEach(ExtensionContext context) throws IOException {
+        // Registrado en la clase, el de beforeAll sirve a todos sus tests
+        if (context.getStore(NAMESPACE).get(Instancia.class) == null) {
+            iniciar(context);
+        }
+    }
+
+    public static EmbeddedPostgres actual() {
+        EmbeddedPostgres postgres = actual;
+        if (postgres == null) {
+            throw new IllegalStateException("PostgreSQL embebido no iniciado: falta @ExtendWith(PostgresEmbebido.class)");
+        }
+        return postgres;
+    }
+
+    public static void registrar(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> actual().getJdbcUrl("postgres", "postgres"));
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "");
+        registry.add("spring.datasource.driver-class-name", () -> "org.postgresql.Driver");
+    }
+
+    // Para los contextos que el test arranca por su cuenta (varios nodos), en formato clave=valor
+    public static String[] propiedades() {
+        return new String[] {
+                "spring.datasource.url=" + actual().getJdbcUrl("postgres", "postgres"),
+                "spring.datasource.username=postgres",
+                "spring.datasource.password=",
+                "spring.datasource.driver-class-name=org.postgresql.Driver"
+        };
+    }
+
+    private static void iniciar(ExtensionContext context) throws IOException {
+        if (esRoot()) {
+            throw new IllegalStateException("PostgreSQL no puede ejecutarse como root y " + REQUERIDO
+                    + "=true: los tests con PostgreSQL deben ejecutarse con otro usuario");
+        }
+        context.getStore(NAMESPACE).put(Instancia.class, new Instancia(EmbeddedPostgres.builder().start()));
+    }
+
+    private static boolean esRoot() {
+        return "root".equals(System.getProperty("user.name"));
+    }
+
+    // El store lo cierra al terminar la clase o el test donde se inició
+    private static final class Instancia implements ExtensionContext.Store.CloseableResource {
+
+        private final EmbeddedPostgres postgres;
+
+        Instancia(EmbeddedPostgres postgres) {
+            this.postgres = postgres;
+            actual = postgres;
+        }
+
+        @Override
+        public void close() throws IOException {
+            actual = null;
+            postgres.close();
+        }
+    }
+}
\ No newline at end of file
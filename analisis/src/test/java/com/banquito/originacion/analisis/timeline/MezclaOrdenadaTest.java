@@ -0,0 +1,19 @@
+package com.banquito.originacion.analisis.timeline;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Comparator;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class MezclaOrdenadaTest {
+
+    @Test
+    void mezclaRespetandoElOrdenYElLimite() {
+        List<List<Integer>> fuentes = List.of(List.of(9, 7, 3), List.of(8, 7, 2, 1), List.of(), List.of(6));
+
+        assertEquals(List.of(9, 8, 7, 7, 6, 3, 2, 1), MezclaOrdenada.mezclar(fuentes, Comparator.reverseOrder(), 20));
+        assertEquals(List.of(9, 8, 7), MezclaOrdenada.mezclar(fuentes, Comparator.reverseOrder(), 3));
+    }
+}
\ No newline at end of file